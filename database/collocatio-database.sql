@@ -16,6 +16,7 @@ CREATE TABLE IF NOT EXISTS `col_default_test`.`col_collocatio` (
   `PALABRA1` VARCHAR(500) NOT NULL COMMENT 'Palabra 1 de la tripleta',
   `PALABRA2` VARCHAR(500) NOT NULL COMMENT 'Palabra 1 de la tripleta',
   `INFOMUTUA` DOUBLE NULL COMMENT 'Valor información mutua',
+  `ERRORINFOMUTUA` DOUBLE NULL COMMENT 'Error estimado del valor de información mutua si se ha analizado una muestra',
   PRIMARY KEY (`ID`))
 ENGINE = InnoDB
 COMMENT = 'Colocaciones - test';
@@ -59,6 +60,7 @@ CREATE TABLE IF NOT EXISTS `col_default`.`col_collocatio` (
   `PALABRA1` VARCHAR(500) NOT NULL COMMENT 'Palabra 1 de la tripleta',
   `PALABRA2` VARCHAR(500) NOT NULL COMMENT 'Palabra 1 de la tripleta',
   `INFOMUTUA` DOUBLE NULL COMMENT 'Valor información mutua',
+  `ERRORINFOMUTUA` DOUBLE NULL COMMENT 'Error estimado del valor de información mutua si se ha analizado una muestra',
   PRIMARY KEY (`ID`))
 ENGINE = InnoDB
 COMMENT = 'Colocaciones';
@@ -83,6 +85,9 @@ FLUSH PRIVILEGES;
 
 INSERT INTO `col_default`.`col_registro` (NOMBRE, DESCRIPCION, FECALT) VALUES('col_default', 'Base de datos por defecto', now());
 
+-- Las bases de datos creadas antes de añadir la columna ERRORINFOMUTUA sólo la necesitan para guardar extracciones por muestreo:
+-- ALTER TABLE `col_default`.`col_collocatio` ADD COLUMN `ERRORINFOMUTUA` DOUBLE NULL COMMENT 'Error estimado del valor de información mutua si se ha analizado una muestra' AFTER `INFOMUTUA`;
+
 SET SQL_MODE=@OLD_SQL_MODE;
 SET FOREIGN_KEY_CHECKS=@OLD_FOREIGN_KEY_CHECKS;
 SET UNIQUE_CHECKS=@OLD_UNIQUE_CHECKS;
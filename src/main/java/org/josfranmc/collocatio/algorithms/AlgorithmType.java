@@ -12,7 +12,7 @@ public enum AlgorithmType {
 	MUTUAL_INFORMATION, 
 	
 	/**
-	 * Ejemplo de otro algoritmo
+	 * Algoritmo para el cálculo del valor de información mutua de palabras que aparecen próximas en el texto, sin análisis sintáctico
 	 */
-	ANOTHER_ALGORITHM,
+	WINDOW_COOCCURRENCE,
 }
\ No newline at end of file
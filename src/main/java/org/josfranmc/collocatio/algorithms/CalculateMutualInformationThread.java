@@ -7,10 +7,12 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
+import org.josfranmc.collocatio.triples.CloseableIterator;
 import org.josfranmc.collocatio.triples.Triple;
 import org.josfranmc.collocatio.triples.TripleEvents;
 
@@ -31,6 +33,11 @@ public class CalculateMutualInformationThread implements Runnable{
 	private static final Logger log = Logger.getLogger(CalculateMutualInformationThread.class);
 	
 	private static final long INSERTS_LIMIT = 5000;
+	
+	/**
+	 * Valor de la distribución normal para un intervalo de confianza del 95%
+	 */
+	private static final double CONFIDENCE_Z = 1.96;
 
 	/**
 	 * Datos sobre los que realizar los cálculos para obtener el valor de información mutua
@@ -47,6 +54,11 @@ public class CalculateMutualInformationThread implements Runnable{
 	 */
 	private boolean saveDB;
 
+	/**
+	 * Si las tripletas proceden de una muestra del corpus, en cuyo caso se calcula y guarda el error estimado del valor de información mutua
+	 */
+	private boolean sampled;
+
 	/**
 	 * Contador para saber el número total de inserciones realizadas
 	 */
@@ -70,16 +82,22 @@ public class CalculateMutualInformationThread implements Runnable{
 		this.insertsCount = 0;
 		this.insertsTotal = 0;
 		this.saveDB = (connection == null) ? false : true;
+		this.sampled = data.getSampleRate() < 1;
 	}
 
 	/**
-	 * Obtiene un PreparedStatement para realizar la inserción de las tripletas.<br>Permite obtener el ID del último registro insertado.
+	 * Obtiene un PreparedStatement para realizar la inserción de las tripletas.<br>Permite obtener el ID del último registro insertado.<p>
+	 * Si las tripletas proceden de una muestra del corpus se guarda además el error estimado del valor de información mutua. Sólo en este
+	 * caso se utiliza la columna ERRORINFOMUTUA, de forma que las bases de datos creadas antes de añadir dicha columna sirven para las
+	 * extracciones completas.
 	 * @return el PreparedStatement listo para usarse
 	 */
 	private PreparedStatement getPreparedStatementToCollocations() {
 		PreparedStatement psCollocatio = null;
 		try {
-			final String insertSql = "insert into col_collocatio(DEPENDENCIA, PALABRA1, PALABRA2, INFOMUTUA) VALUES(?,?,?,?)";
+			final String insertSql = isSampled()
+					? "insert into col_collocatio(DEPENDENCIA, PALABRA1, PALABRA2, INFOMUTUA, ERRORINFOMUTUA) VALUES(?,?,?,?,?)"
+					: "insert into col_collocatio(DEPENDENCIA, PALABRA1, PALABRA2, INFOMUTUA) VALUES(?,?,?,?)";
 			psCollocatio = getConnection().prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS);
 		} catch (SQLException e) {
 			e.printStackTrace();
@@ -117,13 +135,21 @@ public class CalculateMutualInformationThread implements Runnable{
 		double P_A_given_B = 0;
 		double P_C_given_A = 0;
 		double mutualInformation = 0;
+		double mutualInformationError = 0;
+		double totalError = 0;
+		// número de tripletas recorridas; se cuentan al recorrerlas porque el tamaño del mapa puede requerir un nuevo recorrido
+		long totalProcessed = 0;
 
 		PreparedStatement pstatement = getPreparedStatementToCollocations();
+		Iterator<Entry<Triple, TripleEvents>> triples = null;
 
 		try {
 			log.info("Inicio hilo para dependencia " + data.getDependency());
-			for (Entry<Triple, TripleEvents> entry : data.getTriplesMap().entrySet()) {
+			triples = data.getTriplesMap().entrySet().iterator();
+			while (triples.hasNext()) {
+				Entry<Triple, TripleEvents> entry = triples.next();
 				P_A_B_C = P_B = P_A_given_B = P_C_given_A = mutualInformation = 0;
+				totalProcessed++;
 				
 				// tripleta sobre la que calcular su valor de inforamción mutua
 				triple = entry.getKey();    
@@ -149,8 +175,14 @@ public class CalculateMutualInformationThread implements Runnable{
 				mutualInformation = new BigDecimal(mutualInformation).setScale(1, RoundingMode.HALF_EVEN).doubleValue();
 				triple.setMutualInformation(mutualInformation);
 				
+				if (isSampled()) {
+					mutualInformationError = getMutualInformationError(totalTriple, totalTriplesByDependencyAndWord1, totalTriplesByDependencyAndWord2, 
+							totalTriplesByDependency, data.getSampleRate());
+					totalError += mutualInformationError;
+				}
+				
 				if (isSaveDB()) {
-					long generatedId = saveCollocation(triple, pstatement);
+					long generatedId = saveCollocation(triple, mutualInformationError, pstatement);
 					if (generatedId > 0) {
 						try {
 							saveBooks(events.getBooks(), generatedId);
@@ -167,12 +199,18 @@ public class CalculateMutualInformationThread implements Runnable{
 				}	
 			}
 		} finally {
+			// si el hilo termina antes de recorrer todas las tripletas quedarían abiertos los ficheros de volcado
+			if (triples instanceof CloseableIterator) {
+				((CloseableIterator<?>) triples).close();
+			}
 			closePreparedStatement(pstatement);
 			closeConnection();
 			log.info("Fin hilo dependencia " + data.getDependency() + ", inserciones " + this.insertsTotal);
-			this.data.getTriplesMap().clear();
-			this.data.getWord1FrecuencyMap().clear();
-			this.data.getWord2FrecuencyMap().clear();
+			if (isSampled() && totalProcessed > 0) {
+				log.info("Dependencia " + data.getDependency() + ": error medio estimado (95%) " 
+						+ String.format("%.2f", totalError / totalProcessed));
+			}
+			// los mapas son vistas de sólo lectura de la colección de tripletas, por lo que basta con liberar la referencia
 			this.data = null;
 		}
 	}
@@ -194,16 +232,40 @@ public class CalculateMutualInformationThread implements Runnable{
 		return result;
 	}
 	
+	/**
+	 * Estima el error del valor de información mutua de una tripleta obtenida de una muestra del corpus, como la semiamplitud del intervalo
+	 * de confianza del 95%.<p>
+	 * El valor de información mutua es el logaritmo de un cociente de frecuencias. Si cada frecuencia <i>n</i> se obtiene de una muestra de
+	 * oraciones con proporción <i>p</i>, su error relativo es aproximadamente <i>sqrt((1-p)/n)</i>, y el error del logaritmo se obtiene
+	 * sumando las varianzas relativas de las cuatro frecuencias que intervienen (se ignora la correlación entre ellas, por lo que la
+	 * estimación es conservadora). El error es cero si se ha analizado todo el corpus y crece para las tripletas poco frecuentes.
+	 * @param totalTriple ocurrencias de la tripleta en la muestra
+	 * @param totalWord1 ocurrencias de la palabra 1 en las tripletas del tipo de dependencia
+	 * @param totalWord2 ocurrencias de la palabra 2 en las tripletas del tipo de dependencia
+	 * @param totalDependency total de tripletas del tipo de dependencia
+	 * @param sampleRate proporción de oraciones analizadas
+	 * @return error estimado del valor de información mutua, redondeado a dos decimales
+	 */
+	static double getMutualInformationError(long totalTriple, long totalWord1, long totalWord2, long totalDependency, double sampleRate) {
+		if (sampleRate >= 1 || totalTriple <= 0 || totalWord1 <= 0 || totalWord2 <= 0 || totalDependency <= 0) {
+			return 0;
+		}
+		double relativeVariance = (1 - sampleRate) * (1.0 / totalTriple + 1.0 / totalWord1 + 1.0 / totalWord2 + 1.0 / totalDependency);
+		double error = CONFIDENCE_Z * Math.sqrt(relativeVariance) / Math.log(2);
+		return new BigDecimal(error).setScale(2, RoundingMode.HALF_EVEN).doubleValue();
+	}
+	
 	/**
 	 * Guarda en la base de datos la información de una tripleta junto a su valor de información mutua.<p>
 	 * Si se produce alguna excepción por bloqueos que impide realizar la inserción se hace commit de la realizado hasta ahora y se vuelve
 	 * a intentar realizar la inserción otra vez.
 	 * @param triple tripleta que guardar
+	 * @param mutualInformationError error estimado del valor de información mutua; sólo se guarda si las tripletas proceden de una muestra
 	 * @param pstatement sentencia sql a ejecutar
 	 * @return el ID con el que se ha guardado el registro en la base de datos
 	 * @see Triple
 	 */
-	private long saveCollocation(Triple triple, PreparedStatement pstatement) {
+	private long saveCollocation(Triple triple, double mutualInformationError, PreparedStatement pstatement) {
 		long generatedId = 0;
 		boolean doIt = false;
 		while(!doIt) {
@@ -212,6 +274,9 @@ public class CalculateMutualInformationThread implements Runnable{
 				pstatement.setString(2, triple.getWord1());
 				pstatement.setString(3, triple.getWord2());
 				pstatement.setDouble(4, triple.getMutualInformation());
+				if (isSampled()) {
+					pstatement.setDouble(5, mutualInformationError);
+				}
 				int affectedRows = pstatement.executeUpdate();
 				if (affectedRows > 0) {
 			        ResultSet generatedKeys = pstatement.getGeneratedKeys();
@@ -342,4 +407,11 @@ public class CalculateMutualInformationThread implements Runnable{
 	public boolean isSaveDB() {
 		return saveDB;
 	}
+
+	/**
+	 * @return <i>true</i> si las tripletas proceden de una muestra del corpus y se calcula el error estimado del valor de información mutua
+	 */
+	public boolean isSampled() {
+		return sampled;
+	}
 }
@@ -4,8 +4,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
-import org.josfranmc.collocatio.algorithms.OtherAlgorithm;
 import org.josfranmc.collocatio.db.DataBaseBuilder;
+import org.josfranmc.collocatio.triples.ParserType;
+import org.josfranmc.collocatio.triples.SamplingType;
+import org.josfranmc.collocatio.triples.StanfordTriplesExtractor;
 
 /**
  * Crea y configura un algoritmo para la búsqueda de colocaciones. Los objetos creados de este tipo implementan la interfaz ICollocationAlgorithm
@@ -50,17 +52,87 @@ public class CollocationAlgorithmBuilder {
 		if (getTotalThreads() < 1) {
 			throw new IllegalArgumentException("Debe especificarse un número de hilos a utilizar mayor que cero");
 		}
+		if (getQueueCapacity() < 1) {
+			throw new IllegalArgumentException("Debe especificarse un tamaño de cola de tareas mayor que cero");
+		}
+		if (getBatchSize() < 1) {
+			throw new IllegalArgumentException("Debe especificarse un número de oraciones por tarea mayor que cero");
+		}
+		if (getTotalReaders() < 1) {
+			throw new IllegalArgumentException("Debe especificarse un número de hilos de lectura mayor que cero");
+		}
+		if (getParseTimeout() < 0) {
+			throw new IllegalArgumentException("El tiempo máximo de análisis no puede ser negativo");
+		}
+		if (getCacheSize() < 0) {
+			throw new IllegalArgumentException("El tamaño de la caché de análisis no puede ser negativo");
+		}
+		if (getCheckpointInterval() < 1) {
+			throw new IllegalArgumentException("El intervalo entre puntos de control debe ser mayor que cero");
+		}
+		if (isResume() && getCheckpointDirectory() == null) {
+			throw new IllegalArgumentException("Para continuar una extracción debe indicarse la carpeta de puntos de control");
+		}
+		if (getParserType() == null) {
+			throw new IllegalArgumentException("Debe indicarse el tipo de analizador");
+		}
+		if (getWindowSize() < 1) {
+			throw new IllegalArgumentException("Debe especificarse un tamaño de ventana mayor que cero");
+		}
+		if (getSampleRate() <= 0 || getSampleRate() > 1) {
+			throw new IllegalArgumentException("La proporción de oraciones a analizar debe ser mayor que 0 y no mayor que 1");
+		}
+		if (getSamplingType() == null) {
+			throw new IllegalArgumentException("Debe indicarse el tipo de muestreo");
+		}
+		if (getSampleRate() < 1 && getIncrementalDirectory() != null) {
+			throw new IllegalArgumentException("El muestreo de oraciones no es compatible con el procesamiento incremental");
+		}
+		if (getTargetWords() != null && !getTargetWords().isEmpty() && getIncrementalDirectory() != null) {
+			throw new IllegalArgumentException("Las palabras objetivo no son compatibles con el procesamiento incremental");
+		}
+		if (getSpillThreshold() < 1) {
+			throw new IllegalArgumentException("El umbral de volcado de tripletas debe ser mayor que cero");
+		}
+		if (getAlgorithmType() == AlgorithmType.WINDOW_COOCCURRENCE) {
+			checkWindowOptions();
+		}
 		
 		ICollocationAlgorithm collocationAlgorithm = null;
 		
 		if (getAlgorithmType() == AlgorithmType.MUTUAL_INFORMATION) {
 			collocationAlgorithm = getMutualInformationAlgorithm();			
-		} else if (getAlgorithmType() == AlgorithmType.ANOTHER_ALGORITHM) {
-			collocationAlgorithm = new OtherAlgorithm();
+		} else if (getAlgorithmType() == AlgorithmType.WINDOW_COOCCURRENCE) {
+			collocationAlgorithm = getWindowAlgorithm();
 		}
 		return collocationAlgorithm;
 	}
 	
+	/**
+	 * Comprueba que no se han establecido opciones que el algoritmo WINDOW_COOCCURRENCE no utiliza. Este algoritmo no analiza las oraciones
+	 * y obtiene las tripletas de una única dependencia (<i>window</i>), por lo que no admite filtro de dependencias ni las opciones propias
+	 * del análisis de dependencias o de la extracción de tripletas de StanfordTriplesExtractor. Se rechazan en lugar de ignorarlas.
+	 * @throws IllegalArgumentException si se ha establecido alguna de estas opciones
+	 */
+	private void checkWindowOptions() {
+		if (getTriplesFilter() != null && !getTriplesFilter().isEmpty()) {
+			throw new IllegalArgumentException("El filtro de dependencias no es compatible con el algoritmo WINDOW_COOCCURRENCE");
+		}
+		if (getCheckpointDirectory() != null || isResume()) {
+			throw new IllegalArgumentException("Los puntos de control no son compatibles con el algoritmo WINDOW_COOCCURRENCE");
+		}
+		if (getIncrementalDirectory() != null) {
+			throw new IllegalArgumentException("El procesamiento incremental no es compatible con el algoritmo WINDOW_COOCCURRENCE");
+		}
+		if (isOffHeap() || getSpillDirectory() != null || isLocalTables()) {
+			throw new IllegalArgumentException("Las opciones de almacenamiento de tripletas (off-heap, volcado a disco, tablas por hilo) no son compatibles con el algoritmo WINDOW_COOCCURRENCE");
+		}
+		if (getParseTimeout() > 0 || getCacheSize() != StanfordTriplesExtractor.DEFAULT_CACHE_SIZE || getParserType() != ParserType.PCFG
+				|| getModel() != null || getModelCacheDirectory() != null || (getStanfordOptions() != null && !getStanfordOptions().isEmpty())) {
+			throw new IllegalArgumentException("Las opciones del analizador de dependencias no son compatibles con el algoritmo WINDOW_COOCCURRENCE");
+		}
+	}
+	
 	/**
 	 * Construye y configura un objeto que encapsula el algoritmo MUTUAL_INFORMATION
 	 * @return objeto de tipo MutualInformationAlgorithm
@@ -68,14 +140,56 @@ public class CollocationAlgorithmBuilder {
 	 * @see AlgorithmType
 	 */
 	private MutualInformationAlgorithm getMutualInformationAlgorithm() {
+		return configureMutualInformationAlgorithm(new MutualInformationAlgorithm());
+	}
+	
+	/**
+	 * Construye y configura un objeto que encapsula el algoritmo WINDOW_COOCCURRENCE. Se configura igual que el algoritmo MUTUAL_INFORMATION,
+	 * del que hereda, más el tamaño de la ventana de coaparición.
+	 * @return objeto de tipo WindowAlgorithm
+	 * @see WindowAlgorithm
+	 * @see AlgorithmType
+	 */
+	private WindowAlgorithm getWindowAlgorithm() {
+		WindowAlgorithm wa = new WindowAlgorithm();
+		wa.setWindowSize(getWindowSize());
+		configureMutualInformationAlgorithm(wa);
+		return wa;
+	}
+	
+	/**
+	 * Configura un objeto que encapsula un algoritmo basado en el cálculo de información mutua
+	 * @param mia objeto a configurar
+	 * @return el mismo objeto, ya configurado
+	 * @see MutualInformationAlgorithm
+	 */
+	private MutualInformationAlgorithm configureMutualInformationAlgorithm(MutualInformationAlgorithm mia) {
 		if (getTextsPathToProcess() == null || getTextsPathToProcess().isEmpty()) {
 			throw new IllegalArgumentException("Debe especificarse la ruta de los ficheros a analizar");
 		}
 		
-		MutualInformationAlgorithm mia = new MutualInformationAlgorithm();
-		
 		mia.setTextsPathToProcess(getTextsPathToProcess());
 		mia.setTotalThreads(getTotalThreads());
+		mia.setQueueCapacity(getQueueCapacity());
+		mia.setBatchSize(getBatchSize());
+		mia.setTotalReaders(getTotalReaders());
+		mia.setCostPriority(isCostPriority());
+		mia.setParseTimeout(getParseTimeout());
+		mia.setQuarantineFile(getQuarantineFile());
+		mia.setCacheSize(getCacheSize());
+		mia.setCheckpointDirectory(getCheckpointDirectory());
+		mia.setCheckpointInterval(getCheckpointInterval());
+		mia.setResume(isResume());
+		mia.setIncrementalDirectory(getIncrementalDirectory());
+		mia.setModelCacheDirectory(getModelCacheDirectory());
+		mia.setParserType(getParserType());
+		mia.setTargetWords(getTargetWords());
+		mia.setSampleRate(getSampleRate());
+		mia.setSamplingType(getSamplingType());
+		mia.setLocalTables(isLocalTables());
+		mia.setOffHeap(isOffHeap());
+		mia.setSpillDirectory(getSpillDirectory());
+		mia.setSpillThreshold(getSpillThreshold());
 		mia.setSaveInDB(getSaveInDB());
 		mia.setAdjustedFrequency(getAdjustedFrequency());
 		mia.setStanfordOptions(getStanfordOptions());
@@ -143,6 +257,174 @@ public class CollocationAlgorithmBuilder {
 		return this.paramsAlgorithm.getTotalThreads();
 	}
 
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return número máximo de tareas de análisis pendientes de ejecutar
+	 */
+	private int getQueueCapacity() {
+		return this.paramsAlgorithm.getQueueCapacity();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return número de oraciones que se analizan en una misma tarea
+	 */
+	private int getBatchSize() {
+		return this.paramsAlgorithm.getBatchSize();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return el número de hilos que leen los textos de forma simultánea
+	 */
+	private int getTotalReaders() {
+		return this.paramsAlgorithm.getTotalReaders();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return <i>true</i> si las tareas de análisis se ejecutan por orden de coste estimado
+	 */
+	private boolean isCostPriority() {
+		return this.paramsAlgorithm.isCostPriority();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return el tiempo máximo de análisis de una oración, en milisegundos
+	 */
+	private long getParseTimeout() {
+		return this.paramsAlgorithm.getParseTimeout();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return la ruta del fichero donde se guardan las oraciones cuyo análisis supera el tiempo máximo
+	 */
+	private String getQuarantineFile() {
+		return this.paramsAlgorithm.getQuarantineFile();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return el número máximo de oraciones guardadas en la caché de análisis
+	 */
+	private int getCacheSize() {
+		return this.paramsAlgorithm.getCacheSize();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return la carpeta donde se guardan los puntos de control
+	 */
+	private String getCheckpointDirectory() {
+		return this.paramsAlgorithm.getCheckpointDirectory();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return los segundos entre dos puntos de control consecutivos
+	 */
+	private long getCheckpointInterval() {
+		return this.paramsAlgorithm.getCheckpointInterval();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return <i>true</i> si se continúa la extracción a partir del último punto de control guardado
+	 */
+	private boolean isResume() {
+		return this.paramsAlgorithm.isResume();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return la carpeta del almacén de tripletas por libro
+	 */
+	private String getIncrementalDirectory() {
+		return this.paramsAlgorithm.getIncrementalDirectory();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return carpeta de la caché de modelos descomprimidos, o null si no se utiliza
+	 */
+	private String getModelCacheDirectory() {
+		return this.paramsAlgorithm.getModelCacheDirectory();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return tipo de analizador de dependencias
+	 */
+	private ParserType getParserType() {
+		return this.paramsAlgorithm.getParserType();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return palabras objetivo, o null si se procesan todas las oraciones
+	 */
+	private List<String> getTargetWords() {
+		return this.paramsAlgorithm.getTargetWords();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return proporción de oraciones a analizar
+	 */
+	private double getSampleRate() {
+		return this.paramsAlgorithm.getSampleRate();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return tipo de muestreo de oraciones
+	 */
+	private SamplingType getSamplingType() {
+		return this.paramsAlgorithm.getSamplingType();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return <i>true</i> si cada hilo de análisis guarda las tripletas en una tabla propia
+	 */
+	private boolean isLocalTables() {
+		return this.paramsAlgorithm.isLocalTables();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return <i>true</i> si las tripletas se guardan fuera del heap
+	 */
+	private boolean isOffHeap() {
+		return this.paramsAlgorithm.isOffHeap();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return la carpeta de volcado de tripletas, o null si las tripletas se guardan sólo en memoria
+	 */
+	private String getSpillDirectory() {
+		return this.paramsAlgorithm.getSpillDirectory();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return el número de tripletas distintas en memoria a partir del cual se vuelcan a disco
+	 */
+	private int getSpillThreshold() {
+		return this.paramsAlgorithm.getSpillThreshold();
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de coaparición de palabras (AlgorithmType.WINDOW_COOCCURRENCE)
+	 * @return número de palabras siguientes con las que se relaciona cada palabra
+	 */
+	private int getWindowSize() {
+		return this.paramsAlgorithm.getWindowSize();
+	}
+
 	/**
 	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
 	 * @return opciones de configurtación para el analizador de Stanford
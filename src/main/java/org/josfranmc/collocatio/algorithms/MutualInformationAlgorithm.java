@@ -7,18 +7,19 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.log4j.Logger;
 import org.josfranmc.collocatio.db.ConnectionFactory;
+import org.josfranmc.collocatio.triples.ParserType;
+import org.josfranmc.collocatio.triples.SamplingType;
 import org.josfranmc.collocatio.triples.StanfordTriplesExtractor;
 import org.josfranmc.collocatio.triples.TriplesCollection;
 import org.josfranmc.collocatio.util.ThreadFactoryBuilder;
@@ -52,6 +53,106 @@ public class MutualInformationAlgorithm extends AbstractMutualInformationAlgorit
 	 */
 	private int totalThreads;
 	
+	/**
+	 * Número máximo de tareas de análisis pendientes de ejecutar
+	 */
+	private int queueCapacity = StanfordTriplesExtractor.DEFAULT_QUEUE_CAPACITY;
+	
+	/**
+	 * Número de oraciones de un mismo libro que se analizan en una misma tarea
+	 */
+	private int batchSize = StanfordTriplesExtractor.DEFAULT_BATCH_SIZE;
+	
+	/**
+	 * Número de hilos que leen y "tokenizan" los textos de forma simultánea
+	 */
+	private int totalReaders = StanfordTriplesExtractor.DEFAULT_TOTAL_READERS;
+	
+	/**
+	 * Indica si las tareas de análisis se ejecutan según su coste estimado, de mayor a menor, en lugar de por orden de llegada
+	 */
+	private boolean costPriority = false;
+	
+	/**
+	 * Tiempo máximo de análisis de una oración, en milisegundos. Con valor 0 no se limita
+	 */
+	private long parseTimeout = 0;
+	
+	/**
+	 * Fichero donde se guardan las oraciones cuyo análisis supera el tiempo máximo
+	 */
+	private String quarantineFile = StanfordTriplesExtractor.DEFAULT_QUARANTINE_FILE;
+	
+	/**
+	 * Número máximo de oraciones guardadas en la caché de análisis. Con valor 0 no se utiliza la caché
+	 */
+	private int cacheSize = StanfordTriplesExtractor.DEFAULT_CACHE_SIZE;
+	
+	/**
+	 * Carpeta donde se guardan periódicamente los puntos de control de la extracción. Si es null no se guardan
+	 */
+	private String checkpointDirectory = null;
+	
+	/**
+	 * Segundos entre dos puntos de control consecutivos
+	 */
+	private long checkpointInterval = StanfordTriplesExtractor.DEFAULT_CHECKPOINT_INTERVAL;
+	
+	/**
+	 * Indica si se continúa la extracción a partir del último punto de control guardado
+	 */
+	private boolean resume = false;
+	
+	/**
+	 * Carpeta del almacén de tripletas por libro para el procesamiento incremental. Si es null se analizan todos los libros
+	 */
+	private String incrementalDirectory = null;
+	
+	/**
+	 * Carpeta de la caché de modelos descomprimidos. Si es null los modelos se cargan siempre del original
+	 */
+	private String modelCacheDirectory = null;
+	
+	/**
+	 * Tipo de analizador de dependencias utilizado en la extracción de tripletas
+	 */
+	private ParserType parserType = ParserType.PCFG;
+	
+	/**
+	 * Palabras objetivo de la búsqueda de colocaciones. Si es null o está vacía se procesan todas las oraciones y todas las tripletas
+	 */
+	private List<String> targetWords = null;
+	
+	/**
+	 * Proporción de oraciones a analizar, mayor que 0 y no mayor que 1. Con el valor 1 se analizan todas las oraciones
+	 */
+	private double sampleRate = 1.0;
+	
+	/**
+	 * Tipo de muestreo de oraciones cuando no se analizan todas
+	 */
+	private SamplingType samplingType = SamplingType.UNIFORM;
+	
+	/**
+	 * Indica si cada hilo de análisis guarda las tripletas en una tabla propia, que se unen al terminar el análisis, en lugar de en la colección compartida
+	 */
+	private boolean localTables = false;
+	
+	/**
+	 * Indica si las claves y los contadores de las tripletas se guardan fuera del heap
+	 */
+	private boolean offHeap = false;
+	
+	/**
+	 * Carpeta en la que se vuelcan las tripletas cuando su número en memoria alcanza el umbral de volcado
+	 */
+	private String spillDirectory = null;
+	
+	/**
+	 * Número de tripletas distintas en memoria a partir del cual se vuelcan a disco
+	 */
+	private int spillThreshold = StanfordTriplesExtractor.DEFAULT_SPILL_THRESHOLD;
+	
 	/**
 	 * Parámetros para al analizador de Stanford
 	 */
@@ -102,85 +203,94 @@ public class MutualInformationAlgorithm extends AbstractMutualInformationAlgorit
 		ste.setModel(getModel());
 		ste.setTextsPathToProcess(getTextsPathToProcess());
 		ste.setTotalThreads(getTotalThreads());
+		ste.setQueueCapacity(getQueueCapacity());
+		ste.setBatchSize(getBatchSize());
+		ste.setTotalReaders(getTotalReaders());
+		ste.setCostPriority(isCostPriority());
+		ste.setParseTimeout(getParseTimeout());
+		ste.setQuarantineFile(getQuarantineFile());
+		ste.setCacheSize(getCacheSize());
+		ste.setCheckpointDirectory(getCheckpointDirectory());
+		ste.setCheckpointInterval(getCheckpointInterval());
+		ste.setResume(isResume());
+		ste.setIncrementalDirectory(getIncrementalDirectory());
+		ste.setModelCacheDirectory(getModelCacheDirectory());
+		ste.setParserType(getParserType());
+		ste.setTargetWords(getTargetWords());
+		ste.setSampleRate(getSampleRate());
+		ste.setSamplingType(getSamplingType());
+		ste.setLocalTables(isLocalTables());
+		ste.setOffHeap(isOffHeap());
+		ste.setSpillDirectory(getSpillDirectory());
+		ste.setSpillThreshold(getSpillThreshold());
+		ste.setDependencyFilter(getTriplesFilter());
 		ste.setStanfordOptions(getStanfordOptions());
 		return ste.extractTriples();
 	}
 
 	/**
 	 *  Implementa el proceso de cálculo del valor "información mutua" de las tripletas obtenidas previamente. El cálculo se hace de forma
-	 *  concurrente en dos fases.<p> 
-	 *  <ul>
-	 *  <li>En primer lugar, para cada tipo de dependencia se ejecuta un hilo encargado de obtener los datos de frecuencias asociados a ese tipo de
-	 *  dependencia, los cuales son necesarios para la aplicaión de la fórmula. La ejecución de cada hilo se realiza mediante un objeto de tipo ExtractTriplesInfoThread.</li>
-	 *  <li>Una vez lanzados todos los hilos necesarios se van recogiendo los resultados devueltos por los mismos según var terminando las tareas. Los
-	 *  resultados son devueltos en objetos de tipo TriplesData. Conforme se van obteniendo son pasados a un objeto CalculateMutualInformationThread 
-	 *  encargado de realizar los cálculos del valor de información mutua, siendo ejecutados de forma paralela</li>
-	 *  </ul>
-	 */
-	@SuppressWarnings("null")
+	 *  concurrente, ejecutándose un hilo por cada tipo de dependencia.<p> 
+	 *  Los datos de frecuencia necesarios para la aplicación de la fórmula (total de tripletas del tipo de dependencia y apariciones de cada
+	 *  palabra como palabra 1 y como palabra 2) se mantienen en la colección de tripletas conforme se guardan las tripletas, por lo que no es
+	 *  necesario recorrer las tripletas para obtenerlos. Para cada tipo de dependencia se crea un objeto TriplesData con estos datos, que se
+	 *  pasa a un objeto CalculateMutualInformationThread encargado de realizar los cálculos del valor de información mutua.<p>
+	 *  Si se han volcado tripletas a disco durante la extracción, cada hilo de cálculo recibe las tripletas de su tipo de dependencia mezclando
+	 *  los ficheros de volcado; al terminar el cálculo los ficheros se eliminan.
+	 */
 	@Override
 	protected void calculateMutualInformation(TriplesCollection triplesCollection) {
 		if (triplesCollection.getTotalTriples() > 0) {
 			log.info("Inicio cálculo información mutua " + getCurrentTime());
 			log.info("Guardar en base de datos: " + this.isSaveInDB());
+			if (getSampleRate() < 1) {
+				log.info("Muestreo de oraciones " + getSamplingType() + " (" + getSampleRate() + "): tripletas estimadas en el corpus " 
+						+ Math.round(triplesCollection.getTotalTriples() / getSampleRate()));
+			}
 			if (prepareDataBase()) {
-				int totalThreads = 0;
 				final long totalTriples = triplesCollection.getTotalTriples();
-				ExecutorService executorServiceFreq = null;
-				ExecutorService executorServiceCal = null;
+				final Set<String> targetWordsSet = getTargetWordsSet();
+				ExecutorService executorServiceCal = Executors.newFixedThreadPool(getTotalThreads(), getThreadFactory("CalThread"));
 				try {
-
-					executorServiceFreq = Executors.newFixedThreadPool(getTotalThreads(), getThreadFactory("FregThread"));
-					final ExecutorCompletionService<TriplesData> completionService = new ExecutorCompletionService<>(executorServiceFreq);
-					log.info("Calculando datos de frecuencia...");
+					log.info("Calculando valor de información mutua para tripletas...");
 					for (String dependency : triplesCollection.getDependenciesCollection()) {
 						if (isSelectedDependency(dependency)) {
-							ExtractTriplesDataThread etdt = new ExtractTriplesDataThread(triplesCollection.getTriplesCollection(), dependency);
-							completionService.submit(etdt);
-							totalThreads++;
+							TriplesData data = new TriplesData(dependency);
+							data.setTriplesMap(triplesCollection.getTriplesCollection(dependency, targetWordsSet));
+							data.setTotalTriplesByDependency(triplesCollection.getTotalTriples(dependency));
+							data.setWord1FrecuencyMap(triplesCollection.getWord1Frequencies(dependency));
+							data.setWord2FrecuencyMap(triplesCollection.getWord2Frequencies(dependency));
+							data.setTotalTriples(totalTriples);
+							data.setAdjustedFrequency(getAdjustedFrequency());
+							data.setSampleRate(getSampleRate());
+
+							if (triplesCollection.getTotalSpillRuns() == 0) {
+								log.info("Dependencia " + data.getDependency() + ": colocaciones " + data.getTotalElementsMap() + ", elementos a procesar " + data.getTotalTriplesByDependency());
+							} else {
+								// contar las colocaciones obligaría a mezclar los ficheros de volcado antes del cálculo
+								log.info("Dependencia " + data.getDependency() + ": elementos a procesar " + data.getTotalTriplesByDependency());
+							}
+
+							try {
+								CalculateMutualInformationThread cmit = new CalculateMutualInformationThread(data, getConnection(false));
+								executorServiceCal.execute(cmit);
+							} catch (RejectedExecutionException e) {     
+								log.error("Tarea no aceptada para procesar datos de dependencia " + data.getDependency());
+							}
 						}
 					}
-					executorServiceFreq.shutdown();
-					triplesCollection = null;
-					
-					log.info("Calculando valor de información mutua para tripletas...");
-					executorServiceCal = Executors.newFixedThreadPool(getTotalThreads(), getThreadFactory("CalThread"));
-					for(int i = 0; i < totalThreads; i++) {
-					    final Future<TriplesData> resultTask = completionService.take();
-					    TriplesData data = null;
-					    try {
-					    	data = resultTask.get();
-					    	data.setTotalTriples(totalTriples);
-					    	data.setAdjustedFrequency(getAdjustedFrequency());
-					    	
-					    	log.info("Dependencia " + data.getDependency() + ": colocaciones " + data.getTotalElementsMap() + ", elementos a procesar " + data.getTotalTriplesByDependency());
-					    	
-					        CalculateMutualInformationThread cmit = new CalculateMutualInformationThread(data, getConnection(false));
-					        executorServiceCal.execute(cmit);
-					    } catch (RejectedExecutionException e) {     
-					    	log.error("Tarea no aceptada para procesar datos de dependencia " + data.getDependency());
-					    } catch (ExecutionException e) {
-					        log.error("Incidencia " + e.getCause() + " al procesar datos dependencia " + data.getDependency());
-					    } catch (InterruptedException ie) { 
-					        log.error("Fin anómalo de hilo "  + " al procesar datos dependencia " + data.getDependency());
-					        ie.printStackTrace();
-					    }
-					}
-					
-					executorServiceFreq.shutdown();
-					executorServiceFreq = null;
-				    awaitTerminationAfterShutdown(executorServiceCal);
-
+					awaitTerminationAfterShutdown(executorServiceCal);
 				} catch (Exception e) {
-					executorServiceFreq.shutdownNow();
 					executorServiceCal.shutdownNow();
 					log.error(e);
 					e.printStackTrace();			
+					awaitTerminationAfterShutdownNow(executorServiceCal);
 				}
 			}
 		} else {
 			log.info("No hay datos que calcular");
 		}
+		triplesCollection.deleteSpillFiles();
 	}	
 
 	/**
@@ -211,9 +321,44 @@ public class MutualInformationAlgorithm extends AbstractMutualInformationAlgorit
 	    	threadPoolCal.shutdownNow();
 	        log.error("Error esperando finalización de hilos. Interrumpiendo " + Thread.currentThread().toString());
 	        Thread.currentThread().interrupt();
+	        awaitTerminationAfterShutdownNow(threadPoolCal);
 	    }
 	}
 	
+	/**
+	 * Espera a que terminen los hilos de tipo CalculateMutualInformationThread después de haberlos interrumpido. Los hilos pueden seguir
+	 * recorriendo la colección de tripletas hasta que terminan, por lo que no pueden eliminarse antes los ficheros de volcado de la colección.
+	 * Si el hilo actual está interrumpido, se espera igualmente y se mantiene la interrupción.
+	 * @param threadPoolCal ExecutorService que controla hilos de tipo CalculateMutualInformationThread, ya parado
+	 */
+	private void awaitTerminationAfterShutdownNow(ExecutorService threadPoolCal) {
+		boolean interrupted = Thread.interrupted();
+		while (!threadPoolCal.isTerminated()) {
+			try {
+				threadPoolCal.awaitTermination(1, TimeUnit.MINUTES);
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	/**
+	 * @return conjunto de palabras objetivo en minúsculas, o null si no se han indicado
+	 */
+	private Set<String> getTargetWordsSet() {
+		Set<String> targetWordsSet = null;
+		if (getTargetWords() != null && !getTargetWords().isEmpty()) {
+			targetWordsSet = new HashSet<String>();
+			for (String word : getTargetWords()) {
+				targetWordsSet.add(word.trim().toLowerCase());
+			}
+		}
+		return targetWordsSet;
+	}
+	
 	/**
 	 * Indica si un tipo de dependencia debe ser procesado o no. Se comprueba si el tipo de dependencia pasado está en la lista de dependencias
 	 * en la que basar la búsqueda.<br>
@@ -399,6 +544,308 @@ public class MutualInformationAlgorithm extends AbstractMutualInformationAlgorit
 		this.totalThreads = totalThreads;
 	}
 
+	/**
+	 * @return el número máximo de tareas de análisis pendientes de ejecutar
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * Establece el número máximo de tareas de análisis pendientes de ejecutar
+	 * @param queueCapacity número máximo de tareas pendientes
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * @return el número de oraciones que se analizan en una misma tarea
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Establece el número de oraciones de un mismo libro que se analizan en una misma tarea
+	 * @param batchSize número de oraciones por tarea
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @return el número de hilos que leen los textos de forma simultánea
+	 */
+	public int getTotalReaders() {
+		return totalReaders;
+	}
+
+	/**
+	 * Establece el número de hilos que leen y "tokenizan" los textos de forma simultánea
+	 * @param totalReaders número de hilos de lectura
+	 */
+	public void setTotalReaders(int totalReaders) {
+		this.totalReaders = totalReaders;
+	}
+
+	/**
+	 * @return <i>true</i> si las tareas de análisis se ejecutan por orden de coste estimado
+	 */
+	public boolean isCostPriority() {
+		return costPriority;
+	}
+
+	/**
+	 * Establece si las tareas de análisis se ejecutan por orden de coste estimado (de mayor a menor) en lugar de por orden de llegada
+	 * @param costPriority <i>true</i> para ejecutar las tareas por orden de coste
+	 */
+	public void setCostPriority(boolean costPriority) {
+		this.costPriority = costPriority;
+	}
+
+	/**
+	 * @return el tiempo máximo de análisis de una oración, en milisegundos
+	 */
+	public long getParseTimeout() {
+		return parseTimeout;
+	}
+
+	/**
+	 * Establece el tiempo máximo de análisis de una oración, en milisegundos. Las oraciones que lo superan se abandonan
+	 * @param parseTimeout tiempo máximo en milisegundos; 0 para no limitar
+	 */
+	public void setParseTimeout(long parseTimeout) {
+		this.parseTimeout = parseTimeout;
+	}
+
+	/**
+	 * @return la ruta del fichero donde se guardan las oraciones cuyo análisis supera el tiempo máximo
+	 */
+	public String getQuarantineFile() {
+		return quarantineFile;
+	}
+
+	/**
+	 * Establece el fichero donde se guardan las oraciones cuyo análisis supera el tiempo máximo
+	 * @param quarantineFile ruta del fichero de cuarentena
+	 */
+	public void setQuarantineFile(String quarantineFile) {
+		this.quarantineFile = quarantineFile;
+	}
+
+	/**
+	 * @return el número máximo de oraciones guardadas en la caché de análisis
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * Establece el número máximo de oraciones guardadas en la caché de análisis
+	 * @param cacheSize número máximo de oraciones; 0 para no utilizar la caché
+	 */
+	public void setCacheSize(int cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * @return la carpeta donde se guardan los puntos de control
+	 */
+	public String getCheckpointDirectory() {
+		return checkpointDirectory;
+	}
+
+	/**
+	 * Establece la carpeta donde se guardan periódicamente los puntos de control de la extracción
+	 * @param checkpointDirectory carpeta de puntos de control; null para no guardarlos
+	 */
+	public void setCheckpointDirectory(String checkpointDirectory) {
+		this.checkpointDirectory = checkpointDirectory;
+	}
+
+	/**
+	 * @return los segundos entre dos puntos de control consecutivos
+	 */
+	public long getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Establece los segundos entre dos puntos de control consecutivos
+	 * @param checkpointInterval segundos entre puntos de control
+	 */
+	public void setCheckpointInterval(long checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * @return <i>true</i> si se continúa la extracción a partir del último punto de control guardado
+	 */
+	public boolean isResume() {
+		return resume;
+	}
+
+	/**
+	 * Establece si se continúa la extracción a partir del último punto de control guardado
+	 * @param resume <i>true</i> para continuar la extracción anterior
+	 */
+	public void setResume(boolean resume) {
+		this.resume = resume;
+	}
+
+	/**
+	 * @return la carpeta del almacén de tripletas por libro
+	 */
+	public String getIncrementalDirectory() {
+		return incrementalDirectory;
+	}
+
+	/**
+	 * Establece la carpeta del almacén de tripletas por libro, lo que activa el procesamiento incremental. Sólo se analizan los libros nuevos,
+	 * pero el valor de información mutua se vuelve a calcular para todas las tripletas, ya que depende de las frecuencias de todo el corpus
+	 * @param incrementalDirectory carpeta del almacén; null para analizar todos los libros
+	 */
+	public void setIncrementalDirectory(String incrementalDirectory) {
+		this.incrementalDirectory = incrementalDirectory;
+	}
+
+	/**
+	 * @return carpeta de la caché de modelos descomprimidos, o null si no se utiliza
+	 */
+	public String getModelCacheDirectory() {
+		return modelCacheDirectory;
+	}
+
+	/**
+	 * Establece la carpeta de la caché de modelos descomprimidos. La primera carga de un modelo guarda en ella una copia descomprimida, que se utiliza en las cargas siguientes mientras el modelo original no cambie
+	 * @param modelCacheDirectory carpeta de la caché; null para cargar siempre el modelo original
+	 */
+	public void setModelCacheDirectory(String modelCacheDirectory) {
+		this.modelCacheDirectory = modelCacheDirectory;
+	}
+
+	/**
+	 * @return tipo de analizador de dependencias
+	 */
+	public ParserType getParserType() {
+		return parserType;
+	}
+
+	/**
+	 * Establece el tipo de analizador de dependencias utilizado en la extracción de tripletas: PCFG (más preciso) o NEURAL (mucho más rápido)
+	 * @param parserType tipo de analizador
+	 */
+	public void setParserType(ParserType parserType) {
+		this.parserType = parserType;
+	}
+
+	/**
+	 * @return palabras objetivo, o null si se procesan todas las oraciones
+	 */
+	public List<String> getTargetWords() {
+		return targetWords;
+	}
+
+	/**
+	 * Establece las palabras objetivo de la búsqueda de colocaciones. La extracción sólo analiza las oraciones que contienen alguna de ellas y
+	 * el cálculo de información mutua sólo se realiza, y se guarda, para las tripletas que contienen alguna de ellas
+	 * @param targetWords lista de palabras objetivo; null para procesar todas las oraciones
+	 */
+	public void setTargetWords(List<String> targetWords) {
+		this.targetWords = targetWords;
+	}
+
+	/**
+	 * @return proporción de oraciones a analizar
+	 */
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * Establece la proporción de oraciones a analizar. Con un valor menor que 1 sólo se analiza una muestra de las oraciones y la información mutua de cada colocación se guarda junto con una estimación de su error
+	 * @param sampleRate proporción de oraciones a analizar, mayor que 0 y no mayor que 1
+	 */
+	public void setSampleRate(double sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * @return tipo de muestreo de oraciones
+	 */
+	public SamplingType getSamplingType() {
+		return samplingType;
+	}
+
+	/**
+	 * Establece el tipo de muestreo de oraciones: UNIFORM selecciona cada oración de forma independiente y STRATIFIED selecciona la misma proporción de oraciones de cada libro
+	 * @param samplingType tipo de muestreo
+	 */
+	public void setSamplingType(SamplingType samplingType) {
+		this.samplingType = samplingType;
+	}
+
+	/**
+	 * @return <i>true</i> si cada hilo de análisis guarda las tripletas en una tabla propia
+	 */
+	public boolean isLocalTables() {
+		return localTables;
+	}
+
+	/**
+	 * Establece si cada hilo de análisis guarda las tripletas en una tabla propia en lugar de en la colección compartida
+	 * @param localTables <i>true</i> para utilizar tablas por hilo
+	 */
+	public void setLocalTables(boolean localTables) {
+		this.localTables = localTables;
+	}
+
+	/**
+	 * @return <i>true</i> si las tripletas se guardan fuera del heap
+	 */
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+	/**
+	 * Establece si las claves y los contadores de las tripletas se guardan fuera del heap, en buffers directos. Permite procesar corpus con más tripletas distintas de las que caben en el heap
+	 * @param offHeap <i>true</i> para guardar las tripletas fuera del heap
+	 */
+	public void setOffHeap(boolean offHeap) {
+		this.offHeap = offHeap;
+	}
+
+	/**
+	 * @return la carpeta de volcado de tripletas, o null si las tripletas se guardan sólo en memoria
+	 */
+	public String getSpillDirectory() {
+		return spillDirectory;
+	}
+
+	/**
+	 * Establece la carpeta en la que se vuelcan las tripletas cuando su número en memoria alcanza el umbral de volcado
+	 * @param spillDirectory carpeta de volcado de tripletas, o null para guardarlas sólo en memoria
+	 */
+	public void setSpillDirectory(String spillDirectory) {
+		this.spillDirectory = spillDirectory;
+	}
+
+	/**
+	 * @return el número de tripletas distintas en memoria a partir del cual se vuelcan a disco
+	 */
+	public int getSpillThreshold() {
+		return spillThreshold;
+	}
+
+	/**
+	 * Establece el número de tripletas distintas en memoria a partir del cual se vuelcan a disco
+	 * @param spillThreshold umbral de volcado de tripletas
+	 */
+	public void setSpillThreshold(int spillThreshold) {
+		this.spillThreshold = spillThreshold;
+	}
+
 	/**
 	 * @return <i>true</i> si se deben guardar los resultados obtenidos en base de datos, <i>false</i> en caso contrario
 	 */
@@ -3,6 +3,11 @@ package org.josfranmc.collocatio.algorithms;
 import java.util.HashMap;
 import java.util.List;
 
+import org.josfranmc.collocatio.triples.ParserType;
+import org.josfranmc.collocatio.triples.SamplingType;
+import org.josfranmc.collocatio.triples.StanfordTriplesExtractor;
+import org.josfranmc.collocatio.triples.WindowTriplesExtractor;
+
 /**
  * Encapsula todos los posibles parámetros que se pueden utiizar para configurar los distintos algoritmos
  * @author Jose Francisco Mena Ceca
@@ -33,6 +38,132 @@ public class ParamsAlgorithm {
 	 */
 	private int totalThreads = Runtime.getRuntime().availableProcessors();
 	
+	/**
+	 * Número máximo de tareas de análisis pendientes de ejecutar. Limita la memoria utilizada durante la lectura de los textos.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private int queueCapacity = StanfordTriplesExtractor.DEFAULT_QUEUE_CAPACITY;
+	
+	/**
+	 * Número de oraciones de un mismo libro que se analizan en una misma tarea.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private int batchSize = StanfordTriplesExtractor.DEFAULT_BATCH_SIZE;
+	
+	/**
+	 * Número de hilos que leen y "tokenizan" los textos de forma simultánea.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private int totalReaders = StanfordTriplesExtractor.DEFAULT_TOTAL_READERS;
+	
+	/**
+	 * Indica si las tareas de análisis se ejecutan según su coste estimado, de mayor a menor, en lugar de por orden de llegada.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private boolean costPriority = false;
+	
+	/**
+	 * Tiempo máximo de análisis de una oración, en milisegundos. Con valor 0 no se limita.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private long parseTimeout = 0;
+	
+	/**
+	 * Fichero donde se guardan las oraciones cuyo análisis supera el tiempo máximo.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private String quarantineFile = StanfordTriplesExtractor.DEFAULT_QUARANTINE_FILE;
+	
+	/**
+	 * Número máximo de oraciones guardadas en la caché de análisis. Con valor 0 no se utiliza la caché.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private int cacheSize = StanfordTriplesExtractor.DEFAULT_CACHE_SIZE;
+	
+	/**
+	 * Carpeta donde se guardan periódicamente los puntos de control de la extracción. Si es null no se guardan.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private String checkpointDirectory = null;
+	
+	/**
+	 * Segundos entre dos puntos de control consecutivos.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private long checkpointInterval = StanfordTriplesExtractor.DEFAULT_CHECKPOINT_INTERVAL;
+	
+	/**
+	 * Indica si se continúa la extracción a partir del último punto de control guardado.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private boolean resume = false;
+	
+	/**
+	 * Carpeta del almacén de tripletas por libro para el procesamiento incremental. Si es null se analizan todos los libros.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private String incrementalDirectory = null;
+	
+	/**
+	 * Carpeta de la caché de modelos descomprimidos. Si es null los modelos se cargan siempre del original.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private String modelCacheDirectory = null;
+	
+	/**
+	 * Tipo de analizador de dependencias utilizado en la extracción de tripletas.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private ParserType parserType = ParserType.PCFG;
+	
+	/**
+	 * Palabras objetivo de la búsqueda de colocaciones. Si es null o está vacía se procesan todas las oraciones.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private List<String> targetWords = null;
+	
+	/**
+	 * Proporción de oraciones a analizar, mayor que 0 y no mayor que 1. Con el valor 1 se analizan todas las oraciones.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private double sampleRate = 1.0;
+	
+	/**
+	 * Tipo de muestreo de oraciones cuando no se analizan todas.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private SamplingType samplingType = SamplingType.UNIFORM;
+	
+	/**
+	 * Indica si cada hilo de análisis guarda las tripletas en una tabla propia, que se unen al terminar el análisis, en lugar de en la colección compartida.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private boolean localTables = false;
+	
+	/**
+	 * Indica si las claves y los contadores de las tripletas se guardan fuera del heap.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private boolean offHeap = false;
+	
+	/**
+	 * Carpeta en la que se vuelcan las tripletas cuando su número en memoria alcanza el umbral de volcado.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private String spillDirectory = null;
+	
+	/**
+	 * Número de tripletas distintas en memoria a partir del cual se vuelcan a disco.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 */
+	private int spillThreshold = StanfordTriplesExtractor.DEFAULT_SPILL_THRESHOLD;
+	
+	/**
+	 * Número de palabras siguientes con las que se relaciona cada palabra en la búsqueda por coaparición.<p>
+	 * Se utiliza en el algoritmo de coaparición de palabras (AlgorithmType.WINDOW_COOCCURRENCE)
+	 */
+	private int windowSize = WindowTriplesExtractor.DEFAULT_WINDOW_SIZE;
+	
 	/**
 	 * Parámetros para al analizador de Stanford.<p>
 	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
@@ -145,6 +276,366 @@ public class ParamsAlgorithm {
 		this.totalThreads = totalThreads;
 	}
 
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return el número máximo de tareas de análisis pendientes de ejecutar
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * Establece el número máximo de tareas de análisis pendientes de ejecutar. Cuando se alcanza este número la lectura de los textos
+	 * queda bloqueada hasta que haya hueco en la cola.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param queueCapacity número máximo de tareas pendientes
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return el número de oraciones que se analizan en una misma tarea
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Establece el número de oraciones de un mismo libro que se analizan en una misma tarea.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param batchSize número de oraciones por tarea
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return el número de hilos que leen los textos de forma simultánea
+	 */
+	public int getTotalReaders() {
+		return totalReaders;
+	}
+
+	/**
+	 * Establece el número de hilos que leen y "tokenizan" los textos de forma simultánea.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param totalReaders número de hilos de lectura
+	 */
+	public void setTotalReaders(int totalReaders) {
+		this.totalReaders = totalReaders;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return <i>true</i> si las tareas de análisis se ejecutan por orden de coste estimado
+	 */
+	public boolean isCostPriority() {
+		return costPriority;
+	}
+
+	/**
+	 * Establece si las tareas de análisis se ejecutan por orden de coste estimado (de mayor a menor) en lugar de por orden de llegada.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param costPriority <i>true</i> para ejecutar las tareas por orden de coste
+	 */
+	public void setCostPriority(boolean costPriority) {
+		this.costPriority = costPriority;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return el tiempo máximo de análisis de una oración, en milisegundos
+	 */
+	public long getParseTimeout() {
+		return parseTimeout;
+	}
+
+	/**
+	 * Establece el tiempo máximo de análisis de una oración, en milisegundos. Las oraciones que lo superan se abandonan.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param parseTimeout tiempo máximo en milisegundos; 0 para no limitar
+	 */
+	public void setParseTimeout(long parseTimeout) {
+		this.parseTimeout = parseTimeout;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return la ruta del fichero donde se guardan las oraciones cuyo análisis supera el tiempo máximo
+	 */
+	public String getQuarantineFile() {
+		return quarantineFile;
+	}
+
+	/**
+	 * Establece el fichero donde se guardan las oraciones cuyo análisis supera el tiempo máximo.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param quarantineFile ruta del fichero de cuarentena
+	 */
+	public void setQuarantineFile(String quarantineFile) {
+		this.quarantineFile = quarantineFile;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return el número máximo de oraciones guardadas en la caché de análisis
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * Establece el número máximo de oraciones guardadas en la caché de análisis.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param cacheSize número máximo de oraciones; 0 para no utilizar la caché
+	 */
+	public void setCacheSize(int cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return la carpeta donde se guardan los puntos de control
+	 */
+	public String getCheckpointDirectory() {
+		return checkpointDirectory;
+	}
+
+	/**
+	 * Establece la carpeta donde se guardan periódicamente los puntos de control de la extracción.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param checkpointDirectory carpeta de puntos de control; null para no guardarlos
+	 */
+	public void setCheckpointDirectory(String checkpointDirectory) {
+		this.checkpointDirectory = checkpointDirectory;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return los segundos entre dos puntos de control consecutivos
+	 */
+	public long getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Establece los segundos entre dos puntos de control consecutivos.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param checkpointInterval segundos entre puntos de control
+	 */
+	public void setCheckpointInterval(long checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return <i>true</i> si se continúa la extracción a partir del último punto de control guardado
+	 */
+	public boolean isResume() {
+		return resume;
+	}
+
+	/**
+	 * Establece si se continúa la extracción a partir del último punto de control guardado.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param resume <i>true</i> para continuar la extracción anterior
+	 */
+	public void setResume(boolean resume) {
+		this.resume = resume;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return la carpeta del almacén de tripletas por libro
+	 */
+	public String getIncrementalDirectory() {
+		return incrementalDirectory;
+	}
+
+	/**
+	 * Establece la carpeta del almacén de tripletas por libro, lo que activa el procesamiento incremental.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param incrementalDirectory carpeta del almacén; null para analizar todos los libros
+	 */
+	public void setIncrementalDirectory(String incrementalDirectory) {
+		this.incrementalDirectory = incrementalDirectory;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return carpeta de la caché de modelos descomprimidos, o null si no se utiliza
+	 */
+	public String getModelCacheDirectory() {
+		return modelCacheDirectory;
+	}
+
+	/**
+	 * Establece la carpeta de la caché de modelos descomprimidos. La primera carga de un modelo guarda en ella una copia descomprimida, que se utiliza en las cargas siguientes mientras el modelo original no cambie.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param modelCacheDirectory carpeta de la caché; null para cargar siempre el modelo original
+	 */
+	public void setModelCacheDirectory(String modelCacheDirectory) {
+		this.modelCacheDirectory = modelCacheDirectory;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return tipo de analizador de dependencias
+	 */
+	public ParserType getParserType() {
+		return parserType;
+	}
+
+	/**
+	 * Establece el tipo de analizador de dependencias utilizado en la extracción de tripletas: PCFG (más preciso) o NEURAL (mucho más rápido).<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param parserType tipo de analizador
+	 */
+	public void setParserType(ParserType parserType) {
+		this.parserType = parserType;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return palabras objetivo, o null si se procesan todas las oraciones
+	 */
+	public List<String> getTargetWords() {
+		return targetWords;
+	}
+
+	/**
+	 * Establece las palabras objetivo de la búsqueda de colocaciones. Sólo se analizan las oraciones que contienen alguna de ellas y sólo se
+	 * calcula la información mutua de las tripletas que contienen alguna de ellas. Los totales del tipo de dependencia y de la palabra no
+	 * objetivo de cada tripleta se calculan sólo con las oraciones analizadas, por lo que la información mutua obtenida es una aproximación.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param targetWords lista de palabras objetivo; null para procesar todas las oraciones
+	 */
+	public void setTargetWords(List<String> targetWords) {
+		this.targetWords = targetWords;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return proporción de oraciones a analizar
+	 */
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * Establece la proporción de oraciones a analizar. Con un valor menor que 1 sólo se analiza una muestra de las oraciones y la información mutua de cada colocación se guarda junto con una estimación de su error.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param sampleRate proporción de oraciones a analizar, mayor que 0 y no mayor que 1
+	 */
+	public void setSampleRate(double sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return tipo de muestreo de oraciones
+	 */
+	public SamplingType getSamplingType() {
+		return samplingType;
+	}
+
+	/**
+	 * Establece el tipo de muestreo de oraciones: UNIFORM selecciona cada oración de forma independiente y STRATIFIED selecciona la misma proporción de oraciones de cada libro.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param samplingType tipo de muestreo
+	 */
+	public void setSamplingType(SamplingType samplingType) {
+		this.samplingType = samplingType;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return <i>true</i> si cada hilo de análisis guarda las tripletas en una tabla propia
+	 */
+	public boolean isLocalTables() {
+		return localTables;
+	}
+
+	/**
+	 * Establece si cada hilo de análisis guarda las tripletas en una tabla propia en lugar de en la colección compartida.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param localTables <i>true</i> para utilizar tablas por hilo
+	 */
+	public void setLocalTables(boolean localTables) {
+		this.localTables = localTables;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return <i>true</i> si las tripletas se guardan fuera del heap
+	 */
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+	/**
+	 * Establece si las claves y los contadores de las tripletas se guardan fuera del heap, en buffers directos. Permite procesar corpus con más tripletas distintas de las que caben en el heap, siempre que se aumente el límite de memoria de buffers directos de la JVM (-XX:MaxDirectMemorySize, que por defecto es igual a -Xmx).<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param offHeap <i>true</i> para guardar las tripletas fuera del heap
+	 */
+	public void setOffHeap(boolean offHeap) {
+		this.offHeap = offHeap;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return la carpeta de volcado de tripletas, o null si las tripletas se guardan sólo en memoria
+	 */
+	public String getSpillDirectory() {
+		return spillDirectory;
+	}
+
+	/**
+	 * Establece la carpeta en la que se vuelcan las tripletas cuando su número en memoria alcanza el umbral de volcado.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param spillDirectory carpeta de volcado de tripletas, o null para guardarlas sólo en memoria
+	 */
+	public void setSpillDirectory(String spillDirectory) {
+		this.spillDirectory = spillDirectory;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @return el número de tripletas distintas en memoria a partir del cual se vuelcan a disco
+	 */
+	public int getSpillThreshold() {
+		return spillThreshold;
+	}
+
+	/**
+	 * Establece el número de tripletas distintas en memoria a partir del cual se vuelcan a disco.<p>
+	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
+	 * @param spillThreshold umbral de volcado de tripletas
+	 */
+	public void setSpillThreshold(int spillThreshold) {
+		this.spillThreshold = spillThreshold;
+	}
+
+	/**
+	 * Se utiliza en el algoritmo de coaparición de palabras (AlgorithmType.WINDOW_COOCCURRENCE)
+	 * @return número de palabras siguientes con las que se relaciona cada palabra
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * Establece el tamaño de la ventana de coaparición: número de palabras siguientes con las que se relaciona cada palabra.<p>
+	 * Se utiliza en el algoritmo de coaparición de palabras (AlgorithmType.WINDOW_COOCCURRENCE)
+	 * @param windowSize tamaño de la ventana
+	 */
+	public void setWindowSize(int windowSize) {
+		this.windowSize = windowSize;
+	}
+
 	/**
 	 * Se utiliza en el algoritmo de cálculo de información mutua (AlgorithmType.MUTUAL_INFORMATION)
 	 * @return las opciones de configuración del analizador de Stanford
@@ -15,6 +15,7 @@ import org.josfranmc.collocatio.triples.TripleEvents;
  * <li>Todas las palabras que ocupan la posición 1 en esas tripletas, junto con su frecuencia de repetición</li>
  * <li>Todas las palabras que ocupan la posición 2 en esas tripletas, junto con su frecuencia de repetición</li>
  * <li>El número total de tripletas obtenidas (todas las tripletas de todos los tipos de dependencia posibles)</li>
+ * <li>La proporción de oraciones analizadas, cuando las tripletas se obtienen de una muestra del corpus</li>
  * </ul>
  * Los objetos de esta clase son creados y menejados por los diferentes procesos ejecutados por el algoritmo MutualInformationAlgorithm, siendo
  * utiizados para pasar la información relevante del cálculo entre ellos.<p>
@@ -64,6 +65,11 @@ public class TriplesData {
 	 */
 	private double adjustedFrequency = 0.0;
 	
+	/**
+	 * Proporción de oraciones analizadas para obtener las tripletas. Si es menor que 1 las frecuencias proceden de una muestra del corpus
+	 */
+	private double sampleRate = 1.0;
+	
 	
 	/**
 	 * Constructor principal. Establece el nombre de la dependencia cuyos datos relacionados se van a encapsular. 
@@ -182,6 +188,22 @@ public class TriplesData {
 		this.adjustedFrequency = frequencyAdjusted;
 	}
 	
+	/**
+	 * @return proporción de oraciones analizadas para obtener las tripletas
+	 */
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * Establece la proporción de oraciones analizadas para obtener las tripletas. Si es menor que 1, junto al valor de información mutua
+	 * de cada tripleta se calcula una estimación de su error
+	 * @param sampleRate proporción de oraciones analizadas
+	 */
+	public void setSampleRate(double sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+	
 	/**
 	 * @return el total de elementos de la colección de tripletas del tipo de dependencia indicado por la propiedad dependency de la clase. 
 	 */
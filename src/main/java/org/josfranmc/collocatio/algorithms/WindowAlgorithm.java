@@ -0,0 +1,60 @@
+package org.josfranmc.collocatio.algorithms;
+
+import org.josfranmc.collocatio.triples.TriplesCollection;
+import org.josfranmc.collocatio.triples.WindowTriplesExtractor;
+
+/**
+ * Implementa un algoritmo basado en el cálculo del valor de información mutua de palabras que aparecen próximas en el texto, sin realizar
+ * análisis sintáctico. Se diferencia de MutualInformationAlgorithm únicamente en la obtención de las tripletas, que se realiza mediante un
+ * objeto de tipo WindowTriplesExtractor; el cálculo del valor de información mutua y su almacenamiento en base de datos son los mismos.<p>
+ * Es mucho más rápido que el algoritmo basado en el analizador de Stanford, por lo que sirve para hacer una primera valoración de un corpus.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see MutualInformationAlgorithm
+ * @see WindowTriplesExtractor
+ */
+public class WindowAlgorithm extends MutualInformationAlgorithm {
+
+	/**
+	 * Número de palabras siguientes con las que se relaciona cada palabra
+	 */
+	private int windowSize = WindowTriplesExtractor.DEFAULT_WINDOW_SIZE;
+
+	
+	/**
+	 * Constructor por defecto.
+	 */
+	WindowAlgorithm() {
+		
+	}
+	
+	/**
+	 * Implementa el proceso de extracción de tripletas mediante un objeto WindowTriplesExtractor, que obtiene las tripletas a partir de la
+	 * coaparición de palabras dentro de una ventana de tamaño fijo.
+	 */
+	@Override
+	protected TriplesCollection extractTriples() {
+		WindowTriplesExtractor wte = new WindowTriplesExtractor();
+		wte.setTextsPathToProcess(getTextsPathToProcess());
+		wte.setTotalThreads(getTotalThreads());
+		wte.setWindowSize(getWindowSize());
+		wte.setSampleRate(getSampleRate());
+		wte.setSamplingType(getSamplingType());
+		return wte.extractTriples();
+	}
+
+	/**
+	 * @return número de palabras siguientes con las que se relaciona cada palabra
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * Establece el tamaño de la ventana de coaparición: número de palabras siguientes con las que se relaciona cada palabra.
+	 * @param windowSize tamaño de la ventana
+	 */
+	public void setWindowSize(int windowSize) {
+		this.windowSize = windowSize;
+	}
+}
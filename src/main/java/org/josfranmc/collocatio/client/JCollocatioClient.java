@@ -13,6 +13,11 @@ import org.josfranmc.collocatio.algorithms.ParamsAlgorithm;
 import org.josfranmc.collocatio.db.ConnectionFactory;
 import org.josfranmc.collocatio.service.JCollocatioService;
 import org.josfranmc.collocatio.service.domain.Collocatio;
+import org.josfranmc.collocatio.triples.ParserRegistry;
+import org.josfranmc.collocatio.triples.ParserType;
+import org.josfranmc.collocatio.triples.SamplingType;
+import org.josfranmc.collocatio.triples.StanfordTriplesExtractor;
+import org.josfranmc.collocatio.triples.WindowTriplesExtractor;
 
 /**
  * Clase que permite ejecutar un progrma cliente para realizar la extracción de colocaciones y la consulta de las mismas.
@@ -44,6 +49,7 @@ public class JCollocatioClient {
 		EXTRACT,
 		QUERY,
 		HELP,
+		UNLOAD,
 		EXIT,
 		ERROR
 	}
@@ -75,6 +81,9 @@ public class JCollocatioClient {
 			case HELP:
 				showHelp();
 				break;
+			case UNLOAD:
+				unloadModels();
+				break;
 			case ERROR:
 				break;
 			case EXIT:
@@ -99,6 +108,8 @@ public class JCollocatioClient {
 			task = Tasks.HELP;
 		} else if (args.length == 1 && args[0].equals("exit")) {
 			task = Tasks.EXIT;		
+		} else if (args.length == 1 && args[0].equals("unload")) {
+			task = Tasks.UNLOAD;
 		} else {
 			if (args[0].equals("-q")) {
 				task = getQueryParameters(args);
@@ -116,6 +127,48 @@ public class JCollocatioClient {
 							params.setAdjustedFrequency(Double.parseDouble(args[i+1]));
 						} else if (args[i].equals("-t")) {
 							params.setTotalThreads(Integer.parseInt(args[i+1]));
+						} else if (args[i].equals("--queue")) {
+							params.setQueueCapacity(Integer.parseInt(args[i+1]));
+						} else if (args[i].equals("--batch")) {
+							params.setBatchSize(Integer.parseInt(args[i+1]));
+						} else if (args[i].equals("--readers")) {
+							params.setTotalReaders(Integer.parseInt(args[i+1]));
+						} else if (args[i].equals("--priority")) {
+							params.setCostPriority(Boolean.parseBoolean(args[i+1]));
+						} else if (args[i].equals("--timeout")) {
+							params.setParseTimeout(Long.parseLong(args[i+1]));
+						} else if (args[i].equals("--quarantine")) {
+							params.setQuarantineFile(args[i+1]);
+						} else if (args[i].equals("--cache")) {
+							params.setCacheSize(Integer.parseInt(args[i+1]));
+						} else if (args[i].equals("--checkpoint")) {
+							params.setCheckpointDirectory(args[i+1]);
+						} else if (args[i].equals("--checkpoint-interval")) {
+							params.setCheckpointInterval(Long.parseLong(args[i+1]));
+						} else if (args[i].equals("--resume")) {
+							params.setResume(Boolean.parseBoolean(args[i+1]));
+						} else if (args[i].equals("--incremental")) {
+							params.setIncrementalDirectory(args[i+1]);
+						} else if (args[i].equals("--model-cache")) {
+							params.setModelCacheDirectory(args[i+1]);
+						} else if (args[i].equals("--parser")) {
+							params.setParserType(ParserType.valueOf(args[i+1].toUpperCase()));
+						} else if (args[i].equals("--window")) {
+							params.setWindowSize(Integer.parseInt(args[i+1]));
+						} else if (args[i].equals("--targets")) {
+							params.setTargetWords(Arrays.asList(args[i+1].split(",")));
+						} else if (args[i].equals("--sample")) {
+							params.setSampleRate(Double.parseDouble(args[i+1]));
+						} else if (args[i].equals("--sample-type")) {
+							params.setSamplingType(SamplingType.valueOf(args[i+1].toUpperCase()));
+						} else if (args[i].equals("--local-tables")) {
+							params.setLocalTables(Boolean.parseBoolean(args[i+1]));
+						} else if (args[i].equals("--off-heap")) {
+							params.setOffHeap(Boolean.parseBoolean(args[i+1]));
+						} else if (args[i].equals("--spill-dir")) {
+							params.setSpillDirectory(args[i+1]);
+						} else if (args[i].equals("--spill-threshold")) {
+							params.setSpillThreshold(Integer.parseInt(args[i+1]));
 						} else if (args[i].equals("-m")) {
 							params.setModel(args[i+1]);
 						} else if (args[i].equals("-b")) {	
@@ -158,6 +211,16 @@ public class JCollocatioClient {
 		jc.extractCollocations();
 	}
 	
+	/**
+	 * Libera los modelos de Stanford cargados en extracciones anteriores. Por defecto se mantienen en memoria para que las siguientes
+	 * extracciones no tengan que volver a cargarlos.
+	 */
+	private static void unloadModels() {
+		int total = ParserRegistry.size();
+		ParserRegistry.clear();
+		System.out.println("Modelos liberados: " + total);
+	}
+	
 	/**
 	 * Ejecuta una consulta.
 	 */
@@ -207,9 +270,30 @@ public class JCollocatioClient {
 		System.out.println("Opciones:");
 		System.out.println("");
 		System.out.println("Para extracción de colocaciones:");
-		System.out.println("   -a tipo de algoritmo (por defecto MUTUAL_INFORMATION)");
+		System.out.println("   -a tipo de algoritmo: MUTUAL_INFORMATION (por defecto) o WINDOW_COOCCURRENCE (coaparición, sin análisis sintáctico; no admite -f ni las opciones del analizador y de almacenamiento de tripletas)");
 		System.out.println("   -p ruta archivos a procesar");
 		System.out.println("   -t total de hilos a ejecutar");
+		System.out.println("   --queue máximo de tareas de análisis pendientes (por defecto " + StanfordTriplesExtractor.DEFAULT_QUEUE_CAPACITY + ")");
+		System.out.println("   --batch oraciones a analizar por tarea (por defecto " + StanfordTriplesExtractor.DEFAULT_BATCH_SIZE + ")");
+		System.out.println("   --readers hilos de lectura de textos (por defecto " + StanfordTriplesExtractor.DEFAULT_TOTAL_READERS + ")");
+		System.out.println("   --priority ejecutar primero las tareas de análisis más costosas (true/false, por defecto false)");
+		System.out.println("   --timeout tiempo máximo de análisis por oración en milisegundos (por defecto 0, sin límite)");
+		System.out.println("   --quarantine fichero de oraciones abandonadas por tiempo (por defecto " + StanfordTriplesExtractor.DEFAULT_QUARANTINE_FILE + ")");
+		System.out.println("   --cache oraciones guardadas en la caché de análisis, 0 para desactivarla (por defecto " + StanfordTriplesExtractor.DEFAULT_CACHE_SIZE + ")");
+		System.out.println("   --checkpoint carpeta donde guardar puntos de control de la extracción");
+		System.out.println("   --checkpoint-interval segundos entre puntos de control (por defecto " + StanfordTriplesExtractor.DEFAULT_CHECKPOINT_INTERVAL + ")");
+		System.out.println("   --resume continuar la extracción desde el último punto de control (true/false, por defecto false)");
+		System.out.println("   --incremental carpeta del almacén de tripletas por libro; sólo se analizan los libros nuevos");
+		System.out.println("   --model-cache carpeta de la caché de modelos descomprimidos");
+		System.out.println("   --parser analizador de dependencias: pcfg (por defecto) o neural");
+		System.out.println("   --window tamaño de la ventana para WINDOW_COOCCURRENCE (por defecto " + WindowTriplesExtractor.DEFAULT_WINDOW_SIZE + ")");
+		System.out.println("   --targets lista de palabras objetivo separadas por comas; sólo se analizan las oraciones que contienen alguna (no compatible con --incremental)");
+		System.out.println("   --sample proporción de oraciones a analizar, entre 0 y 1, para obtener una estimación rápida (por defecto 1, todas)");
+		System.out.println("   --sample-type tipo de muestreo: uniform (por defecto) o stratified");
+		System.out.println("   --local-tables cada hilo de análisis guarda las tripletas en una tabla propia que se unen al final (true/false, por defecto false)");
+		System.out.println("   --off-heap guarda las claves y los contadores de las tripletas fuera del heap (true/false, por defecto false); su tamaño lo limita -XX:MaxDirectMemorySize, igual a -Xmx por defecto");
+		System.out.println("   --spill-dir carpeta en la que volcar las tripletas cuando no caben en memoria");
+		System.out.println("   --spill-threshold número de tripletas distintas en memoria a partir del cual se vuelcan a disco (por defecto " + StanfordTriplesExtractor.DEFAULT_SPILL_THRESHOLD + ")");
 		System.out.println("   -m model de Stanford a utilizar");
 		System.out.println("   -o opciones para el parser de Stanford");
 		System.out.println("   -f lista de dependencias por las que filtrar, separadas por comas");
@@ -224,6 +308,8 @@ public class JCollocatioClient {
 		System.out.println("   -q all -p offset size [-b base_de_datos]");		
 		System.out.println("      (offset = número de página, size = tamaño de página)\"");
 		System.out.println("");
+		System.out.println("Para liberar los modelos de Stanford cargados: unload");
+		System.out.println("");
 		System.out.println("(indicar solo -h para mostrar lista de opciones)");
 		System.out.println("");
 	}
@@ -167,6 +167,7 @@ public class DataBaseBuilder {
 					+  "`PALABRA1` VARCHAR(500) NOT NULL COMMENT 'Palabra 1 de la tripleta',"
 					+  "`PALABRA2` VARCHAR(500) NOT NULL COMMENT 'Palabra 1 de la tripleta',"
 					+  "`INFOMUTUA` DOUBLE NULL COMMENT 'Valor información mutua',"
+					+  "`ERRORINFOMUTUA` DOUBLE NULL COMMENT 'Error estimado del valor de información mutua si se ha analizado una muestra',"
 					+  "PRIMARY KEY (`ID`))"
 					+  "COMMENT = 'Colocaciones';");
 
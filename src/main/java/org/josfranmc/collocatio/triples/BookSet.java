@@ -0,0 +1,335 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Conjunto inmutable de libros, en el que cada libro se guarda mediante un identificador entero en lugar de mediante su nombre.<p>
+ * Los identificadores se obtienen de un vocabulario de libros común a todo el proceso, de forma que el nombre de cada libro se guarda una
+ * sola vez independientemente del número de tripletas en las que aparezca.<p>
+ * Según el número de libros y lo próximos que sean sus identificadores, el conjunto se guarda como un array ordenado de identificadores o
+ * como un mapa de bits que empieza en el primer bloque de 64 identificadores ocupado, utilizándose la representación que ocupa menos memoria.
+ * Ambas representaciones permiten recorrer los libros en orden y unir conjuntos sin crear objetos intermedios.<p>
+ * Al ser inmutable, un mismo conjunto puede compartirse entre varios hilos; las operaciones de modificación devuelven un conjunto nuevo.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see TripleEvents
+ */
+public final class BookSet extends AbstractSet<String> {
+
+	/**
+	 * Número máximo de libros que admite el vocabulario de libros
+	 */
+	private static final int MAX_BOOKS = Integer.MAX_VALUE - 8;
+
+	/**
+	 * Vocabulario de libros común a todo el proceso
+	 */
+	private static final Vocabulary BOOKS = new Vocabulary(MAX_BOOKS);
+
+	/**
+	 * Conjunto vacío
+	 */
+	public static final BookSet EMPTY = new BookSet(new int[0], null, 0, 0);
+
+	/**
+	 * Identificadores ordenados de los libros, si el conjunto se guarda como array
+	 */
+	private final int[] ids;
+
+	/**
+	 * Mapa de bits de los libros, si el conjunto se guarda como mapa de bits
+	 */
+	private final long[] bits;
+
+	/**
+	 * Índice del primer bloque de 64 identificadores que representa el mapa de bits
+	 */
+	private final int firstWord;
+
+	/**
+	 * Número de libros del conjunto
+	 */
+	private final int size;
+
+
+	private BookSet(int[] ids, long[] bits, int firstWord, int size) {
+		this.ids = ids;
+		this.bits = bits;
+		this.firstWord = firstWord;
+		this.size = size;
+	}
+
+	/**
+	 * Devuelve el identificador de un libro, registrándolo si es la primera vez que aparece.
+	 * @param book identificador del libro
+	 * @return identificador entero del libro
+	 */
+	public static int getBookId(String book) {
+		return BOOKS.getId(book);
+	}
+
+	/**
+	 * @param id identificador entero de un libro registrado
+	 * @return identificador del libro
+	 */
+	public static String getBook(int id) {
+		return BOOKS.getWord(id);
+	}
+
+	/**
+	 * @param id identificador entero de un libro
+	 * @return conjunto que contiene únicamente dicho libro
+	 */
+	public static BookSet of(int id) {
+		return new BookSet(new int[] { id }, null, 0, 1);
+	}
+
+	/**
+	 * Crea un conjunto a partir de los identificadores de varios libros.
+	 * @param books identificadores de los libros
+	 * @return conjunto con los libros indicados
+	 */
+	public static BookSet of(Iterable<String> books) {
+		if (books instanceof BookSet) {
+			return (BookSet) books;
+		}
+		int[] ids = new int[16];
+		int size = 0;
+		for (String book : books) {
+			if (size == ids.length) {
+				ids = Arrays.copyOf(ids, size * 2);
+			}
+			ids[size++] = getBookId(book);
+		}
+		if (size == 0) {
+			return EMPTY;
+		}
+		Arrays.sort(ids, 0, size);
+		int distinct = 1;
+		for (int i = 1; i < size; i++) {
+			if (ids[i] != ids[distinct - 1]) {
+				ids[distinct++] = ids[i];
+			}
+		}
+		return compact(ids, distinct);
+	}
+
+	/**
+	 * Crea un conjunto a partir de identificadores enteros ya ordenados, como los que devuelve <i>idIterator()</i>.
+	 * @param ids identificadores enteros ordenados y sin repetir; el array pasa a formar parte del conjunto
+	 * @return conjunto con los libros indicados
+	 */
+	static BookSet ofIds(int[] ids) {
+		return (ids.length == 0) ? EMPTY : compact(ids, ids.length);
+	}
+
+	/**
+	 * Devuelve un conjunto con los libros de este conjunto y el libro indicado.
+	 * @param id identificador entero del libro a añadir
+	 * @return este mismo conjunto si ya contiene el libro, o un conjunto nuevo en otro caso
+	 */
+	public BookSet with(int id) {
+		if (contains(id)) {
+			return this;
+		}
+		if (bits != null) {
+			int word = id >>> 6;
+			if (word >= firstWord && word < firstWord + bits.length) {
+				long[] copy = bits.clone();
+				copy[word - firstWord] |= 1L << id;
+				return new BookSet(null, copy, firstWord, size + 1);
+			}
+			return union(of(id));
+		}
+		int position = -Arrays.binarySearch(ids, 0, size, id) - 1;
+		int[] copy = new int[size + 1];
+		System.arraycopy(ids, 0, copy, 0, position);
+		copy[position] = id;
+		System.arraycopy(ids, position, copy, position + 1, size - position);
+		return compact(copy, size + 1);
+	}
+
+	/**
+	 * Une este conjunto con otro.
+	 * @param other conjunto a unir
+	 * @return conjunto con los libros de ambos conjuntos; si uno de ellos contiene al otro se devuelve el mayor sin crear uno nuevo
+	 */
+	public BookSet union(BookSet other) {
+		if (other.size == 0 || this == other) {
+			return this;
+		}
+		if (this.size == 0) {
+			return other;
+		}
+		if (this.bits != null && other.bits != null) {
+			int first = Math.min(this.firstWord, other.firstWord);
+			int last = Math.max(this.firstWord + this.bits.length, other.firstWord + other.bits.length);
+			long[] result = new long[last - first];
+			int total = 0;
+			for (int i = 0; i < result.length; i++) {
+				result[i] = this.getWord(first + i) | other.getWord(first + i);
+				total += Long.bitCount(result[i]);
+			}
+			return (total == this.size) ? this : (total == other.size) ? other : new BookSet(null, result, first, total);
+		}
+		int[] result = new int[this.size + other.size];
+		int total = 0;
+		IdIterator a = this.idIterator();
+		IdIterator b = other.idIterator();
+		int idA = a.next();
+		int idB = b.next();
+		while (idA >= 0 || idB >= 0) {
+			if (idB < 0 || (idA >= 0 && idA < idB)) {
+				result[total++] = idA;
+				idA = a.next();
+			} else if (idA < 0 || idB < idA) {
+				result[total++] = idB;
+				idB = b.next();
+			} else {
+				result[total++] = idA;
+				idA = a.next();
+				idB = b.next();
+			}
+		}
+		return (total == this.size) ? this : (total == other.size) ? other : compact(result, total);
+	}
+
+	/**
+	 * @param id identificador entero de un libro
+	 * @return <i>true</i> si el conjunto contiene el libro
+	 */
+	public boolean contains(int id) {
+		if (bits != null) {
+			return (getWord(id >>> 6) & (1L << id)) != 0;
+		}
+		return Arrays.binarySearch(ids, 0, size, id) >= 0;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.AbstractCollection#contains(java.lang.Object)
+	 */
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof String)) {
+			return false;
+		}
+		int id = BOOKS.findId((String) o);
+		return id >= 0 && contains(id);
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Recorre los libros del conjunto en orden creciente de identificador.
+	 */
+	@Override
+	public Iterator<String> iterator() {
+		IdIterator ids = idIterator();
+		return new Iterator<String>() {
+			private int next = ids.next();
+
+			@Override
+			public boolean hasNext() {
+				return next >= 0;
+			}
+
+			@Override
+			public String next() {
+				if (next < 0) {
+					throw new NoSuchElementException();
+				}
+				String book = getBook(next);
+				next = ids.next();
+				return book;
+			}
+		};
+	}
+
+	/**
+	 * @return <i>true</i> si el conjunto se guarda como mapa de bits
+	 */
+	boolean isBitmap() {
+		return bits != null;
+	}
+
+	/**
+	 * @return recorrido de los identificadores enteros de los libros del conjunto, en orden creciente
+	 */
+	IdIterator idIterator() {
+		return (bits != null) ? new BitmapIterator() : new ArrayIterator();
+	}
+
+	/**
+	 * @param word índice de un bloque de 64 identificadores
+	 * @return bits del bloque, o cero si el bloque queda fuera del mapa de bits
+	 */
+	private long getWord(int word) {
+		int index = word - firstWord;
+		return (index >= 0 && index < bits.length) ? bits[index] : 0;
+	}
+
+	/**
+	 * Crea un conjunto a partir de identificadores ordenados, eligiendo la representación que ocupa menos memoria.
+	 * @param ids identificadores ordenados y sin repetir
+	 * @param size número de identificadores válidos del array
+	 * @return conjunto con los identificadores indicados
+	 */
+	private static BookSet compact(int[] ids, int size) {
+		int first = ids[0] >>> 6;
+		int words = (ids[size - 1] >>> 6) - first + 1;
+		if (words * 2 >= size) {
+			return new BookSet((ids.length == size) ? ids : Arrays.copyOf(ids, size), null, 0, size);
+		}
+		long[] bits = new long[words];
+		for (int i = 0; i < size; i++) {
+			bits[(ids[i] >>> 6) - first] |= 1L << ids[i];
+		}
+		return new BookSet(null, bits, first, size);
+	}
+
+	/**
+	 * Recorrido de identificadores enteros. Devuelve -1 cuando no quedan más identificadores.
+	 */
+	interface IdIterator {
+		int next();
+	}
+
+	private class ArrayIterator implements IdIterator {
+
+		private int index;
+
+		@Override
+		public int next() {
+			return (index < size) ? ids[index++] : -1;
+		}
+	}
+
+	private class BitmapIterator implements IdIterator {
+
+		private int index;
+
+		private long word = bits[0];
+
+		@Override
+		public int next() {
+			while (word == 0) {
+				if (++index == bits.length) {
+					return -1;
+				}
+				word = bits[index];
+			}
+			int id = ((firstWord + index) << 6) + Long.numberOfTrailingZeros(word);
+			word &= word - 1;
+			return id;
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package org.josfranmc.collocatio.triples;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Almacén en disco de las tripletas obtenidas de cada libro. Permite el procesamiento incremental de un corpus: los libros ya analizados en
+ * ejecuciones anteriores se cargan del almacén en lugar de volver a analizarse, y sólo se analizan los libros nuevos, cuyas tripletas se guardan
+ * a su vez en el almacén.<p>
+ * Cada libro se guarda en un fichero propio, de nombre <i>identificador_libro.triples</i>, con el número de apariciones de cada tripleta en
+ * el libro. El fichero se escribe primero con otro nombre y después se renombra, de forma que un fichero presente en el almacén siempre
+ * está completo.<p>
+ * La cabecera de cada fichero guarda la configuración del análisis con el que se obtuvieron las tripletas (tipo de analizador, modelos y
+ * opciones) y el tamaño y la fecha de modificación del fichero del libro. Si al cargar un libro no coinciden con los actuales, el libro se
+ * considera ausente y se vuelve a analizar, de forma que no se mezclan tripletas obtenidas con configuraciones distintas ni tripletas de
+ * una versión anterior del libro.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see StanfordTriplesExtractor
+ */
+public class BookTriplesStore {
+
+	/**
+	 * Extensión de los ficheros del almacén
+	 */
+	public static final String EXTENSION = ".triples";
+
+	/**
+	 * Identificador del formato del fichero
+	 */
+	private static final int MAGIC = 0x4A435442;
+
+	/**
+	 * Versión del formato del fichero
+	 */
+	private static final int VERSION = 2;
+
+	/**
+	 * Carpeta del almacén
+	 */
+	private final File directory;
+
+	/**
+	 * Configuración del análisis con el que se obtienen las tripletas
+	 */
+	private final String settings;
+
+
+	/**
+	 * Constructor principal.
+	 * @param directory carpeta del almacén; se crea si no existe
+	 * @param settings descripción de la configuración del análisis con el que se obtienen las tripletas; los libros guardados con otra
+	 * configuración no se cargan
+	 */
+	public BookTriplesStore(String directory, String settings) {
+		if (directory == null || directory.isEmpty()) {
+			throw new IllegalArgumentException("Debe indicarse la carpeta del almacén de tripletas");
+		}
+		if (settings == null) {
+			throw new IllegalArgumentException("Debe indicarse la configuración del análisis");
+		}
+		this.directory = new File(directory);
+		this.settings = settings;
+	}
+
+	/**
+	 * @param book identificador del libro
+	 * @return <i>true</i> si las tripletas del libro se encuentran en el almacén
+	 */
+	public boolean contains(String book) {
+		return getFile(book).exists();
+	}
+
+	/**
+	 * Guarda en el almacén las tripletas de un libro.
+	 * @param book identificador del libro
+	 * @param bookFile fichero del libro, cuyo tamaño y fecha de modificación se guardan junto a las tripletas
+	 * @param bookTriples tripletas obtenidas del libro
+	 * @throws IOException si no se puede escribir el fichero
+	 */
+	public void save(String book, File bookFile, TriplesCollection bookTriples) throws IOException {
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("No se puede crear la carpeta " + directory);
+		}
+		File temp = new File(directory, book + EXTENSION + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			Map<Triple, TripleEvents> triples = bookTriples.getTriplesCollection();
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(settings);
+			out.writeLong(bookFile.length());
+			out.writeLong(bookFile.lastModified());
+			out.writeLong(bookTriples.getTotalTriples());
+			out.writeInt(triples.size());
+			for (Map.Entry<Triple, TripleEvents> entry : triples.entrySet()) {
+				out.writeUTF(entry.getKey().getDependency());
+				out.writeUTF(entry.getKey().getWord1());
+				out.writeUTF(entry.getKey().getWord2());
+				out.writeLong(entry.getValue().getTotalEvents());
+			}
+		}
+		Files.move(temp.toPath(), getFile(book).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Carga del almacén las tripletas de un libro.
+	 * @param book identificador del libro
+	 * @param bookFile fichero actual del libro
+	 * @return colección con las tripletas del libro, o null si el libro no está en el almacén, si se guardó con otra configuración del
+	 * análisis o si el fichero del libro ha cambiado desde que se guardó
+	 * @throws IOException si el fichero no se puede leer o no tiene un formato válido
+	 */
+	public TriplesCollection load(String book, File bookFile) throws IOException {
+		TriplesCollection bookTriples = new TriplesCollection();
+		Set<String> books = Collections.singleton(book);
+		File file = getFile(book);
+		if (!file.exists()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC) {
+				throw new IOException("Formato de almacén de tripletas no válido: " + file);
+			}
+			// los ficheros de versiones anteriores no guardan la configuración, por lo que se vuelven a analizar
+			if (in.readInt() != VERSION || !settings.equals(in.readUTF())
+					|| in.readLong() != bookFile.length() || in.readLong() != bookFile.lastModified()) {
+				return null;
+			}
+			long totalTriples = in.readLong();
+			int totalEntries = in.readInt();
+			for (int i = 0; i < totalEntries; i++) {
+				Triple triple = new Triple();
+				triple.setDependency(in.readUTF());
+				triple.setWord1(in.readUTF());
+				triple.setWord2(in.readUTF());
+				bookTriples.putEvents(triple, books, in.readLong());
+			}
+			bookTriples.addTotalTriples(totalTriples);
+		}
+		return bookTriples;
+	}
+
+	/**
+	 * @param book identificador del libro
+	 * @return fichero del almacén correspondiente al libro
+	 */
+	private File getFile(String book) {
+		return new File(directory, book + EXTENSION);
+	}
+}
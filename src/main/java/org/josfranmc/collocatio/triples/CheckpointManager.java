@@ -0,0 +1,262 @@
+package org.josfranmc.collocatio.triples;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.log4j.Logger;
+import org.josfranmc.collocatio.util.ThreadFactoryBuilder;
+
+/**
+ * Guarda periódicamente en disco el estado parcial de una extracción de tripletas, de forma que una ejecución interrumpida pueda continuarse
+ * sin volver a analizar los libros ya procesados.<p>
+ * El estado guardado está formado por la colección de tripletas de los libros completamente analizados, incluido el número de tripletas
+ * descartadas por el filtro de dependencias, y el conjunto de dichos libros. Para que
+ * ambos sean siempre coherentes, las tripletas de cada libro se acumulan en una colección propia del libro y sólo se añaden a la colección
+ * principal, mediante <i>completeBook</i>, cuando han terminado todas las tareas de análisis del libro. La escritura del punto de control
+ * bloquea la incorporación de libros terminados, pero no el análisis de las oraciones.<p>
+ * El punto de control guarda también la configuración del análisis con el que se obtuvieron las tripletas (tipo de analizador, modelos,
+ * opciones, palabras objetivo, muestreo y filtro de dependencias), y sólo se carga si coincide con la configuración actual, para no mezclar
+ * en una misma colección frecuencias obtenidas con analizadores distintos o de oraciones o tripletas distintas.<p>
+ * El punto de control se escribe primero en un fichero temporal que después se renombra, por lo que una interrupción durante la escritura
+ * no estropea el punto de control anterior.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see StanfordTriplesExtractor
+ * @see TriplesCollection
+ */
+public class CheckpointManager {
+
+	private static final Logger log = Logger.getLogger(CheckpointManager.class);
+
+	/**
+	 * Nombre del fichero de punto de control
+	 */
+	public static final String CHECKPOINT_FILE = "checkpoint.dat";
+
+	/**
+	 * Identificador del formato del fichero
+	 */
+	private static final int MAGIC = 0x4A434350;
+
+	/**
+	 * Versión del formato del fichero
+	 */
+	private static final int VERSION = 3;
+
+	/**
+	 * Carpeta donde se guarda el punto de control
+	 */
+	private final File directory;
+
+	/**
+	 * Configuración del análisis con el que se obtienen las tripletas
+	 */
+	private final String settings;
+
+	/**
+	 * Colección principal de tripletas, con las tripletas de los libros terminados
+	 */
+	private final TriplesCollection triplesCollection;
+
+	/**
+	 * Libros cuyas tripletas se han añadido completamente a la colección principal
+	 */
+	private final Set<String> completedBooks = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Bloqueo que impide añadir libros terminados mientras se escribe el punto de control
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Hilo que escribe periódicamente el punto de control
+	 */
+	private ScheduledExecutorService scheduler;
+
+
+	/**
+	 * Constructor principal.
+	 * @param directory carpeta donde guardar el punto de control; se crea si no existe
+	 * @param settings descripción de la configuración del análisis con el que se obtienen las tripletas; no se carga un punto de control
+	 * guardado con otra configuración
+	 * @param triplesCollection colección principal de tripletas
+	 */
+	public CheckpointManager(String directory, String settings, TriplesCollection triplesCollection) {
+		if (directory == null || directory.isEmpty()) {
+			throw new IllegalArgumentException("Debe indicarse la carpeta del punto de control");
+		}
+		if (settings == null) {
+			throw new IllegalArgumentException("Debe indicarse la configuración del análisis");
+		}
+		this.directory = new File(directory);
+		this.settings = settings;
+		this.triplesCollection = triplesCollection;
+	}
+
+	/**
+	 * Carga el último punto de control guardado, si existe, en la colección principal de tripletas.
+	 * @return <i>true</i> si se ha cargado un punto de control, <i>false</i> si no existe
+	 * @throws IOException si el fichero no se puede leer, no tiene un formato válido o se guardó con otra configuración del análisis
+	 */
+	public boolean load() throws IOException {
+		File file = new File(directory, CHECKPOINT_FILE);
+		if (!file.exists()) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException("Formato de punto de control no válido: " + file);
+			}
+			String checkpointSettings = in.readUTF();
+			if (!settings.equals(checkpointSettings)) {
+				throw new IOException("El punto de control " + file + " se guardó con otra configuración del análisis (" + checkpointSettings
+						+ "); debe utilizarse la misma configuración o eliminarse el punto de control");
+			}
+			int totalBooks = in.readInt();
+			for (int i = 0; i < totalBooks; i++) {
+				completedBooks.add(in.readUTF());
+			}
+			int totalEntries = in.readInt();
+			for (int i = 0; i < totalEntries; i++) {
+				Triple triple = new Triple();
+				triple.setDependency(in.readUTF());
+				triple.setWord1(in.readUTF());
+				triple.setWord2(in.readUTF());
+				long total = in.readLong();
+				int books = in.readInt();
+				Set<String> tripleBooks = new HashSet<String>(books);
+				for (int j = 0; j < books; j++) {
+					tripleBooks.add(in.readUTF());
+				}
+				triplesCollection.putEvents(triple, tripleBooks, total);
+			}
+			// el total guardado incluye las tripletas descartadas, que se suman de nuevo al total al registrarlas
+			long totalTriples = in.readLong();
+			long discardedTriples = in.readLong();
+			triplesCollection.addTotalTriples(totalTriples - discardedTriples);
+			triplesCollection.addDiscardedTriples(discardedTriples);
+		}
+		log.info("Punto de control cargado: " + completedBooks.size() + " libros, " + triplesCollection.getTotalTriples() + " tripletas");
+		return true;
+	}
+
+	/**
+	 * Inicia la escritura periódica del punto de control.
+	 * @param interval segundos entre dos puntos de control consecutivos
+	 */
+	public void start(long interval) {
+		if (interval < 1) {
+			throw new IllegalArgumentException("El intervalo entre puntos de control debe ser mayor que cero");
+		}
+		scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+				.setNameThread("Checkpoint")
+				.setDaemon(true)
+				.build());
+		scheduler.scheduleWithFixedDelay(() -> {
+			try {
+				checkpoint();
+			} catch (Exception e) {
+				log.error("Error guardando punto de control", e);
+			}
+		}, interval, interval, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Detiene la escritura periódica del punto de control.
+	 */
+	public void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	/**
+	 * @param book identificador de un libro
+	 * @return <i>true</i> si las tripletas del libro ya se encuentran en la colección principal
+	 */
+	public boolean isCompleted(String book) {
+		return completedBooks.contains(book);
+	}
+
+	/**
+	 * @return conjunto de libros cuyas tripletas se encuentran en la colección principal
+	 */
+	public Set<String> getCompletedBooks() {
+		return completedBooks;
+	}
+
+	/**
+	 * Añade a la colección principal las tripletas de un libro completamente analizado y marca el libro como terminado.
+	 * @param book identificador del libro
+	 * @param bookTriples tripletas del libro
+	 */
+	public void completeBook(String book, TriplesCollection bookTriples) {
+		lock.readLock().lock();
+		try {
+			triplesCollection.merge(bookTriples);
+			completedBooks.add(book);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Escribe el punto de control con el estado actual de la colección principal y de los libros terminados.
+	 * @throws IOException si no se puede escribir el fichero
+	 */
+	public void checkpoint() throws IOException {
+		long start = System.currentTimeMillis();
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("No se puede crear la carpeta " + directory);
+		}
+		File temp = new File(directory, CHECKPOINT_FILE + ".tmp");
+		int books;
+		lock.writeLock().lock();
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			books = completedBooks.size();
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(settings);
+			out.writeInt(books);
+			for (String book : completedBooks) {
+				out.writeUTF(book);
+			}
+			Map<Triple, TripleEvents> triples = triplesCollection.getTriplesCollection();
+			out.writeInt(triples.size());
+			for (Map.Entry<Triple, TripleEvents> entry : triples.entrySet()) {
+				out.writeUTF(entry.getKey().getDependency());
+				out.writeUTF(entry.getKey().getWord1());
+				out.writeUTF(entry.getKey().getWord2());
+				out.writeLong(entry.getValue().getTotalEvents());
+				out.writeInt(entry.getValue().getBooks().size());
+				for (String book : entry.getValue().getBooks()) {
+					out.writeUTF(book);
+				}
+			}
+			out.writeLong(triplesCollection.getTotalTriples());
+			out.writeLong(triplesCollection.getDiscardedTriples());
+		} finally {
+			lock.writeLock().unlock();
+		}
+		Files.move(temp.toPath(), new File(directory, CHECKPOINT_FILE).toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		log.info("Punto de control guardado: " + books + " libros (" + (System.currentTimeMillis() - start) + " ms)");
+	}
+}
@@ -0,0 +1,20 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.Iterator;
+
+/**
+ * Iterador que puede tener recursos abiertos mientras se recorre, como los ficheros de volcado de una colección de tripletas. Los recursos se
+ * liberan al terminar el recorrido; si el recorrido se abandona antes de terminar debe llamarse a <i>close</i>.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @param <T> tipo de los elementos recorridos
+ * @see TriplesCollection
+ */
+public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
+
+	/**
+	 * Libera los recursos del recorrido. Después ya no se devuelven más elementos. Puede llamarse varias veces.
+	 */
+	@Override
+	void close();
+}
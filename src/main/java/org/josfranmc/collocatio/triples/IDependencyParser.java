@@ -0,0 +1,26 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.List;
+
+import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.trees.TypedDependency;
+
+/**
+ * Define el analizador de dependencias utilizado para obtener las tripletas de una oración. Permite cambiar el software de análisis
+ * empleado en la extracción de tripletas sin modificar el resto del proceso.<p>
+ * Las implementaciones deben poder utilizarse de forma concurrente desde varios hilos.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see ParserType
+ * @see ParserThread
+ */
+public interface IDependencyParser {
+
+	/**
+	 * Analiza una oración y obtiene las dependencias entre sus palabras.
+	 * @param sentence oración a analizar
+	 * @return lista de dependencias de la oración
+	 * @see TypedDependency
+	 */
+	public List<TypedDependency> getTypedDependencies(List<? extends HasWord> sentence);
+}
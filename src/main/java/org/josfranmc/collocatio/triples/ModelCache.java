@@ -0,0 +1,223 @@
+package org.josfranmc.collocatio.triples;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Caché en disco de los modelos de Stanford. Los modelos se distribuyen comprimidos con gzip, por lo que cada carga del modelo debe
+ * descomprimirlo además de deserializarlo. La caché guarda una copia descomprimida del modelo, que se carga en su lugar en las ejecuciones
+ * siguientes.<p>
+ * Junto a cada copia se guarda un fichero de propiedades con la suma de comprobación (CRC32) del modelo original, el tamaño de la copia y el
+ * tiempo que tardó en cargarse el modelo original. Antes de usar una copia se vuelve a calcular la suma de comprobación del modelo original; si
+ * no coincide, la copia se considera obsoleta y no se utiliza.<p>
+ * El modelo original puede ser un fichero o un recurso del classpath (por ejemplo, los modelos incluidos en el jar de modelos de Stanford).
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see StanfordTriplesExtractor
+ */
+public class ModelCache {
+
+	private static final Logger log = Logger.getLogger(ModelCache.class);
+
+	/**
+	 * Extensión de las copias de los modelos
+	 */
+	public static final String EXTENSION = ".ser";
+
+	/**
+	 * Extensión de los ficheros de propiedades de las copias
+	 */
+	public static final String PROPERTIES_EXTENSION = ".properties";
+
+	private static final String PROPERTY_SOURCE = "source";
+	private static final String PROPERTY_CHECKSUM = "checksum";
+	private static final String PROPERTY_SIZE = "size";
+	private static final String PROPERTY_LOAD_TIME = "loadTime";
+
+	/**
+	 * Carpeta de la caché
+	 */
+	private final File directory;
+
+
+	/**
+	 * Constructor principal.
+	 * @param directory carpeta de la caché; se crea si no existe
+	 */
+	public ModelCache(String directory) {
+		if (directory == null || directory.isEmpty()) {
+			throw new IllegalArgumentException("Debe indicarse la carpeta de la caché de modelos");
+		}
+		this.directory = new File(directory);
+	}
+
+	/**
+	 * Devuelve la ruta de la copia en caché de un modelo, siempre que la copia exista y corresponda al modelo original actual.
+	 * @param model ruta del modelo original
+	 * @return ruta de la copia, o null si no existe o está obsoleta
+	 * @throws IOException si no se puede leer el modelo original
+	 */
+	public String getCachedModel(String model) throws IOException {
+		File file = getFile(model);
+		Properties properties = loadProperties(model);
+		if (!file.exists() || properties == null) {
+			return null;
+		}
+		if (!model.equals(properties.getProperty(PROPERTY_SOURCE))
+				|| !String.valueOf(file.length()).equals(properties.getProperty(PROPERTY_SIZE))
+				|| !String.valueOf(getChecksum(model)).equals(properties.getProperty(PROPERTY_CHECKSUM))) {
+			log.info("Copia en caché del modelo " + model + " obsoleta");
+			return null;
+		}
+		return file.getPath();
+	}
+
+	/**
+	 * Crea la copia en caché de un modelo, sustituyendo la anterior si existe.
+	 * @param model ruta del modelo original
+	 * @param loadTime milisegundos empleados en cargar el modelo original
+	 * @return ruta de la copia
+	 * @throws IOException si no se puede leer el modelo original o escribir la copia
+	 */
+	public String createCachedModel(String model, long loadTime) throws IOException {
+		long start = System.currentTimeMillis();
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new IOException("No se puede crear la carpeta " + directory);
+		}
+		File file = getFile(model);
+		File temp = new File(directory, file.getName() + ".tmp");
+		CRC32 checksum = new CRC32();
+		try (CheckedInputStream checked = new CheckedInputStream(openModel(model), checksum);
+			 InputStream in = isCompressed(model) ? new GZIPInputStream(checked, 65536) : checked;
+			 OutputStream out = new BufferedOutputStream(new FileOutputStream(temp), 65536)) {
+			byte[] buffer = new byte[65536];
+			int n;
+			while ((n = in.read(buffer)) != -1) {
+				out.write(buffer, 0, n);
+			}
+			// si el modelo está comprimido pueden quedar bytes sin leer tras el final de los datos comprimidos
+			while (checked.read(buffer) != -1) {
+			}
+		}
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		Properties properties = new Properties();
+		properties.setProperty(PROPERTY_SOURCE, model);
+		properties.setProperty(PROPERTY_CHECKSUM, String.valueOf(checksum.getValue()));
+		properties.setProperty(PROPERTY_SIZE, String.valueOf(file.length()));
+		properties.setProperty(PROPERTY_LOAD_TIME, String.valueOf(loadTime));
+		File propertiesFile = getPropertiesFile(model);
+		File propertiesTemp = new File(directory, propertiesFile.getName() + ".tmp");
+		try (OutputStream out = new FileOutputStream(propertiesTemp)) {
+			properties.store(out, model);
+		}
+		Files.move(propertiesTemp.toPath(), propertiesFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		log.info("Copia en caché del modelo " + model + " creada en " + (System.currentTimeMillis() - start) + " ms: " + file.getPath());
+		return file.getPath();
+	}
+
+	/**
+	 * @param model ruta del modelo original
+	 * @return milisegundos que tardó en cargarse el modelo original cuando se creó la copia, o -1 si no se conoce
+	 */
+	public long getOriginalLoadTime(String model) {
+		try {
+			Properties properties = loadProperties(model);
+			return (properties != null) ? Long.parseLong(properties.getProperty(PROPERTY_LOAD_TIME, "-1")) : -1;
+		} catch (IOException | NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Calcula la suma de comprobación de un modelo original.
+	 * @param model ruta del modelo original
+	 * @return valor CRC32 del contenido del modelo
+	 * @throws IOException si no se puede leer el modelo
+	 */
+	long getChecksum(String model) throws IOException {
+		CRC32 checksum = new CRC32();
+		try (InputStream in = new CheckedInputStream(openModel(model), checksum)) {
+			byte[] buffer = new byte[65536];
+			while (in.read(buffer) != -1) {
+			}
+		}
+		return checksum.getValue();
+	}
+
+	/**
+	 * Abre un modelo original, buscándolo primero como fichero y después como recurso del classpath.
+	 */
+	private InputStream openModel(String model) throws IOException {
+		File file = new File(model);
+		if (file.exists()) {
+			return new BufferedInputStream(new FileInputStream(file), 65536);
+		}
+		InputStream in = ModelCache.class.getClassLoader().getResourceAsStream(model);
+		if (in == null) {
+			throw new FileNotFoundException("No se encuentra el modelo " + model);
+		}
+		return new BufferedInputStream(in, 65536);
+	}
+
+	private boolean isCompressed(String model) {
+		return model.endsWith(".gz");
+	}
+
+	/**
+	 * Carga el fichero de propiedades de la copia de un modelo.
+	 * @return propiedades, o null si el fichero no existe
+	 */
+	private Properties loadProperties(String model) throws IOException {
+		File file = getPropertiesFile(model);
+		if (!file.exists()) {
+			return null;
+		}
+		Properties properties = new Properties();
+		try (InputStream in = new FileInputStream(file)) {
+			properties.load(in);
+		}
+		return properties;
+	}
+
+	/**
+	 * @param model ruta del modelo original
+	 * @return fichero de la copia en caché del modelo
+	 */
+	private File getFile(String model) {
+		return new File(directory, getName(model) + EXTENSION);
+	}
+
+	private File getPropertiesFile(String model) {
+		return new File(directory, getName(model) + PROPERTIES_EXTENSION);
+	}
+
+	/**
+	 * Obtiene el nombre de la copia de un modelo a partir de su ruta, sustituyendo los separadores y quitando las extensiones.
+	 */
+	private String getName(String model) {
+		String name = model.replaceAll("[/\\\\:]", "_");
+		if (name.endsWith(".gz")) {
+			name = name.substring(0, name.length() - 3);
+		}
+		if (name.endsWith(EXTENSION)) {
+			name = name.substring(0, name.length() - EXTENSION.length());
+		}
+		return name;
+	}
+}
@@ -0,0 +1,58 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.List;
+
+import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.ling.TaggedWord;
+import edu.stanford.nlp.parser.nndep.DependencyParser;
+import edu.stanford.nlp.tagger.maxent.MaxentTagger;
+import edu.stanford.nlp.trees.GrammaticalStructure;
+import edu.stanford.nlp.trees.TypedDependency;
+
+/**
+ * Analizador de dependencias basado en el analizador neuronal por transiciones (nndep) del software de Stanford. Este analizador necesita
+ * las etiquetas gramaticales de las palabras, por lo que cada oración se etiqueta primero con MaxentTagger.<p>
+ * Las dependencias se obtienen con el mismo procesamiento (<i>typedDependenciesCCprocessed</i>) que en el analizador PCFG, de forma que las
+ * tripletas obtenidas por ambos analizadores son comparables.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see ParserType#NEURAL
+ * @see DependencyParser
+ * @see MaxentTagger
+ */
+public class NeuralDependencyParser implements IDependencyParser {
+
+	/**
+	 * Etiquetador gramatical utilizado antes del análisis
+	 */
+	private final MaxentTagger tagger;
+	
+	/**
+	 * Analizador de dependencias
+	 */
+	private final DependencyParser parser;
+	
+
+	/**
+	 * Constructor principal.
+	 * @param tagger objeto MaxentTagger
+	 * @param parser objeto DependencyParser
+	 */
+	public NeuralDependencyParser(MaxentTagger tagger, DependencyParser parser) {
+		if (tagger == null) {
+			throw new IllegalArgumentException("MaxentTagger es requerido");
+		}
+		if (parser == null) {
+			throw new IllegalArgumentException("DependencyParser es requerido");
+		}
+		this.tagger = tagger;
+		this.parser = parser;
+	}
+
+	@Override
+	public List<TypedDependency> getTypedDependencies(List<? extends HasWord> sentence) {
+		List<TaggedWord> tagged = tagger.tagSentence(sentence);
+		GrammaticalStructure gs = parser.predict(tagged);
+		return gs.typedDependenciesCCprocessed();
+	}
+}
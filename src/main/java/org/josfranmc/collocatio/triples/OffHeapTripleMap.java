@@ -0,0 +1,494 @@
+package org.josfranmc.collocatio.triples;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Tabla de apariciones de tripletas que guarda las claves y los contadores fuera del heap de Java, en buffers directos. Permite procesar
+ * corpus con más tripletas distintas de las que caben en el heap y reduce las pausas del recolector de basura, que no tiene que recorrer
+ * un objeto por cada tripleta.<p>
+ * Igual que TripleKeyMap, la tabla se divide en segmentos con bloqueo propio. Cada segmento es una tabla de direccionamiento abierto con
+ * sondeo lineal en la que cada tripleta ocupa un registro de tamaño fijo con su clave, su número de apariciones y el primer libro en el que
+ * ha aparecido. Los conjuntos de libros de las tripletas que aparecen en más de un libro, que son una minoría, se guardan en el heap, en
+ * un array de cada segmento; el registro guarda entonces la posición del conjunto en el array en lugar del primer libro.<p>
+ * Los objetos TripleEvents devueltos se construyen al consultar la tabla a partir del contenido de los registros, por lo que no reflejan
+ * las apariciones guardadas posteriormente y su modificación no afecta a la tabla.<p>
+ * Los buffers directos no ocupan heap, pero la JVM limita la memoria total de buffers directos con la opción
+ * <i>-XX:MaxDirectMemorySize</i>, que por defecto es igual al tamaño máximo del heap (<i>-Xmx</i>). Si se supera se obtiene
+ * OutOfMemoryError ("Direct buffer memory"), por lo que para guardar más tripletas de las que caben en el heap debe aumentarse dicho límite.
+ * Cada segmento ocupa 24 bytes por registro y su capacidad se duplica al crecer, por lo que durante el crecimiento conviven el buffer
+ * anterior y el nuevo. El buffer anterior se libera en ese momento de forma explícita, sin esperar al recolector de basura, siempre que la
+ * JVM lo permita. El resto de buffers se liberan con <i>free()</i>, que TriplesCollection llama al sustituir la tabla al volcar las tripletas
+ * a disco, o cuando el recolector de basura elimina la tabla.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see TriplesCollection
+ * @see TripleKeyMap
+ */
+class OffHeapTripleMap implements TripleTable {
+
+	/**
+	 * Número de segmentos. Debe ser potencia de dos
+	 */
+	private static final int SEGMENTS = 64;
+
+	/**
+	 * Capacidad inicial de cada segmento, en registros. Debe ser potencia de dos
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * Capacidad máxima de cada segmento, en registros, limitada por el tamaño máximo de un buffer
+	 */
+	private static final int MAX_CAPACITY = 1 << 26;
+
+	/**
+	 * Número de registros que se copian de cada vez al recorrer un segmento
+	 */
+	private static final int CURSOR_BATCH = 1024;
+
+	/**
+	 * Tamaño de un registro en bytes: clave (8), número de apariciones (8), primer libro o posición del conjunto de libros (4) y estado (4)
+	 */
+	private static final int RECORD_SIZE = 24;
+
+	private static final int TOTAL_OFFSET = 8;
+
+	private static final int BOOK_OFFSET = 16;
+
+	private static final int STATE_OFFSET = 20;
+
+	/**
+	 * Estado de un registro libre
+	 */
+	private static final int FREE = 0;
+
+	/**
+	 * Estado de un registro de una tripleta que ha aparecido en un único libro, guardado en el propio registro
+	 */
+	private static final int ONE_BOOK = 1;
+
+	/**
+	 * Estado de un registro de una tripleta cuyo conjunto de libros se guarda en el heap, en la posición indicada por el registro
+	 */
+	private static final int BOOKS = 2;
+
+	/**
+	 * Métodos para liberar buffers directos: sun.misc.Unsafe.invokeCleaner (Java 9 y posteriores) o el Cleaner del buffer (Java 8). Son
+	 * null si la JVM no los ofrece
+	 */
+	private static final Object UNSAFE;
+
+	private static final Method INVOKE_CLEANER;
+
+	private static final Method CLEANER;
+
+	private static final Method CLEAN;
+
+	static {
+		Object unsafe = null;
+		Method invokeCleaner = null;
+		Method cleaner = null;
+		Method clean = null;
+		try {
+			Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			Field field = unsafeClass.getDeclaredField("theUnsafe");
+			field.setAccessible(true);
+			unsafe = field.get(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			invokeCleaner = null;
+			try {
+				cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+				clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+			} catch (ReflectiveOperationException | RuntimeException e2) {
+				cleaner = null;
+				clean = null;
+			}
+		}
+		UNSAFE = unsafe;
+		INVOKE_CLEANER = invokeCleaner;
+		CLEANER = cleaner;
+		CLEAN = clean;
+	}
+
+	private final Segment[] segments;
+
+
+	OffHeapTripleMap() {
+		segments = new Segment[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.josfranmc.collocatio.triples.TripleTable#addEvents(long, int, long)
+	 */
+	@Override
+	public void addEvents(long key, int bookId, long total) {
+		long hash = TripleKeyMap.hash(key);
+		segmentFor(hash).addEvents(key, hash, bookId, total);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.josfranmc.collocatio.triples.TripleTable#addEvents(long, org.josfranmc.collocatio.triples.BookSet, long)
+	 */
+	@Override
+	public void addEvents(long key, BookSet books, long total) {
+		long hash = TripleKeyMap.hash(key);
+		if (books.size() == 1) {
+			segmentFor(hash).addEvents(key, hash, books.idIterator().next(), total);
+		} else {
+			segmentFor(hash).addEvents(key, hash, books, total);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.josfranmc.collocatio.triples.TripleTable#get(long)
+	 */
+	@Override
+	public TripleEvents get(long key) {
+		long hash = TripleKeyMap.hash(key);
+		return segmentFor(hash).get(key, hash);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.josfranmc.collocatio.triples.TripleTable#size()
+	 */
+	@Override
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * @return iterador sobre las entradas de la tabla. Los registros de cada segmento se copian por bloques, por lo que si el segmento crece
+	 * mientras se recorre pueden omitirse o repetirse entradas
+	 */
+	@Override
+	public Cursor cursor() {
+		return new SegmentCursor();
+	}
+
+	/**
+	 * Libera los buffers de todos los segmentos. Una vez liberada, cualquier acceso a la tabla produce NullPointerException en lugar de
+	 * leer memoria liberada.
+	 */
+	@Override
+	public void free() {
+		for (Segment segment : segments) {
+			segment.free();
+		}
+	}
+
+	/**
+	 * @return memoria ocupada por los buffers de la tabla, en bytes
+	 */
+	long getOffHeapSize() {
+		long bytes = 0;
+		for (Segment segment : segments) {
+			bytes += segment.capacity() * (long) RECORD_SIZE;
+		}
+		return bytes;
+	}
+
+	private Segment segmentFor(long hash) {
+		return segments[(int) (hash >>> 58) & (SEGMENTS - 1)];
+	}
+
+	/**
+	 * Crea las apariciones de una tripleta a partir de su número de apariciones y sus libros.
+	 */
+	private static TripleEvents newEvents(long total, int state, int bookId, BookSet books) {
+		TripleEvents events = new TripleEvents();
+		if (state == ONE_BOOK) {
+			events.addEvents(bookId, total);
+		} else {
+			events.addEvents(books, total);
+		}
+		return events;
+	}
+
+	/**
+	 * Segmento de la tabla: buffer directo con los registros de las tripletas y conjuntos de libros de las tripletas con varios libros.
+	 */
+	private static final class Segment {
+
+		private ByteBuffer records = allocate(INITIAL_CAPACITY);
+
+		private int capacity = INITIAL_CAPACITY;
+
+		private int size;
+
+		/**
+		 * Libros de las tripletas que han aparecido en más de un libro. La posición del conjunto de cada tripleta se guarda en su registro,
+		 * por lo que no cambia al crecer el segmento
+		 */
+		private BookSet[] books = new BookSet[0];
+
+		private int totalBooks;
+
+		synchronized void addEvents(long key, long hash, int bookId, long total) {
+			int offset = findOrCreate(key, hash);
+			records.putLong(offset + TOTAL_OFFSET, records.getLong(offset + TOTAL_OFFSET) + total);
+			int state = records.getInt(offset + STATE_OFFSET);
+			if (state == FREE) {
+				records.putInt(offset + BOOK_OFFSET, bookId);
+				records.putInt(offset + STATE_OFFSET, ONE_BOOK);
+			} else if (state == ONE_BOOK) {
+				int first = records.getInt(offset + BOOK_OFFSET);
+				if (first != bookId) {
+					records.putInt(offset + BOOK_OFFSET, addBooks(BookSet.of(first).with(bookId)));
+					records.putInt(offset + STATE_OFFSET, BOOKS);
+				}
+			} else {
+				int index = records.getInt(offset + BOOK_OFFSET);
+				books[index] = books[index].with(bookId);
+			}
+		}
+
+		synchronized void addEvents(long key, long hash, BookSet other, long total) {
+			int offset = findOrCreate(key, hash);
+			records.putLong(offset + TOTAL_OFFSET, records.getLong(offset + TOTAL_OFFSET) + total);
+			int state = records.getInt(offset + STATE_OFFSET);
+			if (state == FREE) {
+				records.putInt(offset + BOOK_OFFSET, addBooks(other));
+			} else if (state == ONE_BOOK) {
+				records.putInt(offset + BOOK_OFFSET, addBooks(other.with(records.getInt(offset + BOOK_OFFSET))));
+			} else {
+				int index = records.getInt(offset + BOOK_OFFSET);
+				books[index] = books[index].union(other);
+			}
+			records.putInt(offset + STATE_OFFSET, BOOKS);
+		}
+
+		synchronized TripleEvents get(long key, long hash) {
+			int offset = indexOf(key, hash) * RECORD_SIZE;
+			return (records.getInt(offset + STATE_OFFSET) == FREE) ? null : readEvents(offset);
+		}
+
+		synchronized int size() {
+			return size;
+		}
+
+		synchronized int capacity() {
+			return capacity;
+		}
+
+		synchronized void free() {
+			if (records != null) {
+				OffHeapTripleMap.free(records);
+				records = null;
+				capacity = 0;
+				size = 0;
+			}
+		}
+
+		/**
+		 * Copia un bloque de registros ocupados a partir de una posición.
+		 * @param from posición del primer registro a copiar
+		 * @param keys array donde se copian las claves
+		 * @param events array donde se copian las apariciones
+		 * @return número de registros copiados en la primera posición del array <i>keys</i>, y siguiente posición a copiar en la segunda, o
+		 * -1 si se ha llegado al final del segmento
+		 */
+		synchronized int[] read(int from, long[] keys, TripleEvents[] events) {
+			int n = 0;
+			int i = from;
+			for (; i < capacity && n < keys.length; i++) {
+				int offset = i * RECORD_SIZE;
+				int state = records.getInt(offset + STATE_OFFSET);
+				if (state != FREE) {
+					keys[n] = records.getLong(offset);
+					events[n++] = readEvents(offset);
+				}
+			}
+			return new int[] {n, (i < capacity) ? i : -1};
+		}
+
+		/**
+		 * Crea las apariciones de una tripleta a partir de su registro.
+		 * @param offset posición del registro en el buffer
+		 */
+		private TripleEvents readEvents(int offset) {
+			int state = records.getInt(offset + STATE_OFFSET);
+			int book = records.getInt(offset + BOOK_OFFSET);
+			return newEvents(records.getLong(offset + TOTAL_OFFSET), state, book, (state == BOOKS) ? books[book] : null);
+		}
+
+		/**
+		 * Guarda el conjunto de libros de una tripleta que ha aparecido en más de un libro.
+		 * @return posición del conjunto, que se guarda en el registro de la tripleta
+		 */
+		private int addBooks(BookSet bookSet) {
+			if (totalBooks == books.length) {
+				books = Arrays.copyOf(books, Math.max(16, totalBooks * 2));
+			}
+			books[totalBooks] = bookSet;
+			return totalBooks++;
+		}
+
+		/**
+		 * Devuelve la posición en el buffer del registro de una tripleta, ocupando un registro libre si la tripleta no existe. El registro
+		 * nuevo queda con estado libre para que lo complete quien lo ha pedido.
+		 */
+		private int findOrCreate(long key, long hash) {
+			int index = indexOf(key, hash);
+			int offset = index * RECORD_SIZE;
+			if (records.getInt(offset + STATE_OFFSET) == FREE) {
+				// se mantiene la ocupación por debajo del 75%
+				if (size + 1 > (capacity >>> 2) * 3) {
+					resize();
+					offset = indexOf(key, hash) * RECORD_SIZE;
+				}
+				records.putLong(offset, key);
+				size++;
+			}
+			return offset;
+		}
+
+		/**
+		 * @return índice del registro de la tripleta, o índice del registro libre en el que debería guardarse
+		 */
+		private int indexOf(long key, long hash) {
+			int mask = capacity - 1;
+			int i = (int) hash & mask;
+			while (true) {
+				int offset = i * RECORD_SIZE;
+				if (records.getInt(offset + STATE_OFFSET) == FREE || records.getLong(offset) == key) {
+					return i;
+				}
+				i = (i + 1) & mask;
+			}
+		}
+
+		private void resize() {
+			if (capacity >= MAX_CAPACITY) {
+				throw new IllegalStateException("Se ha superado el número máximo de tripletas de la tabla fuera del heap");
+			}
+			ByteBuffer old = records;
+			int oldCapacity = capacity;
+			capacity = oldCapacity * 2;
+			records = allocate(capacity);
+			for (int j = 0; j < oldCapacity; j++) {
+				int from = j * RECORD_SIZE;
+				if (old.getInt(from + STATE_OFFSET) != FREE) {
+					long key = old.getLong(from);
+					int to = indexOf(key, TripleKeyMap.hash(key)) * RECORD_SIZE;
+					records.putLong(to, key);
+					records.putLong(to + TOTAL_OFFSET, old.getLong(from + TOTAL_OFFSET));
+					records.putInt(to + BOOK_OFFSET, old.getInt(from + BOOK_OFFSET));
+					records.putInt(to + STATE_OFFSET, old.getInt(from + STATE_OFFSET));
+				}
+			}
+			// el buffer anterior sólo se usa dentro del bloqueo del segmento, por lo que ya no lo referencia ningún otro objeto
+			OffHeapTripleMap.free(old);
+		}
+
+		/**
+		 * Reserva un buffer directo para un número de registros. Los buffers directos se inicializan a cero, por lo que todos los registros
+		 * quedan libres.
+		 */
+		private static ByteBuffer allocate(int capacity) {
+			return ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.nativeOrder());
+		}
+	}
+
+	/**
+	 * Libera la memoria de un buffer directo sin esperar al recolector de basura. Se utiliza sun.misc.Unsafe.invokeCleaner a partir de Java 9
+	 * y el Cleaner del buffer en Java 8; si la JVM no permite ninguno de los dos, la memoria se libera cuando el recolector de basura elimina
+	 * el buffer. El buffer no debe volver a utilizarse.
+	 * @param buffer buffer directo que ya no se utiliza
+	 */
+	static void free(ByteBuffer buffer) {
+		try {
+			if (INVOKE_CLEANER != null) {
+				INVOKE_CLEANER.invoke(UNSAFE, buffer);
+			} else if (CLEANER != null) {
+				Object cleaner = CLEANER.invoke(buffer);
+				if (cleaner != null) {
+					CLEAN.invoke(cleaner);
+				}
+			}
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			// la memoria la liberará el recolector de basura
+		}
+	}
+
+	/**
+	 * Recorre las entradas de la tabla segmento a segmento, copiando los registros por bloques.
+	 */
+	private final class SegmentCursor implements Cursor {
+
+		private final long[] keys = new long[CURSOR_BATCH];
+
+		private final TripleEvents[] events = new TripleEvents[CURSOR_BATCH];
+
+		private int segment;
+
+		/**
+		 * Siguiente posición a copiar del segmento actual, o -1 si ya se ha copiado todo el segmento
+		 */
+		private int position;
+
+		private int count;
+
+		private int next;
+
+		private long currentKey;
+
+		private SegmentCursor() {
+			advance();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < count;
+		}
+
+		@Override
+		public TripleEvents next() {
+			if (next >= count) {
+				throw new NoSuchElementException();
+			}
+			currentKey = keys[next];
+			TripleEvents result = events[next];
+			events[next++] = null;
+			if (next == count) {
+				advance();
+			}
+			return result;
+		}
+
+		@Override
+		public long key() {
+			return currentKey;
+		}
+
+		/**
+		 * Copia el siguiente bloque con algún registro ocupado.
+		 */
+		private void advance() {
+			count = 0;
+			next = 0;
+			while (count == 0 && segment < SEGMENTS) {
+				if (position < 0) {
+					segment++;
+					position = 0;
+					continue;
+				}
+				int[] read = segments[segment].read(position, keys, events);
+				count = read[0];
+				position = read[1];
+			}
+		}
+	}
+}
@@ -0,0 +1,231 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import edu.stanford.nlp.ling.HasWord;
+
+/**
+ * Caché de resultados de análisis de oraciones. Guarda, para cada oración analizada, las tripletas que se han obtenido de ella, de forma que
+ * las oraciones repetidas en el corpus (cabeceras de capítulo, textos legales, diálogos frecuentes, ediciones repetidas...) no se vuelven a
+ * analizar.<p>
+ * La clave de cada oración es un resumen de 128 bits calculado a partir de la secuencia de palabras que la componen, respetando mayúsculas y
+ * minúsculas puesto que el resultado del analizador depende de ellas. No se guarda el texto de la oración, lo que reduce la memoria utilizada.<p>
+ * El número de oraciones guardadas está limitado; cuando se alcanza el límite se descarta la oración usada hace más tiempo (LRU). Se lleva
+ * la cuenta de aciertos y fallos de la caché.<p>
+ * Los objetos de esta clase son <i>thread-safe</i>. Como cada acierto modifica el orden de uso, la caché se divide en segmentos con bloqueo
+ * propio y una parte del límite de oraciones cada uno, de forma que los hilos de análisis sólo compiten cuando consultan oraciones del mismo
+ * segmento. El orden de uso se mantiene dentro de cada segmento, por lo que la oración descartada es la usada hace más tiempo de su segmento.
+ * Las cachés pequeñas utilizan un único segmento.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see ParserThread
+ */
+public class ParseCache {
+
+	/**
+	 * Número máximo de segmentos. Debe ser potencia de dos
+	 */
+	private static final int SEGMENTS = 16;
+
+	/**
+	 * Número mínimo de oraciones de cada segmento. Las cachés menores que SEGMENTS * MIN_SEGMENT_ENTRIES utilizan menos segmentos
+	 */
+	private static final int MIN_SEGMENT_ENTRIES = 64;
+
+	/**
+	 * Segmentos de la caché: oraciones guardadas y sus tripletas, en orden de uso
+	 */
+	private final Segment[] segments;
+
+	/**
+	 * Número máximo de oraciones guardadas
+	 */
+	private final int maxEntries;
+
+	/**
+	 * Número de oraciones encontradas en la caché
+	 */
+	private final LongAdder hits = new LongAdder();
+
+	/**
+	 * Número de oraciones no encontradas en la caché
+	 */
+	private final LongAdder misses = new LongAdder();
+
+
+	/**
+	 * Constructor principal.
+	 * @param maxEntries número máximo de oraciones a guardar
+	 */
+	public ParseCache(final int maxEntries) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("El tamaño de la caché de análisis debe ser mayor que cero");
+		}
+		this.maxEntries = maxEntries;
+		int total = Math.max(1, Math.min(SEGMENTS, Integer.highestOneBit(maxEntries / MIN_SEGMENT_ENTRIES)));
+		this.segments = new Segment[total];
+		for (int i = 0; i < total; i++) {
+			// el límite se reparte entre los segmentos, de forma que la suma sea exactamente maxEntries
+			segments[i] = new Segment(maxEntries / total + ((i < maxEntries % total) ? 1 : 0));
+		}
+	}
+
+	/**
+	 * Obtiene la clave de una oración.
+	 * @param sentence oración
+	 * @return clave de la oración
+	 */
+	public static SentenceKey getKey(List<? extends HasWord> sentence) {
+		// se combinan dos funciones de dispersión independientes de 64 bits: FNV-1a y un polinomio con otro multiplicador
+		long h1 = 0xcbf29ce484222325L;
+		long h2 = sentence.size();
+		for (HasWord token : sentence) {
+			String word = token.word();
+			for (int i = 0; i < word.length(); i++) {
+				char c = word.charAt(i);
+				h1 = (h1 ^ c) * 0x100000001b3L;
+				h2 = h2 * 0x9e3779b97f4a7c15L + c;
+			}
+			// separador entre palabras, para que "ab c" y "a bc" tengan claves distintas
+			h1 = (h1 ^ 0xffff) * 0x100000001b3L;
+			h2 = h2 * 0x9e3779b97f4a7c15L + 0xffff;
+		}
+		return new SentenceKey(h1, h2);
+	}
+
+	/**
+	 * Devuelve las tripletas guardadas de una oración.
+	 * @param key clave de la oración
+	 * @return tripletas de la oración, o null si la oración no está en la caché
+	 */
+	public List<Triple> get(SentenceKey key) {
+		Segment segment = getSegment(key);
+		List<Triple> triples;
+		synchronized (segment) {
+			triples = segment.get(key);
+		}
+		if (triples == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return triples;
+	}
+
+	/**
+	 * Guarda las tripletas obtenidas de una oración.
+	 * @param key clave de la oración
+	 * @param triples tripletas de la oración; no deben modificarse una vez guardadas
+	 */
+	public void put(SentenceKey key, List<Triple> triples) {
+		Segment segment = getSegment(key);
+		synchronized (segment) {
+			segment.put(key, triples);
+		}
+	}
+
+	/**
+	 * @return número de oraciones guardadas
+	 */
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * @param key clave de una oración
+	 * @return segmento en el que se guarda la oración
+	 */
+	private Segment getSegment(SentenceKey key) {
+		// se usan bits de la segunda función de dispersión, independientes de los que usa hashCode() dentro del segmento
+		return segments[(int) key.low & (segments.length - 1)];
+	}
+
+	/**
+	 * @return número de segmentos de la caché
+	 */
+	int getTotalSegments() {
+		return segments.length;
+	}
+
+	/**
+	 * @return número máximo de oraciones guardadas
+	 */
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	/**
+	 * @return número de oraciones encontradas en la caché
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return número de oraciones no encontradas en la caché
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Segmento de la caché: mapa en orden de uso que descarta la oración usada hace más tiempo al superar su límite. Los accesos deben
+	 * sincronizarse sobre el propio segmento.
+	 */
+	private static final class Segment extends LinkedHashMap<SentenceKey, List<Triple>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maxEntries;
+
+		Segment(int maxEntries) {
+			super(16, 0.75f, true);
+			this.maxEntries = maxEntries;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<SentenceKey, List<Triple>> eldest) {
+			return size() > maxEntries;
+		}
+	}
+
+	/**
+	 * Clave de 128 bits de una oración.
+	 */
+	public static final class SentenceKey {
+
+		private final long high;
+		private final long low;
+
+		SentenceKey(long high, long low) {
+			this.high = high;
+			this.low = low;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (high ^ (high >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof SentenceKey)) {
+				return false;
+			}
+			SentenceKey other = (SentenceKey) obj;
+			return high == other.high && low == other.low;
+		}
+	}
+}
@@ -0,0 +1,209 @@
+package org.josfranmc.collocatio.triples;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+import org.josfranmc.collocatio.util.ThreadFactoryBuilder;
+
+import edu.stanford.nlp.ling.HasWord;
+
+/**
+ * Controla el tiempo máximo de análisis de cada oración.<p>
+ * Antes de analizar una oración el hilo de análisis obtiene un plazo (objeto Deadline) mediante el método <i>start</i>. Si el análisis no ha
+ * terminado cuando vence el plazo, el hilo vigilante interrumpe al hilo de análisis, lo que hace que el analizador de Stanford abandone la
+ * oración. Las oraciones abandonadas se guardan, junto con el identificador del libro al que pertenecen, en un fichero de cuarentena para
+ * poder revisarlas posteriormente, y se lleva la cuenta de las mismas.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see ParserThread
+ */
+public class ParseWatchdog implements Closeable {
+
+	private static final Logger log = Logger.getLogger(ParseWatchdog.class);
+
+	/**
+	 * Hilo que vigila los plazos de análisis
+	 */
+	private final ScheduledExecutorService scheduler;
+
+	/**
+	 * Tiempo máximo de análisis de una oración, en milisegundos
+	 */
+	private final long timeout;
+
+	/**
+	 * Ruta del fichero donde se guardan las oraciones abandonadas
+	 */
+	private final String quarantineFile;
+
+	/**
+	 * Escritor del fichero de cuarentena. Se crea al guardar la primera oración abandonada
+	 */
+	private BufferedWriter writer;
+
+	/**
+	 * Número de oraciones abandonadas
+	 */
+	private final LongAdder totalQuarantined = new LongAdder();
+
+
+	/**
+	 * Constructor principal.
+	 * @param timeout tiempo máximo de análisis de una oración, en milisegundos
+	 * @param quarantineFile ruta del fichero donde guardar las oraciones abandonadas; si es null las oraciones sólo se cuentan
+	 */
+	public ParseWatchdog(long timeout, String quarantineFile) {
+		if (timeout < 1) {
+			throw new IllegalArgumentException("El tiempo máximo de análisis debe ser mayor que cero");
+		}
+		this.timeout = timeout;
+		this.quarantineFile = quarantineFile;
+		ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+				.setNameThread("ParseWatchdog")
+				.setDaemon(true)
+				.build());
+		executor.setRemoveOnCancelPolicy(true);
+		this.scheduler = executor;
+	}
+
+	/**
+	 * Inicia el plazo de análisis de una oración para el hilo actual.
+	 * @return plazo iniciado, que debe finalizarse con <i>finish</i> al terminar el análisis
+	 */
+	public Deadline start() {
+		Deadline deadline = new Deadline(Thread.currentThread());
+		deadline.setFuture(scheduler.schedule(deadline, timeout, TimeUnit.MILLISECONDS));
+		return deadline;
+	}
+
+	/**
+	 * Guarda una oración abandonada en el fichero de cuarentena, en una línea de la forma <i>libro tabulador oración</i>.
+	 * @param book identificador del libro al que pertenece la oración
+	 * @param sentence oración abandonada
+	 */
+	public void quarantine(String book, List<? extends HasWord> sentence) {
+		totalQuarantined.increment();
+		StringBuilder line = new StringBuilder(book).append('\t');
+		for (int i = 0; i < sentence.size(); i++) {
+			if (i > 0) {
+				line.append(' ');
+			}
+			line.append(sentence.get(i).word());
+		}
+		log.warn("Superado el tiempo máximo de análisis (" + timeout + " ms) en libro " + book + ": " + line.substring(book.length() + 1));
+		if (quarantineFile != null) {
+			writeLine(line.toString());
+		}
+	}
+
+	/**
+	 * Escribe una línea en el fichero de cuarentena.
+	 * @param line línea a escribir
+	 */
+	private synchronized void writeLine(String line) {
+		try {
+			if (writer == null) {
+				writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(quarantineFile), StandardCharsets.UTF_8));
+			}
+			writer.write(line);
+			writer.newLine();
+			writer.flush();
+		} catch (IOException e) {
+			log.error("Error escribiendo en el fichero de cuarentena " + quarantineFile, e);
+		}
+	}
+
+	/**
+	 * @return número de oraciones abandonadas
+	 */
+	public long getTotalQuarantined() {
+		return totalQuarantined.sum();
+	}
+
+	/**
+	 * @return tiempo máximo de análisis de una oración, en milisegundos
+	 */
+	public long getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * Detiene el hilo vigilante y cierra el fichero de cuarentena.
+	 */
+	@Override
+	public synchronized void close() {
+		scheduler.shutdownNow();
+		if (writer != null) {
+			try {
+				writer.close();
+			} catch (IOException e) {
+				log.error("Error cerrando el fichero de cuarentena " + quarantineFile, e);
+			}
+			writer = null;
+		}
+	}
+
+	/**
+	 * Plazo de análisis de una oración. Si vence antes de que se llame a <i>finish</i> se interrumpe el hilo de análisis.<p>
+	 * El vencimiento y la finalización están sincronizados, de forma que una vez finalizado el plazo el hilo ya no puede ser interrumpido
+	 * por este plazo y se evita interrumpir el análisis de otra oración.
+	 */
+	public static class Deadline implements Runnable {
+
+		private final Thread worker;
+		private ScheduledFuture<?> future;
+		private boolean done = false;
+		private boolean expired = false;
+
+		Deadline(Thread worker) {
+			this.worker = worker;
+		}
+
+		private synchronized void setFuture(ScheduledFuture<?> future) {
+			if (done) {
+				future.cancel(false);
+			}
+			this.future = future;
+		}
+
+		/**
+		 * Vencimiento del plazo: interrumpe el hilo de análisis si todavía no ha terminado.
+		 */
+		@Override
+		public synchronized void run() {
+			if (!done) {
+				expired = true;
+				worker.interrupt();
+			}
+		}
+
+		/**
+		 * Finaliza el plazo. Si había vencido se limpia la interrupción del hilo actual, de forma que pueda seguir con la siguiente oración.
+		 * Se puede llamar varias veces.
+		 * @return <i>true</i> si el plazo venció antes de finalizarlo
+		 */
+		public synchronized boolean finish() {
+			if (!done) {
+				done = true;
+				if (future != null) {
+					future.cancel(false);
+				}
+				if (expired) {
+					Thread.interrupted();
+				}
+			}
+			return expired;
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.apache.log4j.Logger;
+
+import edu.stanford.nlp.parser.lexparser.LexicalizedParser;
+import edu.stanford.nlp.parser.nndep.DependencyParser;
+import edu.stanford.nlp.tagger.maxent.MaxentTagger;
+
+/**
+ * Registro de los analizadores de Stanford cargados en el proceso. Permite que varias extracciones ejecutadas en una misma JVM (por ejemplo,
+ * desde el programa cliente) compartan los mismos objetos LexicalizedParser, DependencyParser y MaxentTagger en lugar de volver a cargar
+ * los modelos en cada extracción.<p>
+ * Los analizadores se identifican por su tipo, la ruta del modelo original y, en el caso de LexicalizedParser, las opciones de configuración con las que se han creado. Si varios hilos piden a la vez un
+ * analizador que no está cargado, el modelo se carga una sola vez y el resto de hilos esperan a que termine la carga.<p>
+ * Los analizadores permanecen en memoria hasta que se eliminan de forma explícita mediante <i>evict</i> o <i>clear</i>.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see StanfordTriplesExtractor
+ */
+public final class ParserRegistry {
+
+	private static final Logger log = Logger.getLogger(ParserRegistry.class);
+
+	/**
+	 * Analizadores cargados (o en proceso de carga) según su clave
+	 */
+	private static final Map<String, CompletableFuture<Object>> parsers = new ConcurrentHashMap<String, CompletableFuture<Object>>();
+
+
+	private ParserRegistry() {
+	}
+
+	/**
+	 * Devuelve el analizador correspondiente a un modelo y unas opciones de configuración. Si no está registrado se carga el modelo, se le
+	 * asignan las opciones y se registra.
+	 * @param model ruta del modelo
+	 * @param options opciones de configuración del analizador
+	 * @return objeto LexicalizedParser
+	 */
+	public static LexicalizedParser getParser(String model, String[] options) {
+		return getParser(model, model, options);
+	}
+
+	/**
+	 * Devuelve el analizador correspondiente a un modelo y unas opciones de configuración. Si no está registrado se carga de la ruta indicada,
+	 * que puede ser una copia del modelo (por ejemplo, la copia descomprimida de la caché de modelos), se le asignan las opciones y se registra.
+	 * El analizador se registra con la ruta del modelo original, de forma que el modelo no se carga dos veces aunque unas extracciones usen la
+	 * copia y otras el original.
+	 * @param model ruta del modelo original
+	 * @param path ruta desde la que cargar el modelo
+	 * @param options opciones de configuración del analizador
+	 * @return objeto LexicalizedParser
+	 * @see ModelCache
+	 */
+	public static LexicalizedParser getParser(String model, String path, String[] options) {
+		return get(getKey(model, options), path, () -> {
+			LexicalizedParser lp = LexicalizedParser.loadModel(path);
+			lp.setOptionFlags(options);
+			return lp;
+		});
+	}
+
+	/**
+	 * Devuelve el analizador de dependencias neuronal correspondiente a un modelo. Si no está registrado se carga el modelo y se registra.
+	 * @param model ruta del modelo
+	 * @return objeto DependencyParser
+	 */
+	public static DependencyParser getDependencyParser(String model) {
+		return getDependencyParser(model, model);
+	}
+
+	/**
+	 * Devuelve el analizador de dependencias neuronal correspondiente a un modelo. Si no está registrado se carga de la ruta indicada y se
+	 * registra con la ruta del modelo original.
+	 * @param model ruta del modelo original
+	 * @param path ruta desde la que cargar el modelo
+	 * @return objeto DependencyParser
+	 */
+	public static DependencyParser getDependencyParser(String model, String path) {
+		return get("nndep\u0000" + model, path, () -> DependencyParser.loadFromModelFile(path));
+	}
+
+	/**
+	 * Devuelve el etiquetador gramatical correspondiente a un modelo. Si no está registrado se carga el modelo y se registra.
+	 * @param model ruta del modelo
+	 * @return objeto MaxentTagger
+	 */
+	public static MaxentTagger getTagger(String model) {
+		return getTagger(model, model);
+	}
+
+	/**
+	 * Devuelve el etiquetador gramatical correspondiente a un modelo. Si no está registrado se carga de la ruta indicada y se registra con la
+	 * ruta del modelo original.
+	 * @param model ruta del modelo original
+	 * @param path ruta desde la que cargar el modelo
+	 * @return objeto MaxentTagger
+	 */
+	public static MaxentTagger getTagger(String model, String path) {
+		return get("tagger\u0000" + model, path, () -> new MaxentTagger(path));
+	}
+
+	/**
+	 * Devuelve el objeto registrado con una clave. Si no está registrado se carga, de forma que aunque varios hilos lo pidan a la vez sólo
+	 * se carga una vez.
+	 * @param key clave del objeto
+	 * @param model ruta del modelo, para el registro de actividad
+	 * @param loader carga del objeto
+	 * @return objeto registrado
+	 */
+	@SuppressWarnings("unchecked")
+	static <T> T get(String key, String model, Supplier<T> loader) {
+		CompletableFuture<Object> created = new CompletableFuture<Object>();
+		CompletableFuture<Object> existing = parsers.putIfAbsent(key, created);
+		if (existing != null) {
+			log.info("Reutilizando modelo " + model + " ya cargado");
+			return (T) join(existing);
+		}
+		try {
+			T loaded = loader.get();
+			created.complete(loaded);
+			return loaded;
+		} catch (RuntimeException | Error e) {
+			parsers.remove(key, created);
+			created.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * @param model ruta del modelo
+	 * @param options opciones de configuración del analizador
+	 * @return <i>true</i> si el analizador está registrado
+	 */
+	public static boolean contains(String model, String[] options) {
+		return parsers.containsKey(getKey(model, options));
+	}
+
+	/**
+	 * Elimina del registro el analizador correspondiente a un modelo y unas opciones de configuración.
+	 * @param model ruta del modelo
+	 * @param options opciones de configuración del analizador
+	 * @return <i>true</i> si el analizador estaba registrado
+	 */
+	public static boolean evict(String model, String[] options) {
+		return parsers.remove(getKey(model, options)) != null;
+	}
+
+	/**
+	 * Elimina del registro todos los analizadores, incluidos los analizadores de dependencias y los etiquetadores.
+	 */
+	public static void clear() {
+		parsers.clear();
+	}
+
+	/**
+	 * @return número de analizadores registrados
+	 */
+	public static int size() {
+		return parsers.size();
+	}
+
+	/**
+	 * Obtiene la clave de un analizador a partir de su modelo y sus opciones de configuración.
+	 */
+	static String getKey(String model, String[] options) {
+		StringBuilder key = new StringBuilder("lexparser\u0000").append(model);
+		for (String option : options) {
+			key.append('\u0000').append(option);
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Espera a que termine la carga de un analizador. Si la carga ha fallado se lanza la excepción original.
+	 */
+	private static Object join(CompletableFuture<Object> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
+	}
+}
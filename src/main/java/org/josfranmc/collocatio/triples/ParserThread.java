@@ -1,22 +1,24 @@
 package org.josfranmc.collocatio.triples;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.log4j.Logger;
 
 import edu.stanford.nlp.ling.HasWord;
-import edu.stanford.nlp.parser.lexparser.LexicalizedParser;
-import edu.stanford.nlp.trees.GrammaticalStructure;
-import edu.stanford.nlp.trees.GrammaticalStructureFactory;
-import edu.stanford.nlp.trees.Tree;
 import edu.stanford.nlp.trees.TypedDependency;
+import edu.stanford.nlp.util.RuntimeInterruptedException;
 
 /**
- * Encapsula el proceso de análisis de una oración para extraer las tripletas que la componen y lleva a cabo el almacenamiento de las mismas.
- * Los objetos ParserThread implementan la interfaz Runnable por lo que pueden ser ejecutados de forma concurrente. De esta forma se puede realizar
- * el análisis de varias oriaciones de forma paralela.<p>
+ * Encapsula el proceso de análisis de un grupo de oraciones de un mismo libro para extraer las tripletas que las componen y lleva a cabo el almacenamiento
+ * de las mismas. Los objetos ParserThread implementan la interfaz Runnable por lo que pueden ser ejecutados de forma concurrente. De esta forma se puede
+ * realizar el análisis de varios grupos de oraciones de forma paralela.<p>
+ * Las tripletas obtenidas de las oraciones del grupo se acumulan localmente y se guardan de una sola vez en la colección compartida al terminar el
+ * análisis, reduciendo así la contención sobre dicha colección.<p>
  * La creación de estos objetos debe hacerse utilizando ParserThreadBuilder, de forma que se realice una correcta configuración.
  * @author Jose Francisco Mena Ceca
  * @version 1.0
@@ -26,22 +28,18 @@ public class ParserThread implements Runnable {
 	private static final Logger log = Logger.getLogger(ParserThread.class);
 	
 	/**
-	 * Referencia al objeto LexicalizedParser del software de Stanford utilizado para el análisis
+	 * Analizador de dependencias utilizado para el análisis
+	 * @see IDependencyParser
 	 */
-	private LexicalizedParser lp;
-	
-	/**
-	 * Referencia al objeto GrammaticalStructureFactory del software de Stanford utilizado para el análisis
-	 */
-	private GrammaticalStructureFactory gsf;
+	private IDependencyParser dependencyParser;
 
 	/**
-	 * Oración a analizar de la que obtener sus tripletas
+	 * Oraciones a analizar de las que obtener sus tripletas
 	 */
-	private List<? extends HasWord> sentence;
+	private List<List<? extends HasWord>> sentences;
 	
 	/**
-	 * Identificador del libro en el que se encuantra la oración a analizar
+	 * Identificador del libro en el que se encuantran las oraciones a analizar
 	 */
 	private String book;
 	
@@ -51,129 +49,327 @@ public class ParserThread implements Runnable {
 	 */
 	private TriplesCollection triplesCollection;
 	
+	/**
+	 * Controla el tiempo máximo de análisis de cada oración. Es opcional; si es null no se limita el tiempo de análisis
+	 * @see ParseWatchdog
+	 */
+	private ParseWatchdog parseWatchdog;
+	
+	/**
+	 * Caché de tripletas de oraciones ya analizadas. Es opcional; si es null se analizan todas las oraciones
+	 * @see ParseCache
+	 */
+	private ParseCache parseCache;
+	
+	/**
+	 * Acción a ejecutar al terminar la tarea, haya terminado correctamente o no. Es opcional
+	 */
+	private Runnable completionListener;
+	
+	/**
+	 * Acción a ejecutar si la tarea termina con un error, antes de la acción de finalización. Es opcional
+	 */
+	private Runnable failureListener;
+	
+	/**
+	 * Tipos de dependencia a guardar. Es opcional; si es null se guardan las tripletas de todos los tipos de dependencia
+	 */
+	private Set<String> dependencyFilter;
+	
+	/**
+	 * Tablas parciales de tripletas por hilo. Es opcional; si se establece, las tripletas se guardan en la tabla del hilo que ejecuta la
+	 * tarea en lugar de en la colección compartida
+	 * @see ThreadLocalTriplesTables
+	 */
+	private ThreadLocalTriplesTables localTables;
+	
+	/**
+	 * Contador de oraciones descartadas porque su análisis ha generado un error. Es opcional
+	 */
+	private LongAdder failedSentences;
+	
+	/**
+	 * Coste estimado de análisis de las oraciones de la tarea. Se calcula una sola vez, ya que la cola de tareas lo consulta en cada
+	 * comparación
+	 */
+	private final long cost;
+	
+
+	/**
+	 * Crea una tarea sin coste estimado
+	 */
+	public ParserThread() {
+		this(0);
+	}
+
+	/**
+	 * Crea una tarea con el coste estimado de análisis de sus oraciones
+	 * @param cost coste estimado de la tarea
+	 * @see #computeCost(List)
+	 */
+	ParserThread(long cost) {
+		this.cost = cost;
+	}
 
 	/**
 	 * Obtiene una lista de las tripletas contenidas en una oración
+	 * @param sentence oración a analizar
 	 * @return lista de tripletas
 	 */
-	private List<TypedDependency> getTriplesList() {
-        Tree parse = lp.parse(sentence);
-        GrammaticalStructure gs = gsf.newGrammaticalStructure(parse);
-        List<TypedDependency> tdl = gs.typedDependenciesCCprocessed();
-        return tdl;
+	private List<TypedDependency> getTriplesList(List<? extends HasWord> sentence) {
+		return dependencyParser.getTypedDependencies(sentence);
+	}
+	
+	/**
+	 * Obtiene la lista de tripletas de una oración respetando el tiempo máximo de análisis, si se ha establecido.<p>
+	 * Si el análisis supera dicho tiempo la oración se abandona: se guarda en el fichero de cuarentena y se devuelve null.
+	 * @param sentence oración a analizar
+	 * @return lista de tripletas, o null si la oración ha sido abandonada
+	 * @see ParseWatchdog
+	 */
+	private List<TypedDependency> getTriplesListWithDeadline(List<? extends HasWord> sentence) {
+		if (parseWatchdog == null) {
+			return getTriplesList(sentence);
+		}
+		List<TypedDependency> tdl = null;
+		RuntimeInterruptedException interrupted = null;
+		boolean expired;
+		ParseWatchdog.Deadline deadline = parseWatchdog.start();
+		try {
+			tdl = getTriplesList(sentence);
+		} catch (RuntimeInterruptedException e) {
+			interrupted = e;
+		} finally {
+			expired = deadline.finish();
+		}
+		if (expired) {
+			parseWatchdog.quarantine(getBook(), sentence);
+			return null;
+		}
+		if (interrupted != null) {
+			// la interrupción no procede del vigilante (por ejemplo, parada del pool de hilos)
+			throw interrupted;
+		}
+		return tdl;
 	}
 	
 	/**
-	 * Realiza la extracción y almacenamiento de las tripletas contenidas en una oración
+	 * Realiza la extracción y almacenamiento de las tripletas contenidas en las oraciones del grupo.<p>
+	 * Las tripletas se cuentan primero en un mapa local, sin sincronización, y al terminar el grupo se guardan en la colección compartida
+	 * mediante una única operación por cada tripleta distinta.<p>
+	 * Las oraciones cuyo análisis supera el tiempo máximo establecido se abandonan y no aportan tripletas. Las oraciones que se encuentran en la
+	 * caché de análisis no se vuelven a analizar.<p>
+	 * Si se ha establecido un filtro de dependencias, las tripletas de otros tipos de dependencia no se guardan en la colección; sólo se suma
+	 * su número al total de tripletas obtenidas, necesario para el cálculo de la información mutua.<p>
+	 * Si se utilizan tablas parciales por hilo, las tripletas se guardan en la tabla del hilo y no llegan a la colección compartida hasta que
+	 * se unen todas las tablas al terminar el análisis.<p>
+	 * Si el análisis de una oración genera una excepción, la oración se descarta y se continúa con las siguientes del grupo. Si falla el
+	 * almacenamiento de las tripletas o se produce cualquier otro error, se ejecuta la acción de error antes que la de finalización.
 	 * @see Triple
 	 */
 	@Override
 	public void run() {
-		log.debug(" +++ Analizando " + sentence.toString());
-        for (TypedDependency td : getTriplesList()) { 
-        	log.debug(" triple = " + td.toString());
-        	Triple triple = getTriplet(td.toString(), getBook());
+		try {
+			Map<Triple, Long> triples = new HashMap<Triple, Long>();
+			long discarded = 0;
+			for (List<? extends HasWord> sentence : sentences) {
+				List<Triple> sentenceTriples = getSentenceTriplesOrDiscard(sentence);
+				if (sentenceTriples != null) {
+					for (Triple triple : sentenceTriples) {
+						if (isSelectedDependency(triple)) {
+							triples.merge(triple, 1L, Long::sum);
+						} else {
+							discarded++;
+						}
+					}
+				}
+			}
+			if (localTables != null) {
+				PartialTriplesTable table = localTables.getTable();
+				table.save(triples, getBook());
+				table.addDiscardedTriples(discarded);
+			} else {
+				triplesCollection.save(triples, getBook());
+				if (discarded > 0) {
+					triplesCollection.addDiscardedTriples(discarded);
+				}
+			}
+			log.debug("Fin hilo " + Thread.currentThread().getName());
+		} catch (Throwable e) {
+			// las tripletas del grupo no se han guardado o se han guardado sólo en parte
+			if (failureListener != null) {
+				failureListener.run();
+			}
+			throw e;
+		} finally {
+			if (completionListener != null) {
+				completionListener.run();
+			}
+		}
+	}
+	
+	/**
+	 * Obtiene las tripletas de una oración. Si el análisis de la oración genera una excepción, la oración se descarta y se cuenta como
+	 * descartada, sin afectar al resto de oraciones del grupo. Las interrupciones del hilo no se consideran errores de la oración.
+	 * @param sentence oración a analizar
+	 * @return tripletas de la oración, o null si la oración ha sido abandonada o descartada
+	 */
+	private List<Triple> getSentenceTriplesOrDiscard(List<? extends HasWord> sentence) {
+		try {
+			return getSentenceTriples(sentence);
+		} catch (RuntimeInterruptedException e) {
+			throw e;
+		} catch (RuntimeException e) {
+			log.warn(Thread.currentThread().getName() + " - Oración descartada por error de análisis (libro " + getBook() + "): " + sentence, e);
+			if (failedSentences != null) {
+				failedSentences.increment();
+			}
+			return null;
+		}
+	}
+	
+	/**
+	 * @param triple tripleta a consultar
+	 * @return <i>true</i> si no se ha establecido filtro de dependencias o si la dependencia de la tripleta está en el filtro
+	 */
+	private boolean isSelectedDependency(Triple triple) {
+		return dependencyFilter == null || dependencyFilter.contains(triple.getDependency());
+	}
+	
+	/**
+	 * Obtiene las tripletas de una oración. Si la oración ya ha sido analizada y se encuentra en la caché se devuelven las tripletas guardadas,
+	 * sin volver a analizarla; en otro caso se analiza y se guardan en la caché las tripletas obtenidas.
+	 * @param sentence oración a analizar
+	 * @return tripletas de la oración, o null si la oración ha sido abandonada por superar el tiempo máximo de análisis
+	 * @see ParseCache
+	 */
+	private List<Triple> getSentenceTriples(List<? extends HasWord> sentence) {
+		ParseCache.SentenceKey key = null;
+		if (parseCache != null) {
+			key = ParseCache.getKey(sentence);
+			List<Triple> cached = parseCache.get(key);
+			if (cached != null) {
+				return cached;
+			}
+		}
+		if (log.isDebugEnabled()) {
+			log.debug(" +++ Analizando " + sentence.toString());
+		}
+		List<TypedDependency> tdl = getTriplesListWithDeadline(sentence);
+		if (tdl == null) {
+			return null;
+		}
+		List<Triple> sentenceTriples = new ArrayList<Triple>(tdl.size());
+        for (TypedDependency td : tdl) { 
+        	Triple triple = getTriplet(td);
         	if (triple != null) {
-        		triplesCollection.save(triple, getBook());
+        		sentenceTriples.add(triple);
         	} else {
         		log.warn(Thread.currentThread().getName() + " - Imposible descomponer " + td.toString());
         	}
         }
-		log.debug("Fin hilo " + Thread.currentThread().getName());
+        if (parseCache != null) {
+        	parseCache.put(key, sentenceTriples);
+        }
+		return sentenceTriples;
 	}
 	
 	/**
-	 * Devuelve un objeto de tipo Triple basado en los datos pasados por parámetros.<br>
-	 * La cadena de texto pasada representa una tripleta de la forma <i>dependencia(palabra1-posicion1, palabra2-posicion2)</i>, donde:
+	 * Devuelve un objeto de tipo Triple construido a partir de un objeto TypedDependency.<br>
+	 * Un objeto TypedDependency representa una tripleta de la forma <i>dependencia(palabra1-posicion1, palabra2-posicion2)</i>, donde:
 	 * <ul>
-	 * <li><i>dependencia</i>: tipo de dependencia de la tripleta</li>
-	 * <li><i>palabra1</i>: palabra 1 de la tripleta</li>
-	 * <li><i>posicion1</i>: posicion que ocupa la palabra 1 en la oración de donde se ha extraido la tripleta</li>
-	 * <li><i>palabra2</i>: palabra 2 de la tripleta</li>
-	 * <li><i>posicion2</i>: posicion que ocupa la palabra 2 en la oración de donde se ha extraido la tripleta</li>
+	 * <li><i>dependencia</i>: tipo de dependencia de la tripleta, obtenida de <i>td.reln()</i></li>
+	 * <li><i>palabra1</i>: palabra 1 de la tripleta (gobernante), obtenida de <i>td.gov()</i></li>
+	 * <li><i>palabra2</i>: palabra 2 de la tripleta (dependiente), obtenida de <i>td.dep()</i></li>
 	 * </ul>
 	 * Ejemplo: <i>nsubj(blue-4, cars-2)</i><p>
 	 * Puede darse el caso de tripletas cuya dependencia sea de la forma <i>dependencia:subtipo</i>, como <i>nmod:in(happy-3, town-6)</i>.
 	 * En estos casos se toma como dependencia sólo la parte principal, la correspondiente desde la izquierda hasta los dos puntos.<p>
+	 * Los datos se toman directamente de los objetos que componen la dependencia, sin pasar por su representación textual, por lo que las
+	 * palabras que contienen guiones (por ejemplo <i>well-known</i>) se obtienen completas.<p>
 	 * Todas las palabras obtenidas se devuelven en minúsculas.
-	 * @param td cadena de texto que representa la tripleta a obtener; contiene el tipo de dependencia y las dos palabras que relaciona
-	 * @param idBook identificador del libro en el que se encuentra la tripleta
-	 * @return objeto de tipo Triple
+	 * @param td dependencia de la que obtener la tripleta; contiene el tipo de dependencia y las dos palabras que relaciona
+	 * @return objeto de tipo Triple, o null si la dependencia está incompleta
 	 * @see Triple
 	 */
-	private Triple getTriplet(String td, String idBook) {
-    	Triple tripleta = null;
-    	// expresión regular para extraer la dependencia y las dos palabras que relaciona
-    	// ((.*):.*|(.*))\\(  extrae la dependencia
-    	// (.*)-.*,\\s        extrae la palabra 1
-    	// (.*)-.*            extrae la palabra 2
-    	final String PATTERN = "((.*):.*|(.*))\\((.*)-.*,\\s(.*)-.*";
-    
-		Pattern pattern = Pattern.compile(PATTERN);
-		Matcher matcher = pattern.matcher(td);
-		if (matcher.matches()) {
-			tripleta = new Triple();
-	    	// si la dependencia es del tipo dependencia:subtipo se obtiene en el grupo 2, si no en el grupo 3
-	    	if (matcher.group(3) != null) {
-	    		tripleta.setDependency(matcher.group(3));
-	    	} else {
-	    		tripleta.setDependency(matcher.group(2));
-	    	}
-	    	tripleta.setWord1(matcher.group(4).toLowerCase());
-	    	tripleta.setWord2(matcher.group(5).toLowerCase());
+	Triple getTriplet(TypedDependency td) {
+		if (td.reln() == null || td.gov() == null || td.dep() == null) {
+			return null;
+		}
+		String dependency = td.reln().getShortName();
+		String word1 = td.gov().word();
+		String word2 = td.dep().word();
+		if (dependency == null || word1 == null || word2 == null) {
+			return null;
+		}
+		// si la dependencia es del tipo dependencia:subtipo nos quedamos con la parte principal
+		int colon = dependency.indexOf(':');
+		if (colon > 0) {
+			dependency = dependency.substring(0, colon);
 		}
+		Triple tripleta = new Triple();
+		tripleta.setDependency(dependency);
+		tripleta.setWord1(word1.toLowerCase());
+		tripleta.setWord2(word2.toLowerCase());
 		return tripleta;
 	}
 
 	/**
-	 * @return objeto LexicalizedParser
-	 * @see LexicalizedParser
+	 * @return coste estimado de análisis de las oraciones de la tarea, calculado al crearla
+	 * @see #computeCost(List)
 	 */
-	LexicalizedParser getLp() {
-		return lp;
+	long getCost() {
+		return cost;
 	}
 
 	/**
-	 * Establece el LexicalizedParser utilizado para parsear la oracióna a analizar
-	 * @param lp objeto LexicalizedParser
-	 * @see LexicalizedParser
+	 * Devuelve una estimación del coste de análisis de un grupo de oraciones. El análisis PCFG de una oración es aproximadamente cúbico
+	 * respecto a su longitud, por lo que el coste se calcula como la suma de los cubos del número de palabras de cada oración. Con otros
+	 * analizadores el coste crece más despacio, pero el orden relativo entre tareas sigue siendo una aproximación válida.
+	 * @param sentences oraciones de la tarea
+	 * @return coste estimado de la tarea
 	 */
-	void setLp(LexicalizedParser lp) {
-		this.lp = lp;
+	static long computeCost(List<List<? extends HasWord>> sentences) {
+		long cost = 0;
+		for (List<? extends HasWord> sentence : sentences) {
+			long size = sentence.size();
+			cost += size * size * size;
+		}
+		return cost;
 	}
 
 	/**
-	 * @return objeto GrammaticalStructureFactory
-	 * @see GrammaticalStructureFactory
+	 * @return analizador de dependencias
+	 * @see IDependencyParser
 	 */
-	GrammaticalStructureFactory getGsf() {
-		return gsf;
+	IDependencyParser getDependencyParser() {
+		return dependencyParser;
 	}
 
 	/**
-	 * Establece la factoría para obtener un GrammaticalStructure
-	 * @param gsf objeto GrammaticalStructureFactory
-	 * @see GrammaticalStructureFactory
+	 * Establece el analizador de dependencias utilizado para analizar las oraciones
+	 * @param dependencyParser analizador de dependencias
+	 * @see IDependencyParser
 	 */
-	void setGsf(GrammaticalStructureFactory gsf) {
-		this.gsf = gsf;
+	void setDependencyParser(IDependencyParser dependencyParser) {
+		this.dependencyParser = dependencyParser;
 	}
 
 	/**
-	 * @return oración a analizar
+	 * @return oraciones a analizar
 	 * @see HasWord
 	 */
-	List<? extends HasWord> getSentence() {
-		return sentence;
+	List<List<? extends HasWord>> getSentences() {
+		return sentences;
 	}
 
 	/**
-	 * Establece la oración a analizar
-	 * @param sentence oración a analizar
+	 * Establece las oraciones a analizar
+	 * @param sentences oraciones a analizar
 	 * @see HasWord
 	 */
-	void setSentence(List<? extends HasWord> sentence) {
-		this.sentence = sentence;
+	void setSentences(List<List<? extends HasWord>> sentences) {
+		this.sentences = sentences;
 	}
 
 	/**
@@ -193,14 +389,121 @@ public class ParserThread implements Runnable {
 	}
 	
 	/**
-	 * @return el identificador del libro al que pertenece la oracióna analizar
+	 * @return el objeto que controla el tiempo máximo de análisis de cada oración, o null si no se limita
+	 */
+	ParseWatchdog getParseWatchdog() {
+		return parseWatchdog;
+	}
+
+	/**
+	 * Establece el objeto que controla el tiempo máximo de análisis de cada oración
+	 * @param parseWatchdog objeto ParseWatchdog, o null para no limitar el tiempo de análisis
+	 * @see ParseWatchdog
+	 */
+	void setParseWatchdog(ParseWatchdog parseWatchdog) {
+		this.parseWatchdog = parseWatchdog;
+	}
+
+	/**
+	 * @return la caché de tripletas de oraciones ya analizadas, o null si no se utiliza
+	 */
+	ParseCache getParseCache() {
+		return parseCache;
+	}
+
+	/**
+	 * Establece la caché de tripletas de oraciones ya analizadas
+	 * @param parseCache objeto ParseCache, o null para analizar todas las oraciones
+	 * @see ParseCache
+	 */
+	void setParseCache(ParseCache parseCache) {
+		this.parseCache = parseCache;
+	}
+
+	/**
+	 * @return la acción a ejecutar al terminar la tarea, o null si no hay ninguna
+	 */
+	Runnable getCompletionListener() {
+		return completionListener;
+	}
+
+	/**
+	 * Establece una acción a ejecutar al terminar la tarea, haya terminado correctamente o no
+	 * @param completionListener acción a ejecutar
+	 */
+	void setCompletionListener(Runnable completionListener) {
+		this.completionListener = completionListener;
+	}
+
+	/**
+	 * @return la acción a ejecutar si la tarea termina con un error, o null si no hay ninguna
+	 */
+	Runnable getFailureListener() {
+		return failureListener;
+	}
+
+	/**
+	 * Establece una acción a ejecutar si la tarea termina con un error. Se ejecuta antes que la acción de finalización
+	 * @param failureListener acción a ejecutar
+	 */
+	void setFailureListener(Runnable failureListener) {
+		this.failureListener = failureListener;
+	}
+
+	/**
+	 * @return tipos de dependencia a guardar, o null si se guardan todos
+	 */
+	Set<String> getDependencyFilter() {
+		return dependencyFilter;
+	}
+
+	/**
+	 * Establece los tipos de dependencia cuyas tripletas se guardan en la colección
+	 * @param dependencyFilter tipos de dependencia a guardar, o null para guardar todos
+	 */
+	void setDependencyFilter(Set<String> dependencyFilter) {
+		this.dependencyFilter = dependencyFilter;
+	}
+
+	/**
+	 * @return tablas parciales de tripletas por hilo, o null si las tripletas se guardan en la colección compartida
+	 */
+	ThreadLocalTriplesTables getLocalTables() {
+		return localTables;
+	}
+
+	/**
+	 * Establece las tablas parciales de tripletas por hilo en las que guardar las tripletas obtenidas
+	 * @param localTables tablas parciales por hilo, o null para guardar las tripletas en la colección compartida
+	 */
+	void setLocalTables(ThreadLocalTriplesTables localTables) {
+		this.localTables = localTables;
+	}
+
+	/**
+	 * @return contador de oraciones descartadas por error de análisis, o null si no se cuentan
+	 */
+	LongAdder getFailedSentences() {
+		return failedSentences;
+	}
+
+	/**
+	 * Establece el contador de oraciones descartadas porque su análisis ha generado un error
+	 * @param failedSentences contador, o null para no contarlas
+	 */
+	void setFailedSentences(LongAdder failedSentences) {
+		this.failedSentences = failedSentences;
+	}
+
+	/**
+	 * @return el identificador del libro al que pertenecen las oraciones a analizar
 	 */
 	String getBook() {
 		return book;
 	}
 
 	/**
-	 * Establece el identificador del libro al que pertenece la oracióna analizar
+	 * Establece el identificador del libro al que pertenecen las oraciones a analizar
 	 * @param book identifiador del libro
 	 */
 	void setBook(String book) {
@@ -1,6 +1,9 @@
 package org.josfranmc.collocatio.triples;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
 
 import edu.stanford.nlp.ling.HasWord;
 import edu.stanford.nlp.parser.lexparser.LexicalizedParser;
@@ -15,16 +18,25 @@ import edu.stanford.nlp.trees.GrammaticalStructureFactory;
  */
 public class ParserThreadBuilder {
 
+	private IDependencyParser dependencyParser = null;
 	private LexicalizedParser lp = null;
 	private GrammaticalStructureFactory gsf = null;
-	private List<? extends HasWord> sentence = null;
+	private List<List<? extends HasWord>> sentences = null;
 	private String book = null;
 
 	private TriplesCollection triplesCollecion = null;
+	private ParseWatchdog parseWatchdog = null;
+	private ParseCache parseCache = null;
+	private Runnable completionListener = null;
+	private Runnable failureListener = null;
+	private Set<String> dependencyFilter = null;
+	private ThreadLocalTriplesTables localTables = null;
+	private LongAdder failedSentences = null;
     
 	
 	/**
-	 * Establece el objeto LexicalizedParser a utiizar.
+	 * Establece el objeto LexicalizedParser a utiizar. Junto con GrammaticalStructureFactory forman el analizador de dependencias PCFG que se
+	 * utiliza si no se establece otro analizador mediante <i>setDependencyParser</i>.
 	 * @param lp objeto LexicalizedParser
 	 * @return referencia al propio objeto builder (this)
 	 * @see LexicalizedParser
@@ -35,6 +47,18 @@ public class ParserThreadBuilder {
         return this;
     }    
     
+    /**
+     * Establece el analizador de dependencias a utilizar. Si se establece no es necesario indicar LexicalizedParser ni GrammaticalStructureFactory.
+     * @param dependencyParser analizador de dependencias
+     * @return referencia al propio objeto builder (this)
+     * @see IDependencyParser
+     * @see ParserThreadBuilder
+     */
+    public ParserThreadBuilder setDependencyParser(IDependencyParser dependencyParser) {
+        this.dependencyParser = dependencyParser;
+        return this;
+    }
+    
     /**
      * Establece el objeto TriplesCollection que almacena las tripletas obtenidas.
      * @param triplesCollection objeto TriplesCollection
@@ -60,19 +84,31 @@ public class ParserThreadBuilder {
     } 
     
     /**
-     * Establece la oración a analizar
+     * Establece la oración a analizar. Equivale a establecer un grupo formado por una única oración.
      * @param sentence oración a analizar
      * @return referencia al propio objeto builder (this)
      * @see ParserThreadBuilder
      * @see HasWord
      */
     public ParserThreadBuilder setSentence(List<? extends HasWord> sentence) {
-        this.sentence = sentence;
+        this.sentences = (sentence == null) ? null : Collections.<List<? extends HasWord>>singletonList(sentence);
         return this;
     }
     
     /**
-     * Establece el identificador del libro al que pertenece la oración a analizar.
+     * Establece el grupo de oraciones a analizar. Todas las oraciones deben pertenecer al mismo libro.
+     * @param sentences oraciones a analizar
+     * @return referencia al propio objeto builder (this)
+     * @see ParserThreadBuilder
+     * @see HasWord
+     */
+    public ParserThreadBuilder setSentences(List<List<? extends HasWord>> sentences) {
+        this.sentences = sentences;
+        return this;
+    }
+    
+    /**
+     * Establece el identificador del libro al que pertenecen las oraciones a analizar.
      * @param book identificador del libro
      * @return referencia al propio objeto builder (this)
      * @see ParserThreadBuilder
@@ -82,21 +118,108 @@ public class ParserThreadBuilder {
         return this;
     }
 
+    /**
+     * Establece el objeto que controla el tiempo máximo de análisis de cada oración. Es opcional; si no se establece no se limita el
+     * tiempo de análisis.
+     * @param parseWatchdog objeto ParseWatchdog
+     * @return referencia al propio objeto builder (this)
+     * @see ParseWatchdog
+     * @see ParserThreadBuilder
+     */
+    public ParserThreadBuilder setParseWatchdog(ParseWatchdog parseWatchdog) {
+        this.parseWatchdog = parseWatchdog;
+        return this;
+    }
+
+    /**
+     * Establece la caché de tripletas de oraciones ya analizadas. Es opcional; si no se establece se analizan todas las oraciones.
+     * @param parseCache objeto ParseCache
+     * @return referencia al propio objeto builder (this)
+     * @see ParseCache
+     * @see ParserThreadBuilder
+     */
+    public ParserThreadBuilder setParseCache(ParseCache parseCache) {
+        this.parseCache = parseCache;
+        return this;
+    }
+
+    /**
+     * Establece una acción a ejecutar cuando termine la tarea, haya terminado correctamente o no. Es opcional.
+     * @param completionListener acción a ejecutar
+     * @return referencia al propio objeto builder (this)
+     * @see ParserThreadBuilder
+     */
+    public ParserThreadBuilder setCompletionListener(Runnable completionListener) {
+        this.completionListener = completionListener;
+        return this;
+    }
+
+    /**
+     * Establece una acción a ejecutar si la tarea termina con un error, antes de la acción de finalización. Es opcional.
+     * @param failureListener acción a ejecutar
+     * @return referencia al propio objeto builder (this)
+     * @see ParserThreadBuilder
+     */
+    public ParserThreadBuilder setFailureListener(Runnable failureListener) {
+        this.failureListener = failureListener;
+        return this;
+    }
+
+    /**
+     * Establece los tipos de dependencia cuyas tripletas se guardan en la colección. Es opcional; si no se establece se guardan todas las tripletas.
+     * @param dependencyFilter tipos de dependencia a guardar
+     * @return referencia al propio objeto builder (this)
+     * @see ParserThreadBuilder
+     */
+    public ParserThreadBuilder setDependencyFilter(Set<String> dependencyFilter) {
+        this.dependencyFilter = dependencyFilter;
+        return this;
+    }
+
+    /**
+     * Establece las tablas parciales de tripletas por hilo. Es opcional; si se establece, las tripletas obtenidas se guardan en la tabla del
+     * hilo que ejecuta la tarea en lugar de en la colección de tripletas.
+     * @param localTables tablas parciales por hilo
+     * @return referencia al propio objeto builder (this)
+     * @see ThreadLocalTriplesTables
+     * @see ParserThreadBuilder
+     */
+    public ParserThreadBuilder setLocalTables(ThreadLocalTriplesTables localTables) {
+        this.localTables = localTables;
+        return this;
+    }
+
+    /**
+     * Establece el contador de oraciones descartadas porque su análisis ha generado un error. Es opcional.
+     * @param failedSentences contador de oraciones descartadas
+     * @return referencia al propio objeto builder (this)
+     * @see ParserThreadBuilder
+     */
+    public ParserThreadBuilder setFailedSentences(LongAdder failedSentences) {
+        this.failedSentences = failedSentences;
+        return this;
+    }
+
     /**
      * Crea un objeto ParserThread y lo configura con las opciones que se han tenido que establecer previamente. Todas las opciones de
-     * configuración son obligatorias, por lo que si alguna no ha sido establecida se genera una excepción del tipo IllegalArgumentException.
+     * configuración son obligatorias, salvo el control del tiempo de análisis, la caché, las acciones de finalización y de error, el filtro de dependencias, las tablas por hilo y el contador de oraciones descartadas, por lo que si alguna no ha sido establecida se genera una excepción del tipo IllegalArgumentException.
+     * El analizador puede indicarse mediante <i>setDependencyParser</i> o mediante LexicalizedParser y GrammaticalStructureFactory.
      * @return objeto ParserThread
      * @see ParserThread
      * @throws IllegalArgumentException
      */
     public ParserThread build() {
-    	if (this.lp == null) {
-            throw new IllegalArgumentException("LexicalizedParser es requerido");
-    	}
-    	if (this.gsf == null) {
-            throw new IllegalArgumentException("GrammaticalStructureFactory es requerido");
+    	IDependencyParser parser = this.dependencyParser;
+    	if (parser == null) {
+    		if (this.lp == null) {
+    			throw new IllegalArgumentException("LexicalizedParser es requerido");
+    		}
+    		if (this.gsf == null) {
+    			throw new IllegalArgumentException("GrammaticalStructureFactory es requerido");
+    		}
+    		parser = new PcfgDependencyParser(this.lp, this.gsf);
     	}
-    	if (this.sentence == null) {
+    	if (this.sentences == null) {
             throw new IllegalArgumentException("sentence es requerido");
     	}
     	if (this.book == null) {
@@ -105,12 +228,18 @@ public class ParserThreadBuilder {
     	if (this.triplesCollecion == null) {
             throw new IllegalArgumentException("TriplesCollecion es requerido");
     	}
-    	ParserThread pt = new ParserThread();
-    	pt.setLp(this.lp);
-    	pt.setGsf(this.gsf);
-    	pt.setSentence(this.sentence);
+    	ParserThread pt = new ParserThread(ParserThread.computeCost(this.sentences));
+    	pt.setDependencyParser(parser);
+    	pt.setSentences(this.sentences);
     	pt.setTriplesCollection(this.triplesCollecion);
     	pt.setBook(this.book);
+    	pt.setParseWatchdog(this.parseWatchdog);
+    	pt.setParseCache(this.parseCache);
+    	pt.setCompletionListener(this.completionListener);
+    	pt.setFailureListener(this.failureListener);
+    	pt.setDependencyFilter(this.dependencyFilter);
+    	pt.setLocalTables(this.localTables);
+    	pt.setFailedSentences(this.failedSentences);
         return pt;
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package org.josfranmc.collocatio.triples;
+
+/**
+ * Tipos de analizadores de dependencias disponibles para la extracción de tripletas
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see IDependencyParser
+ */
+public enum ParserType {
+	/**
+	 * Analizador sintáctico probabilístico (LexicalizedParser) cuyo árbol se convierte después en dependencias. Es el más preciso y el más lento
+	 * @see PcfgDependencyParser
+	 */
+	PCFG,
+	
+	/**
+	 * Analizador de dependencias neuronal basado en transiciones (nndep), precedido del etiquetado gramatical de la oración. Es mucho más rápido
+	 * que el analizador PCFG
+	 * @see NeuralDependencyParser
+	 */
+	NEURAL
+}
@@ -0,0 +1,158 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tabla parcial de tripletas de un único hilo de análisis. Guarda, sin ningún tipo de sincronización, el número de apariciones de cada
+ * tripleta y los libros en los que ha aparecido, de forma que el hilo que la utiliza no escribe en memoria compartida con otros hilos.<p>
+ * Al terminar la extracción las tablas parciales de todos los hilos se unen entre sí y el resultado se vuelca en la colección de tripletas.
+ * Un objeto de esta clase sólo debe ser utilizado por un hilo a la vez.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see ThreadLocalTriplesTables
+ * @see TriplesCollection
+ */
+class PartialTriplesTable {
+
+	/**
+	 * Apariciones de cada tripleta
+	 */
+	private final Map<Triple, Events> triples = new HashMap<Triple, Events>();
+
+	/**
+	 * Número total de tripletas guardadas en la tabla
+	 */
+	private long totalTriples;
+
+	/**
+	 * Número de tripletas descartadas por no pertenecer a las dependencias seleccionadas
+	 */
+	private long discardedTriples;
+
+
+	/**
+	 * Guarda un conjunto de tripletas encontradas en un mismo libro, junto al número de veces que ha aparecido cada una.
+	 * @param triples mapa de tripletas y número de apariciones de cada una
+	 * @param book identificador del libro en el que se han encontrado las tripletas
+	 */
+	void save(Map<Triple, Long> triples, String book) {
+		int bookId = BookSet.getBookId(book);
+		for (Map.Entry<Triple, Long> entry : triples.entrySet()) {
+			Events events = this.triples.get(entry.getKey());
+			if (events == null) {
+				events = new Events();
+				this.triples.put(entry.getKey(), events);
+			}
+			events.add(bookId, entry.getValue());
+			this.totalTriples += entry.getValue();
+		}
+	}
+
+	/**
+	 * Registra tripletas descartadas por no pertenecer a las dependencias seleccionadas
+	 * @param total número de tripletas descartadas
+	 */
+	void addDiscardedTriples(long total) {
+		this.discardedTriples += total;
+	}
+
+	/**
+	 * Une dos tablas parciales. Las tripletas de la tabla menor se añaden a la mayor, que es la que se devuelve.
+	 * @param table1 tabla parcial
+	 * @param table2 tabla parcial
+	 * @return tabla con las tripletas de ambas tablas
+	 */
+	static PartialTriplesTable merge(PartialTriplesTable table1, PartialTriplesTable table2) {
+		PartialTriplesTable target = (table1.size() >= table2.size()) ? table1 : table2;
+		PartialTriplesTable source = (target == table1) ? table2 : table1;
+		for (Map.Entry<Triple, Events> entry : source.triples.entrySet()) {
+			Events events = target.triples.get(entry.getKey());
+			if (events == null) {
+				target.triples.put(entry.getKey(), entry.getValue());
+			} else {
+				events.add(entry.getValue());
+			}
+		}
+		target.totalTriples += source.totalTriples;
+		target.discardedTriples += source.discardedTriples;
+		source.clear();
+		return target;
+	}
+
+	/**
+	 * Vuelca el contenido de la tabla en una colección de tripletas y vacía la tabla.
+	 * @param triplesCollection colección en la que guardar las tripletas
+	 */
+	void drainTo(TriplesCollection triplesCollection) {
+		for (Map.Entry<Triple, Events> entry : triples.entrySet()) {
+			triplesCollection.putEvents(entry.getKey(), entry.getValue().getBooks(), entry.getValue().total);
+		}
+		triplesCollection.addTotalTriples(totalTriples);
+		if (discardedTriples > 0) {
+			triplesCollection.addDiscardedTriples(discardedTriples);
+		}
+		clear();
+	}
+
+	/**
+	 * @return número de tripletas distintas de la tabla
+	 */
+	int size() {
+		return triples.size();
+	}
+
+	/**
+	 * @return número total de tripletas guardadas en la tabla
+	 */
+	long getTotalTriples() {
+		return totalTriples;
+	}
+
+	/**
+	 * Vacía la tabla
+	 */
+	private void clear() {
+		triples.clear();
+		totalTriples = 0;
+		discardedTriples = 0;
+	}
+
+	/**
+	 * Apariciones de una tripleta en la tabla. La mayoría de las tripletas de una tabla aparecen en un único libro, por lo que el conjunto de
+	 * libros sólo se crea cuando aparece un segundo libro.
+	 */
+	private static class Events {
+
+		private long total;
+
+		private int book = -1;
+
+		private BookSet books;
+
+		void add(int book, long total) {
+			this.total += total;
+			if (this.book == -1) {
+				this.book = book;
+			} else if (this.book != book) {
+				books = (books == null) ? BookSet.of(this.book).with(book) : books.with(book);
+			}
+		}
+
+		void add(Events other) {
+			this.total += other.total;
+			if (other.books == null) {
+				add(other.book, 0);
+			} else {
+				books = (books == null) ? other.books.with(this.book) : books.union(other.books);
+			}
+		}
+
+		BookSet getBooks() {
+			if (books != null) {
+				return books;
+			}
+			return (book == -1) ? BookSet.EMPTY : BookSet.of(book);
+		}
+	}
+}
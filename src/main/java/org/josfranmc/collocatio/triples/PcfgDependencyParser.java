@@ -0,0 +1,77 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.List;
+
+import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.parser.lexparser.LexicalizedParser;
+import edu.stanford.nlp.trees.GrammaticalStructure;
+import edu.stanford.nlp.trees.GrammaticalStructureFactory;
+import edu.stanford.nlp.trees.Tree;
+import edu.stanford.nlp.trees.TypedDependency;
+
+/**
+ * Analizador de dependencias basado en el analizador sintáctico probabilístico LexicalizedParser del software de Stanford. Cada oración se
+ * analiza para obtener su árbol sintáctico, que después se convierte en dependencias mediante GrammaticalStructureFactory.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see ParserType#PCFG
+ * @see LexicalizedParser
+ */
+public class PcfgDependencyParser implements IDependencyParser {
+
+	/**
+	 * Referencia al objeto LexicalizedParser del software de Stanford utilizado para el análisis
+	 */
+	private final LexicalizedParser lp;
+	
+	/**
+	 * Referencia al objeto GrammaticalStructureFactory del software de Stanford utilizado para el análisis
+	 */
+	private final GrammaticalStructureFactory gsf;
+	
+
+	/**
+	 * Crea el analizador a partir de un LexicalizedParser, obteniendo la factoría de GrammaticalStructure del paquete de idioma del modelo.
+	 * @param lp objeto LexicalizedParser
+	 */
+	public PcfgDependencyParser(LexicalizedParser lp) {
+		this(lp, (lp == null) ? null : lp.getOp().langpack().grammaticalStructureFactory());
+	}
+
+	/**
+	 * Constructor principal.
+	 * @param lp objeto LexicalizedParser
+	 * @param gsf objeto GrammaticalStructureFactory
+	 */
+	public PcfgDependencyParser(LexicalizedParser lp, GrammaticalStructureFactory gsf) {
+		if (lp == null) {
+			throw new IllegalArgumentException("LexicalizedParser es requerido");
+		}
+		if (gsf == null) {
+			throw new IllegalArgumentException("GrammaticalStructureFactory es requerido");
+		}
+		this.lp = lp;
+		this.gsf = gsf;
+	}
+
+	@Override
+	public List<TypedDependency> getTypedDependencies(List<? extends HasWord> sentence) {
+		Tree parse = lp.parse(sentence);
+		GrammaticalStructure gs = gsf.newGrammaticalStructure(parse);
+		return gs.typedDependenciesCCprocessed();
+	}
+
+	/**
+	 * @return objeto LexicalizedParser
+	 */
+	LexicalizedParser getLp() {
+		return lp;
+	}
+
+	/**
+	 * @return objeto GrammaticalStructureFactory
+	 */
+	GrammaticalStructureFactory getGsf() {
+		return gsf;
+	}
+}
@@ -0,0 +1,19 @@
+package org.josfranmc.collocatio.triples;
+
+/**
+ * Tipos de muestreo de oraciones disponibles para la extracción de tripletas
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see SentenceSampler
+ */
+public enum SamplingType {
+	/**
+	 * Cada oración se selecciona de forma independiente con la probabilidad indicada
+	 */
+	UNIFORM,
+	
+	/**
+	 * Se selecciona la misma proporción de oraciones de cada libro, repartidas de forma regular a lo largo del libro
+	 */
+	STRATIFIED
+}
@@ -0,0 +1,81 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.Random;
+
+/**
+ * Selecciona una muestra de las oraciones de un libro. Se crea un objeto por libro y se consulta, para cada oración leida en orden, si la
+ * oración forma parte de la muestra.<p>
+ * La selección depende sólo de la semilla, del identificador del libro y del orden de las oraciones, por lo que una misma configuración
+ * obtiene siempre la misma muestra, independientemente del orden en que se procesen los libros.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see SamplingType
+ */
+public class SentenceSampler {
+
+	/**
+	 * Semilla por defecto para la selección de oraciones
+	 */
+	public static final long DEFAULT_SEED = 0x4A436F6CL;
+
+	/**
+	 * Proporción de oraciones a seleccionar, entre 0 (excluido) y 1
+	 */
+	private final double sampleRate;
+
+	/**
+	 * Tipo de muestreo
+	 */
+	private final SamplingType samplingType;
+
+	/**
+	 * Generador de números aleatorios del libro
+	 */
+	private final Random random;
+
+	/**
+	 * Proporción acumulada en el muestreo estratificado. Se selecciona una oración cada vez que alcanza el valor 1
+	 */
+	private double accumulated;
+
+
+	/**
+	 * Constructor principal.
+	 * @param sampleRate proporción de oraciones a seleccionar, mayor que 0 y no mayor que 1
+	 * @param samplingType tipo de muestreo
+	 * @param book identificador del libro
+	 * @param seed semilla para la selección de oraciones
+	 */
+	public SentenceSampler(double sampleRate, SamplingType samplingType, String book, long seed) {
+		if (sampleRate <= 0 || sampleRate > 1) {
+			throw new IllegalArgumentException("La proporción de oraciones a seleccionar debe ser mayor que 0 y no mayor que 1");
+		}
+		if (samplingType == null) {
+			throw new IllegalArgumentException("Debe indicarse el tipo de muestreo");
+		}
+		this.sampleRate = sampleRate;
+		this.samplingType = samplingType;
+		this.random = new Random(seed ^ ((book == null) ? 0 : book.hashCode()));
+		// el punto de inicio aleatorio evita que se seleccione siempre la primera oración de cada libro
+		this.accumulated = random.nextDouble();
+	}
+
+	/**
+	 * Indica si la siguiente oración del libro forma parte de la muestra.
+	 * @return <i>true</i> si la oración debe analizarse
+	 */
+	public boolean accept() {
+		if (sampleRate >= 1) {
+			return true;
+		}
+		if (samplingType == SamplingType.UNIFORM) {
+			return random.nextDouble() < sampleRate;
+		}
+		accumulated += sampleRate;
+		if (accumulated >= 1) {
+			accumulated -= 1;
+			return true;
+		}
+		return false;
+	}
+}
@@ -1,28 +1,44 @@
 package org.josfranmc.collocatio.triples;
 
 import java.io.File;
+import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
 
 import org.apache.log4j.Logger;
 import org.josfranmc.collocatio.corpus.CorpusBuilder;
+import org.josfranmc.collocatio.util.BoundedThreadPoolExecutor;
 import org.josfranmc.collocatio.util.ThreadFactoryBuilder;
 
 import edu.stanford.nlp.ling.HasWord;
 import edu.stanford.nlp.parser.lexparser.LexicalizedParser;
+import edu.stanford.nlp.parser.nndep.DependencyParser;
 import edu.stanford.nlp.process.DocumentPreprocessor;
-import edu.stanford.nlp.trees.GrammaticalStructureFactory;
-import edu.stanford.nlp.trees.TreebankLanguagePack;
+import edu.stanford.nlp.tagger.maxent.MaxentTagger;
 
 /**
  * Realiza el proceso de extracción y almacenamiento de las tripletas detectadas en un conjunto de ficheros. Este proceso es el primer paso a realizar en
@@ -33,6 +49,10 @@ import edu.stanford.nlp.trees.TreebankLanguagePack;
  * almacenamiento de tripletas. Todos los hilos lanzados comparten un objeto de tipo TripleCollection que encapsula la estructura de datos en la que se
  * guardan las tripletas obtenidas. Este objeto es <i>thread-safe</i> por lo que se accede al mismo de forma concurrente manteniendo la sincronización de los
  * hilos y la consistencia de los datos.<p>
+ * Las oraciones se leen de los textos de forma progresiva, se agrupan en bloques de oraciones de un mismo libro y se envían a una cola de tareas de tamaño limitado. Si los hilos que analizan las oraciones
+ * no dan abasto, la lectura de los textos queda bloqueada hasta que haya hueco en la cola, de forma que la memoria utilizada es proporcional al tamaño
+ * de la cola y no al tamaño del corpus. Los textos pueden leerse de uno en uno o mediante varios hilos de lectura que procesan ficheros
+ * distintos de forma simultánea.<p>
  * Para el análsis de los textos se utiliza el analizador para procesamiento del lenguaje de Stanford. Por defecto, este software está configurado
  * para el procesamiento de textos en inglés, si bien es posible especificar otros modelos para otros diomas. También se pueden pasar opciones de
  * configuración al parser.
@@ -50,11 +70,71 @@ public class StanfordTriplesExtractor {
 	 */
 	public static final int DEFAULT_SENTENCE_MAX_LENGTH = 35;
 	
+	/**
+	 * Número máximo por defecto de tareas de análisis pendientes de ejecutar
+	 */
+	public static final int DEFAULT_QUEUE_CAPACITY = 256;
+	
+	/**
+	 * Número por defecto de oraciones que se analizan en una misma tarea
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+	
+	/**
+	 * Número por defecto de hilos que leen los textos
+	 */
+	public static final int DEFAULT_TOTAL_READERS = 1;
+	
+	/**
+	 * Fichero por defecto donde se guardan las oraciones cuyo análisis supera el tiempo máximo
+	 */
+	public static final String DEFAULT_QUARANTINE_FILE = "quarantine.txt";
+	
+	/**
+	 * Número máximo por defecto de oraciones guardadas en la caché de análisis
+	 */
+	public static final int DEFAULT_CACHE_SIZE = 10000;
+	
+	/**
+	 * Segundos por defecto entre dos puntos de control consecutivos
+	 */
+	public static final long DEFAULT_CHECKPOINT_INTERVAL = 300;
+	
+	/**
+	 * Número por defecto de tripletas distintas en memoria a partir del cual se vuelcan a disco, si se ha indicado una carpeta de volcado
+	 */
+	public static final int DEFAULT_SPILL_THRESHOLD = 20000000;
+	
+	/**
+	 * Modelo por defecto del etiquetador gramatical utilizado por el analizador neuronal
+	 */
+	public static final String DEFAULT_TAGGER_MODEL = "edu/stanford/nlp/models/pos-tagger/english-left3words/english-left3words-distsim.tagger";
+	
+	/**
+	 * Modelo por defecto del analizador neuronal
+	 */
+	public static final String DEFAULT_DEPENDENCY_MODEL = DependencyParser.DEFAULT_MODEL;
+	
+	/**
+	 * Tipo de analizador de dependencias a utilizar
+	 */
+	private ParserType parserType;
+	
 	/**
 	 * Parser a utilizar para realizar los análisis
 	 */
 	private String model;
 	
+	/**
+	 * Modelo del etiquetador gramatical utilizado por el analizador neuronal
+	 */
+	private String taggerModel;
+	
+	/**
+	 * Modelo del analizador neuronal
+	 */
+	private String dependencyModel;
+	
 	/**
 	 * Parámetros pasados al analizador de Stanford
 	 */
@@ -69,6 +149,96 @@ public class StanfordTriplesExtractor {
 	 * Número total de hilos a ejecutar
 	 */
 	private int totalThreads;
+	
+	/**
+	 * Número máximo de tareas de análisis pendientes de ejecutar
+	 */
+	private int queueCapacity;
+	
+	/**
+	 * Número de oraciones de un mismo libro que se analizan en una misma tarea
+	 */
+	private int batchSize;
+	
+	/**
+	 * Número de hilos que leen y "tokenizan" los textos de forma simultánea
+	 */
+	private int totalReaders;
+	
+	/**
+	 * Indica si las tareas de análisis se ejecutan según su coste estimado, de mayor a menor, en lugar de por orden de llegada
+	 */
+	private boolean costPriority;
+	
+	/**
+	 * Tiempo máximo de análisis de una oración, en milisegundos. Con valor 0 no se limita
+	 */
+	private long parseTimeout;
+	
+	/**
+	 * Fichero donde se guardan las oraciones cuyo análisis supera el tiempo máximo
+	 */
+	private String quarantineFile;
+	
+	/**
+	 * Controla el tiempo máximo de análisis de las oraciones durante la extracción
+	 */
+	private ParseWatchdog parseWatchdog;
+	
+	/**
+	 * Número máximo de oraciones guardadas en la caché de análisis. Con valor 0 no se utiliza la caché
+	 */
+	private int cacheSize;
+	
+	/**
+	 * Caché de tripletas de oraciones ya analizadas durante la extracción
+	 */
+	private ParseCache parseCache;
+	
+	/**
+	 * Carpeta donde se guardan los puntos de control. Si es null no se guardan
+	 */
+	private String checkpointDirectory;
+	
+	/**
+	 * Segundos entre dos puntos de control consecutivos
+	 */
+	private long checkpointInterval;
+	
+	/**
+	 * Indica si se debe continuar la extracción a partir del último punto de control guardado
+	 */
+	private boolean resume;
+	
+	/**
+	 * Gestiona los puntos de control durante la extracción
+	 */
+	private CheckpointManager checkpointManager;
+	
+	/**
+	 * Carpeta del almacén de tripletas por libro para el procesamiento incremental. Si es null no se utiliza
+	 */
+	private String incrementalDirectory;
+	
+	/**
+	 * Almacén de tripletas por libro durante la extracción
+	 */
+	private BookTriplesStore bookTriplesStore;
+	
+	/**
+	 * Carpeta de la caché de modelos descomprimidos. Si es null los modelos se cargan siempre del original
+	 */
+	private String modelCacheDirectory;
+	
+	/**
+	 * Tiempo empleado en la carga del modelo, en milisegundos
+	 */
+	private volatile long modelLoadTime;
+	
+	/**
+	 * Creación en segundo plano de la copia en caché del modelo cargado, o null si no se está creando ninguna copia
+	 */
+	private volatile CompletableFuture<Void> modelCacheTask;
 
 	/**
 	 * Guarda las tripletas obtenidas
@@ -79,14 +249,78 @@ public class StanfordTriplesExtractor {
 	/**
 	 * Contador para saber el número de oraciones leidas
 	 */
-	private long totalSentences = 0; 
+	private LongAdder totalSentences = new LongAdder();
+	
+	/**
+	 * Contador para saber el número de oraciones descartadas por no contener ninguna palabra objetivo
+	 */
+	private LongAdder skippedSentences = new LongAdder();
+	
+	/**
+	 * Palabras objetivo en minúsculas. Si es null se analizan todas las oraciones
+	 */
+	private Set<String> targetWords; 
+	
+	/**
+	 * Proporción de oraciones a analizar. Si es menor que 1 sólo se analiza una muestra de las oraciones
+	 */
+	private double sampleRate;
+	
+	/**
+	 * Tipo de muestreo de oraciones
+	 */
+	private SamplingType samplingType;
+	
+	/**
+	 * Contador para saber el número de oraciones que no se analizan por quedar fuera de la muestra
+	 */
+	private LongAdder unsampledSentences = new LongAdder();
+	
+	/**
+	 * Contador para saber el número de oraciones descartadas porque su análisis ha generado un error
+	 */
+	private LongAdder failedSentences = new LongAdder();
+	
+	/**
+	 * Tipos de dependencia cuyas tripletas se guardan. Si es null se guardan todas las tripletas
+	 */
+	private Set<String> dependencyFilter;
+	
+	/**
+	 * Indica si cada hilo de análisis guarda las tripletas en una tabla propia en lugar de en la colección compartida
+	 */
+	private boolean localTables;
+	
+	/**
+	 * Tablas parciales de tripletas por hilo durante la extracción. Si es null las tripletas se guardan en la colección compartida
+	 */
+	private ThreadLocalTriplesTables threadLocalTables;
+	
+	/**
+	 * Indica si las claves y los contadores de las tripletas de la colección principal se guardan fuera del heap
+	 */
+	private boolean offHeap;
+	
+	/**
+	 * Carpeta en la que se vuelcan las tripletas de la colección principal cuando su número en memoria alcanza el umbral de volcado
+	 */
+	private String spillDirectory;
+	
+	/**
+	 * Número de tripletas distintas en memoria a partir del cual se vuelcan a disco
+	 */
+	private int spillThreshold;
 	
 	
 	/**
 	 * Constructor principal. Establece la siguiente configuración básica:
 	 * <ul>
-	 * <li>carga el parser para el idioma inglés (lo carga del jar <i>stanford-models</i>, que se encuentra en el classpath)</li>
+	 * <li>selecciona el analizador PCFG y carga el parser para el idioma inglés (lo carga del jar <i>stanford-models</i>, que se encuentra en el classpath)</li>
+	 * <li>establece los modelos por defecto del analizador neuronal, que sólo se cargan si se selecciona este analizador</li>
 	 * <li>establece el máximo de hilos a ejecutar según el número de procesadores existentes en el sistema</li>
+	 * <li>establece el tamaño por defecto de la cola de tareas de análisis y el número de oraciones a analizar en cada tarea</li>
+	 * <li>establece un único hilo de lectura de los textos</li>
+	 * <li>establece que se analicen todas las oraciones, sin muestreo</li>
 	 * <li>establece las opciones para el parser de Stanford</li>
 	 * <li>inicializa un objeto del tipo TriplesCollection para almacenar las tripletas obtenidas</li>
 	 * </ul>
@@ -95,7 +329,21 @@ public class StanfordTriplesExtractor {
 	public StanfordTriplesExtractor() {
 		setModel("edu/stanford/nlp/models/lexparser/englishPCFG.ser.gz");
 		//setModel("edu/stanford/nlp/models/lexparser/spanishPCFG.ser.gz");
+		setParserType(ParserType.PCFG);
+		setTaggerModel(DEFAULT_TAGGER_MODEL);
+		setDependencyModel(DEFAULT_DEPENDENCY_MODEL);
 		setTotalThreads(Runtime.getRuntime().availableProcessors());
+		setQueueCapacity(DEFAULT_QUEUE_CAPACITY);
+		setBatchSize(DEFAULT_BATCH_SIZE);
+		setTotalReaders(DEFAULT_TOTAL_READERS);
+		setCostPriority(false);
+		setParseTimeout(0);
+		setQuarantineFile(DEFAULT_QUARANTINE_FILE);
+		setCacheSize(DEFAULT_CACHE_SIZE);
+		setCheckpointInterval(DEFAULT_CHECKPOINT_INTERVAL);
+		setSpillThreshold(DEFAULT_SPILL_THRESHOLD);
+		setSampleRate(1.0);
+		setSamplingType(SamplingType.UNIFORM);
 		setTriplesCollection(new TriplesCollection());
 		initOptionsFlags();
 	}
@@ -142,9 +390,15 @@ public class StanfordTriplesExtractor {
 	}
 
 	/**
-	 * Obtiene un ExecutorService para el control y procesamiento de los hilos a lanzar y se personalizan algunas características de estos.
+	 * Obtiene un ExecutorService para el control y procesamiento de los hilos a lanzar y se personalizan algunas características de estos.<p>
+	 * La cola de tareas pendientes está limitada al tamaño indicado por <i>queueCapacity</i>. Cuando está llena, el envío de nuevas tareas
+	 * bloquea al hilo que lee los textos hasta que los hilos de análisis liberan hueco.<p>
+	 * Si se ha activado la ejecución por coste, las tareas pendientes se guardan en una cola de prioridad ordenada por el coste estimado de
+	 * cada tarea, de forma que los hilos libres siempre toman la tarea más costosa de las pendientes. Así se evita que unas pocas oraciones
+	 * largas enviadas al final dejen a la mayoría de los hilos parados esperando a que terminen.
 	 * @return ExecutorService
 	 * @see ThreadFactoryBuilder
+	 * @see BoundedThreadPoolExecutor
 	 */
 	private ExecutorService getExecutorService() {
 		ThreadFactory threadFactoryBuilder = new ThreadFactoryBuilder()
@@ -152,7 +406,144 @@ public class StanfordTriplesExtractor {
 				.setDaemon(false)
 				.setPriority(Thread.MAX_PRIORITY)
 				.build();			
-		return Executors.newFixedThreadPool(getTotalThreads(), threadFactoryBuilder);
+		return new BoundedThreadPoolExecutor(getTotalThreads(), getQueueCapacity(), getWorkQueue(), threadFactoryBuilder);
+	}
+	
+	/**
+	 * Obtiene la cola en la que se guardan las tareas de análisis pendientes de ejecutar. Por defecto es una cola FIFO; si se ha activado la
+	 * ejecución por coste es una cola de prioridad que devuelve primero las tareas de mayor coste estimado.
+	 * @return cola de tareas pendientes
+	 * @see ParserThread#getCost()
+	 */
+	private BlockingQueue<Runnable> getWorkQueue() {
+		if (isCostPriority()) {
+			Comparator<Runnable> byCost = Comparator.comparingLong(r -> ((ParserThread) r).getCost());
+			return new PriorityBlockingQueue<Runnable>(getQueueCapacity(), byCost.reversed());
+		}
+		return new LinkedBlockingQueue<Runnable>();
+	}
+	
+	/**
+	 * Obtiene un ExecutorService con <i>totalReaders</i> hilos encargados de leer y "tokenizar" los textos. Cada hilo procesa un libro
+	 * completo, por lo que las oraciones enviadas a analizar siempre se asocian al libro correcto.
+	 * @return ExecutorService
+	 * @see ThreadFactoryBuilder
+	 */
+	private ExecutorService getReaderExecutorService() {
+		ThreadFactory threadFactoryBuilder = new ThreadFactoryBuilder()
+				.setNameThread("ReaderThread")
+				.setDaemon(false)
+				.build();
+		return Executors.newFixedThreadPool(getTotalReaders(), threadFactoryBuilder);
+	}
+	
+	/**
+	 * Lee los ficheros a procesar y envía sus oraciones a analizar.<p>
+	 * Si sólo hay un hilo de lectura los ficheros se leen uno tras otro en el hilo actual. En otro caso cada fichero se lee en uno de
+	 * los hilos de lectura, de forma que varios ficheros se "tokenizan" a la vez. Todos los hilos de lectura envían sus oraciones al mismo
+	 * ExecutorService de análisis. El método termina cuando se han leido todos los ficheros.
+	 * @param executorService ExecutorService que ejecuta las tareas de análisis
+	 * @param dependencyParser analizador de dependencias a utilizar en el análisis
+	 * @return número de ficheros leidos
+	 */
+	private int readBooks(ExecutorService executorService, IDependencyParser dependencyParser) {
+		int totalBooks = 0;
+		List<String> files = getPendingFiles();
+		if (getTotalReaders() <= 1) {
+		    for (String bookFile : files) {
+			    log.debug("Procesando " + bookFile);
+			    totalBooks++;
+			    readBook(bookFile, executorService, dependencyParser);
+		    }
+		} else {
+			ExecutorService readers = getReaderExecutorService();
+		    for (String bookFile : files) {
+			    totalBooks++;
+			    readers.submit(() -> {
+			    	log.debug("Procesando " + bookFile);
+			    	try {
+			    		readBook(bookFile, executorService, dependencyParser);
+			    	} catch (Exception e) {
+			    		log.error("Error leyendo " + bookFile, e);
+			    	}
+			    });
+		    }
+		    awaitTerminationAfterShutdown(readers);
+		}
+		return totalBooks;
+	}
+	
+	/**
+	 * Devuelve los ficheros que quedan por analizar.<p>
+	 * Si se continúa una extracción anterior se descartan los libros que ya se encuentran en el punto de control cargado. En el procesamiento
+	 * incremental, los libros que se encuentran en el almacén de tripletas por libro no se analizan: sus tripletas se cargan del almacén y
+	 * se añaden directamente a la colección de tripletas.
+	 * @return lista de rutas de los ficheros a analizar
+	 */
+	private List<String> getPendingFiles() {
+		List<String> files = getFilesToProcess();
+		if (checkpointManager != null && !checkpointManager.getCompletedBooks().isEmpty()) {
+			List<String> pending = new ArrayList<String>();
+			for (String bookFile : files) {
+				if (!checkpointManager.isCompleted(getBookId(bookFile))) {
+					pending.add(bookFile);
+				}
+			}
+			log.info("Libros ya procesados en el punto de control: " + (files.size() - pending.size()));
+			files = pending;
+		}
+		if (bookTriplesStore != null) {
+			List<String> pending = new ArrayList<String>();
+			int loaded = 0;
+			for (String bookFile : files) {
+				if (loadStoredBook(getBookId(bookFile), new File(bookFile))) {
+					loaded++;
+				} else {
+					pending.add(bookFile);
+				}
+			}
+			log.info("Libros cargados del almacén de tripletas: " + loaded + ", libros nuevos a analizar: " + pending.size());
+			files = pending;
+		}
+		return files;
+	}
+	
+	/**
+	 * Carga del almacén de tripletas por libro las tripletas de un libro analizado en una ejecución anterior y las añade a la colección de tripletas.
+	 * @param book identificador del libro
+	 * @param bookFile fichero del libro
+	 * @return <i>true</i> si el libro se encontraba en el almacén y se ha cargado, <i>false</i> si debe analizarse
+	 */
+	private boolean loadStoredBook(String book, File bookFile) {
+		boolean loaded = false;
+		if (bookTriplesStore.contains(book)) {
+			try {
+				TriplesCollection bookTriples = bookTriplesStore.load(book, bookFile);
+				if (bookTriples != null) {
+					completeBook(book, bookTriples);
+					loaded = true;
+				} else {
+					log.info("Libro " + book + " guardado con otra configuración o modificado desde entonces, se vuelve a analizar");
+				}
+			} catch (IOException e) {
+				log.error("Error cargando " + book + " del almacén de tripletas, se vuelve a analizar", e);
+			}
+		}
+		return loaded;
+	}
+	
+	/**
+	 * Añade a la colección de tripletas las tripletas de un libro completamente procesado. Si se guardan puntos de control el libro se marca
+	 * además como terminado.
+	 * @param book identificador del libro
+	 * @param bookTriples tripletas del libro
+	 */
+	private void completeBook(String book, TriplesCollection bookTriples) {
+		if (checkpointManager != null) {
+			checkpointManager.completeBook(book, bookTriples);
+		} else {
+			triplesCollection.merge(bookTriples);
+		}
 	}
 	
 	/**
@@ -165,99 +556,474 @@ public class StanfordTriplesExtractor {
 	}
 	
 	/**
-	 * Obtiene una lista de las oraciones que componen un documento.<p>
-	 * Primero se prepara el archivo con DocumentPreprocessor. Se usan las opciones por defecto
-	 * de esta clase por lo que se utiliza el espacio en blanco para "tokenizar" el texto (mediante PTBTokenizer).
+	 * Lee las oraciones que componen un documento y envía a analizar aquellas que no superan el tamaño máximo establecido.<p>
+	 * El fichero se prepara con DocumentPreprocessor. Se usan las opciones por defecto de esta clase por lo que se utiliza el espacio
+	 * en blanco para "tokenizar" el texto (mediante PTBTokenizer). Las oraciones se van enviando conforme se leen, sin guardar el
+	 * documento completo en memoria. Las oraciones se agrupan en bloques de <i>batchSize</i> oraciones y cada bloque se analiza en una misma
+	 * tarea. Si la cola de tareas está llena la lectura queda bloqueada hasta que haya hueco.
 	 * @param bookFile ruta del fichero a procesar
-	 * @return lista de oraciones
+	 * @param executorService ExecutorService que ejecuta las tareas de análisis
+	 * @param dependencyParser analizador de dependencias a utilizar en el análisis
 	 * @see DocumentPreprocessor
 	 * @see HasWord
 	 */
-	private List<List<? extends HasWord>> getSentences(String bookFile) {
+	private void readBook(String bookFile, ExecutorService executorService, IDependencyParser dependencyParser) {
 		log.debug("Inicio extracción oraciones de " + bookFile);
 		long total = 0;
-		DocumentPreprocessor dp = new DocumentPreprocessor(bookFile);
-		List<List<? extends HasWord>> sentences = new ArrayList<>();
-	    for (List<HasWord> sentence : dp) {
-	    	sentences.add(sentence);
-	    	totalSentences++;
-	    	total++;
-	    }
+		String book = getBookId(bookFile);
+		BookProgress progress = (checkpointManager != null || bookTriplesStore != null) ? new BookProgress(book, new File(bookFile)) : null;
+		SentenceSampler sampler = (getSampleRate() < 1) ? new SentenceSampler(getSampleRate(), getSamplingType(), book, SentenceSampler.DEFAULT_SEED) : null;
+		boolean read = false;
+		try {
+			DocumentPreprocessor dp = new DocumentPreprocessor(bookFile);
+			List<List<? extends HasWord>> batch = new ArrayList<>(getBatchSize());
+			// recorremos las oraciones que componen un texto
+		    for (List<HasWord> sentence : dp) {
+		    	totalSentences.increment();
+		    	total++;
+		    	// saltamos las oraciones que superan el tamaño máximo establecido
+		    	// si no lo hacemos, aunque estas oraciones no se analizan aparecen en el conjunto de resultados como tripletas con tipo de dependencia "dep"
+		    	if (sentence.size() <= getMaxLength() && isTargetSentence(sentence) && isSampledSentence(sampler)) {
+		    		batch.add(sentence);
+		    		if (batch.size() == getBatchSize()) {
+		    			submitBatch(batch, book, progress, executorService, dependencyParser);
+		    			batch = new ArrayList<>(getBatchSize());
+		    		}
+		    	}
+		    }
+		    if (!batch.isEmpty()) {
+		    	submitBatch(batch, book, progress, executorService, dependencyParser);
+		    }
+		    read = true;
+		} finally {
+			if (progress != null) {
+				if (!read) {
+					progress.fail();
+				}
+				progress.release();
+			}
+		}
 	    log.debug("Oraciones obtenidas de " + bookFile + ": " + total);
-	    return sentences;
+	}
+	
+	/**
+	 * Indica si una oración debe analizarse según las palabras objetivo. Si no se han indicado palabras objetivo se analizan todas las
+	 * oraciones; en otro caso sólo las que contienen alguna de ellas. Las oraciones descartadas se cuentan.
+	 * @param sentence oración a consultar
+	 * @return <i>true</i> si la oración debe analizarse
+	 */
+	private boolean isTargetSentence(List<HasWord> sentence) {
+		if (targetWords == null) {
+			return true;
+		}
+		for (HasWord token : sentence) {
+			if (token.word() != null && targetWords.contains(token.word().toLowerCase())) {
+				return true;
+			}
+		}
+		skippedSentences.increment();
+		return false;
+	}
+	
+	/**
+	 * Devuelve el filtro de dependencias que se aplica durante el análisis. En el procesamiento incremental no se aplica, ya que el almacén de
+	 * tripletas por libro debe guardar todas las tripletas para que sirva en ejecuciones posteriores con otro filtro.
+	 * @return tipos de dependencia a guardar, o null si se guardan todas las tripletas
+	 */
+	private Set<String> getActiveDependencyFilter() {
+		return (getIncrementalDirectory() == null) ? this.dependencyFilter : null;
+	}
+	
+	/**
+	 * Indica si una oración forma parte de la muestra de oraciones a analizar. Las oraciones que quedan fuera de la muestra se cuentan.
+	 * @param sampler selección de oraciones del libro, o null si se analizan todas las oraciones
+	 * @return <i>true</i> si la oración debe analizarse
+	 */
+	private boolean isSampledSentence(SentenceSampler sampler) {
+		if (sampler == null || sampler.accept()) {
+			return true;
+		}
+		unsampledSentences.increment();
+		return false;
+	}
+	
+	/**
+	 * Construye y lanza un hilo que analiza un grupo de oraciones de un mismo libro.
+	 * @param batch oraciones a analizar
+	 * @param book identificador del libro al que pertenecen las oraciones
+	 * @param progress seguimiento de las tareas del libro si se guardan puntos de control, o null en otro caso
+	 * @param executorService ExecutorService que ejecuta las tareas de análisis
+	 * @param dependencyParser analizador de dependencias a utilizar en el análisis
+	 * @see ParserThread
+	 */
+	private void submitBatch(List<List<? extends HasWord>> batch, String book, BookProgress progress, ExecutorService executorService, IDependencyParser dependencyParser) {
+		if (progress != null) {
+			progress.acquire();
+		}
+    	ParserThread parserThread = new ParserThreadBuilder()
+    			.setDependencyParser(dependencyParser)
+    	        .setSentences(batch)
+    	        .setTriplesCollection(progress != null ? progress.getTriples() : this.triplesCollection)
+    	        .setCompletionListener(progress != null ? progress::release : null)
+    	        .setFailureListener(progress != null ? progress::fail : null)
+    	        .setBook(book)
+    	        .setParseWatchdog(this.parseWatchdog)
+    	        .setParseCache(this.parseCache)
+    	        .setDependencyFilter(getActiveDependencyFilter())
+    	        .setLocalTables(progress != null ? null : this.threadLocalTables)
+    	        .setFailedSentences(this.failedSentences)
+    	        .build();
+    	// se usa execute y no submit para que la cola reciba el propio ParserThread y pueda ordenarlo por coste
+    	try {
+    		executorService.execute(parserThread);
+    	} catch (RuntimeException e) {
+    		if (progress != null) {
+    			progress.fail();
+    			progress.release();
+    		}
+    		throw e;
+    	}
+	}
+	
+	/**
+	 * Seguimiento de las tareas de análisis pendientes de un libro cuando se guardan puntos de control o se utiliza el almacén de tripletas
+	 * por libro.<p>
+	 * Las tripletas del libro se acumulan en una colección propia. El hilo que lee el libro mantiene una referencia mientras lee y cada tarea
+	 * enviada otra mientras se ejecuta; cuando se liberan todas, el libro está completamente analizado y sus tripletas se añaden a la colección
+	 * principal y, en su caso, se guardan en el almacén de tripletas por libro. Si la lectura del libro o alguna de sus tareas de análisis falla,
+	 * sus tripletas se descartan y el libro no se marca como terminado, de forma que al continuar la extracción se vuelva a procesar completo.
+	 */
+	private class BookProgress {
+		
+		private final String book;
+		private final File bookFile;
+		private final TriplesCollection triples = new TriplesCollection();
+		private final AtomicInteger pending = new AtomicInteger(1);
+		private volatile boolean failed = false;
+		
+		BookProgress(String book, File bookFile) {
+			this.book = book;
+			this.bookFile = bookFile;
+		}
+		
+		TriplesCollection getTriples() {
+			return triples;
+		}
+		
+		void acquire() {
+			pending.incrementAndGet();
+		}
+		
+		void fail() {
+			failed = true;
+		}
+		
+		void release() {
+			if (pending.decrementAndGet() == 0) {
+				if (failed) {
+					log.error("Libro " + book + " incompleto, no se incluye en el punto de control ni en el almacén de tripletas");
+				} else {
+					if (bookTriplesStore != null) {
+						try {
+							bookTriplesStore.save(book, bookFile, triples);
+						} catch (IOException e) {
+							log.error("Error guardando " + book + " en el almacén de tripletas", e);
+						}
+					}
+					completeBook(book, triples);
+				}
+			}
+		}
 	}
 	
 	/**
 	 * Ejecuta el proceso de extracción de tripletas de los ficheros existentes en la localización previamente especificada. Los pasos que se siguen son los siguiente:
 	 * <ol>
 	 * <li>Preparar el corpus de textos a analizar</li>
-	 * <li>Crear y configurar los objetos necesarios del software de Stanford: LexicalizedParser,TreebankLanguagePack, GrammaticalStructureFactory</li>
-	 * <li>Por cada fichero a procesar se obtiene una lista de las oraciones que lo componen</li>
-	 * <li>Para cada oración se lanza un subproceso hijo que lleva a cabo el análisis de la misma y realiza la extracción y almacenamiento de las tripletas detectadas.
+	 * <li>Crear y configurar el analizador de dependencias seleccionado: PCFG (LexicalizedParser, TreebankLanguagePack, GrammaticalStructureFactory)
+	 * o neuronal (MaxentTagger, DependencyParser). La carga de los modelos se realiza en otro hilo a la vez que la preparación del corpus</li>
+	 * <li>Por cada fichero a procesar se van leyendo las oraciones que lo componen. Si se han indicado varios hilos de lectura, se leen
+	 * varios ficheros a la vez</li>
+	 * <li>Las oraciones leidas se agrupan en bloques y para cada bloque se lanza un subproceso hijo que lleva a cabo el análisis de las oraciones y realiza la
+	 * extracción y almacenamiento de las tripletas detectadas.
 	 * Cada hilo creado se ejecuta mediante un objeto de tipo ParserThread, que encapsula todo el proceso de análisis y almacenamiento.<br>
 	 * Todos los hilos lanzados comparten un objeto de tipo TripleCollection que encapsula la estructura de datos en la que se guardan las tripletas
-	 * obtenidas. Este objeto es thread-safe por lo que se accede al mismo de forma concurrente manteniendo la sincronización de los hilos y la consistencia de los datos</li>
+	 * obtenidas. Este objeto es thread-safe por lo que se accede al mismo de forma concurrente manteniendo la sincronización de los hilos y la consistencia de los datos.<br>
+	 * Los subprocesos se encolan en una cola de tamaño limitado; si está llena, la lectura se detiene hasta que haya hueco</li>
+	 * <li>Si se ha establecido un tiempo máximo de análisis, las oraciones que lo superan se abandonan y se guardan en el fichero de cuarentena</li>
+	 * <li>Las oraciones repetidas se toman de la caché de análisis, sin volver a analizarlas</li>
+	 * <li>Si se ha indicado una carpeta de puntos de control, se guarda periódicamente el estado de la extracción. Si se continúa una extracción
+	 * anterior, se parte del último punto de control y no se procesan los libros que ya contiene</li>
+	 * <li>En el procesamiento incremental, los libros analizados en ejecuciones anteriores se cargan del almacén de tripletas por libro y
+	 * sólo se analizan los libros nuevos</li>
+	 * <li>Al terminar se informa del tiempo de análisis, del número de oraciones analizadas por segundo y del número de tripletas obtenidas, de
+	 * forma que puedan compararse los distintos analizadores sobre un mismo corpus</li>
 	 * <li>Finalmente se devuelve la colección de tripletas obtenidas</li>
 	 * </ol>
 	 * @return colección de tripletas obtenidas
 	 * @see TriplesCollection
 	 * @see ParserThread
 	 * @see ParserThreadBuilder
-	 * @see LexicalizedParser
-	 * @see TreebankLanguagePack
-	 * @see GrammaticalStructureFactory
+	 * @see IDependencyParser
+	 * @see ParserType
 	 */
 	public TriplesCollection extractTriples() {
 		int totalBooks = 0;
+		if (getSampleRate() < 1 && getIncrementalDirectory() != null) {
+			// el almacén guardaría como completas las tripletas de una muestra del libro
+			throw new IllegalArgumentException("El muestreo de oraciones no es compatible con el procesamiento incremental");
+		}
+		if (getTargetWords() != null && getIncrementalDirectory() != null) {
+			// el almacén guardaría como completas las tripletas de las oraciones con palabras objetivo
+			throw new IllegalArgumentException("Las palabras objetivo no son compatibles con el procesamiento incremental");
+		}
 		writeHeadLog();
+		if (triplesCollection.getTotalTriples() == 0 && ((isOffHeap() && !triplesCollection.isOffHeap())
+				|| (getSpillDirectory() != null && !triplesCollection.isSpillEnabled()))) {
+			setTriplesCollection(new TriplesCollection(isOffHeap(), getSpillDirectory(), getSpillThreshold()));
+		}
 		if (isTextsPathToProcess()) {
 			try {	
 				final ExecutorService executorService = getExecutorService();
+				if (getParseTimeout() > 0) {
+					this.parseWatchdog = new ParseWatchdog(getParseTimeout(), getQuarantineFile());
+				}
+				if (getCacheSize() > 0) {
+					this.parseCache = new ParseCache(getCacheSize());
+				}
+				if (getCheckpointDirectory() != null) {
+					startCheckpoints();
+				}
+				if (getIncrementalDirectory() != null) {
+					this.bookTriplesStore = new BookTriplesStore(getIncrementalDirectory(), getParserSettings());
+				}
+				if (isLocalTables() && this.checkpointManager == null && this.bookTriplesStore == null && getSpillDirectory() == null) {
+					this.threadLocalTables = new ThreadLocalTriplesTables();
+				}
 	
+				// el modelo se carga en otro hilo mientras se preparan los ficheros a analizar, ya que ambas tareas son independientes
+				long startTime = System.currentTimeMillis();
+				CompletableFuture<IDependencyParser> parserFuture = CompletableFuture.supplyAsync(this::loadParser);
+				
 				// prepara los ficheros a analizar
 				createCorpus();
+				long corpusTime = System.currentTimeMillis() - startTime;
 				
 				// creamos los objetos necesarios del software de Stanford
-				LexicalizedParser lp = LexicalizedParser.loadModel(getModel());
-				lp.setOptionFlags(getStanfordOptionsAsStrings());
-				TreebankLanguagePack tlp = lp.getOp().langpack();  // new PennTreebankLanguagePack();
-			    GrammaticalStructureFactory gsf = tlp.grammaticalStructureFactory();
+				IDependencyParser dependencyParser = getLoadedParser(parserFuture);
+				long elapsedTime = System.currentTimeMillis() - startTime;
+				log.info("Preparación completada en " + elapsedTime + " ms (corpus " + corpusTime + " ms, modelo " + this.modelLoadTime + " ms, ahorrados " 
+						+ Math.max(0, corpusTime + this.modelLoadTime - elapsedTime) + " ms)");
 			    
-			    log.info("Leyendo textos...");
+			    log.info("Leyendo y analizando textos...");
+			    long parseStartTime = System.currentTimeMillis();
 			    // recorremos los ficheros a analizar
-			    for (String bookFile : getFilesToProcess()) {
-				    log.debug("Procesando " + bookFile);
-				    totalBooks++;
-				    // recorremos las oraciones que componen un texto
-				    for (List<? extends HasWord> sentence : getSentences(bookFile)) { 
-				    	// saltamos las oraciones que superan el tamaño máximo establecido
-				    	// si no lo hacemos, aunque estas oraciones no se analizan aparecen en el conjunto de resultados como tripletas con tipo de dependencia "dep"
-				    	if (sentence.size() <= getMaxLength()) {
-				    		// se construye y lanza un hilo para cada oración a analizar
-					    	ParserThread parserThread = new ParserThreadBuilder()
-					    			.setLexicalizedParser(lp)
-					    	        .setGrammaticalStructureFactory(gsf)
-					    	        .setSentence(sentence)
-					    	        .setTriplesCollection(this.triplesCollection)
-					    	        .setBook(getBookId(bookFile))
-					    	        .build();
-					    	executorService.submit(parserThread);
-				    	}
-				    }
+			    totalBooks = readBooks(executorService, dependencyParser);
+			    log.info("Leidos " + totalBooks + " archivos, " + this.totalSentences.sum() + " oraciones");
+			    if (this.targetWords != null) {
+			    	log.info("Oraciones descartadas por no contener palabras objetivo: " + this.skippedSentences.sum());
 			    }
-			    log.info("Leidos " + totalBooks + " archivos, " + this.totalSentences + " oraciones");
-			    log.info("Analizando textos...");
+			    if (getSampleRate() < 1) {
+			    	log.info("Oraciones descartadas por quedar fuera de la muestra: " + this.unsampledSentences.sum());
+			    }
+			    log.info("Finalizando análisis de textos...");
 			    awaitTerminationAfterShutdown(executorService);
+			    if (this.failedSentences.sum() > 0) {
+			    	log.warn("Oraciones descartadas por error de análisis: " + this.failedSentences.sum());
+			    }
+			    if (this.threadLocalTables != null) {
+			    	this.threadLocalTables.mergeInto(this.triplesCollection);
+			    }
+			    writeThroughputLog(System.currentTimeMillis() - parseStartTime);
+			    if (this.checkpointManager != null) {
+			    	this.checkpointManager.stop();
+			    	this.checkpointManager.checkpoint();
+			    }
 			} catch (Exception e) {
 				log.error(e);
 				e.printStackTrace();			
+			} finally {
+				closeParseWatchdog();
+				closeParseCache();
+				awaitModelCache();
+				if (this.checkpointManager != null) {
+					this.checkpointManager.stop();
+					this.checkpointManager = null;
+				}
+				this.bookTriplesStore = null;
+				this.threadLocalTables = null;
 			}
 		}
 		log.info("Tripletas obtenidas: " + triplesCollection.getTotalTriples());
+		if (getActiveDependencyFilter() != null) {
+			log.info("Tripletas descartadas por el filtro de dependencias: " + triplesCollection.getDiscardedTriples());
+		}
 	    log.info("Fin extracción tripletas " + getCurrentTime());
 	    return this.triplesCollection;
 	}
 
+	/**
+	 * Obtiene el analizador de dependencias seleccionado, configurado con los modelos y las opciones indicadas. Guarda el tiempo empleado en
+	 * obtenerlo.<p>
+	 * Los analizadores de Stanford se piden al registro de analizadores del proceso, por lo que sólo se cargan los modelos la primera vez;
+	 * las siguientes extracciones con los mismos modelos y opciones reutilizan los analizadores ya cargados.
+	 * @return analizador de dependencias
+	 * @see ParserType
+	 * @see ParserRegistry
+	 */
+	private IDependencyParser loadParser() {
+		long start = System.currentTimeMillis();
+		ModelCache modelCache = (getModelCacheDirectory() != null) ? new ModelCache(getModelCacheDirectory()) : null;
+		IDependencyParser dependencyParser;
+		if (getParserType() == ParserType.NEURAL) {
+			MaxentTagger tagger = loadModel(null, getTaggerModel(), ParserRegistry::getTagger);
+			DependencyParser parser = loadModel(modelCache, getDependencyModel(), ParserRegistry::getDependencyParser);
+			dependencyParser = new NeuralDependencyParser(tagger, parser);
+		} else {
+			LexicalizedParser lp = loadModel(modelCache, getModel(), (model, path) -> ParserRegistry.getParser(model, path, getStanfordOptionsAsStrings()));
+			dependencyParser = new PcfgDependencyParser(lp);
+		}
+		this.modelLoadTime = System.currentTimeMillis() - start;
+		log.info("Analizador " + getParserType() + " preparado en " + this.modelLoadTime + " ms");
+		return dependencyParser;
+	}
+	
+	/**
+	 * Carga un modelo de Stanford.<p>
+	 * Si se ha indicado una caché de modelos, el modelo se carga de su copia descomprimida cuando existe y está actualizada. En caso contrario
+	 * se carga el modelo original y después se crea la copia para las ejecuciones siguientes. La copia se crea en segundo plano, mientras se
+	 * analizan los textos, ya que descomprimir el modelo y calcular su suma de comprobación no es necesario para la extracción en curso.
+	 * @param modelCache caché de modelos, o null si no se utiliza
+	 * @param model ruta del modelo original
+	 * @param loader carga del modelo a partir de la ruta del modelo original y de la ruta desde la que cargarlo
+	 * @return modelo cargado
+	 * @see ModelCache
+	 */
+	private <T> T loadModel(ModelCache modelCache, String model, BiFunction<String, String, T> loader) {
+		long start = System.currentTimeMillis();
+		String path = getCachedModel(modelCache, model);
+		log.info("Cargando modelo " + path + "...");
+		T loaded = loader.apply(model, path);
+		long loadTime = System.currentTimeMillis() - start;
+		if (modelCache == null) {
+			log.info("Modelo cargado en " + loadTime + " ms");
+		} else if (!path.equals(model)) {
+			long originalLoadTime = modelCache.getOriginalLoadTime(model);
+			log.info("Modelo cargado de la caché en " + loadTime + " ms" + ((originalLoadTime >= 0) ? " (sin caché " + originalLoadTime + " ms)" : ""));
+		} else {
+			log.info("Modelo cargado sin caché en " + loadTime + " ms");
+			this.modelCacheTask = CompletableFuture.runAsync(() -> {
+				try {
+					modelCache.createCachedModel(model, loadTime);
+				} catch (IOException e) {
+					log.warn("No se ha podido crear la copia en caché del modelo " + model + ": " + e.getMessage());
+				}
+			});
+		}
+		return loaded;
+	}
+	
+	/**
+	 * Espera a que termine la creación en segundo plano de la copia en caché del modelo, si se está creando, para no dejar la copia a medias
+	 * al terminar el proceso.
+	 */
+	private void awaitModelCache() {
+		if (this.modelCacheTask != null) {
+			try {
+				this.modelCacheTask.join();
+			} catch (CompletionException e) {
+				log.warn("No se ha podido crear la copia en caché del modelo: " + e.getCause());
+			}
+			this.modelCacheTask = null;
+		}
+	}
+	
+	/**
+	 * Obtiene la ruta desde la que cargar un modelo: la copia en caché si existe y está actualizada o, en otro caso, el modelo original.
+	 * @param modelCache caché de modelos, o null si no se utiliza
+	 * @param model ruta del modelo original
+	 * @return ruta del modelo a cargar
+	 */
+	private String getCachedModel(ModelCache modelCache, String model) {
+		if (modelCache != null) {
+			try {
+				String cachedModel = modelCache.getCachedModel(model);
+				if (cachedModel != null) {
+					return cachedModel;
+				}
+			} catch (IOException e) {
+				log.warn("No se ha podido comprobar la copia en caché del modelo " + model + ": " + e.getMessage());
+			}
+		}
+		return model;
+	}
+	
+	/**
+	 * Espera a que termine la carga asíncrona del analizador y lo devuelve. Si la carga ha fallado se lanza la excepción original.
+	 * @param parserFuture carga asíncrona del analizador
+	 * @return analizador de dependencias
+	 */
+	private IDependencyParser getLoadedParser(CompletableFuture<IDependencyParser> parserFuture) {
+		try {
+			return parserFuture.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+	
+	/**
+	 * Informa del rendimiento del análisis: tiempo empleado, oraciones analizadas por segundo y tripletas obtenidas con el analizador utilizado.
+	 * @param parseTime milisegundos empleados en el análisis
+	 */
+	private void writeThroughputLog(long parseTime) {
+		long sentences = this.totalSentences.sum();
+		log.info("Análisis " + getParserType() + " completado en " + parseTime + " ms: " + sentences + " oraciones ("
+				+ String.format("%.1f", sentences * 1000.0 / Math.max(1, parseTime)) + " oraciones/s), " + this.triplesCollection.getTotalTriples() + " tripletas");
+	}
+	
+	/**
+	 * Prepara la gestión de puntos de control. Si se continúa una extracción anterior se carga el último punto de control guardado, con las
+	 * tripletas de los libros ya procesados. Después se inicia la escritura periódica de puntos de control.
+	 * @throws IOException si no se puede leer el punto de control
+	 */
+	private void startCheckpoints() throws IOException {
+		this.checkpointManager = new CheckpointManager(getCheckpointDirectory(), getCheckpointSettings(), this.triplesCollection);
+		if (isResume() && !this.checkpointManager.load()) {
+			log.info("No existe punto de control en " + getCheckpointDirectory() + ", se procesan todos los libros");
+		}
+		this.checkpointManager.start(getCheckpointInterval());
+	}
+	
+	/**
+	 * Detiene el control del tiempo de análisis, si se ha utilizado, e informa del número de oraciones abandonadas.
+	 */
+	private void closeParseWatchdog() {
+		if (this.parseWatchdog != null) {
+			this.parseWatchdog.close();
+			if (this.parseWatchdog.getTotalQuarantined() > 0) {
+				log.warn("Oraciones abandonadas por superar el tiempo máximo de análisis: " + this.parseWatchdog.getTotalQuarantined() + " (guardadas en " + getQuarantineFile() + ")");
+			} else {
+				log.info("Oraciones abandonadas por superar el tiempo máximo de análisis: 0");
+			}
+			this.parseWatchdog = null;
+		}
+	}
+	
+	/**
+	 * Informa de los aciertos y fallos de la caché de análisis, si se ha utilizado, y la libera.
+	 */
+	private void closeParseCache() {
+		if (this.parseCache != null) {
+			long hits = this.parseCache.getHits();
+			long total = hits + this.parseCache.getMisses();
+			log.info("Caché de análisis: " + hits + " aciertos de " + total + " oraciones" + (total > 0 ? String.format(" (%.1f%%)", 100.0 * hits / total) : ""));
+			this.parseCache = null;
+		}
+	}
+	
 	/**
 	 * Inicia la para de los hilos lanzados, quedando a la espera de la finalización de los mismos.
 	 * @param threadPool ExecutorService que gestiona los hilos a finalizar
@@ -320,6 +1086,43 @@ public class StanfordTriplesExtractor {
 		return this.stanfordOptions.get(key);
 	}
 	
+	/**
+	 * Describe la configuración del análisis de la que dependen las tripletas obtenidas: tipo de analizador, modelos y opciones del analizador
+	 * (entre ellas la longitud máxima de las oraciones). Permite detectar tripletas guardadas con otra configuración.
+	 * @return descripción de la configuración del análisis
+	 */
+	String getParserSettings() {
+		StringBuilder settings = new StringBuilder(getParserType().name());
+		if (getParserType() == ParserType.NEURAL) {
+			settings.append(" tagger=").append(getTaggerModel()).append(" parser=").append(getDependencyModel());
+		} else {
+			settings.append(" model=").append(getModel());
+		}
+		settings.append(" options=").append(new TreeMap<String, String>(this.stanfordOptions));
+		return settings.toString();
+	}
+	
+	/**
+	 * Describe la configuración de la que depende el contenido de un punto de control: la configuración del análisis, la selección de las
+	 * oraciones a analizar (palabras objetivo y muestreo) y el filtro de dependencias aplicado. El tipo de muestreo sólo se incluye si se
+	 * analiza una muestra. Al continuar una extracción con otra configuración se mezclarían en la misma colección frecuencias obtenidas de
+	 * conjuntos de oraciones o de tripletas distintos, por lo que el punto de control no se carga.
+	 * @return descripción de la configuración del punto de control
+	 * @see #getParserSettings()
+	 * @see CheckpointManager
+	 */
+	String getCheckpointSettings() {
+		StringBuilder settings = new StringBuilder(getParserSettings());
+		settings.append(" targets=").append(this.targetWords == null ? "[]" : new TreeSet<String>(this.targetWords));
+		settings.append(" sample=").append(getSampleRate());
+		if (getSampleRate() < 1) {
+			settings.append(' ').append(getSamplingType());
+		}
+		Set<String> filter = getActiveDependencyFilter();
+		settings.append(" filter=").append(filter == null ? "[]" : new TreeSet<String>(filter));
+		return settings.toString();
+	}
+	
 	/**
 	 * Devuelve un array de strings con los parámetros del parse y los valores de estos si los hay.
 	 * Se utiliza para cargar los parámetros de un objeto LexicalizedParser.
@@ -351,6 +1154,271 @@ public class StanfordTriplesExtractor {
 		this.totalThreads = totalThreads;
 	}
 	
+	/**
+	 * @return número máximo de tareas de análisis pendientes de ejecutar
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * Establece el número máximo de tareas de análisis pendientes de ejecutar. Cuando se alcanza este número la lectura de los textos
+	 * queda bloqueada hasta que los hilos de análisis liberan hueco en la cola.
+	 * @param queueCapacity número máximo de tareas pendientes
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+	
+	/**
+	 * @return número de oraciones de un mismo libro que se analizan en una misma tarea
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Establece el número de oraciones de un mismo libro que se analizan en una misma tarea. Las tripletas de estas oraciones se acumulan
+	 * localmente y se guardan de una vez en la colección de tripletas. Con valor 1 se lanza una tarea por oración.
+	 * @param batchSize número de oraciones por tarea
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+	
+	/**
+	 * @return número de hilos que leen los textos de forma simultánea
+	 */
+	public int getTotalReaders() {
+		return totalReaders;
+	}
+
+	/**
+	 * Establece el número de hilos que leen y "tokenizan" los textos de forma simultánea. Cada hilo procesa un fichero distinto y todos
+	 * comparten los hilos de análisis. Con valor 1 los ficheros se leen uno tras otro.
+	 * @param totalReaders número de hilos de lectura
+	 */
+	public void setTotalReaders(int totalReaders) {
+		this.totalReaders = totalReaders;
+	}
+	
+	/**
+	 * @return <i>true</i> si las tareas de análisis se ejecutan por orden de coste estimado, <i>false</i> si se ejecutan por orden de llegada
+	 */
+	public boolean isCostPriority() {
+		return costPriority;
+	}
+
+	/**
+	 * Establece si las tareas de análisis se ejecutan por orden de coste estimado (de mayor a menor) en lugar de por orden de llegada.
+	 * El coste de una oración se estima como el cubo de su número de palabras. La ordenación se aplica sobre las tareas pendientes en la cola,
+	 * por lo que conviene usarla con tareas pequeñas (pocas oraciones por tarea).
+	 * @param costPriority <i>true</i> para ejecutar las tareas por orden de coste
+	 */
+	public void setCostPriority(boolean costPriority) {
+		this.costPriority = costPriority;
+	}
+	
+	/**
+	 * @return <i>true</i> si cada hilo de análisis guarda las tripletas en una tabla propia, <i>false</i> si se guardan en la colección compartida
+	 */
+	public boolean isLocalTables() {
+		return localTables;
+	}
+
+	/**
+	 * Establece si cada hilo de análisis guarda las tripletas en una tabla propia, sin sincronización, en lugar de en la colección compartida.
+	 * Al terminar el análisis las tablas de todos los hilos se unen en paralelo y el resultado se guarda en la colección de tripletas.<p>
+	 * No se aplica si se guardan puntos de control o en el procesamiento incremental, ya que en ambos casos las tripletas se acumulan por libro,
+	 * ni si se vuelcan las tripletas a disco, ya que las tablas por hilo no se vuelcan.
+	 * @param localTables <i>true</i> para utilizar tablas por hilo
+	 * @see ThreadLocalTriplesTables
+	 */
+	public void setLocalTables(boolean localTables) {
+		this.localTables = localTables;
+	}
+	
+	/**
+	 * @return <i>true</i> si las tripletas de la colección principal se guardan fuera del heap
+	 */
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+	/**
+	 * Establece si las claves y los contadores de las tripletas de la colección principal se guardan fuera del heap, en buffers directos.
+	 * Permite procesar corpus con más tripletas distintas de las que caben en el heap y reduce las pausas del recolector de basura. Las
+	 * colecciones que acumulan las tripletas de cada libro, que son pequeñas, se siguen guardando en el heap.<p>
+	 * Sólo se aplica si la colección de tripletas está vacía al iniciar la extracción.
+	 * @param offHeap <i>true</i> para guardar las tripletas fuera del heap
+	 * @see OffHeapTripleMap
+	 */
+	public void setOffHeap(boolean offHeap) {
+		this.offHeap = offHeap;
+	}
+	
+	/**
+	 * @return carpeta en la que se vuelcan las tripletas, o null si se guardan sólo en memoria
+	 */
+	public String getSpillDirectory() {
+		return spillDirectory;
+	}
+
+	/**
+	 * Establece la carpeta en la que se vuelcan las tripletas de la colección principal cuando su número en memoria alcanza el umbral de
+	 * volcado. Las tripletas se vuelcan ordenadas a ficheros que se mezclan al recorrer la colección, de forma que la extracción de corpus
+	 * con más tripletas distintas de las que caben en memoria no termina por falta de memoria.<p>
+	 * Sólo se aplica si la colección de tripletas está vacía al iniciar la extracción.
+	 * @param spillDirectory carpeta de volcado, o null para guardar las tripletas sólo en memoria
+	 * @see TriplesSpill
+	 */
+	public void setSpillDirectory(String spillDirectory) {
+		this.spillDirectory = spillDirectory;
+	}
+	
+	/**
+	 * @return número de tripletas distintas en memoria a partir del cual se vuelcan a disco
+	 */
+	public int getSpillThreshold() {
+		return spillThreshold;
+	}
+
+	/**
+	 * Establece el número de tripletas distintas en memoria a partir del cual se vuelcan a disco, si se ha indicado una carpeta de volcado.
+	 * @param spillThreshold umbral de volcado
+	 */
+	public void setSpillThreshold(int spillThreshold) {
+		this.spillThreshold = spillThreshold;
+	}
+	
+	/**
+	 * @return tiempo máximo de análisis de una oración, en milisegundos (0 si no se limita)
+	 */
+	public long getParseTimeout() {
+		return parseTimeout;
+	}
+
+	/**
+	 * Establece el tiempo máximo de análisis de una oración. Las oraciones que lo superan se abandonan, se guardan en el fichero de cuarentena
+	 * junto con el identificador de su libro y no aportan tripletas. Así una oración patológica no puede bloquear un hilo de análisis indefinidamente.
+	 * @param parseTimeout tiempo máximo en milisegundos; 0 para no limitar el tiempo de análisis
+	 */
+	public void setParseTimeout(long parseTimeout) {
+		this.parseTimeout = parseTimeout;
+	}
+
+	/**
+	 * @return ruta del fichero donde se guardan las oraciones cuyo análisis supera el tiempo máximo
+	 */
+	public String getQuarantineFile() {
+		return quarantineFile;
+	}
+
+	/**
+	 * Establece el fichero donde se guardan las oraciones cuyo análisis supera el tiempo máximo. El fichero se crea de nuevo en cada ejecución.
+	 * @param quarantineFile ruta del fichero de cuarentena
+	 */
+	public void setQuarantineFile(String quarantineFile) {
+		this.quarantineFile = quarantineFile;
+	}
+	
+	/**
+	 * @return número máximo de oraciones guardadas en la caché de análisis (0 si no se utiliza)
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * Establece el número máximo de oraciones guardadas en la caché de análisis. Las oraciones repetidas que se encuentran en la caché no se
+	 * vuelven a analizar. Cuando se alcanza el máximo se descartan las oraciones usadas hace más tiempo.
+	 * @param cacheSize número máximo de oraciones; 0 para no utilizar la caché
+	 */
+	public void setCacheSize(int cacheSize) {
+		this.cacheSize = cacheSize;
+	}
+	
+	/**
+	 * @return carpeta donde se guardan los puntos de control, o null si no se guardan
+	 */
+	public String getCheckpointDirectory() {
+		return checkpointDirectory;
+	}
+
+	/**
+	 * Establece la carpeta donde se guardan periódicamente los puntos de control de la extracción: las tripletas de los libros completamente
+	 * analizados y el conjunto de dichos libros.
+	 * @param checkpointDirectory carpeta de puntos de control; null para no guardarlos
+	 */
+	public void setCheckpointDirectory(String checkpointDirectory) {
+		this.checkpointDirectory = checkpointDirectory;
+	}
+
+	/**
+	 * @return segundos entre dos puntos de control consecutivos
+	 */
+	public long getCheckpointInterval() {
+		return checkpointInterval;
+	}
+
+	/**
+	 * Establece el tiempo entre dos puntos de control consecutivos
+	 * @param checkpointInterval segundos entre puntos de control
+	 */
+	public void setCheckpointInterval(long checkpointInterval) {
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	/**
+	 * @return <i>true</i> si se continúa la extracción a partir del último punto de control guardado
+	 */
+	public boolean isResume() {
+		return resume;
+	}
+
+	/**
+	 * Establece si se continúa la extracción a partir del último punto de control guardado en la carpeta de puntos de control. Los libros
+	 * incluidos en el punto de control no se vuelven a procesar.
+	 * @param resume <i>true</i> para continuar la extracción anterior
+	 */
+	public void setResume(boolean resume) {
+		this.resume = resume;
+	}
+	
+	/**
+	 * @return carpeta del almacén de tripletas por libro para el procesamiento incremental, o null si no se utiliza
+	 */
+	public String getIncrementalDirectory() {
+		return incrementalDirectory;
+	}
+
+	/**
+	 * Establece la carpeta del almacén de tripletas por libro, lo que activa el procesamiento incremental. Las tripletas de cada libro analizado
+	 * se guardan en el almacén, y en ejecuciones posteriores los libros que ya se encuentran en él se cargan sin volver a analizarse, de forma
+	 * que sólo se analizan los libros añadidos al corpus. Los libros del almacén que ya no se encuentran en el corpus no se tienen en cuenta.
+	 * @param incrementalDirectory carpeta del almacén; null para analizar todos los libros
+	 */
+	public void setIncrementalDirectory(String incrementalDirectory) {
+		this.incrementalDirectory = incrementalDirectory;
+	}
+	
+	/**
+	 * @return carpeta de la caché de modelos descomprimidos, o null si no se utiliza
+	 */
+	public String getModelCacheDirectory() {
+		return modelCacheDirectory;
+	}
+
+	/**
+	 * Establece la carpeta de la caché de modelos descomprimidos. La primera vez que se carga un modelo se guarda en la caché una copia
+	 * descomprimida, que se utiliza en las cargas siguientes mientras el modelo original no cambie.
+	 * @param modelCacheDirectory carpeta de la caché; null para cargar siempre el modelo original
+	 * @see ModelCache
+	 */
+	public void setModelCacheDirectory(String modelCacheDirectory) {
+		this.modelCacheDirectory = modelCacheDirectory;
+	}
+	
 	/**
 	 * @return la ruta del fichero que contiene el parser que se utiliza
 	 */
@@ -366,6 +1434,138 @@ public class StanfordTriplesExtractor {
 		this.model = model;
 	}
 
+	/**
+	 * @return palabras objetivo en minúsculas, o null si se analizan todas las oraciones
+	 */
+	public Set<String> getTargetWords() {
+		return targetWords;
+	}
+
+	/**
+	 * Establece las palabras objetivo. Sólo se analizan las oraciones que contienen alguna de ellas, comparando en minúsculas con las
+	 * palabras de la oración tal y como aparecen en el texto (no se obtiene su lema).<p>
+	 * Las tripletas de las palabras objetivo se cuentan completas, ya que se analizan todas las oraciones en las que aparecen. Sin embargo,
+	 * los totales de cada tipo de dependencia y de las palabras que no son objetivo se cuentan sólo en las oraciones analizadas, por lo
+	 * que la información mutua calculada a partir de ellos es una aproximación de la que se obtendría analizando todo el corpus.
+	 * @param targetWords palabras objetivo; null o vacía para analizar todas las oraciones
+	 */
+	public void setTargetWords(Collection<String> targetWords) {
+		if (targetWords == null || targetWords.isEmpty()) {
+			this.targetWords = null;
+		} else {
+			this.targetWords = new HashSet<String>();
+			for (String word : targetWords) {
+				this.targetWords.add(word.trim().toLowerCase());
+			}
+		}
+	}
+
+	/**
+	 * @return proporción de oraciones a analizar
+	 */
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * Establece la proporción de oraciones a analizar. Con un valor menor que 1 sólo se analiza una muestra de las oraciones de cada libro,
+	 * seleccionada según el tipo de muestreo. La muestra se aplica a las oraciones que cumplen el resto de condiciones (tamaño máximo y
+	 * palabras objetivo) y es la misma en cada ejecución con la misma configuración.<p>
+	 * Las frecuencias obtenidas son las de la muestra. No es necesario escalarlas, ya que la información mutua se calcula a partir de
+	 * cocientes entre frecuencias y no varía si todas se multiplican por el mismo factor.
+	 * @param sampleRate proporción de oraciones a analizar, mayor que 0 y no mayor que 1
+	 */
+	public void setSampleRate(double sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * @return tipo de muestreo de oraciones
+	 */
+	public SamplingType getSamplingType() {
+		return samplingType;
+	}
+
+	/**
+	 * Establece el tipo de muestreo de oraciones, que se utiliza cuando la proporción de oraciones a analizar es menor que 1
+	 * @param samplingType tipo de muestreo
+	 * @see SamplingType
+	 */
+	public void setSamplingType(SamplingType samplingType) {
+		this.samplingType = samplingType;
+	}
+
+	/**
+	 * @return tipos de dependencia cuyas tripletas se guardan, o null si se guardan todas
+	 */
+	public Set<String> getDependencyFilter() {
+		return dependencyFilter;
+	}
+
+	/**
+	 * Establece los tipos de dependencia cuyas tripletas se guardan. Las tripletas de otros tipos de dependencia se descartan al terminar el
+	 * análisis de cada grupo de oraciones, sin llegar a la colección compartida, y sólo se cuentan para el total de tripletas obtenidas.<p>
+	 * Si se guardan puntos de control, la extracción debe continuarse con el mismo filtro.
+	 * @param dependencyFilter tipos de dependencia a guardar; null o vacía para guardar todas las tripletas
+	 */
+	public void setDependencyFilter(Collection<String> dependencyFilter) {
+		if (dependencyFilter == null || dependencyFilter.isEmpty()) {
+			this.dependencyFilter = null;
+		} else {
+			this.dependencyFilter = new HashSet<String>();
+			for (String dependency : dependencyFilter) {
+				this.dependencyFilter.add(dependency.trim());
+			}
+		}
+	}
+
+	/**
+	 * @return tipo de analizador de dependencias a utilizar
+	 */
+	public ParserType getParserType() {
+		return parserType;
+	}
+
+	/**
+	 * Establece el tipo de analizador de dependencias a utilizar. El analizador PCFG utiliza el modelo indicado en <i>setModel</i> y las
+	 * opciones de Stanford; el analizador neuronal utiliza los modelos indicados en <i>setTaggerModel</i> y <i>setDependencyModel</i>.
+	 * @param parserType tipo de analizador
+	 * @see ParserType
+	 */
+	public void setParserType(ParserType parserType) {
+		this.parserType = parserType;
+	}
+
+	/**
+	 * @return la ruta del modelo del etiquetador gramatical utilizado por el analizador neuronal
+	 */
+	public String getTaggerModel() {
+		return taggerModel;
+	}
+
+	/**
+	 * Establece el modelo del etiquetador gramatical utilizado por el analizador neuronal.
+	 * @param taggerModel ruta del modelo
+	 */
+	public void setTaggerModel(String taggerModel) {
+		this.taggerModel = taggerModel;
+	}
+
+	/**
+	 * @return la ruta del modelo del analizador neuronal
+	 */
+	public String getDependencyModel() {
+		return dependencyModel;
+	}
+
+	/**
+	 * Establece el modelo del analizador neuronal.
+	 * @param dependencyModel ruta del modelo
+	 */
+	public void setDependencyModel(String dependencyModel) {
+		this.dependencyModel = dependencyModel;
+	}
+
 	/**
 	 * @return ruta de la carpeta que contiene los ficheros a analizar
 	 */
@@ -426,8 +1626,44 @@ public class StanfordTriplesExtractor {
 	private void writeHeadLog() {
 		log.info("Inicio extracción tripletas " + getCurrentTime());
 		log.info("  Leyendo archivos desde " + getTextsPathToProcess());
-		log.info("  Parser seleccionado: " + getModel());
-		log.info("  Opciones para LexicalizedParser: " + Arrays.toString(getStanfordOptionsAsStrings()));
+		log.info("  Analizador seleccionado: " + getParserType());
+		if (getParserType() == ParserType.NEURAL) {
+			log.info("  Modelo del etiquetador: " + getTaggerModel());
+			log.info("  Modelo del analizador: " + getDependencyModel());
+		} else {
+			log.info("  Parser seleccionado: " + getModel());
+			log.info("  Opciones para LexicalizedParser: " + Arrays.toString(getStanfordOptionsAsStrings()));
+		}
 		log.info("  Hilos a ejecutar: " + getTotalThreads() );
+		log.info("  Tamaño cola de tareas: " + getQueueCapacity());
+		log.info("  Oraciones por tarea: " + getBatchSize());
+		log.info("  Hilos de lectura: " + getTotalReaders());
+		log.info("  Ejecución por coste estimado: " + isCostPriority());
+		log.info("  Tablas de tripletas por hilo: " + isLocalTables());
+		log.info("  Tripletas fuera del heap: " + isOffHeap());
+		log.info("  Carpeta de volcado de tripletas: " + getSpillDirectory());
+		log.info("  Umbral de volcado de tripletas: " + getSpillThreshold());
+		log.info("  Tamaño caché de análisis: " + getCacheSize());
+		if (getTargetWords() != null) {
+			log.info("  Palabras objetivo: " + getTargetWords().size());
+		}
+		if (getSampleRate() < 1) {
+			log.info("  Muestreo de oraciones " + getSamplingType() + ": " + getSampleRate());
+		}
+		if (getDependencyFilter() != null) {
+			log.info("  Dependencias a guardar: " + getDependencyFilter() + ((getActiveDependencyFilter() == null) ? " (no se aplica en el procesamiento incremental)" : ""));
+		}
+		if (getModelCacheDirectory() != null) {
+			log.info("  Caché de modelos en " + getModelCacheDirectory());
+		}
+		if (getIncrementalDirectory() != null) {
+			log.info("  Procesamiento incremental con almacén de tripletas en " + getIncrementalDirectory());
+		}
+		if (getCheckpointDirectory() != null) {
+			log.info("  Puntos de control en " + getCheckpointDirectory() + " cada " + getCheckpointInterval() + " s" + (isResume() ? ", continuando extracción anterior" : ""));
+		}
+		if (getParseTimeout() > 0) {
+			log.info("  Tiempo máximo de análisis por oración: " + getParseTimeout() + " ms (cuarentena en " + getQuarantineFile() + ")");
+		}
 	}
 }
@@ -0,0 +1,102 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Tablas parciales de tripletas de los hilos de análisis. Cada hilo obtiene su propia tabla la primera vez que la pide y la sigue utilizando
+ * en todas las tareas que ejecuta, por lo que durante el análisis no hay escrituras en memoria compartida entre hilos.<p>
+ * Al terminar el análisis las tablas se unen mediante una reducción en árbol ejecutada en paralelo: cada nivel une las tablas por parejas,
+ * de forma que con <i>n</i> tablas sólo son necesarios <i>log2(n)</i> niveles. La tabla resultante se vuelca en la colección de tripletas.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see PartialTriplesTable
+ * @see StanfordTriplesExtractor
+ */
+public class ThreadLocalTriplesTables {
+
+	private static final Logger log = Logger.getLogger(ThreadLocalTriplesTables.class);
+
+	/**
+	 * Tablas creadas por los hilos de análisis. Sólo se modifica al crear la tabla de un hilo
+	 */
+	private final List<PartialTriplesTable> tables = new CopyOnWriteArrayList<PartialTriplesTable>();
+
+	/**
+	 * Tabla de cada hilo
+	 */
+	private final ThreadLocal<PartialTriplesTable> localTable = ThreadLocal.withInitial(() -> {
+		PartialTriplesTable table = new PartialTriplesTable();
+		tables.add(table);
+		return table;
+	});
+
+
+	/**
+	 * @return tabla parcial del hilo que realiza la llamada
+	 */
+	PartialTriplesTable getTable() {
+		return localTable.get();
+	}
+
+	/**
+	 * @return número de tablas creadas
+	 */
+	public int size() {
+		return tables.size();
+	}
+
+	/**
+	 * Une las tablas de todos los hilos y vuelca el resultado en una colección de tripletas. Las tablas quedan vacías, por lo que pueden
+	 * seguir utilizándose. No deben realizarse análisis mientras se ejecuta la unión.
+	 * @param triplesCollection colección en la que guardar las tripletas
+	 */
+	public void mergeInto(TriplesCollection triplesCollection) {
+		if (tables.isEmpty()) {
+			return;
+		}
+		long start = System.currentTimeMillis();
+		List<PartialTriplesTable> snapshot = new ArrayList<PartialTriplesTable>(tables);
+		PartialTriplesTable merged = ForkJoinPool.commonPool().invoke(new MergeTask(snapshot, 0, snapshot.size()));
+		int totalEntries = merged.size();
+		merged.drainTo(triplesCollection);
+		log.info("Unidas " + snapshot.size() + " tablas de tripletas (" + totalEntries + " tripletas distintas) en " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	/**
+	 * Une las tablas de un rango de la lista, dividiéndolo en dos mitades que se unen en paralelo.
+	 */
+	private static class MergeTask extends RecursiveTask<PartialTriplesTable> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final List<PartialTriplesTable> tables;
+
+		private final int from;
+
+		private final int to;
+
+		MergeTask(List<PartialTriplesTable> tables, int from, int to) {
+			this.tables = tables;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected PartialTriplesTable compute() {
+			if (to - from == 1) {
+				return tables.get(from);
+			}
+			int middle = (from + to) >>> 1;
+			MergeTask left = new MergeTask(tables, from, middle);
+			left.fork();
+			PartialTriplesTable right = new MergeTask(tables, middle, to).compute();
+			return PartialTriplesTable.merge(left.join(), right);
+		}
+	}
+}
@@ -1,37 +1,84 @@
 package org.josfranmc.collocatio.triples;
 
-import java.util.HashSet;
+import java.util.Collection;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 /**
  * Permite guardar el número de veces que se ha encontrado una tripleta y el cojunto de libros en los que esto ha sucedido.<p>
  * Los objetos de esta clase se usan dentro de la clase TriplesCollection, utilizándose para guardar las ocurrencias de cada tripleta. Para cada
  * tripleta encontrada se asociará un objeto TripleEvents que guardará un conjunto con los libros en los que ha aparecido la tripleta y las veces
- * que esto ha suceddio.
+ * que esto ha suceddio.<p>
+ * Los libros se guardan mediante su identificador entero (ver BookSet). La mayoría de las tripletas aparecen en un único libro, por lo que
+ * el primer libro se guarda directamente en el objeto y el conjunto de libros sólo se crea cuando aparece un segundo libro.<p>
+ * Los objetos de esta clase pueden actualizarse desde varios hilos a la vez sin necesidad de bloqueos externos: el contador de apariciones
+ * se incrementa de forma atómica y la consulta de si un libro ya está registrado no utiliza bloqueos; sólo el registro de un libro nuevo
+ * para la tripleta se realiza de forma sincronizada.
  * @author Jose Francisco Mena Ceca
  * @version 1.0
  * @see TriplesCollection
+ * @see BookSet
  */
 public class TripleEvents {
 
 	/**
-	 * Conjunto de libros en los que se ha encontrado una tripleta concreta
+	 * Valor del primer libro cuando todavía no se ha registrado ninguno
 	 */
-	private Set<String> books;
+	private static final int NO_BOOK = -1;
+
+	/**
+	 * Identificador del primer libro en el que se ha encontrado la tripleta
+	 */
+	private volatile int book = NO_BOOK;
+
+	/**
+	 * Conjunto de libros en los que se ha encontrado una tripleta concreta. Sólo se crea cuando la tripleta aparece en más de un libro
+	 */
+	private volatile BookSet books;
 	
 	/**
 	 * Número de veces que se ha encontrado una tripleta determinada
 	 */
-	private long totalEvents;
+	private volatile long totalEvents;
+
+	/**
+	 * Incremento atómico del contador de apariciones. Se usa en lugar de un objeto AtomicLong para no crear un objeto más por cada tripleta
+	 */
+	private static final AtomicLongFieldUpdater<TripleEvents> TOTAL_EVENTS = AtomicLongFieldUpdater.newUpdater(TripleEvents.class, "totalEvents");
 
 	
+	/**
+	 * Constructor sin apariciones. Se utiliza para crear el objeto asociado a una tripleta antes de registrar sus apariciones.
+	 */
+	TripleEvents() {
+	}
+	
 	/**
 	 * Constructor principal.  
 	 * @param book
 	 */
 	public TripleEvents(String book) {
-		this.books = new HashSet<String>();
-		addEvent(book);
+		this(book, 1);
+	}
+	
+	/**
+	 * Constructor que registra varias apariciones de la tripleta en un mismo libro.
+	 * @param book identificador del libro en el que ha aparecido la tripleta
+	 * @param total número de veces que ha aparecido la tripleta en el libro
+	 */
+	public TripleEvents(String book, long total) {
+		this();
+		addEvents(book, total);
+	}
+	
+	/**
+	 * Constructor que registra varias apariciones de la tripleta en un conjunto de libros.
+	 * @param books identificadores de los libros en los que ha aparecido la tripleta
+	 * @param total número de veces que ha aparecido la tripleta entre todos los libros
+	 */
+	public TripleEvents(Collection<String> books, long total) {
+		this();
+		addEvents(books, total);
 	}
 	
 	/**
@@ -39,15 +86,91 @@ public class TripleEvents {
 	 * @param book
 	 */
 	public void addEvent(String book) {
-		this.books.add(book);
-		this.totalEvents++;
+		addEvents(book, 1);
+	}
+	
+	/**
+	 * Añade un libro al conjunto e incrementa el contador de apariciones en el número indicado.
+	 * @param book identificador del libro en el que ha aparecido la tripleta
+	 * @param total número de veces que ha aparecido la tripleta en el libro
+	 */
+	public void addEvents(String book, long total) {
+		addEvents(BookSet.getBookId(book), total);
+	}
+	
+	/**
+	 * Añade un libro al conjunto e incrementa el contador de apariciones en el número indicado.
+	 * @param bookId identificador entero del libro en el que ha aparecido la tripleta
+	 * @param total número de veces que ha aparecido la tripleta en el libro
+	 * @see BookSet#getBookId(String)
+	 */
+	public void addEvents(int bookId, long total) {
+		if (!containsBook(bookId)) {
+			addBooks(BookSet.of(bookId));
+		}
+		TOTAL_EVENTS.addAndGet(this, total);
+	}
+	
+	/**
+	 * Añade un conjunto de libros e incrementa el contador de apariciones en el número indicado.
+	 * @param books identificadores de los libros en los que ha aparecido la tripleta
+	 * @param total número de veces que ha aparecido la tripleta entre todos los libros
+	 */
+	public void addEvents(Collection<String> books, long total) {
+		BookSet bookSet = BookSet.of(books);
+		if (bookSet.size() == 1) {
+			addEvents(bookSet.idIterator().next(), total);
+			return;
+		}
+		addBooks(bookSet);
+		TOTAL_EVENTS.addAndGet(this, total);
 	}
 	
 	/**
 	 * @return el conjunto de libros en los que se ha encontrado una tripleta concreta
 	 */
 	public Set<String> getBooks() {
-		return books;
+		return getBookSet();
+	}
+
+	/**
+	 * @return el conjunto de libros en los que se ha encontrado una tripleta concreta
+	 */
+	public BookSet getBookSet() {
+		BookSet current = books;
+		if (current != null) {
+			return current;
+		}
+		int first = book;
+		return (first == NO_BOOK) ? BookSet.EMPTY : BookSet.of(first);
+	}
+
+	/**
+	 * @param bookId identificador entero de un libro
+	 * @return <i>true</i> si la tripleta se ha encontrado en el libro
+	 */
+	private boolean containsBook(int bookId) {
+		BookSet current = books;
+		return (current != null) ? current.contains(bookId) : book == bookId;
+	}
+
+	/**
+	 * Añade un conjunto de libros a los libros de la tripleta. Mientras la tripleta aparezca en un único libro no se crea el conjunto.
+	 * @param other libros a añadir
+	 */
+	private synchronized void addBooks(BookSet other) {
+		if (other.size() == 1 && containsBook(other.idIterator().next())) {
+			return;
+		}
+		if (books == null) {
+			if (book == NO_BOOK && other.size() == 1) {
+				book = other.idIterator().next();
+				return;
+			}
+			books = (book == NO_BOOK) ? other : BookSet.of(book).union(other);
+		} else {
+			books = books.union(other);
+		}
 	}
 
 	/**
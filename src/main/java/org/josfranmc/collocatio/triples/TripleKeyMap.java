@@ -0,0 +1,256 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Mapa de claves <i>long</i> a objetos TripleEvents, especializado para las claves numéricas de las tripletas. Las claves se guardan en
+ * arrays de tipo primitivo con direccionamiento abierto, por lo que no se crea ningún objeto por clave, a diferencia de lo que sucede
+ * con un HashMap.<p>
+ * El mapa se divide en segmentos, cada uno con su propio bloqueo, de forma que los hilos sólo compiten cuando acceden a la vez a claves
+ * del mismo segmento. La iteración recorre una copia de cada segmento, por lo que puede realizarse mientras otros hilos modifican el mapa.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see TriplesCollection
+ */
+class TripleKeyMap implements TripleTable {
+
+	/**
+	 * Número de segmentos. Debe ser potencia de dos
+	 */
+	private static final int SEGMENTS = 64;
+
+	/**
+	 * Capacidad inicial de cada segmento. Debe ser potencia de dos
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	private final Segment[] segments;
+
+
+	TripleKeyMap() {
+		segments = new Segment[SEGMENTS];
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.josfranmc.collocatio.triples.TripleTable#addEvents(long, int, long)
+	 */
+	@Override
+	public void addEvents(long key, int bookId, long total) {
+		getOrCreate(key).addEvents(bookId, total);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.josfranmc.collocatio.triples.TripleTable#addEvents(long, org.josfranmc.collocatio.triples.BookSet, long)
+	 */
+	@Override
+	public void addEvents(long key, BookSet books, long total) {
+		getOrCreate(key).addEvents(books, total);
+	}
+
+	/**
+	 * @param key clave de la tripleta
+	 * @return apariciones de la tripleta, o null si no está en el mapa
+	 */
+	@Override
+	public TripleEvents get(long key) {
+		long hash = hash(key);
+		return segmentFor(hash).get(key, hash);
+	}
+
+	/**
+	 * Devuelve las apariciones de una tripleta, añadiéndola al mapa sin apariciones si no existe.
+	 * @param key clave de la tripleta
+	 * @return apariciones de la tripleta
+	 */
+	TripleEvents getOrCreate(long key) {
+		long hash = hash(key);
+		return segmentFor(hash).getOrCreate(key, hash);
+	}
+
+	/**
+	 * @return número de tripletas del mapa
+	 */
+	@Override
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Elimina todas las tripletas del mapa
+	 */
+	void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+
+	/**
+	 * @return iterador sobre las entradas del mapa. Cada segmento se copia al llegar a él, por lo que no se ven las modificaciones
+	 * posteriores de ese segmento
+	 */
+	@Override
+	public Cursor cursor() {
+		return new SegmentCursor();
+	}
+
+	/**
+	 * Mezcla los bits de la clave para repartir de forma uniforme las claves entre segmentos y posiciones (función de mezcla de SplitMix64).
+	 */
+	static long hash(long key) {
+		long h = key;
+		h = (h ^ (h >>> 30)) * 0xbf58476d1ce4e5b9L;
+		h = (h ^ (h >>> 27)) * 0x94d049bb133111ebL;
+		return h ^ (h >>> 31);
+	}
+
+	private Segment segmentFor(long hash) {
+		return segments[(int) (hash >>> 58) & (SEGMENTS - 1)];
+	}
+
+	/**
+	 * Segmento del mapa: tabla de direccionamiento abierto con sondeo lineal. Una posición está libre si su valor es null.
+	 */
+	private static final class Segment {
+
+		private long[] keys = new long[INITIAL_CAPACITY];
+
+		private TripleEvents[] values = new TripleEvents[INITIAL_CAPACITY];
+
+		private int size;
+
+		synchronized TripleEvents get(long key, long hash) {
+			int mask = keys.length - 1;
+			for (int i = (int) hash & mask; values[i] != null; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					return values[i];
+				}
+			}
+			return null;
+		}
+
+		synchronized TripleEvents getOrCreate(long key, long hash) {
+			int mask = keys.length - 1;
+			int i = (int) hash & mask;
+			for (; values[i] != null; i = (i + 1) & mask) {
+				if (keys[i] == key) {
+					return values[i];
+				}
+			}
+			TripleEvents events = new TripleEvents();
+			keys[i] = key;
+			values[i] = events;
+			// se mantiene la ocupación por debajo del 75%
+			if (++size > (keys.length >>> 2) * 3) {
+				resize();
+			}
+			return events;
+		}
+
+		synchronized int size() {
+			return size;
+		}
+
+		synchronized void clear() {
+			keys = new long[INITIAL_CAPACITY];
+			values = new TripleEvents[INITIAL_CAPACITY];
+			size = 0;
+		}
+
+		private void resize() {
+			long[] oldKeys = keys;
+			TripleEvents[] oldValues = values;
+			keys = new long[oldKeys.length * 2];
+			values = new TripleEvents[oldKeys.length * 2];
+			int mask = keys.length - 1;
+			for (int j = 0; j < oldKeys.length; j++) {
+				if (oldValues[j] != null) {
+					int i = (int) hash(oldKeys[j]) & mask;
+					while (values[i] != null) {
+						i = (i + 1) & mask;
+					}
+					keys[i] = oldKeys[j];
+					values[i] = oldValues[j];
+				}
+			}
+		}
+
+		synchronized Object[] snapshot() {
+			return new Object[] {keys.clone(), values.clone()};
+		}
+	}
+
+	/**
+	 * Recorre las entradas del mapa segmento a segmento.
+	 */
+	private final class SegmentCursor implements Cursor {
+
+		private int segment = -1;
+
+		private long[] keys = new long[0];
+
+		private TripleEvents[] values = new TripleEvents[0];
+
+		private int next = -1;
+
+		private long currentKey;
+
+		private SegmentCursor() {
+			advance();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next >= 0;
+		}
+
+		/**
+		 * Avanza a la siguiente entrada y devuelve sus apariciones. La clave de la entrada se obtiene con <i>key()</i>.
+		 */
+		@Override
+		public TripleEvents next() {
+			if (next < 0) {
+				throw new NoSuchElementException();
+			}
+			currentKey = keys[next];
+			TripleEvents events = values[next];
+			advance();
+			return events;
+		}
+
+		@Override
+		public long key() {
+			return currentKey;
+		}
+
+		/**
+		 * Busca la siguiente posición ocupada, copiando el siguiente segmento cuando se termina el actual.
+		 */
+		private void advance() {
+			int i = next + 1;
+			while (true) {
+				while (i < values.length && values[i] == null) {
+					i++;
+				}
+				if (i < values.length) {
+					next = i;
+					return;
+				}
+				if (++segment >= SEGMENTS) {
+					next = -1;
+					return;
+				}
+				Object[] snapshot = segments[segment].snapshot();
+				keys = (long[]) snapshot[0];
+				values = (TripleEvents[]) snapshot[1];
+				i = 0;
+			}
+		}
+	}
+}
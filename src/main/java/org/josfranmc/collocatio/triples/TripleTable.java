@@ -0,0 +1,72 @@
+package org.josfranmc.collocatio.triples;
+
+/**
+ * Tabla de apariciones de tripletas identificadas por su clave numérica. Es la estructura en la que TriplesCollection guarda las tripletas de
+ * cada tipo de dependencia.<p>
+ * Las implementaciones deben admitir que varios hilos guarden apariciones a la vez. El recorrido de la tabla puede realizarse mientras otros
+ * hilos guardan tripletas, pero sólo refleja de forma exacta el contenido de la tabla si no se guardan tripletas mientras se recorre.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see TripleKeyMap
+ * @see OffHeapTripleMap
+ */
+interface TripleTable {
+
+	/**
+	 * Suma apariciones de una tripleta en un libro, añadiendo la tripleta a la tabla si no existe.
+	 * @param key clave de la tripleta
+	 * @param bookId identificador entero del libro en el que ha aparecido la tripleta
+	 * @param total número de veces que ha aparecido la tripleta en el libro
+	 */
+	void addEvents(long key, int bookId, long total);
+
+	/**
+	 * Suma apariciones de una tripleta en un conjunto de libros, añadiendo la tripleta a la tabla si no existe.
+	 * @param key clave de la tripleta
+	 * @param books libros en los que ha aparecido la tripleta
+	 * @param total número de veces que ha aparecido la tripleta entre todos los libros
+	 */
+	void addEvents(long key, BookSet books, long total);
+
+	/**
+	 * @param key clave de la tripleta
+	 * @return apariciones de la tripleta, o null si no está en la tabla
+	 */
+	TripleEvents get(long key);
+
+	/**
+	 * @return número de tripletas de la tabla
+	 */
+	int size();
+
+	/**
+	 * @return iterador sobre las entradas de la tabla
+	 */
+	Cursor cursor();
+
+	/**
+	 * Libera la memoria que la tabla ocupa fuera del heap, sin esperar al recolector de basura. La tabla no debe volver a utilizarse.
+	 * Las tablas que sólo ocupan heap no tienen nada que liberar.
+	 */
+	default void free() {
+	}
+
+	/**
+	 * Recorrido de las entradas de una tabla. Devuelve las apariciones de cada tripleta; la clave de la tripleta se obtiene con <i>key()</i>.
+	 * Los recorridos que leen ficheros los cierran al terminar; si el recorrido se abandona antes debe llamarse a <i>close()</i>.
+	 */
+	interface Cursor extends CloseableIterator<TripleEvents> {
+
+		/**
+		 * @return clave de la última entrada devuelta por <i>next()</i>
+		 */
+		long key();
+
+		/**
+		 * Los recorridos de las tablas en memoria no tienen recursos que liberar.
+		 */
+		@Override
+		default void close() {
+		}
+	}
+}
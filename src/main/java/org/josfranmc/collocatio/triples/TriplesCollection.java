@@ -1,10 +1,20 @@
 package org.josfranmc.collocatio.triples;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.atomic.LongAdder;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.josfranmc.collocatio.triples.TripleEvents;
 
@@ -14,24 +24,71 @@ import org.apache.log4j.Logger;
  * Encapsula el tipo de dato que sirve para almacenar la colección de tripletas obtenida. Un objeto de este tipo es devuelto por el método <i>extractTriples()</i>
  * de la clase StanfordTriplesExtractor tras realizar el proceso de extracción de tripletas, el cual es utilizado posteriormente para realizar el cálculo del valor
  * de información mutua de las tripletas que guarda.<p>
- * Los objetos de esta clase se utilizarán concurrentemente por varios hilos de ejecución. Para garantizar la sincronización de los procesos y la
- * integridad de los datos sea un Map del tipo ConcurrentHashMap.
- * <p>El map guarda cada tripleta obtenida junto a un objeto de tipo TripleEvents, el cual guarda el número de veces que se ha encontrado la
+ * Para reducir la memoria necesaria, las tripletas no se guardan como objetos Triple. Cada palabra y cada tipo de dependencia se registra
+ * una sola vez en un vocabulario que le asigna un identificador entero, y cada tripleta se guarda como un número <i>long</i> que empaqueta
+ * los identificadores de su dependencia (10 bits) y de sus dos palabras (27 bits cada una). Las cadenas de texto sólo se obtienen al
+ * consultar las tripletas, mediante la vista devuelta por <i>getTriplesCollection()</i>.<p>
+ * Las tripletas se reparten al guardarlas en un mapa por cada tipo de dependencia, de forma que las tripletas de un tipo de dependencia
+ * pueden recorrerse (<i>getTriplesCollection(String)</i>) sin recorrer las del resto de tipos.<p>
+ * Al guardar las tripletas también se actualizan, para cada tipo de dependencia, el total de tripletas y el número de apariciones de cada
+ * palabra como palabra 1 y como palabra 2, que son los datos de frecuencia necesarios para el cálculo de información mutua. De esta forma
+ * el cálculo puede empezar en cuanto termina la extracción, sin volver a recorrer las tripletas para obtener las frecuencias.<p>
+ * Los objetos de esta clase se utilizarán concurrentemente por varios hilos de ejecución. Cada mapa de tripletas está dividido en
+ * segmentos con bloqueo propio y los objetos TripleEvents admiten actualizaciones concurrentes, por lo que los hilos sólo compiten cuando
+ * guardan a la vez tripletas del mismo segmento.<p>
+ * Opcionalmente las claves y los contadores de las tripletas pueden guardarse fuera del heap (ver OffHeapTripleMap). En ese caso los
+ * objetos TripleEvents obtenidos al consultar la colección son copias construidas en el momento de la consulta.<p>
+ * También puede indicarse una carpeta de volcado (ver TriplesSpill). Cuando el número de tripletas distintas en memoria alcanza el umbral
+ * indicado, las tripletas se vuelcan ordenadas a un fichero y se eliminan de memoria; los vocabularios y los datos de frecuencia se
+ * mantienen. Al recorrer la colección se mezclan los ficheros con las tripletas que siguen en memoria, por lo que en ese caso consultar
+ * una tripleta concreta o el número de tripletas distintas supone recorrer las tripletas de su tipo de dependencia.
+ * <p>El mapa guarda cada tripleta obtenida junto a un objeto de tipo TripleEvents, el cual guarda el número de veces que se ha encontrado la
  * tripleta y un conjunto con los libros en los que esto ha sucedido.<p>
  * También se guarda un conjunto con todos los tipos de dependencias que se han obtenido.
  * @author Jose Francisco Mena Ceca
  * @version 1.0
  * @see Triple * 
  * @see TripleEvents
+ * @see Vocabulary
  */
 public class TriplesCollection {
 
 	private static final Logger log = Logger.getLogger(TriplesCollection.class);
 	
 	/**
-	 * Colección que guarda las tripletas y donde se han encontrado
+	 * Bits de la clave de una tripleta que ocupa el identificador de cada palabra
 	 */
-	private Map<Triple, TripleEvents> triplesCollection;
+	private static final int WORD_BITS = 27;
+
+	/**
+	 * Bits de la clave de una tripleta que ocupa el identificador de la dependencia
+	 */
+	private static final int DEPENDENCY_BITS = 64 - 2 * WORD_BITS;
+
+	private static final long WORD_MASK = (1L << WORD_BITS) - 1;
+
+	/**
+	 * Valor que devuelve <i>findKey</i> cuando la tripleta no está en la colección. Las claves con dependencias a partir de 512 son
+	 * negativas, por lo que se reserva la clave con todos los bits a uno: el vocabulario de palabras admite una palabra menos de las que
+	 * caben en sus bits, de forma que ninguna tripleta puede tener esta clave
+	 */
+	private static final long NO_KEY = -1L;
+
+	/**
+	 * Colección que guarda las claves de las tripletas y donde se han encontrado, dividida por tipo de dependencia. El índice de cada
+	 * parte es el identificador del tipo de dependencia
+	 */
+	private AtomicReferenceArray<Partition> triplesCollection;
+
+	/**
+	 * Identificadores de las palabras de las tripletas
+	 */
+	private Vocabulary words;
+
+	/**
+	 * Identificadores de los tipos de dependencia de las tripletas
+	 */
+	private Vocabulary dependencies;
 	
 	/**
 	 * Conjunto de todos los tipos de dependencias que se han obtenido
@@ -44,19 +101,64 @@ public class TriplesCollection {
 	private LongAdder totalTriples;
 
 	/**
-	 * Bloqueo para el control de concurrencia
+	 * Contador del número de tripletas obtenidas que no se guardan en la colección por no pertenecer a las dependencias seleccionadas
+	 */
+	private LongAdder discardedTriples;
+
+	/**
+	 * Indica si las tripletas se guardan fuera del heap
 	 */
-	private ReentrantLock lock;
+	private final boolean offHeap;
+
+	/**
+	 * Volcado a disco de las tripletas, o null si las tripletas se guardan sólo en memoria
+	 */
+	private final TriplesSpill spill;
+
+	/**
+	 * Número de consultas en curso que pueden estar leyendo las tablas en memoria. Sólo se cuentan si se vuelcan tripletas a disco
+	 */
+	private final AtomicInteger tableReaders = new AtomicInteger();
+
+	/**
+	 * Tablas sustituidas al volcar tripletas a disco pendientes de liberar porque alguna consulta en curso podía estar leyéndolas
+	 */
+	private final Queue<TripleTable> retiredTables = new ConcurrentLinkedQueue<TripleTable>();
 	
 	
 	/**
-	 * Constructor principal. 
+	 * Constructor principal. Las tripletas se guardan en el heap.
 	 */
 	public TriplesCollection() {
-		triplesCollection = new ConcurrentHashMap<Triple, TripleEvents>();
+		this(false);
+	}
+	
+	/**
+	 * Constructor que permite elegir dónde se guardan las tripletas.
+	 * @param offHeap <i>true</i> para guardar las claves y los contadores de las tripletas fuera del heap (ver OffHeapTripleMap), lo que
+	 * permite procesar más tripletas distintas de las que caben en el heap
+	 */
+	public TriplesCollection(boolean offHeap) {
+		this(offHeap, null, 0);
+	}
+
+	/**
+	 * Constructor que permite volcar las tripletas a disco cuando no caben en memoria.
+	 * @param offHeap <i>true</i> para guardar las claves y los contadores de las tripletas fuera del heap (ver OffHeapTripleMap)
+	 * @param spillDirectory carpeta en la que se vuelcan las tripletas, o null para guardarlas sólo en memoria
+	 * @param spillThreshold número de tripletas distintas en memoria a partir del cual se vuelcan a disco; sólo se tiene en cuenta si se
+	 * indica la carpeta de volcado
+	 * @throws IllegalArgumentException si se indica la carpeta de volcado y el umbral no es mayor que cero
+	 */
+	public TriplesCollection(boolean offHeap, String spillDirectory, int spillThreshold) {
+		this.offHeap = offHeap;
+		this.spill = (spillDirectory == null) ? null : new TriplesSpill(spillDirectory, spillThreshold);
+		triplesCollection = new AtomicReferenceArray<Partition>(1 << DEPENDENCY_BITS);
+		words = new Vocabulary((int) WORD_MASK);
+		dependencies = new Vocabulary(1 << DEPENDENCY_BITS);
 		dependenciesCollection = ConcurrentHashMap.newKeySet();
 		totalTriples = new LongAdder();
-		lock = new ReentrantLock();
+		discardedTriples = new LongAdder();
 	}
 	
 	/**
@@ -64,40 +166,323 @@ public class TriplesCollection {
 	 * Si es la primera vez que se guarda la tripleta se asocia a la misma un objeto TripleEvents en el que se recoge el número de veces que
 	 * se ha encontrado la tripleta y en que libros. 
 	 * Si ya existe la tripleta en la colección, se actualiza el objeto TripleEvents añadiendo el nuevo libro en el que ha aparecido la tripleta.
-	 * Esta actualización se lleva a cabo un bloqueo de forma que la operación sea <i>thread-safe</i>
+	 * La operación es <i>thread-safe</i> sin utilizar bloqueos globales, salvo si se vuelcan las tripletas a disco
 	 * @param triple tripleta a guardar
 	 * @param book identificador del libro en el que se ha encontrado la tripleta
 	 * @see TripleEvents
 	 */
 	public void save(Triple triple, String book) {
-		TripleEvents events = addTripleToCollection(triple, book);
-		if (events != null) {
-			try {
-				lock.lock();
-				events = triplesCollection.get(triple);
-				events.addEvent(book);
-				triplesCollection.put(triple, events);
-			} catch (Exception e) {
-				e.printStackTrace();
-			} finally {
-				lock.unlock();
+		save(triple, book, 1);
+	}
+	
+	/**
+	 * Guarda una tripleta junto al libro en el cual ha sido encontrada, registrando de una vez el número de veces que ha aparecido en dicho libro.
+	 * Funciona igual que <i>save(Triple, String)</i> pero sumando <i>total</i> apariciones en lugar de una.
+	 * @param triple tripleta a guardar
+	 * @param book identificador del libro en el que se ha encontrado la tripleta
+	 * @param total número de veces que se ha encontrado la tripleta en el libro
+	 * @see TripleEvents
+	 */
+	public void save(Triple triple, String book, long total) {
+		lockSave();
+		try {
+			long key = getKey(triple, total);
+			getTable(key).addEvents(key, BookSet.getBookId(book), total);
+			dependenciesCollection.add(triple.getDependency());
+			totalTriples.add(total);
+		} finally {
+			unlockSave(total);
+		}
+	}
+	
+	/**
+	 * Guarda de una sola vez un conjunto de tripletas encontradas en un mismo libro, junto al número de veces que ha aparecido cada una.<p>
+	 * Se utiliza para volcar en la colección las tripletas que un hilo de análisis ha ido acumulando localmente, de forma que cada tripleta
+	 * distinta supone una única actualización de la colección compartida. El identificador del libro se convierte a entero una sola vez.
+	 * @param triples mapa de tripletas y número de apariciones de cada una
+	 * @param book identificador del libro en el que se han encontrado las tripletas
+	 */
+	public void save(Map<Triple, Long> triples, String book) {
+		int bookId = BookSet.getBookId(book);
+		long total = 0;
+		lockSave();
+		try {
+			for (Map.Entry<Triple, Long> entry : triples.entrySet()) {
+				long key = getKey(entry.getKey(), entry.getValue());
+				getTable(key).addEvents(key, bookId, entry.getValue());
+				dependenciesCollection.add(entry.getKey().getDependency());
+				total += entry.getValue();
 			}
+			totalTriples.add(total);
+		} finally {
+			unlockSave(total);
 		}
-		dependenciesCollection.add(triple.getDependency());
-		totalTriples.increment();
 	}
 
 	/**
-	 * Añade una nueva tripleta a la colección junto a su ocurrencia (en que libro se ha encontrado)
+	 * Añade a esta colección todas las tripletas de otra colección, sumando sus apariciones y uniendo los conjuntos de libros.
+	 * Se utiliza para incorporar las tripletas de un libro, acumuladas en una colección propia, una vez que se ha terminado su análisis.
+	 * @param other colección cuyas tripletas se añaden; no debe modificarse mientras se realiza la operación
+	 */
+	public void merge(TriplesCollection other) {
+		for (Map.Entry<Triple, TripleEvents> entry : other.getTriplesCollection().entrySet()) {
+			putEvents(entry.getKey(), entry.getValue().getBooks(), entry.getValue().getTotalEvents());
+		}
+		addTotalTriples(other.getTotalTriples());
+		discardedTriples.add(other.getDiscardedTriples());
+	}
+	
+	/**
+	 * Añade las apariciones de una tripleta en un conjunto de libros, sin modificar el contador total de tripletas.
 	 * @param triple tripleta a guardar
-	 * @param book identificador del libro en el que se ha encontrado la tripleta
-	 * @return null si es la primera vez que se guarda la tripleta, o un objeto TripleEvents que encapsula las veces que ha aparecido la tripleta y en que libros
-	 * @see TripleEvents
+	 * @param books identificadores de los libros en los que se ha encontrado la tripleta
+	 * @param total número de veces que se ha encontrado la tripleta entre todos los libros
+	 */
+	void putEvents(Triple triple, Collection<String> books, long total) {
+		lockSave();
+		try {
+			long key = getKey(triple, total);
+			getTable(key).addEvents(key, BookSet.of(books), total);
+			dependenciesCollection.add(triple.getDependency());
+		} finally {
+			unlockSave(total);
+		}
+	}
+
+	/**
+	 * Si las tripletas se vuelcan a disco, obtiene el bloqueo que impide volcarlas mientras se guardan tripletas.
+	 */
+	private void lockSave() {
+		if (spill != null) {
+			spill.getLock().readLock().lock();
+		}
+	}
+
+	/**
+	 * Libera el bloqueo obtenido con <i>lockSave()</i> y, si el número de tripletas distintas en memoria ha alcanzado el umbral, las vuelca a
+	 * disco.
+	 * @param total número de apariciones guardadas
 	 */
-	private TripleEvents addTripleToCollection(Triple triple, String book) {		
-		TripleEvents te = new TripleEvents(book);
-		TripleEvents value = triplesCollection.putIfAbsent(triple, te);
-		return value;
+	private void unlockSave(long total) {
+		if (spill != null) {
+			spill.getLock().readLock().unlock();
+			if (spill.addPending(total)) {
+				spillIfNeeded();
+			}
+		}
+	}
+
+	/**
+	 * Vuelca a disco las tripletas en memoria si su número alcanza el umbral de volcado. Mientras se escribe el fichero ningún hilo puede
+	 * guardar tripletas.<p>
+	 * Las tablas volcadas se sustituyen por tablas vacías y se liberan. Los hilos que guardan tripletas no pueden seguir usándolas, ya que
+	 * el volcado espera a que terminen, pero las consultas de la colección no utilizan ese bloqueo: si hay alguna en curso, la liberación
+	 * se retrasa hasta que terminen todas.
+	 * @see #freeRetiredTables()
+	 */
+	private void spillIfNeeded() {
+		spill.getLock().writeLock().lock();
+		try {
+			if (getMemorySize() < spill.getThreshold()) {
+				return;
+			}
+			TripleTable[] tables = new TripleTable[dependencies.size()];
+			for (int i = 0; i < tables.length; i++) {
+				Partition partition = triplesCollection.get(i);
+				tables[i] = (partition == null) ? null : partition.triples;
+			}
+			spill.writeRun(tables);
+			for (int i = 0; i < tables.length; i++) {
+				if (tables[i] != null) {
+					triplesCollection.get(i).triples = newTable();
+					retiredTables.add(tables[i]);
+				}
+			}
+			freeRetiredTables();
+		} finally {
+			spill.getLock().writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Registra el inicio de una consulta que puede leer las tablas en memoria, de forma que las tablas que se sustituyan mientras dure
+	 * no se liberen. Debe llamarse antes de obtener la tabla de la partición.
+	 */
+	private void acquireTables() {
+		if (spill != null) {
+			tableReaders.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Registra el final de una consulta iniciada con <i>acquireTables()</i>. Si no queda ninguna en curso se liberan las tablas sustituidas.
+	 */
+	private void releaseTables() {
+		if (spill != null && tableReaders.decrementAndGet() == 0) {
+			freeRetiredTables();
+		}
+	}
+
+	/**
+	 * Libera las tablas sustituidas al volcar tripletas a disco si no hay ninguna consulta en curso. El número de consultas se comprueba
+	 * después de sacar cada tabla de la cola: una consulta que todavía pueda leerla se registró antes de que la tabla se sustituyera, por lo
+	 * que se detecta y la tabla vuelve a la cola.
+	 */
+	private void freeRetiredTables() {
+		TripleTable table;
+		while ((table = retiredTables.poll()) != null) {
+			if (tableReaders.get() != 0) {
+				retiredTables.add(table);
+				return;
+			}
+			table.free();
+		}
+	}
+
+	/**
+	 * @return número de tripletas distintas guardadas en memoria
+	 */
+	private int getMemorySize() {
+		int size = 0;
+		for (int i = 0; i < dependencies.size(); i++) {
+			Partition partition = triplesCollection.get(i);
+			size += (partition == null) ? 0 : partition.triples.size();
+		}
+		return size;
+	}
+
+	/**
+	 * @return tabla vacía en la que guardar tripletas, en el heap o fuera de él según se haya indicado al crear la colección
+	 */
+	private TripleTable newTable() {
+		return offHeap ? new OffHeapTripleMap() : new TripleKeyMap();
+	}
+
+	/**
+	 * @param dependency identificador del tipo de dependencia
+	 * @param partition parte de la colección del tipo de dependencia
+	 * @return recorrido de las tripletas del tipo de dependencia; si se han volcado tripletas a disco se recorren ordenadas por clave, mezclando
+	 * las de los ficheros con las de memoria
+	 */
+	private TripleTable.Cursor cursor(int dependency, Partition partition) {
+		if (spill == null) {
+			return partition.triples.cursor();
+		}
+		acquireTables();
+		try {
+			TripleTable.Cursor cursor = isSpilled() ? spill.cursor(dependency, partition.triples) : partition.triples.cursor();
+			return new ReaderCursor(cursor);
+		} catch (RuntimeException e) {
+			releaseTables();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return <i>true</i> si se han volcado tripletas a disco
+	 */
+	private boolean isSpilled() {
+		return spill != null && spill.hasRuns();
+	}
+	
+	/**
+	 * Incrementa el contador total de tripletas obtenidas.
+	 * @param total número de tripletas a sumar
+	 */
+	void addTotalTriples(long total) {
+		totalTriples.add(total);
+	}
+	
+	/**
+	 * Registra tripletas obtenidas que no se guardan en la colección por no pertenecer a las dependencias seleccionadas. Se suman al
+	 * contador total de tripletas, ya que el cálculo de las probabilidades de las tripletas guardadas se basa en el total de tripletas obtenidas.
+	 * @param total número de tripletas descartadas
+	 */
+	void addDiscardedTriples(long total) {
+		discardedTriples.add(total);
+		totalTriples.add(total);
+	}
+	
+	/**
+	 * Obtiene la clave de una tripleta, registrando sus palabras y su tipo de dependencia si es la primera vez que aparecen.<p>
+	 * Las apariciones indicadas se suman a los datos de frecuencia del tipo de dependencia de la tripleta, por lo que deben guardarse a
+	 * continuación esas mismas apariciones en la tabla de la tripleta.
+	 * @param triple tripleta a guardar
+	 * @param total número de apariciones de la tripleta que se van a guardar
+	 * @return clave de la tripleta
+	 */
+	private long getKey(Triple triple, long total) {
+		int dependency = dependencies.getId(triple.getDependency());
+		int word1 = words.getId(triple.getWord1());
+		int word2 = words.getId(triple.getWord2());
+		Partition partition = getPartition(dependency);
+		partition.word1.add(word1, total);
+		partition.word2.add(word2, total);
+		partition.totalTriples.add(total);
+		return ((long) dependency << (2 * WORD_BITS)) | ((long) word1 << WORD_BITS) | word2;
+	}
+
+	/**
+	 * @param key clave de una tripleta guardada
+	 * @return tabla en la que se guardan las tripletas del tipo de dependencia de la tripleta
+	 */
+	private TripleTable getTable(long key) {
+		return triplesCollection.get((int) (key >>> (2 * WORD_BITS))).triples;
+	}
+
+	/**
+	 * Devuelve la parte de la colección de un tipo de dependencia, creándola si es la primera tripleta de ese tipo.
+	 * @param dependency identificador del tipo de dependencia
+	 * @return tripletas y datos de frecuencia del tipo de dependencia
+	 */
+	private Partition getPartition(int dependency) {
+		Partition partition = triplesCollection.get(dependency);
+		if (partition == null) {
+			Partition created = new Partition(newTable());
+			if (!triplesCollection.compareAndSet(dependency, null, created)) {
+				// otro hilo ha creado antes la partición
+				created.triples.free();
+			}
+			partition = triplesCollection.get(dependency);
+		}
+		return partition;
+	}
+
+	/**
+	 * @param dependency tipo de dependencia
+	 * @return parte de la colección del tipo de dependencia, o null si no se ha guardado ninguna tripleta de ese tipo
+	 */
+	private Partition findPartition(String dependency) {
+		int id = dependencies.findId(dependency);
+		return (id < 0) ? null : triplesCollection.get(id);
+	}
+
+	/**
+	 * Obtiene la clave de una tripleta sin registrar sus palabras.
+	 * @param triple tripleta a consultar
+	 * @return clave de la tripleta, o NO_KEY si alguna de sus palabras no está registrada y, por tanto, la tripleta no está en la colección
+	 */
+	private long findKey(Triple triple) {
+		int dependency = dependencies.findId(triple.getDependency());
+		int word1 = words.findId(triple.getWord1());
+		int word2 = words.findId(triple.getWord2());
+		if (dependency < 0 || word1 < 0 || word2 < 0) {
+			return NO_KEY;
+		}
+		return ((long) dependency << (2 * WORD_BITS)) | ((long) word1 << WORD_BITS) | word2;
+	}
+
+	/**
+	 * Construye la tripleta correspondiente a una clave.
+	 * @param key clave de la tripleta
+	 * @return objeto Triple con las cadenas de texto de la dependencia y las palabras
+	 */
+	private Triple getTriple(long key) {
+		Triple triple = new Triple();
+		triple.setDependency(dependencies.getWord((int) (key >>> (2 * WORD_BITS))));
+		triple.setWord1(words.getWord((int) ((key >>> WORD_BITS) & WORD_MASK)));
+		triple.setWord2(words.getWord((int) (key & WORD_MASK)));
+		return triple;
 	}
 	
 	/**
@@ -109,10 +494,161 @@ public class TriplesCollection {
 	}
 
 	/**
+	 * Devuelve el número de tripletas obtenidas que no se han guardado en la colección por no pertenecer a las dependencias seleccionadas.
+	 * Estas tripletas están incluidas en el número total de tripletas obtenidas.
+	 * @return número de tripletas descartadas
+	 */
+	public long getDiscardedTriples() {
+		return this.discardedTriples.sum();
+	}
+
+	/**
+	 * Devuelve una vista de sólo lectura de la colección de tripletas. Los objetos Triple se construyen al recorrer la vista, por lo que
+	 * conviene recorrerla una sola vez y no guardar las tripletas si no es necesario.
 	 * @return la colección de todas las tripletas obtenidas
 	 */
 	public Map<Triple, TripleEvents> getTriplesCollection() {
-		return this.triplesCollection;
+		return new TriplesView(-1, null);
+	}
+
+	/**
+	 * Devuelve una vista de sólo lectura de las tripletas de un tipo de dependencia. Al recorrerla sólo se construyen los objetos Triple de
+	 * ese tipo de dependencia.
+	 * @param dependency tipo de dependencia
+	 * @return las tripletas del tipo de dependencia indicado
+	 */
+	public Map<Triple, TripleEvents> getTriplesCollection(String dependency) {
+		return getTriplesCollection(dependency, null);
+	}
+
+	/**
+	 * Devuelve una vista de sólo lectura de las tripletas de un tipo de dependencia que contienen alguna de las palabras indicadas.
+	 * @param dependency tipo de dependencia
+	 * @param targetWords palabras objetivo, o null para obtener todas las tripletas del tipo de dependencia
+	 * @return las tripletas del tipo de dependencia indicado que contienen alguna palabra objetivo
+	 */
+	public Map<Triple, TripleEvents> getTriplesCollection(String dependency, Set<String> targetWords) {
+		int id = dependencies.findId(dependency);
+		if (id < 0) {
+			return Collections.<Triple, TripleEvents>emptyMap();
+		}
+		if (targetWords == null) {
+			return new TriplesView(id, null);
+		}
+		int[] targetIds = new int[targetWords.size()];
+		int n = 0;
+		for (String word : targetWords) {
+			int wordId = words.findId(word);
+			if (wordId >= 0) {
+				targetIds[n++] = wordId;
+			}
+		}
+		targetIds = Arrays.copyOf(targetIds, n);
+		Arrays.sort(targetIds);
+		return new TriplesView(id, targetIds);
+	}
+
+	/**
+	 * @param dependency tipo de dependencia
+	 * @return número total de tripletas del tipo de dependencia, sumando las apariciones de cada tripleta
+	 */
+	public long getTotalTriples(String dependency) {
+		Partition partition = findPartition(dependency);
+		return (partition == null) ? 0 : partition.totalTriples.sum();
+	}
+
+	/**
+	 * Devuelve una vista de sólo lectura del número de apariciones de cada palabra como palabra 1 en las tripletas de un tipo de dependencia.
+	 * @param dependency tipo de dependencia
+	 * @return número de apariciones de cada palabra como palabra 1
+	 */
+	public Map<String, Long> getWord1Frequencies(String dependency) {
+		Partition partition = findPartition(dependency);
+		return (partition == null) ? Collections.<String, Long>emptyMap() : new FrequenciesView(partition.word1);
+	}
+
+	/**
+	 * Devuelve una vista de sólo lectura del número de apariciones de cada palabra como palabra 2 en las tripletas de un tipo de dependencia.
+	 * @param dependency tipo de dependencia
+	 * @return número de apariciones de cada palabra como palabra 2
+	 */
+	public Map<String, Long> getWord2Frequencies(String dependency) {
+		Partition partition = findPartition(dependency);
+		return (partition == null) ? Collections.<String, Long>emptyMap() : new FrequenciesView(partition.word2);
+	}
+
+	/**
+	 * @return número de tripletas distintas de la colección. Si se han volcado tripletas a disco, obtenerlo supone recorrer la colección
+	 */
+	public int size() {
+		int size = 0;
+		for (int i = 0; i < dependencies.size(); i++) {
+			size += size(i);
+		}
+		return size;
+	}
+
+	/**
+	 * @param dependency identificador del tipo de dependencia
+	 * @return número de tripletas distintas del tipo de dependencia
+	 */
+	private int size(int dependency) {
+		Partition partition = triplesCollection.get(dependency);
+		if (partition == null) {
+			return 0;
+		}
+		int size = 0;
+		acquireTables();
+		try {
+			if (!isSpilled()) {
+				return partition.triples.size();
+			}
+			try (TripleTable.Cursor cursor = cursor(dependency, partition)) {
+				for (; cursor.hasNext(); cursor.next()) {
+					size++;
+				}
+			}
+		} finally {
+			releaseTables();
+		}
+		return size;
+	}
+
+	/**
+	 * @return <i>true</i> si las tripletas se guardan fuera del heap
+	 */
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+
+	/**
+	 * @return <i>true</i> si las tripletas se vuelcan a disco al alcanzar el umbral de volcado
+	 */
+	public boolean isSpillEnabled() {
+		return spill != null;
+	}
+
+	/**
+	 * @return número de ficheros de volcado escritos
+	 */
+	public int getTotalSpillRuns() {
+		return (spill == null) ? 0 : spill.getTotalRuns();
+	}
+
+	/**
+	 * Elimina los ficheros de volcado. Debe invocarse cuando ya no se vaya a consultar la colección, ya que las tripletas volcadas se pierden.
+	 */
+	public void deleteSpillFiles() {
+		if (spill != null) {
+			spill.delete();
+		}
+	}
+
+	/**
+	 * @return número de palabras distintas de las tripletas de la colección
+	 */
+	public int getTotalWords() {
+		return words.size();
 	}
 
 	/**
@@ -127,7 +663,7 @@ public class TriplesCollection {
 	 * Para labores de depuración y tests. Muestra en el dispositivo de log el contenido de la colección que almacena las tripletas.
 	 */
 	public void show() {
-		for (Map.Entry<Triple, TripleEvents> entry2 : triplesCollection.entrySet()) {
+		for (Map.Entry<Triple, TripleEvents> entry2 : getTriplesCollection().entrySet()) {
 			Triple key = entry2.getKey();
 			TripleEvents value = entry2.getValue();
 			log.info("------------------------------------------------------");
@@ -141,4 +677,300 @@ public class TriplesCollection {
 		    log.info("------------------------------------------------------");
 		}
 	}
+
+	/**
+	 * Recorrido de las tripletas de una partición cuando se vuelcan tripletas a disco. Mantiene registrada la consulta, para que no se libere
+	 * la tabla en memoria que recorre, hasta que se cierra.
+	 */
+	private final class ReaderCursor implements TripleTable.Cursor {
+
+		private final TripleTable.Cursor cursor;
+
+		private boolean closed;
+
+		private ReaderCursor(TripleTable.Cursor cursor) {
+			this.cursor = cursor;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return cursor.hasNext();
+		}
+
+		@Override
+		public TripleEvents next() {
+			return cursor.next();
+		}
+
+		@Override
+		public long key() {
+			return cursor.key();
+		}
+
+		@Override
+		public void close() {
+			if (!closed) {
+				closed = true;
+				try {
+					cursor.close();
+				} finally {
+					releaseTables();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tripletas y datos de frecuencia de un tipo de dependencia
+	 */
+	private static final class Partition {
+
+		/**
+		 * Tripletas en memoria. Se sustituye por una tabla vacía al volcar las tripletas a disco
+		 */
+		private volatile TripleTable triples;
+
+		/**
+		 * Apariciones de cada palabra como palabra 1
+		 */
+		private final WordCounts word1 = new WordCounts();
+
+		/**
+		 * Apariciones de cada palabra como palabra 2
+		 */
+		private final WordCounts word2 = new WordCounts();
+
+		/**
+		 * Total de tripletas del tipo de dependencia
+		 */
+		private final LongAdder totalTriples = new LongAdder();
+
+		Partition(TripleTable triples) {
+			this.triples = triples;
+		}
+	}
+
+	/**
+	 * Vista de sólo lectura de los contadores de apariciones de las palabras
+	 */
+	private final class FrequenciesView extends AbstractMap<String, Long> {
+
+		private final WordCounts counts;
+
+		FrequenciesView(WordCounts counts) {
+			this.counts = counts;
+		}
+
+		@Override
+		public Long get(Object key) {
+			int word = (key instanceof String) ? words.findId((String) key) : -1;
+			long total = (word < 0) ? 0 : counts.get(word);
+			return (total == 0) ? null : total;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+
+		@Override
+		public int size() {
+			return counts.size();
+		}
+
+		@Override
+		public Set<Entry<String, Long>> entrySet() {
+			final int[] ids = counts.words();
+			return new AbstractSet<Entry<String, Long>>() {
+				@Override
+				public Iterator<Entry<String, Long>> iterator() {
+					return new Iterator<Entry<String, Long>>() {
+
+						private int next;
+
+						@Override
+						public boolean hasNext() {
+							return next < ids.length;
+						}
+
+						@Override
+						public Entry<String, Long> next() {
+							if (next >= ids.length) {
+								throw new NoSuchElementException();
+							}
+							int word = ids[next++];
+							return new SimpleImmutableEntry<String, Long>(words.getWord(word), counts.get(word));
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return ids.length;
+				}
+			};
+		}
+	}
+
+	/**
+	 * Vista de sólo lectura de las tripletas de la colección, o de las de un tipo de dependencia. Las entradas se obtienen recorriendo los
+	 * mapas de claves, por lo que reflejan las tripletas guardadas mientras se recorre. Si se han volcado tripletas a disco, las entradas de
+	 * cada tipo de dependencia se obtienen mezclando los ficheros de volcado con las tripletas en memoria.
+	 */
+	private final class TriplesView extends AbstractMap<Triple, TripleEvents> {
+
+		/**
+		 * Identificador del tipo de dependencia de las tripletas de la vista, o -1 para todas las tripletas
+		 */
+		private final int dependency;
+
+		/**
+		 * Identificadores ordenados de las palabras objetivo, o null para todas las tripletas
+		 */
+		private final int[] targetWords;
+
+		TriplesView(int dependency, int[] targetWords) {
+			this.dependency = dependency;
+			this.targetWords = targetWords;
+		}
+
+		/**
+		 * @param key clave de una tripleta
+		 * @return <i>true</i> si no hay palabras objetivo o si alguna de las palabras de la tripleta es una palabra objetivo
+		 */
+		private boolean isTargetTriple(long key) {
+			return targetWords == null
+					|| Arrays.binarySearch(targetWords, (int) ((key >>> WORD_BITS) & WORD_MASK)) >= 0
+					|| Arrays.binarySearch(targetWords, (int) (key & WORD_MASK)) >= 0;
+		}
+
+		@Override
+		public TripleEvents get(Object key) {
+			if (!(key instanceof Triple)) {
+				return null;
+			}
+			long tripleKey = findKey((Triple) key);
+			if (tripleKey == NO_KEY || !isTargetTriple(tripleKey)) {
+				return null;
+			}
+			int tripleDependency = (int) (tripleKey >>> (2 * WORD_BITS));
+			Partition partition = triplesCollection.get(tripleDependency);
+			if (partition == null || (dependency >= 0 && tripleDependency != dependency)) {
+				return null;
+			}
+			acquireTables();
+			try {
+				if (!isSpilled()) {
+					return partition.triples.get(tripleKey);
+				}
+				try (TripleTable.Cursor cursor = cursor(tripleDependency, partition)) {
+					while (cursor.hasNext()) {
+						TripleEvents events = cursor.next();
+						if (cursor.key() == tripleKey) {
+							return events;
+						}
+						if (cursor.key() > tripleKey) {
+							break;
+						}
+					}
+				}
+				return null;
+			} finally {
+				releaseTables();
+			}
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return get(key) != null;
+		}
+
+		@Override
+		public int size() {
+			if (targetWords != null) {
+				int size = 0;
+				for (Iterator<Entry<Triple, TripleEvents>> it = entrySet().iterator(); it.hasNext(); it.next()) {
+					size++;
+				}
+				return size;
+			}
+			return (dependency < 0) ? TriplesCollection.this.size() : TriplesCollection.this.size(dependency);
+		}
+
+		@Override
+		public Set<Entry<Triple, TripleEvents>> entrySet() {
+			return new AbstractSet<Entry<Triple, TripleEvents>>() {
+				/**
+				 * @return recorrido de las tripletas; es un CloseableIterator, que debe cerrarse si se abandona antes de terminar para no
+				 * dejar abiertos los ficheros de volcado
+				 */
+				@Override
+				public Iterator<Entry<Triple, TripleEvents>> iterator() {
+					return new CloseableIterator<Entry<Triple, TripleEvents>>() {
+
+						/**
+						 * Siguiente tipo de dependencia a recorrer
+						 */
+						private int partition = (dependency < 0) ? 0 : dependency;
+
+						private TripleTable.Cursor cursor;
+
+						private Entry<Triple, TripleEvents> next = findNext();
+
+						@Override
+						public boolean hasNext() {
+							return next != null;
+						}
+
+						@Override
+						public Entry<Triple, TripleEvents> next() {
+							if (next == null) {
+								throw new NoSuchElementException();
+							}
+							Entry<Triple, TripleEvents> entry = next;
+							next = findNext();
+							return entry;
+						}
+
+						@Override
+						public void close() {
+							if (cursor != null) {
+								cursor.close();
+							}
+							partition = Integer.MAX_VALUE;
+							next = null;
+						}
+
+						private Entry<Triple, TripleEvents> findNext() {
+							while (true) {
+								while (cursor == null || !cursor.hasNext()) {
+									if (partition >= dependencies.size() || (dependency >= 0 && partition > dependency)) {
+										if (cursor != null) {
+											cursor.close();
+											cursor = null;
+										}
+										return null;
+									}
+									if (cursor != null) {
+										cursor.close();
+									}
+									Partition map = triplesCollection.get(partition++);
+									cursor = (map == null) ? null : cursor(partition - 1, map);
+								}
+								TripleEvents events = cursor.next();
+								if (isTargetTriple(cursor.key())) {
+									return new SimpleImmutableEntry<Triple, TripleEvents>(getTriple(cursor.key()), events);
+								}
+							}
+						}
+					};
+				}
+
+				@Override
+				public int size() {
+					return TriplesView.this.size();
+				}
+			};
+		}
+	}
 }
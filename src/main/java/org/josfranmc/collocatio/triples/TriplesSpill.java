@@ -0,0 +1,463 @@
+package org.josfranmc.collocatio.triples;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Volcado a disco de las tripletas de una colección. Cuando el número de tripletas distintas guardadas en memoria alcanza un umbral, las
+ * tripletas se ordenan por su clave y se escriben en un fichero (un <i>run</i>), tras lo cual se eliminan de memoria. Al recorrer las
+ * tripletas de un tipo de dependencia se mezclan de forma ordenada los ficheros escritos y las tripletas que siguen en memoria, sumando
+ * las apariciones de las tripletas que se repiten entre ellos, de forma que el resultado se obtiene sin volver a cargar en memoria todas
+ * las tripletas.<p>
+ * Cada fichero guarda las tripletas agrupadas por tipo de dependencia y, dentro de cada tipo, ordenadas por su clave. Para cada tipo de
+ * dependencia se mantiene en memoria su posición en el fichero, por lo que cada tipo de dependencia puede recorrerse de forma independiente
+ * y varios tipos a la vez desde distintos hilos. Los libros se guardan mediante su identificador entero, que sólo es válido dentro del
+ * proceso, por lo que los ficheros son temporales y se eliminan con <i>delete()</i> o al terminar el proceso.<p>
+ * Las tripletas se guardan con el bloqueo de lectura y el volcado se realiza con el bloqueo de escritura, de forma que ningún hilo guarda
+ * tripletas mientras se vuelcan.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see TriplesCollection
+ */
+class TriplesSpill {
+
+	private static final Logger log = Logger.getLogger(TriplesSpill.class);
+
+	/**
+	 * Prefijo del nombre de los ficheros
+	 */
+	private static final String PREFIX = "triples-run-";
+
+	/**
+	 * Extensión de los ficheros
+	 */
+	private static final String EXTENSION = ".run";
+
+	/**
+	 * Bytes de cada tripleta del fichero sin contar sus libros: clave, apariciones y número de libros
+	 */
+	private static final int ENTRY_HEADER_SIZE = 8 + 8 + 4;
+
+	/**
+	 * Número de fracciones del umbral entre dos comprobaciones del tamaño de la colección
+	 */
+	private static final int CHECKS_BY_THRESHOLD = 16;
+
+	/**
+	 * Carpeta de los ficheros
+	 */
+	private final File directory;
+
+	/**
+	 * Número de tripletas distintas en memoria a partir del cual se vuelcan a disco
+	 */
+	private final int threshold;
+
+	/**
+	 * Número de apariciones guardadas entre dos comprobaciones del tamaño de la colección
+	 */
+	private final long checkInterval;
+
+	/**
+	 * Apariciones guardadas desde la última comprobación del tamaño de la colección
+	 */
+	private final LongAdder pending = new LongAdder();
+
+	/**
+	 * Bloqueo de lectura para guardar tripletas y de escritura para volcarlas
+	 */
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Ficheros escritos
+	 */
+	private final List<Run> runs = new CopyOnWriteArrayList<Run>();
+
+
+	/**
+	 * Constructor principal.
+	 * @param directory carpeta donde se escriben los ficheros; se crea si no existe
+	 * @param threshold número de tripletas distintas en memoria a partir del cual se vuelcan a disco
+	 */
+	TriplesSpill(String directory, int threshold) {
+		if (directory == null || directory.isEmpty()) {
+			throw new IllegalArgumentException("Debe indicarse la carpeta de volcado de tripletas");
+		}
+		if (threshold < 1) {
+			throw new IllegalArgumentException("El umbral de volcado de tripletas debe ser mayor que cero");
+		}
+		this.directory = new File(directory);
+		this.threshold = threshold;
+		this.checkInterval = Math.max(1, threshold / CHECKS_BY_THRESHOLD);
+	}
+
+	/**
+	 * @return bloqueo que deben obtener los hilos que guardan tripletas (lectura) y el volcado (escritura)
+	 */
+	ReadWriteLock getLock() {
+		return lock;
+	}
+
+	/**
+	 * Registra apariciones guardadas e indica si debe comprobarse el tamaño de la colección. El tamaño sólo se comprueba cada cierto número
+	 * de apariciones, ya que calcularlo requiere recorrer todos los segmentos de la colección. Como el número de tripletas distintas no crece
+	 * más que el de apariciones, el umbral no se supera en más de una fracción de su valor.
+	 * @param total número de apariciones guardadas
+	 * @return <i>true</i> si debe comprobarse el tamaño de la colección
+	 */
+	boolean addPending(long total) {
+		pending.add(total);
+		if (pending.sum() >= checkInterval) {
+			pending.reset();
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return número de tripletas distintas en memoria a partir del cual se vuelcan a disco
+	 */
+	int getThreshold() {
+		return threshold;
+	}
+
+	/**
+	 * @return <i>true</i> si se ha escrito algún fichero
+	 */
+	boolean hasRuns() {
+		return !runs.isEmpty();
+	}
+
+	/**
+	 * @return número de ficheros escritos
+	 */
+	int getTotalRuns() {
+		return runs.size();
+	}
+
+	/**
+	 * Escribe en un fichero nuevo las tripletas de varias tablas, ordenadas por tipo de dependencia y clave. Las tablas no se modifican; deben
+	 * vaciarse después de escribir el fichero. Debe invocarse con el bloqueo de escritura.
+	 * @param tables tabla de tripletas de cada tipo de dependencia, según su identificador; puede contener null
+	 * @throws UncheckedIOException si no se puede escribir el fichero
+	 */
+	void writeRun(TripleTable[] tables) {
+		long start = System.currentTimeMillis();
+		if (!directory.exists() && !directory.mkdirs()) {
+			throw new UncheckedIOException(new IOException("No se puede crear la carpeta " + directory));
+		}
+		Run run = new Run(new File(directory, PREFIX + System.nanoTime() + "-" + runs.size() + EXTENSION), tables.length);
+		run.file.deleteOnExit();
+		long entries = 0;
+		// DataOutputStream.size() no pasa de Integer.MAX_VALUE, por lo que la posición se calcula aparte
+		long offset = 0;
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run.file), 65536))) {
+			for (int dependency = 0; dependency < tables.length; dependency++) {
+				if (tables[dependency] == null || tables[dependency].size() == 0) {
+					continue;
+				}
+				long[] keys = getSortedKeys(tables[dependency]);
+				run.offsets[dependency] = offset;
+				run.counts[dependency] = keys.length;
+				for (long key : keys) {
+					TripleEvents events = tables[dependency].get(key);
+					BookSet books = events.getBookSet();
+					out.writeLong(key);
+					out.writeLong(events.getTotalEvents());
+					out.writeInt(books.size());
+					BookSet.IdIterator ids = books.idIterator();
+					for (int id = ids.next(); id >= 0; id = ids.next()) {
+						out.writeInt(id);
+					}
+					offset += ENTRY_HEADER_SIZE + 4L * books.size();
+				}
+				entries += keys.length;
+			}
+		} catch (IOException e) {
+			run.file.delete();
+			throw new UncheckedIOException(e);
+		}
+		runs.add(run);
+		log.info("Volcadas " + entries + " tripletas a " + run.file.getPath() + " (" + (System.currentTimeMillis() - start) + " ms)");
+	}
+
+	/**
+	 * Devuelve un recorrido ordenado por clave de las tripletas de un tipo de dependencia, mezclando las de los ficheros escritos con las de
+	 * la tabla en memoria. Las tripletas que aparecen en varias fuentes se devuelven una sola vez, con la suma de sus apariciones y la unión de
+	 * sus libros. Cada fichero se abre de forma independiente para cada recorrido y se cierra al terminar de leer sus tripletas o al cerrar el
+	 * recorrido, lo que debe hacerse si se abandona antes de terminar.
+	 * @param dependency identificador del tipo de dependencia
+	 * @param memory tabla en memoria de las tripletas del tipo de dependencia
+	 * @return recorrido de las tripletas del tipo de dependencia
+	 */
+	TripleTable.Cursor cursor(int dependency, TripleTable memory) {
+		MergeCursor cursor = new MergeCursor(new PriorityQueue<Source>((a, b) -> Long.compare(a.key, b.key)));
+		try {
+			for (Run run : runs) {
+				if (dependency < run.counts.length && run.counts[dependency] > 0) {
+					cursor.add(new RunSource(run, dependency));
+				}
+			}
+			cursor.add(new MemorySource(memory));
+		} catch (RuntimeException e) {
+			cursor.close();
+			throw e;
+		}
+		return cursor;
+	}
+
+	/**
+	 * Elimina los ficheros escritos
+	 */
+	void delete() {
+		for (Run run : runs) {
+			if (!run.file.delete()) {
+				log.warn("No se ha podido eliminar " + run.file.getPath());
+			}
+		}
+		runs.clear();
+	}
+
+	/**
+	 * @param table tabla de tripletas
+	 * @return claves de las tripletas de la tabla, ordenadas
+	 */
+	private static long[] getSortedKeys(TripleTable table) {
+		long[] keys = new long[table.size()];
+		int n = 0;
+		TripleTable.Cursor cursor = table.cursor();
+		while (cursor.hasNext()) {
+			cursor.next();
+			if (n == keys.length) {
+				keys = Arrays.copyOf(keys, n * 2 + 1);
+			}
+			keys[n++] = cursor.key();
+		}
+		keys = (n == keys.length) ? keys : Arrays.copyOf(keys, n);
+		Arrays.sort(keys);
+		return keys;
+	}
+
+	/**
+	 * Fichero escrito, con la posición y el número de tripletas de cada tipo de dependencia
+	 */
+	private static final class Run {
+
+		private final File file;
+
+		private final long[] offsets;
+
+		private final int[] counts;
+
+		Run(File file, int dependencies) {
+			this.file = file;
+			this.offsets = new long[dependencies];
+			this.counts = new int[dependencies];
+		}
+	}
+
+	/**
+	 * Fuente ordenada de tripletas que se mezcla con el resto. Guarda los datos de la tripleta actual.
+	 */
+	private abstract static class Source {
+
+		long key;
+
+		long total;
+
+		BookSet books;
+
+		/**
+		 * Avanza a la siguiente tripleta de la fuente
+		 * @return <i>false</i> si no quedan más tripletas
+		 */
+		abstract boolean advance();
+
+		/**
+		 * Libera los recursos de la fuente
+		 */
+		void close() {
+		}
+	}
+
+	/**
+	 * Tripletas de un tipo de dependencia de un fichero
+	 */
+	private static final class RunSource extends Source {
+
+		private final String path;
+
+		private DataInputStream in;
+
+		private int remaining;
+
+		RunSource(Run run, int dependency) {
+			this.path = run.file.getPath();
+			this.remaining = run.counts[dependency];
+			try {
+				FileInputStream file = new FileInputStream(run.file);
+				file.getChannel().position(run.offsets[dependency]);
+				this.in = new DataInputStream(new BufferedInputStream(file, 65536));
+			} catch (IOException e) {
+				throw new UncheckedIOException("Error abriendo " + path, e);
+			}
+		}
+
+		@Override
+		boolean advance() {
+			try {
+				if (remaining == 0) {
+					close();
+					return false;
+				}
+				remaining--;
+				key = in.readLong();
+				total = in.readLong();
+				int[] ids = new int[in.readInt()];
+				for (int i = 0; i < ids.length; i++) {
+					ids[i] = in.readInt();
+				}
+				books = BookSet.ofIds(ids);
+				return true;
+			} catch (IOException e) {
+				close();
+				throw new UncheckedIOException("Error leyendo " + path, e);
+			}
+		}
+
+		@Override
+		void close() {
+			if (in != null) {
+				try {
+					in.close();
+				} catch (IOException e) {
+					log.warn("No se ha podido cerrar " + path + ": " + e.getMessage());
+				}
+				in = null;
+			}
+		}
+	}
+
+	/**
+	 * Tripletas de la tabla en memoria, recorridas por orden de clave
+	 */
+	private static final class MemorySource extends Source {
+
+		private final TripleTable table;
+
+		private final long[] keys;
+
+		private int next;
+
+		MemorySource(TripleTable table) {
+			this.table = table;
+			this.keys = (table == null) ? new long[0] : getSortedKeys(table);
+		}
+
+		@Override
+		boolean advance() {
+			while (next < keys.length) {
+				key = keys[next++];
+				TripleEvents events = table.get(key);
+				if (events != null) {
+					total = events.getTotalEvents();
+					books = events.getBookSet();
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Mezcla ordenada de varias fuentes, sumando las tripletas repetidas
+	 */
+	private static final class MergeCursor implements TripleTable.Cursor {
+
+		private final PriorityQueue<Source> sources;
+
+		private long currentKey;
+
+		MergeCursor(PriorityQueue<Source> sources) {
+			this.sources = sources;
+		}
+
+		/**
+		 * Añade una fuente a la mezcla, situándola en su primera tripleta
+		 */
+		void add(Source source) {
+			try {
+				if (source.advance()) {
+					sources.add(source);
+				}
+			} catch (RuntimeException e) {
+				source.close();
+				throw e;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !sources.isEmpty();
+		}
+
+		@Override
+		public TripleEvents next() {
+			if (sources.isEmpty()) {
+				throw new NoSuchElementException();
+			}
+			Source source = sources.poll();
+			long key = source.key;
+			long total = source.total;
+			BookSet books = source.books;
+			if (source.advance()) {
+				sources.add(source);
+			}
+			while (!sources.isEmpty() && sources.peek().key == key) {
+				source = sources.poll();
+				total += source.total;
+				books = books.union(source.books);
+				if (source.advance()) {
+					sources.add(source);
+				}
+			}
+			currentKey = key;
+			TripleEvents events = new TripleEvents();
+			events.addEvents(books, total);
+			return events;
+		}
+
+		@Override
+		public long key() {
+			return currentKey;
+		}
+
+		/**
+		 * Cierra los ficheros de las fuentes que aún no se han terminado de leer
+		 */
+		@Override
+		public void close() {
+			for (Source source : sources) {
+				source.close();
+			}
+			sources.clear();
+		}
+	}
+}
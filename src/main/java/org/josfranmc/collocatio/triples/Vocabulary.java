@@ -0,0 +1,111 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Vocabulario que asigna a cada palabra (o tipo de dependencia) un identificador entero. Los identificadores son consecutivos empezando por
+ * cero y se asignan según el orden en que se registran las palabras.<p>
+ * Permite guardar las tripletas como números en lugar de como cadenas de texto: cada palabra se guarda una sola vez en el vocabulario,
+ * independientemente del número de tripletas en las que aparezca.<p>
+ * Los objetos de esta clase pueden utilizarse desde varios hilos a la vez. La consulta de palabras ya registradas no utiliza bloqueos; sólo
+ * el registro de una palabra nueva se realiza de forma sincronizada.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see TriplesCollection
+ */
+public class Vocabulary {
+
+	/**
+	 * Identificador de cada palabra
+	 */
+	private final Map<String, Integer> ids = new ConcurrentHashMap<String, Integer>();
+
+	/**
+	 * Palabra correspondiente a cada identificador
+	 */
+	private volatile String[] words = new String[1024];
+
+	/**
+	 * Número de palabras registradas
+	 */
+	private volatile int size;
+
+	/**
+	 * Número máximo de palabras que admite el vocabulario
+	 */
+	private final int maxSize;
+
+
+	/**
+	 * Constructor principal.
+	 * @param maxSize número máximo de palabras que admite el vocabulario
+	 */
+	public Vocabulary(int maxSize) {
+		if (maxSize < 1) {
+			throw new IllegalArgumentException("El tamaño máximo del vocabulario debe ser mayor que cero");
+		}
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Devuelve el identificador de una palabra, registrándola si es la primera vez que aparece.
+	 * @param word palabra a consultar
+	 * @return identificador de la palabra
+	 * @throws IllegalStateException si la palabra es nueva y el vocabulario ha alcanzado su tamaño máximo
+	 */
+	public int getId(String word) {
+		Integer id = ids.get(word);
+		if (id == null) {
+			id = ids.computeIfAbsent(word, this::register);
+		}
+		return id;
+	}
+
+	/**
+	 * Devuelve el identificador de una palabra sin registrarla.
+	 * @param word palabra a consultar
+	 * @return identificador de la palabra, o -1 si no está registrada
+	 */
+	public int findId(String word) {
+		Integer id = (word == null) ? null : ids.get(word);
+		return (id == null) ? -1 : id;
+	}
+
+	/**
+	 * @param id identificador de una palabra registrada
+	 * @return palabra correspondiente al identificador
+	 */
+	public String getWord(int id) {
+		return words[id];
+	}
+
+	/**
+	 * @return número de palabras registradas
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Registra una palabra nueva. Se invoca desde <i>computeIfAbsent</i>, por lo que cada palabra se registra una sola vez; la sincronización
+	 * ordena los registros de palabras distintas.
+	 * @param word palabra a registrar
+	 * @return identificador asignado
+	 */
+	private synchronized Integer register(String word) {
+		int id = size;
+		if (id >= maxSize) {
+			throw new IllegalStateException("Se ha superado el tamaño máximo del vocabulario: " + maxSize);
+		}
+		String[] current = words;
+		if (id == current.length) {
+			current = Arrays.copyOf(current, Math.min(maxSize, current.length * 2));
+		}
+		current[id] = word;
+		words = current;
+		size = id + 1;
+		return id;
+	}
+}
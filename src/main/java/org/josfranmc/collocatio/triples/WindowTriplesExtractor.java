@@ -0,0 +1,321 @@
+package org.josfranmc.collocatio.triples;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+import org.josfranmc.collocatio.corpus.CorpusBuilder;
+import org.josfranmc.collocatio.util.ThreadFactoryBuilder;
+
+import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.process.DocumentPreprocessor;
+
+/**
+ * Obtiene las tripletas de un conjunto de textos a partir de la coaparición de palabras, sin realizar ningún análisis sintáctico.<p>
+ * Los textos sólo se dividen en oraciones y palabras ("tokenización"). Dentro de cada oración, cada palabra forma una tripleta con cada una
+ * de las palabras que la siguen a una distancia no mayor que el tamaño de la ventana. Todas las tripletas obtenidas tienen como dependencia
+ * el valor <i>WINDOW_DEPENDENCY</i>, de forma que el cálculo de información mutua y su almacenamiento en base de datos son los mismos que
+ * para las tripletas obtenidas mediante el analizador de Stanford.<p>
+ * Sólo se tienen en cuenta las palabras que contienen alguna letra o dígito, por lo que se descartan los signos de puntuación. Todas las
+ * palabras se pasan a minúsculas.<p>
+ * Al no analizar las oraciones, la extracción es mucho más rápida que la realizada por StanfordTriplesExtractor y permite evaluar un corpus
+ * antes de realizar el análisis completo.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see TriplesCollection
+ * @see StanfordTriplesExtractor
+ */
+public class WindowTriplesExtractor {
+
+	private static final Logger log = Logger.getLogger(WindowTriplesExtractor.class);
+
+	/**
+	 * Tamaño por defecto de la ventana de coaparición, en palabras
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 5;
+
+	/**
+	 * Tipo de dependencia asignado a las tripletas obtenidas por coaparición
+	 */
+	public static final String WINDOW_DEPENDENCY = "window";
+
+	/**
+	 * Número máximo de tripletas distintas que se acumulan localmente antes de guardarlas en la colección compartida
+	 */
+	private static final int MAX_LOCAL_TRIPLES = 100000;
+
+	/**
+	 * Ruta de los ficheros a procesar
+	 */
+	private String textsPathToProcess;
+
+	/**
+	 * Número de palabras siguientes con las que se relaciona cada palabra
+	 */
+	private int windowSize;
+
+	/**
+	 * Número de hilos que procesan los textos. Cada hilo procesa un libro distinto
+	 */
+	private int totalThreads;
+
+	/**
+	 * Proporción de oraciones a procesar. Si es menor que 1 sólo se procesa una muestra de las oraciones
+	 */
+	private double sampleRate;
+
+	/**
+	 * Tipo de muestreo de oraciones
+	 */
+	private SamplingType samplingType;
+
+	/**
+	 * Número de oraciones procesadas
+	 */
+	private final LongAdder totalSentences = new LongAdder();
+
+	/**
+	 * Guarda las tripletas obtenidas
+	 * @see TriplesCollection
+	 */
+	private TriplesCollection triplesCollection;
+
+
+	/**
+	 * Constructor principal. Establece el tamaño de ventana por defecto, un hilo por procesador, que se procesen todas las oraciones e
+	 * inicializa la colección de tripletas.
+	 */
+	public WindowTriplesExtractor() {
+		setWindowSize(DEFAULT_WINDOW_SIZE);
+		setTotalThreads(Runtime.getRuntime().availableProcessors());
+		setSampleRate(1.0);
+		setSamplingType(SamplingType.UNIFORM);
+		setTriplesCollection(new TriplesCollection());
+	}
+
+	/**
+	 * Ejecuta el proceso de extracción de tripletas de los ficheros existentes en la localización especificada. Se prepara el corpus y cada
+	 * libro se procesa en un hilo. Las tripletas de cada libro se acumulan localmente y se guardan en la colección compartida por bloques.
+	 * @return colección de tripletas obtenidas
+	 * @see TriplesCollection
+	 */
+	public TriplesCollection extractTriples() {
+		if (getTextsPathToProcess() == null || !new File(getTextsPathToProcess()).exists()) {
+			throw new IllegalArgumentException("La ruta de los archivos a procesar no existe.");
+		}
+		if (getWindowSize() < 1) {
+			throw new IllegalArgumentException("El tamaño de la ventana debe ser mayor que cero");
+		}
+		log.info("Inicio extracción tripletas por coaparición (ventana " + getWindowSize() + ", hilos " + getTotalThreads() + ")");
+		long startTime = System.currentTimeMillis();
+		new CorpusBuilder(getTextsPathToProcess()).build();
+
+		ExecutorService executorService = Executors.newFixedThreadPool(getTotalThreads(), new ThreadFactoryBuilder()
+				.setNameThread("WindowThread")
+				.setDaemon(false)
+				.build());
+		int totalBooks = 0;
+		for (File file : new File(getTextsPathToProcess()).listFiles()) {
+			if (file.isFile()) {
+				totalBooks++;
+				executorService.execute(() -> {
+					try {
+						readBook(file.getPath());
+					} catch (Exception e) {
+						log.error("Error leyendo " + file.getPath(), e);
+					}
+				});
+			}
+		}
+		executorService.shutdown();
+		try {
+			executorService.awaitTermination(Integer.MAX_VALUE, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			executorService.shutdownNow();
+			log.error("Error esperando finalización de hilos. Interrumpiendo " + Thread.currentThread().toString());
+			Thread.currentThread().interrupt();
+		}
+		long elapsedTime = System.currentTimeMillis() - startTime;
+		long sentences = this.totalSentences.sum();
+		log.info("Extracción por coaparición completada en " + elapsedTime + " ms: " + totalBooks + " archivos, " + sentences + " oraciones"
+				+ ((getSampleRate() < 1) ? " en la muestra" : "") + " ("
+				+ String.format("%.1f", sentences * 1000.0 / Math.max(1, elapsedTime)) + " oraciones/s), " + triplesCollection.getTotalTriples() + " tripletas");
+		return this.triplesCollection;
+	}
+
+	/**
+	 * Lee un libro oración a oración y guarda las tripletas de coaparición de sus palabras.
+	 * @param bookFile ruta del fichero a procesar
+	 */
+	private void readBook(String bookFile) {
+		String book = getBookId(bookFile);
+		Map<Triple, Long> triples = new HashMap<Triple, Long>();
+		List<String> words = new ArrayList<String>();
+		SentenceSampler sampler = (getSampleRate() < 1) ? new SentenceSampler(getSampleRate(), getSamplingType(), book, SentenceSampler.DEFAULT_SEED) : null;
+		for (List<HasWord> sentence : new DocumentPreprocessor(bookFile)) {
+			if (sampler != null && !sampler.accept()) {
+				continue;
+			}
+			totalSentences.increment();
+			words.clear();
+			for (HasWord token : sentence) {
+				if (isWord(token.word())) {
+					words.add(token.word().toLowerCase());
+				}
+			}
+			countWindow(words, getWindowSize(), triples);
+			if (triples.size() >= MAX_LOCAL_TRIPLES) {
+				triplesCollection.save(triples, book);
+				triples.clear();
+			}
+		}
+		if (!triples.isEmpty()) {
+			triplesCollection.save(triples, book);
+		}
+	}
+
+	/**
+	 * Cuenta las tripletas de coaparición de una oración. Cada palabra forma una tripleta con cada una de las <i>windowSize</i> palabras
+	 * siguientes, siendo la primera palabra de la tripleta la que aparece antes en la oración.
+	 * @param words palabras de la oración
+	 * @param windowSize tamaño de la ventana
+	 * @param triples mapa donde se acumula el número de apariciones de cada tripleta
+	 */
+	static void countWindow(List<String> words, int windowSize, Map<Triple, Long> triples) {
+		int size = words.size();
+		for (int i = 0; i < size; i++) {
+			int last = Math.min(size - 1, i + windowSize);
+			for (int j = i + 1; j <= last; j++) {
+				Triple triple = new Triple();
+				triple.setDependency(WINDOW_DEPENDENCY);
+				triple.setWord1(words.get(i));
+				triple.setWord2(words.get(j));
+				triples.merge(triple, 1L, Long::sum);
+			}
+		}
+	}
+
+	/**
+	 * @param token elemento de una oración
+	 * @return <i>true</i> si el elemento contiene alguna letra o dígito
+	 */
+	private boolean isWord(String token) {
+		if (token != null) {
+			for (int i = 0; i < token.length(); i++) {
+				if (Character.isLetterOrDigit(token.charAt(i))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Obtiene el nombre de un fichero dada una ruta, el cual es el identificador del libro que contiene dicho fichero.
+	 * @param bookFile ruta y nombre del fichero del que extraer su identificador
+	 * @return identificador del libro que contiene el fichero
+	 */
+	private String getBookId(String bookFile) {
+		String name = new File(bookFile).getName();
+		int dot = name.lastIndexOf('.');
+		return (dot > 0) ? name.substring(0, dot) : name;
+	}
+
+	/**
+	 * @return ruta de los ficheros a procesar
+	 */
+	public String getTextsPathToProcess() {
+		return textsPathToProcess;
+	}
+
+	/**
+	 * Establece la ruta de los ficheros a procesar
+	 * @param textsPathToProcess ruta de los ficheros
+	 */
+	public void setTextsPathToProcess(String textsPathToProcess) {
+		this.textsPathToProcess = textsPathToProcess;
+	}
+
+	/**
+	 * @return número de palabras siguientes con las que se relaciona cada palabra
+	 */
+	public int getWindowSize() {
+		return windowSize;
+	}
+
+	/**
+	 * Establece el tamaño de la ventana de coaparición: número de palabras siguientes con las que se relaciona cada palabra.
+	 * @param windowSize tamaño de la ventana
+	 */
+	public void setWindowSize(int windowSize) {
+		this.windowSize = windowSize;
+	}
+
+	/**
+	 * @return número de hilos que procesan los textos
+	 */
+	public int getTotalThreads() {
+		return totalThreads;
+	}
+
+	/**
+	 * Establece el número de hilos que procesan los textos
+	 * @param totalThreads número de hilos
+	 */
+	public void setTotalThreads(int totalThreads) {
+		this.totalThreads = totalThreads;
+	}
+
+	/**
+	 * @return proporción de oraciones a procesar
+	 */
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * Establece la proporción de oraciones a procesar. Con un valor menor que 1 sólo se procesa una muestra de las oraciones de cada libro,
+	 * seleccionada según el tipo de muestreo.
+	 * @param sampleRate proporción de oraciones a procesar, mayor que 0 y no mayor que 1
+	 */
+	public void setSampleRate(double sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * @return tipo de muestreo de oraciones
+	 */
+	public SamplingType getSamplingType() {
+		return samplingType;
+	}
+
+	/**
+	 * Establece el tipo de muestreo de oraciones, que se utiliza cuando la proporción de oraciones a procesar es menor que 1
+	 * @param samplingType tipo de muestreo
+	 */
+	public void setSamplingType(SamplingType samplingType) {
+		this.samplingType = samplingType;
+	}
+
+	/**
+	 * @return colección de tripletas obtenidas
+	 */
+	public TriplesCollection getTriplesCollection() {
+		return triplesCollection;
+	}
+
+	/**
+	 * Establece el objeto que almacena las tripletas obtenidas
+	 * @param triplesCollection colección de tripletas
+	 */
+	public void setTriplesCollection(TriplesCollection triplesCollection) {
+		this.triplesCollection = triplesCollection;
+	}
+}
@@ -0,0 +1,220 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contadores de apariciones de palabras, identificadas por su identificador entero en el vocabulario.<p>
+ * Cada partición de la colección de tripletas sólo ve una parte del vocabulario, por lo que los contadores no se indexan por el identificador
+ * global de la palabra: la primera vez que se cuenta una palabra se le asigna un identificador local consecutivo, y el contador se guarda en
+ * la posición de ese identificador. Así la memoria ocupada es proporcional al número de palabras contadas y no al tamaño del vocabulario.
+ * La correspondencia entre identificadores globales y locales se guarda en una tabla hash de direccionamiento abierto sobre enteros, sin
+ * objetos por palabra.<p>
+ * Los contadores se dividen en páginas de PAGE_SIZE palabras. Sumar apariciones a una palabra ya contada es una operación atómica sobre el
+ * contador (AtomicLongArray) y no utiliza ningún bloqueo; sólo la asignación del identificador local de una palabra nueva, que ocurre una vez
+ * por palabra, se hace con bloqueo.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see TriplesCollection
+ */
+class WordCounts {
+
+	/**
+	 * Bits del identificador local que indican la posición dentro de la página
+	 */
+	private static final int PAGE_BITS = 8;
+
+	/**
+	 * Número de contadores de cada página
+	 */
+	private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+	/**
+	 * Número inicial de páginas del directorio
+	 */
+	private static final int INITIAL_PAGES = 4;
+
+	/**
+	 * Capacidad inicial de la tabla de identificadores locales
+	 */
+	private static final int INITIAL_CAPACITY = 64;
+
+	/**
+	 * Correspondencia entre identificadores globales y locales
+	 */
+	private volatile Index index = new Index(INITIAL_CAPACITY);
+
+	/**
+	 * Páginas de contadores, indexadas por los bits altos del identificador local
+	 */
+	private volatile AtomicLongArray[] counts = new AtomicLongArray[INITIAL_PAGES];
+
+	/**
+	 * Páginas con el identificador global de cada identificador local
+	 */
+	private volatile int[][] words = new int[INITIAL_PAGES][];
+
+	/**
+	 * Número de palabras contadas, que es también el siguiente identificador local. Sólo se modifica con bloqueo
+	 */
+	private volatile int size;
+
+
+	/**
+	 * Suma apariciones al contador de una palabra.
+	 * @param word identificador de la palabra
+	 * @param total número de apariciones a sumar
+	 */
+	void add(int word, long total) {
+		if (total == 0) {
+			return;
+		}
+		int local = index.get(word);
+		if (local < 0) {
+			local = createWord(word);
+		}
+		counts[local >>> PAGE_BITS].addAndGet(local & (PAGE_SIZE - 1), total);
+	}
+
+	/**
+	 * @param word identificador de la palabra
+	 * @return número de apariciones de la palabra, o cero si no ha aparecido
+	 */
+	long get(int word) {
+		int local = index.get(word);
+		return (local < 0) ? 0 : counts[local >>> PAGE_BITS].get(local & (PAGE_SIZE - 1));
+	}
+
+	/**
+	 * @return número de palabras con apariciones
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * @return identificadores de las palabras con apariciones en el momento de la llamada, en orden creciente
+	 */
+	int[] words() {
+		int total = size;
+		AtomicLongArray[] counts = this.counts;
+		int[][] words = this.words;
+		int[] result = new int[total];
+		int n = 0;
+		for (int local = 0; local < total; local++) {
+			// una palabra recién registrada puede no tener todavía sumadas sus apariciones
+			if (counts[local >>> PAGE_BITS].get(local & (PAGE_SIZE - 1)) != 0) {
+				result[n++] = words[local >>> PAGE_BITS][local & (PAGE_SIZE - 1)];
+			}
+		}
+		result = Arrays.copyOf(result, n);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Asigna el siguiente identificador local a una palabra, creando la página de contadores y aumentando el tamaño del directorio y de la
+	 * tabla de identificadores si es necesario. Si otro hilo ha registrado la palabra antes se devuelve el identificador existente.<p>
+	 * Las páginas se crean antes de publicar el identificador en la tabla, por lo que cualquier hilo que lo encuentre puede sumar sobre su
+	 * contador sin bloqueo.
+	 * @param word identificador global de la palabra
+	 * @return identificador local de la palabra
+	 */
+	private synchronized int createWord(int word) {
+		Index index = this.index;
+		int local = index.get(word);
+		if (local >= 0) {
+			return local;
+		}
+		local = size;
+		int page = local >>> PAGE_BITS;
+		if (page == counts.length) {
+			int pages = counts.length * 2;
+			words = Arrays.copyOf(words, pages);
+			counts = Arrays.copyOf(counts, pages);
+		}
+		if (counts[page] == null) {
+			words[page] = new int[PAGE_SIZE];
+			counts[page] = new AtomicLongArray(PAGE_SIZE);
+		}
+		words[page][local & (PAGE_SIZE - 1)] = word;
+		if ((local + 1) * 2 > index.capacity()) {
+			index = new Index(index.capacity() * 2);
+			for (int i = 0; i < local; i++) {
+				index.put(words[i >>> PAGE_BITS][i & (PAGE_SIZE - 1)], i);
+			}
+			index.put(word, local);
+			this.index = index;
+		} else {
+			index.put(word, local);
+		}
+		size = local + 1;
+		return local;
+	}
+
+	/**
+	 * Tabla hash de direccionamiento abierto que asigna a cada identificador global de palabra su identificador local. Las entradas sólo se
+	 * añaden, con el bloqueo de WordCounts, y se pueden consultar sin bloqueo: el identificador local se escribe antes que la clave, y la
+	 * clave se escribe de forma atómica. Al crecer se construye una tabla nueva que sustituye a la anterior.
+	 */
+	private static final class Index {
+
+		/**
+		 * Identificador global más uno de la palabra de cada posición; cero si la posición está libre
+		 */
+		private final AtomicIntegerArray keys;
+
+		/**
+		 * Identificador local de la palabra de cada posición
+		 */
+		private final int[] values;
+
+		private final int mask;
+
+		Index(int capacity) {
+			keys = new AtomicIntegerArray(capacity);
+			values = new int[capacity];
+			mask = capacity - 1;
+		}
+
+		int capacity() {
+			return values.length;
+		}
+
+		/**
+		 * @param word identificador global de la palabra
+		 * @return identificador local, o -1 si la palabra no está en la tabla
+		 */
+		int get(int word) {
+			for (int slot = hash(word) & mask; ; slot = (slot + 1) & mask) {
+				int key = keys.get(slot);
+				if (key == word + 1) {
+					return values[slot];
+				}
+				if (key == 0) {
+					return -1;
+				}
+			}
+		}
+
+		/**
+		 * Añade una palabra que no está en la tabla. Debe quedar siempre al menos una posición libre
+		 * @param word identificador global de la palabra
+		 * @param local identificador local
+		 */
+		void put(int word, int local) {
+			int slot = hash(word) & mask;
+			while (keys.get(slot) != 0) {
+				slot = (slot + 1) & mask;
+			}
+			values[slot] = local;
+			keys.set(slot, word + 1);
+		}
+
+		private static int hash(int word) {
+			int h = word * 0x9E3779B9;
+			return h ^ (h >>> 16);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package org.josfranmc.collocatio.util;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ThreadPoolExecutor con un número fijo de hilos que limita el número de tareas pendientes de ejecutar.<p>
+ * Cuando se alcanza el límite de tareas pendientes el hilo que envía una nueva tarea queda bloqueado hasta que alguno de los hilos del
+ * pool termina una de las tareas en curso. De esta forma el productor de tareas no puede adelantarse a los consumidores más allá de la
+ * capacidad indicada, y la memoria utilizada por las tareas pendientes es proporcional a dicha capacidad y no al total de tareas enviadas.<p>
+ * El límite se controla mediante un semáforo, por lo que es independiente del tipo de cola utilizada para guardar las tareas pendientes.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class BoundedThreadPoolExecutor extends ThreadPoolExecutor {
+
+	/**
+	 * Semáforo que controla el número de tareas enviadas que todavía no han terminado
+	 */
+	private final Semaphore slots;
+
+
+	/**
+	 * Constructor principal.
+	 * @param totalThreads número de hilos del pool
+	 * @param capacity número máximo de tareas pendientes de ejecutar (sin contar las que se están ejecutando)
+	 * @param workQueue cola en la que se guardan las tareas pendientes
+	 * @param threadFactory factoría para la creación de los hilos
+	 */
+	public BoundedThreadPoolExecutor(int totalThreads, int capacity, BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory) {
+		super(totalThreads, totalThreads, 0L, TimeUnit.MILLISECONDS, workQueue, threadFactory);
+		if (capacity < 1) {
+			throw new IllegalArgumentException("La capacidad de la cola de tareas debe ser mayor que cero");
+		}
+		this.slots = new Semaphore(totalThreads + capacity);
+	}
+
+	/**
+	 * Envía una tarea para su ejecución. Si se ha alcanzado el máximo de tareas pendientes el hilo invocante queda bloqueado hasta
+	 * que haya hueco en la cola.
+	 * @param command tarea a ejecutar
+	 * @throws RejectedExecutionException si el hilo es interrumpido mientras espera o si el pool ya ha sido parado
+	 */
+	@Override
+	public void execute(Runnable command) {
+		try {
+			slots.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RejectedExecutionException("Interrumpido esperando hueco en la cola de tareas", e);
+		}
+		try {
+			super.execute(command);
+		} catch (RejectedExecutionException e) {
+			slots.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Libera el hueco ocupado por una tarea una vez ha terminado su ejecución.
+	 */
+	@Override
+	protected void afterExecute(Runnable r, Throwable t) {
+		super.afterExecute(r, t);
+		slots.release();
+	}
+}
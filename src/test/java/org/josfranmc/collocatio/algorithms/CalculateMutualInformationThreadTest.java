@@ -1,6 +1,7 @@
 package org.josfranmc.collocatio.algorithms;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -71,6 +72,19 @@ public class CalculateMutualInformationThreadTest {
 		assertEquals("Valor de información mutua incorrecto",1.2, col.getInfomutua(), 0);
 	}  
 
+	/**
+	 * Comprueba que el error estimado es cero si se analiza todo el corpus y que disminuye al aumentar la muestra o la frecuencia de la tripleta
+	 */
+	@Test
+	public void testGetMutualInformationError() {
+		assertEquals("Error sin muestreo incorrecto", 0, CalculateMutualInformationThread.getMutualInformationError(5, 10, 10, 100, 1.0), 0);
+		assertEquals("Error estimado incorrecto", 1.0, CalculateMutualInformationThread.getMutualInformationError(4, 1000, 1000, 100000, 0.5), 0.01);
+		assertTrue("El error debería disminuir al aumentar la muestra", CalculateMutualInformationThread.getMutualInformationError(4, 1000, 1000, 100000, 0.8) 
+				< CalculateMutualInformationThread.getMutualInformationError(4, 1000, 1000, 100000, 0.5));
+		assertTrue("El error debería disminuir al aumentar la frecuencia", CalculateMutualInformationThread.getMutualInformationError(400, 1000, 1000, 100000, 0.5) 
+				< CalculateMutualInformationThread.getMutualInformationError(4, 1000, 1000, 100000, 0.5));
+	}
+
 	/**
 	 * @return el objeto TriplesData para inicializar el objeto CalculateMutualInformationThread que ejecutará el hilo 1
 	 */
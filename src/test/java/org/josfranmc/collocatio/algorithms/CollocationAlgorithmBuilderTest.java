@@ -2,7 +2,14 @@ package org.josfranmc.collocatio.algorithms;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.josfranmc.collocatio.triples.ParserType;
 import org.junit.Test;
 
 /**
@@ -49,6 +56,132 @@ public class CollocationAlgorithmBuilderTest {
 		new CollocationAlgorithmBuilder().setAlgorithmConfig(params).build();
 	}	
 	
+	/**
+	 * Si el parámetro TotalReaders es menor que uno, entonces se debe obtener una excepción del tipo IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenTotalReadersWhenLessThanOneThenThrowIllegalArgumentException() {
+		ParamsAlgorithm params = new ParamsAlgorithm();
+		params.setTotalReaders(0);
+		new CollocationAlgorithmBuilder().setAlgorithmConfig(params).build();
+	}
+	
+	/**
+	 * Si se pide continuar una extracción sin indicar la carpeta de puntos de control, entonces se debe obtener una excepción del tipo IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenResumeWhenNoCheckpointDirectoryThenThrowIllegalArgumentException() {
+		ParamsAlgorithm params = new ParamsAlgorithm();
+		params.setResume(true);
+		params.setCheckpointDirectory(null);
+		new CollocationAlgorithmBuilder().setAlgorithmConfig(params).build();
+	}
+	
+	/**
+	 * Si no se indica el tipo de analizador de dependencias, entonces se debe obtener una excepción del tipo IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenParserTypeWhenNullThenThrowIllegalArgumentException() {
+		ParamsAlgorithm params = new ParamsAlgorithm();
+		params.setParserType(null);
+		new CollocationAlgorithmBuilder().setAlgorithmConfig(params).build();
+	}
+	
+	/**
+	 * Si el tamaño de la ventana de coaparición es menor que uno, entonces se debe obtener una excepción del tipo IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenWindowSizeWhenLessThanOneThenThrowIllegalArgumentException() {
+		ParamsAlgorithm params = new ParamsAlgorithm();
+		params.setAlgorithmType(AlgorithmType.WINDOW_COOCCURRENCE);
+		params.setWindowSize(0);
+		new CollocationAlgorithmBuilder().setAlgorithmConfig(params).build();
+	}
+	
+	/**
+	 * Si la proporción de oraciones a analizar no es mayor que 0 y no mayor que 1, entonces se debe obtener una excepción del tipo IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenSampleRateWhenOutOfRangeThenThrowIllegalArgumentException() {
+		ParamsAlgorithm params = new ParamsAlgorithm();
+		params.setSampleRate(1.5);
+		new CollocationAlgorithmBuilder().setAlgorithmConfig(params).build();
+	}
+	
+	/**
+	 * Si se pide muestreo de oraciones junto con procesamiento incremental, entonces se debe obtener una excepción del tipo IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenSampleRateWhenIncrementalThenThrowIllegalArgumentException() {
+		ParamsAlgorithm params = new ParamsAlgorithm();
+		params.setSampleRate(0.1);
+		params.setIncrementalDirectory("incremental");
+		new CollocationAlgorithmBuilder().setAlgorithmConfig(params).build();
+	}
+	
+	/**
+	 * Si se indican palabras objetivo junto con procesamiento incremental, entonces se debe obtener una excepción del tipo IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenTargetWordsWhenIncrementalThenThrowIllegalArgumentException() {
+		ParamsAlgorithm params = new ParamsAlgorithm();
+		params.setTargetWords(Arrays.asList("house"));
+		params.setIncrementalDirectory("incremental");
+		new CollocationAlgorithmBuilder().setAlgorithmConfig(params).build();
+	}
+	
+	/**
+	 * Si el parámetro TextsPathToProcess para el algoritmo WindowCooccurrence es null, entonces se debe obtener una excepción del tipo IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenWindowCooccurrenceWhenTextsPathToProcessIsNullThenThrowIllegalArgumentException() {
+		ParamsAlgorithm params = new ParamsAlgorithm();
+		params.setAlgorithmType(AlgorithmType.WINDOW_COOCCURRENCE);
+		params.setTextsPathToProcess(null);
+		new CollocationAlgorithmBuilder().setAlgorithmConfig(params).build();
+	}
+	
+	/**
+	 * El algoritmo WINDOW_COOCCURRENCE no admite filtro de dependencias ni las opciones propias del análisis de dependencias o de la
+	 * extracción de tripletas. Cada una de ellas debe producir una excepción del tipo IllegalArgumentException en lugar de ignorarse
+	 */
+	@Test
+	public void givenWindowCooccurrenceWhenParserOptionsThenThrowIllegalArgumentException() {
+		List<Consumer<ParamsAlgorithm>> options = Arrays.asList(
+				p -> p.setTriplesFilter(Arrays.asList("nsubj")),
+				p -> p.setCheckpointDirectory("checkpoint"),
+				p -> { p.setCheckpointDirectory("checkpoint"); p.setResume(true); },
+				p -> p.setIncrementalDirectory("incremental"),
+				p -> p.setOffHeap(true),
+				p -> p.setSpillDirectory("spill"),
+				p -> p.setLocalTables(true),
+				p -> p.setParseTimeout(1000),
+				p -> p.setCacheSize(0),
+				p -> p.setParserType(ParserType.NEURAL),
+				p -> p.setModel("model.ser.gz"),
+				p -> p.setModelCacheDirectory("cache"),
+				p -> p.setStanfordOption("-maxLength", "80"));
+		for (int i = 0; i < options.size(); i++) {
+			ParamsAlgorithm params = getWindowParams();
+			options.get(i).accept(params);
+			try {
+				new CollocationAlgorithmBuilder().setAlgorithmConfig(params).build();
+				fail("Debería haberse rechazado la opción " + i);
+			} catch (IllegalArgumentException e) {
+				// esperado
+			}
+		}
+	}
+	
+	/**
+	 * Sin opciones propias del análisis de dependencias se debe obtener un algoritmo WINDOW_COOCCURRENCE
+	 */
+	@Test
+	public void givenWindowCooccurrenceWithoutParserOptionsThenWindowAlgorithm() {
+		ICollocationAlgorithm algorithm = new CollocationAlgorithmBuilder().setAlgorithmConfig(getWindowParams()).build();
+		assertTrue("Tipo de algoritmo erróneo", algorithm instanceof WindowAlgorithm);
+	}
+	
 	/**
 	 * Si el parámetro TextsPathToProcess para el algoritmo MutualInformation es null, entonces se debe obtener una excepción del tipo IllegalArgumentException
 	 */
@@ -118,4 +251,11 @@ public class CollocationAlgorithmBuilderTest {
 		MutualInformationAlgorithm mia = (MutualInformationAlgorithm) new CollocationAlgorithmBuilder().setAlgorithmConfig(params).build();
 		assertNull("Nombre para nueva db vacío, el nombre debería ser null", mia.getDataBaseName());
 	}
+	
+	private ParamsAlgorithm getWindowParams() {
+		ParamsAlgorithm params = new ParamsAlgorithm();
+		params.setAlgorithmType(AlgorithmType.WINDOW_COOCCURRENCE);
+		params.setTextsPathToProcess("textos");
+		return params;
+	}
 }
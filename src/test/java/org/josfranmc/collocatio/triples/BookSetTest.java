@@ -0,0 +1,68 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase BookSet
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class BookSetTest {
+
+	/**
+	 * Comprueba que al añadir libros el conjunto contiene los mismos libros que un HashSet, tanto guardado como array como mapa de bits
+	 */
+	@Test
+	public void testWith() {
+		BookSet books = BookSet.EMPTY;
+		Set<String> expected = new HashSet<String>();
+		for (int i = 0; i < 200; i++) {
+			String book = "booksettest" + (i * 7 % 200);
+			books = books.with(BookSet.getBookId(book));
+			expected.add(book);
+		}
+		assertEquals("Conjunto de libros erróneo", expected, books);
+		assertTrue("Debería guardarse como mapa de bits", books.isBitmap());
+		assertSame("No debería crearse un conjunto nuevo", books, books.with(BookSet.getBookId("booksettest0")));
+		assertFalse("No debería contener el libro", books.contains("booksettest200"));
+
+		List<String> iterated = new ArrayList<String>(books);
+		assertEquals("Número de libros recorridos erróneo", 200, iterated.size());
+		for (int i = 1; i < iterated.size(); i++) {
+			assertTrue("Libros no ordenados", BookSet.getBookId(iterated.get(i - 1)) < BookSet.getBookId(iterated.get(i)));
+		}
+	}
+
+	/**
+	 * Comprueba la unión de conjuntos con distinta representación
+	 */
+	@Test
+	public void testUnion() {
+		BookSet sparse = BookSet.of(BookSet.getBookId("uniontest-a")).with(BookSet.getBookId("uniontest-b"));
+		assertFalse("Debería guardarse como array", sparse.isBitmap());
+		Set<String> names = new HashSet<String>();
+		for (int i = 0; i < 100; i++) {
+			names.add("uniontest" + i);
+		}
+		BookSet dense = BookSet.of(names);
+		assertTrue("Debería guardarse como mapa de bits", dense.isBitmap());
+
+		BookSet union = sparse.union(dense);
+		names.add("uniontest-a");
+		names.add("uniontest-b");
+		assertEquals("Unión errónea", names, union);
+		assertEquals("La unión no debería depender del orden", union, dense.union(sparse));
+		assertSame("La unión con un subconjunto debería devolver el mismo conjunto", union, union.union(dense));
+		assertSame("La unión con el conjunto vacío debería devolver el mismo conjunto", sparse, sparse.union(BookSet.EMPTY));
+	}
+}
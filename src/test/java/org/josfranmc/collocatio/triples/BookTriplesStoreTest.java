@@ -0,0 +1,97 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase BookTriplesStore
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class BookTriplesStoreTest {
+
+	private static final String SETTINGS = "PCFG model=englishPCFG.ser.gz options={-maxLength=50}";
+
+	private File directory;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("store").toFile();
+	}
+
+	@After
+	public void done() {
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	/**
+	 * Comprueba que las tripletas de un libro guardadas en el almacén se recuperan correctamente
+	 */
+	@Test
+	public void testSaveAndLoad() throws IOException {
+		BookTriplesStore store = new BookTriplesStore(directory.getPath(), SETTINGS);
+		File bookFile = createBookFile("111");
+		assertFalse("El libro no debería estar en el almacén", store.contains("111"));
+
+		TriplesCollection book = new TriplesCollection();
+		book.save(getTriple("nsubj", "blue", "car"), "111", 2);
+		book.save(getTriple("det", "car", "the"), "111", 3);
+		store.save("111", bookFile, book);
+		assertTrue("El libro debería estar en el almacén", store.contains("111"));
+
+		TriplesCollection loaded = store.load("111", bookFile);
+		assertEquals("Número de tripletas erróneo", 5, loaded.getTotalTriples());
+		TripleEvents te = loaded.getTriplesCollection().get(getTriple("det", "car", "the"));
+		assertEquals("Número de apariciones erróneo", 3, te.getTotalEvents());
+		assertTrue("Identificador de libro erróneo", te.getBooks().contains("111"));
+		assertEquals("Número de libros erróneo", 1, te.getBooks().size());
+		assertTrue("Dependencia no cargada", loaded.getDependenciesCollection().contains("nsubj"));
+	}
+
+	/**
+	 * Un libro guardado con otra configuración del análisis o cuyo fichero ha cambiado no debe cargarse
+	 */
+	@Test
+	public void testLoadWhenSettingsOrBookChange() throws IOException {
+		File bookFile = createBookFile("222");
+		TriplesCollection book = new TriplesCollection();
+		book.save(getTriple("nsubj", "blue", "car"), "222", 2);
+		new BookTriplesStore(directory.getPath(), SETTINGS).save("222", bookFile, book);
+
+		assertNotNull("El libro debería cargarse", new BookTriplesStore(directory.getPath(), SETTINGS).load("222", bookFile));
+		assertNull("No debería cargarse un libro guardado con otro analizador", new BookTriplesStore(directory.getPath(), "NEURAL").load("222", bookFile));
+		assertNull("No debería cargarse un libro que no está en el almacén", new BookTriplesStore(directory.getPath(), SETTINGS).load("333", bookFile));
+
+		Files.write(bookFile.toPath(), "The blue car is new.".getBytes(StandardCharsets.UTF_8));
+		assertNull("No debería cargarse un libro modificado", new BookTriplesStore(directory.getPath(), SETTINGS).load("222", bookFile));
+	}
+
+	private File createBookFile(String book) throws IOException {
+		File bookFile = new File(directory, book + ".txt");
+		Files.write(bookFile.toPath(), "The blue car.".getBytes(StandardCharsets.UTF_8));
+		return bookFile;
+	}
+
+	private Triple getTriple(String dependency, String word1, String word2) {
+		Triple triple = new Triple();
+		triple.setDependency(dependency);
+		triple.setWord1(word1);
+		triple.setWord2(word2);
+		return triple;
+	}
+}
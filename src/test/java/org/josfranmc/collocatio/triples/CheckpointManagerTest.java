@@ -0,0 +1,183 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase CheckpointManager
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class CheckpointManagerTest {
+
+	private static final String SETTINGS = "PCFG model=englishPCFG.ser.gz options={}";
+
+	private File directory;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("checkpoint").toFile();
+	}
+
+	@After
+	public void done() {
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	/**
+	 * Si no se indica carpeta se debe obtener IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenDirectoryWhenNullThenIllegalArgumentException() {
+		new CheckpointManager(null, SETTINGS, new TriplesCollection());
+	}
+
+	/**
+	 * Si no existe punto de control no se carga nada
+	 */
+	@Test
+	public void testLoadWithoutCheckpoint() throws IOException {
+		TriplesCollection tc = new TriplesCollection();
+		assertFalse("No debería existir punto de control", new CheckpointManager(directory.getPath(), SETTINGS, tc).load());
+		assertEquals("La colección debería estar vacía", 0, tc.getTotalTriples());
+	}
+
+	/**
+	 * Comprueba que las tripletas de un libro sólo se añaden a la colección principal al terminar el libro, y que el punto de control
+	 * guardado se recupera completo
+	 */
+	@Test
+	public void testCheckpointAndLoad() throws IOException {
+		TriplesCollection tc = new TriplesCollection();
+		CheckpointManager manager = new CheckpointManager(directory.getPath(), SETTINGS, tc);
+
+		TriplesCollection book1 = new TriplesCollection();
+		book1.save(getTriple("nsubj", "blue", "car"), "111", 2);
+		book1.save(getTriple("det", "car", "the"), "111", 3);
+		TriplesCollection book2 = new TriplesCollection();
+		book2.save(getTriple("det", "car", "the"), "222", 1);
+
+		assertEquals("Las tripletas no deberían estar en la colección principal", 0, tc.getTotalTriples());
+		manager.completeBook("111", book1);
+		manager.completeBook("222", book2);
+		assertEquals("Número de tripletas erróneo", 6, tc.getTotalTriples());
+		manager.checkpoint();
+
+		TriplesCollection loaded = new TriplesCollection();
+		CheckpointManager resumed = new CheckpointManager(directory.getPath(), SETTINGS, loaded);
+		assertTrue("No se ha cargado el punto de control", resumed.load());
+		assertTrue("Libro 111 no marcado como terminado", resumed.isCompleted("111"));
+		assertTrue("Libro 222 no marcado como terminado", resumed.isCompleted("222"));
+		assertFalse("Libro 333 marcado como terminado", resumed.isCompleted("333"));
+		assertEquals("Número de tripletas erróneo", 6, loaded.getTotalTriples());
+
+		TripleEvents te = loaded.getTriplesCollection().get(getTriple("det", "car", "the"));
+		assertEquals("Número de apariciones erróneo", 4, te.getTotalEvents());
+		assertEquals("Número de libros erróneo", 2, te.getBooks().size());
+		assertEquals("Número de apariciones erróneo", 2, loaded.getTriplesCollection().get(getTriple("nsubj", "blue", "car")).getTotalEvents());
+		assertTrue("Dependencia no cargada", loaded.getDependenciesCollection().contains("nsubj"));
+	}
+
+	/**
+	 * Las tripletas descartadas por el filtro de dependencias se guardan en el punto de control y se recuperan sin contarlas dos veces en
+	 * el total de tripletas
+	 */
+	@Test
+	public void testCheckpointAndLoadDiscardedTriples() throws IOException {
+		TriplesCollection tc = new TriplesCollection();
+		CheckpointManager manager = new CheckpointManager(directory.getPath(), SETTINGS, tc);
+		TriplesCollection book = new TriplesCollection();
+		book.save(getTriple("nsubj", "blue", "car"), "111", 2);
+		book.addDiscardedTriples(5);
+		manager.completeBook("111", book);
+		manager.checkpoint();
+
+		TriplesCollection loaded = new TriplesCollection();
+		assertTrue("No se ha cargado el punto de control", new CheckpointManager(directory.getPath(), SETTINGS, loaded).load());
+		assertEquals("Número de tripletas descartadas erróneo", 5, loaded.getDiscardedTriples());
+		assertEquals("Número de tripletas erróneo", 7, loaded.getTotalTriples());
+	}
+
+	/**
+	 * Un punto de control guardado con otra configuración del análisis no se debe cargar
+	 */
+	@Test
+	public void testLoadWithOtherSettings() throws IOException {
+		TriplesCollection book = new TriplesCollection();
+		book.save(getTriple("nsubj", "blue", "car"), "111", 2);
+		CheckpointManager manager = new CheckpointManager(directory.getPath(), SETTINGS, new TriplesCollection());
+		manager.completeBook("111", book);
+		manager.checkpoint();
+
+		TriplesCollection loaded = new TriplesCollection();
+		CheckpointManager resumed = new CheckpointManager(directory.getPath(), "NEURAL tagger=english.tagger, parser=english_UD.gz options={}", loaded);
+		try {
+			resumed.load();
+			fail("Debería haberse rechazado el punto de control");
+		} catch (IOException e) {
+			assertFalse("Libro 111 marcado como terminado", resumed.isCompleted("111"));
+			assertEquals("La colección debería estar vacía", 0, loaded.getTotalTriples());
+		}
+	}
+
+	/**
+	 * Un punto de control guardado con otro filtro de dependencias no se debe cargar; con el mismo filtro, aunque se indique en otro orden,
+	 * sí se debe cargar
+	 */
+	@Test
+	public void testLoadWithOtherDependencyFilter() throws IOException {
+		StanfordTriplesExtractor ste = new StanfordTriplesExtractor();
+		ste.setDependencyFilter(Arrays.asList("nsubj", "amod"));
+		TriplesCollection book = new TriplesCollection();
+		book.save(getTriple("nsubj", "blue", "car"), "111", 2);
+		CheckpointManager manager = new CheckpointManager(directory.getPath(), ste.getCheckpointSettings(), new TriplesCollection());
+		manager.completeBook("111", book);
+		manager.checkpoint();
+
+		ste.setDependencyFilter(Arrays.asList("nsubj"));
+		TriplesCollection loaded = new TriplesCollection();
+		CheckpointManager resumed = new CheckpointManager(directory.getPath(), ste.getCheckpointSettings(), loaded);
+		try {
+			resumed.load();
+			fail("Debería haberse rechazado el punto de control");
+		} catch (IOException e) {
+			assertFalse("Libro 111 marcado como terminado", resumed.isCompleted("111"));
+			assertEquals("La colección debería estar vacía", 0, loaded.getTotalTriples());
+		}
+
+		ste.setDependencyFilter(Arrays.asList("amod", "nsubj"));
+		resumed = new CheckpointManager(directory.getPath(), ste.getCheckpointSettings(), loaded);
+		assertTrue("No se ha cargado el punto de control", resumed.load());
+		assertTrue("Libro 111 no marcado como terminado", resumed.isCompleted("111"));
+	}
+
+	/**
+	 * Si no se indica la configuración del análisis se debe obtener IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenSettingsWhenNullThenIllegalArgumentException() {
+		new CheckpointManager(directory.getPath(), null, new TriplesCollection());
+	}
+
+	private Triple getTriple(String dependency, String word1, String word2) {
+		Triple triple = new Triple();
+		triple.setDependency(dependency);
+		triple.setWord1(word1);
+		triple.setWord2(word2);
+		return triple;
+	}
+}
@@ -0,0 +1,83 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase ModelCache
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class ModelCacheTest {
+
+	private File directory;
+
+	private File model;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("modelcache").toFile();
+		model = new File(directory, "model.ser.gz");
+	}
+
+	@After
+	public void done() {
+		delete(directory);
+	}
+
+	/**
+	 * Si no se indica carpeta se debe obtener IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenDirectoryWhenNullThenIllegalArgumentException() {
+		new ModelCache(null);
+	}
+
+	/**
+	 * Comprueba que la copia en caché contiene el modelo descomprimido y que sólo se utiliza mientras el modelo original no cambie
+	 */
+	@Test
+	public void testCreateAndGetCachedModel() throws IOException {
+		ModelCache modelCache = new ModelCache(new File(directory, "cache").getPath());
+		writeModel("modelo original");
+		assertNull("No debería existir copia en caché", modelCache.getCachedModel(model.getPath()));
+
+		String cachedModel = modelCache.createCachedModel(model.getPath(), 1234);
+		assertArrayEquals("Copia en caché errónea", "modelo original".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(new File(cachedModel).toPath()));
+		assertEquals("Ruta de la copia en caché errónea", cachedModel, modelCache.getCachedModel(model.getPath()));
+		assertEquals("Tiempo de carga erróneo", 1234, modelCache.getOriginalLoadTime(model.getPath()));
+
+		writeModel("modelo modificado");
+		assertNull("La copia en caché debería estar obsoleta", modelCache.getCachedModel(model.getPath()));
+		modelCache.createCachedModel(model.getPath(), 1234);
+		assertNotNull("No se ha vuelto a crear la copia en caché", modelCache.getCachedModel(model.getPath()));
+	}
+
+	private void writeModel(String content) throws IOException {
+		try (GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(model))) {
+			out.write(content.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private void delete(File file) {
+		if (file.isDirectory()) {
+			for (File child : file.listFiles()) {
+				delete(child);
+			}
+		}
+		file.delete();
+	}
+}
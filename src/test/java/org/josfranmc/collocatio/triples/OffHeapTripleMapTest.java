@@ -0,0 +1,139 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase OffHeapTripleMap
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class OffHeapTripleMapTest {
+
+	/**
+	 * Comprueba que las apariciones y los libros se mantienen al crecer los segmentos y que el recorrido devuelve cada clave una sola vez
+	 */
+	@Test
+	public void testAddEventsAndCursor() {
+		OffHeapTripleMap map = new OffHeapTripleMap();
+		int book1 = BookSet.getBookId("offheap1");
+		int book2 = BookSet.getBookId("offheap2");
+		int total = 50000;
+		for (long key = 0; key < total; key++) {
+			map.addEvents(key * 7919, book1, key + 1);
+		}
+		map.addEvents(7919L * 5, book2, 1);
+		map.addEvents(7919L * 6, BookSet.of(Arrays.asList("offheap2", "offheap3")), 2);
+		assertEquals("Número de entradas erróneo", total, map.size());
+		assertEquals("Apariciones erróneas", 7, map.get(7919L * 5).getTotalEvents());
+		assertEquals("Libros erróneos", new HashSet<String>(Arrays.asList("offheap1", "offheap2")), map.get(7919L * 5).getBooks());
+		assertEquals("Libros erróneos", new HashSet<String>(Arrays.asList("offheap1", "offheap2", "offheap3")), map.get(7919L * 6).getBooks());
+		assertEquals("Libros erróneos", 1, map.get(7919L * 7).getBooks().size());
+		assertNull("No debería existir la entrada", map.get(1));
+
+		Set<Long> keys = new HashSet<Long>();
+		TripleTable.Cursor cursor = map.cursor();
+		while (cursor.hasNext()) {
+			TripleEvents events = cursor.next();
+			long expected = cursor.key() / 7919 + 1 + ((cursor.key() == 7919L * 5) ? 1 : 0) + ((cursor.key() == 7919L * 6) ? 2 : 0);
+			assertEquals("Apariciones erróneas para la clave " + cursor.key(), expected, events.getTotalEvents());
+			assertTrue("Clave repetida " + cursor.key(), keys.add(cursor.key()));
+		}
+		assertEquals("Número de entradas recorridas erróneo", total, keys.size());
+	}
+
+	/**
+	 * Comprueba que no se pierden apariciones ni libros cuando varios hilos añaden tripletas a la vez mientras los segmentos crecen desde
+	 * su capacidad inicial, y que las consultas simultáneas al crecimiento no devuelven valores imposibles
+	 */
+	@Test
+	public void testResizeUnderContention() throws Exception {
+		final OffHeapTripleMap map = new OffHeapTripleMap();
+		final int threads = 8;
+		final int keys = 30000;
+		final long initialSize = map.getOffHeapSize();
+		final AtomicBoolean saving = new AtomicBoolean(true);
+		ExecutorService executorService = Executors.newFixedThreadPool(threads + 1);
+		Future<Long> reader = executorService.submit(() -> {
+			long reads = 0;
+			while (saving.get()) {
+				TripleEvents events = map.get(7919L * (reads % keys));
+				assertTrue("Apariciones imposibles", events == null || (events.getTotalEvents() >= 1 && events.getTotalEvents() <= threads));
+				reads++;
+			}
+			return reads;
+		});
+		List<Future<?>> writers = new ArrayList<Future<?>>();
+		for (int t = 0; t < threads; t++) {
+			final int book = BookSet.getBookId("resize" + t);
+			writers.add(executorService.submit(() -> {
+				for (long key = 0; key < keys; key++) {
+					map.addEvents(key * 7919, book, 1);
+				}
+			}));
+		}
+		for (Future<?> writer : writers) {
+			writer.get();
+		}
+		saving.set(false);
+		assertTrue("No se ha consultado la tabla durante el crecimiento", reader.get() > 0);
+		executorService.shutdown();
+
+		assertTrue("Los segmentos deberían haber crecido", map.getOffHeapSize() > initialSize);
+		assertEquals("Número de entradas erróneo", keys, map.size());
+		for (long key = 0; key < keys; key++) {
+			TripleEvents events = map.get(key * 7919);
+			assertEquals("Apariciones erróneas para la clave " + key * 7919, threads, events.getTotalEvents());
+			assertEquals("Libros erróneos para la clave " + key * 7919, threads, events.getBooks().size());
+		}
+	}
+
+	/**
+	 * Comprueba que al liberar la tabla se liberan los buffers de todos los segmentos y que la tabla liberada no lee memoria liberada
+	 */
+	@Test
+	public void testFree() {
+		OffHeapTripleMap map = new OffHeapTripleMap();
+		int book = BookSet.getBookId("offheap1");
+		for (long key = 0; key < 1000; key++) {
+			map.addEvents(key * 7919, book, 1);
+		}
+		assertTrue("La tabla debería ocupar memoria fuera del heap", map.getOffHeapSize() > 0);
+		map.free();
+		assertEquals("La tabla liberada no debería ocupar memoria fuera del heap", 0, map.getOffHeapSize());
+		assertEquals("La tabla liberada no debería tener entradas", 0, map.size());
+		map.free();
+		try {
+			map.get(7919);
+			fail("La tabla liberada no debería poder consultarse");
+		} catch (NullPointerException e) {
+			// esperado
+		}
+	}
+
+	/**
+	 * Comprueba que una colección fuera del heap guardada desde varios hilos contiene las mismas tripletas que una colección en el heap
+	 */
+	@Test
+	public void testOffHeapTriplesCollection() throws InterruptedException {
+		TriplesCollection heap = new TriplesCollection();
+		TriplesCollection offHeap = new TriplesCollection(true);
+		TriplesTestData.saveConcurrently(4, heap, offHeap);
+		assertTrue("La colección debería guardarse fuera del heap", offHeap.isOffHeap());
+		TriplesTestData.assertSameTriples(heap, offHeap);
+	}
+}
@@ -0,0 +1,111 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.ling.HasWord;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase ParseCache
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class ParseCacheTest {
+
+	/**
+	 * Si el tamaño es menor que uno se debe obtener IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenMaxEntriesWhenLessThanOneThenIllegalArgumentException() {
+		new ParseCache(0);
+	}
+
+	/**
+	 * Comprueba que oraciones iguales tienen la misma clave y oraciones distintas claves distintas
+	 */
+	@Test
+	public void testGetKey() {
+		assertEquals("Oraciones iguales con claves distintas", ParseCache.getKey(getSentence("The", "car", "is", "blue")), ParseCache.getKey(getSentence("The", "car", "is", "blue")));
+		assertNotEquals("Oraciones distintas con la misma clave", ParseCache.getKey(getSentence("The", "car", "is", "blue")), ParseCache.getKey(getSentence("The", "car", "is", "red")));
+		assertNotEquals("Oraciones distintas con la misma clave", ParseCache.getKey(getSentence("ab", "c")), ParseCache.getKey(getSentence("a", "bc")));
+	}
+
+	/**
+	 * Comprueba que se guardan y recuperan las tripletas de una oración y que se cuentan los aciertos y fallos
+	 */
+	@Test
+	public void testGetAndPut() {
+		ParseCache cache = new ParseCache(10);
+		ParseCache.SentenceKey key = ParseCache.getKey(getSentence("The", "car", "is", "blue"));
+		assertNull("La oración no debería estar en la caché", cache.get(key));
+		cache.put(key, Collections.singletonList(getTriple()));
+		List<Triple> triples = cache.get(ParseCache.getKey(getSentence("The", "car", "is", "blue")));
+		assertNotNull("La oración debería estar en la caché", triples);
+		assertEquals("Tripleta errónea", getTriple(), triples.get(0));
+		assertEquals("Número de aciertos erróneo", 1, cache.getHits());
+		assertEquals("Número de fallos erróneo", 1, cache.getMisses());
+	}
+
+	/**
+	 * Comprueba que al superar el tamaño máximo se descarta la oración usada hace más tiempo
+	 */
+	@Test
+	public void testEviction() {
+		ParseCache cache = new ParseCache(2);
+		ParseCache.SentenceKey key1 = ParseCache.getKey(getSentence("one"));
+		ParseCache.SentenceKey key2 = ParseCache.getKey(getSentence("two"));
+		ParseCache.SentenceKey key3 = ParseCache.getKey(getSentence("three"));
+		cache.put(key1, Collections.<Triple>emptyList());
+		cache.put(key2, Collections.<Triple>emptyList());
+		cache.get(key1);
+		cache.put(key3, Collections.<Triple>emptyList());
+		assertEquals("Número de oraciones erróneo", 2, cache.size());
+		assertNotNull("La oración usada recientemente se ha descartado", cache.get(key1));
+		assertNull("La oración usada hace más tiempo no se ha descartado", cache.get(key2));
+		assertNotNull("La última oración no se ha guardado", cache.get(key3));
+	}
+
+	/**
+	 * Comprueba que una caché grande se divide en segmentos sin superar el número máximo de oraciones
+	 */
+	@Test
+	public void testSegmentedEviction() {
+		ParseCache cache = new ParseCache(5000);
+		assertEquals("Número de segmentos erróneo", 16, cache.getTotalSegments());
+		assertEquals("Una caché pequeña debería tener un único segmento", 1, new ParseCache(100).getTotalSegments());
+		ParseCache.SentenceKey last = null;
+		for (int i = 0; i < 20000; i++) {
+			last = ParseCache.getKey(getSentence("sentence", String.valueOf(i)));
+			cache.put(last, Collections.<Triple>emptyList());
+		}
+		assertEquals("Número de oraciones erróneo", 5000, cache.size());
+		assertNotNull("La última oración no se ha guardado", cache.get(last));
+	}
+
+	private List<HasWord> getSentence(String... words) {
+		List<HasWord> sentence = new ArrayList<HasWord>();
+		for (String word : words) {
+			CoreLabel label = new CoreLabel();
+			label.setWord(word);
+			sentence.add(label);
+		}
+		return sentence;
+	}
+
+	private Triple getTriple() {
+		Triple triple = new Triple();
+		triple.setDependency("nsubj");
+		triple.setWord1("blue");
+		triple.setWord2("car");
+		return triple;
+	}
+}
@@ -0,0 +1,100 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.ling.HasWord;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase ParseWatchdog
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class ParseWatchdogTest {
+
+	/**
+	 * Si el tiempo máximo es menor que uno se debe obtener IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenTimeoutWhenLessThanOneThenIllegalArgumentException() {
+		new ParseWatchdog(0, null);
+	}
+
+	/**
+	 * Comprueba que si el plazo vence se interrumpe al hilo y que al finalizarlo se limpia la interrupción
+	 */
+	@Test
+	public void testDeadlineExpired() {
+		ParseWatchdog watchdog = new ParseWatchdog(50, null);
+		try {
+			ParseWatchdog.Deadline deadline = watchdog.start();
+			try {
+				Thread.sleep(5000);
+			} catch (InterruptedException e) {
+				// interrumpido por el vigilante
+			}
+			assertTrue("El plazo debería haber vencido", deadline.finish());
+			assertFalse("El hilo sigue interrumpido", Thread.currentThread().isInterrupted());
+		} finally {
+			watchdog.close();
+		}
+	}
+
+	/**
+	 * Comprueba que si el plazo se finaliza a tiempo el hilo no es interrumpido
+	 */
+	@Test
+	public void testDeadlineFinishedInTime() throws InterruptedException {
+		ParseWatchdog watchdog = new ParseWatchdog(100, null);
+		try {
+			ParseWatchdog.Deadline deadline = watchdog.start();
+			assertFalse("El plazo no debería haber vencido", deadline.finish());
+			Thread.sleep(300);
+			assertFalse("El hilo ha sido interrumpido", Thread.currentThread().isInterrupted());
+		} finally {
+			watchdog.close();
+		}
+	}
+
+	/**
+	 * Comprueba que las oraciones abandonadas se cuentan y se guardan en el fichero de cuarentena junto con su libro
+	 */
+	@Test
+	public void testQuarantine() throws IOException {
+		File file = File.createTempFile("quarantine", ".txt");
+		file.deleteOnExit();
+		ParseWatchdog watchdog = new ParseWatchdog(100, file.getPath());
+		try {
+			watchdog.quarantine("11111", getSentence("The", "car", "is", "blue"));
+			watchdog.quarantine("22222", getSentence("A", "well-known", "author"));
+		} finally {
+			watchdog.close();
+		}
+		List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+		assertEquals("Número de oraciones abandonadas erróneo", 2, watchdog.getTotalQuarantined());
+		assertEquals("Número de líneas erróneo", 2, lines.size());
+		assertEquals("Línea errónea", "11111\tThe car is blue", lines.get(0));
+		assertEquals("Línea errónea", "22222\tA well-known author", lines.get(1));
+	}
+
+	private List<HasWord> getSentence(String... words) {
+		List<HasWord> sentence = new ArrayList<HasWord>();
+		for (String word : words) {
+			CoreLabel label = new CoreLabel();
+			label.setWord(word);
+			sentence.add(label);
+		}
+		return sentence;
+	}
+}
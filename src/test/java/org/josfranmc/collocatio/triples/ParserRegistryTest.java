@@ -0,0 +1,136 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase ParserRegistry. Los modelos se sustituyen por objetos creados por el
+ * propio test, de forma que no es necesario cargar ningún modelo de Stanford.
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class ParserRegistryTest {
+
+	private static final String MODEL = "englishPCFG.ser.gz";
+
+	private static final String[] OPTIONS = { "-maxLength", "50" };
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Before
+	public void setUp() {
+		ParserRegistry.clear();
+	}
+
+	@After
+	public void done() {
+		ParserRegistry.clear();
+	}
+
+	/**
+	 * Un mismo modelo con las mismas opciones debe cargarse una sola vez y reutilizarse
+	 */
+	@Test
+	public void testReuseSameModelAndOptions() {
+		Object parser1 = get(MODEL, OPTIONS);
+		Object parser2 = get(MODEL, new String[] { "-maxLength", "50" });
+		assertSame("Debería reutilizarse el analizador cargado", parser1, parser2);
+		assertEquals("El modelo debería cargarse una sola vez", 1, loads.get());
+		assertTrue("El analizador debería estar registrado", ParserRegistry.contains(MODEL, OPTIONS));
+		assertEquals("Número de analizadores registrados erróneo", 1, ParserRegistry.size());
+	}
+
+	/**
+	 * Un mismo modelo con opciones distintas debe registrarse con claves distintas
+	 */
+	@Test
+	public void testDistinctKeysForDifferentOptions() {
+		String[] otherOptions = { "-maxLength", "80" };
+		assertFalse("Las claves deberían ser distintas", ParserRegistry.getKey(MODEL, OPTIONS).equals(ParserRegistry.getKey(MODEL, otherOptions)));
+		Object parser1 = get(MODEL, OPTIONS);
+		Object parser2 = get(MODEL, otherOptions);
+		assertNotSame("Deberían cargarse analizadores distintos", parser1, parser2);
+		assertEquals("El modelo debería cargarse dos veces", 2, loads.get());
+		assertEquals("Número de analizadores registrados erróneo", 2, ParserRegistry.size());
+	}
+
+	/**
+	 * Tras eliminar un analizador del registro, el modelo debe volver a cargarse
+	 */
+	@Test
+	public void testEvict() {
+		Object parser1 = get(MODEL, OPTIONS);
+		assertTrue("El analizador debería eliminarse", ParserRegistry.evict(MODEL, OPTIONS));
+		assertFalse("El analizador no debería estar registrado", ParserRegistry.contains(MODEL, OPTIONS));
+		assertFalse("El analizador ya se había eliminado", ParserRegistry.evict(MODEL, OPTIONS));
+		assertNotSame("Debería cargarse un analizador nuevo", parser1, get(MODEL, OPTIONS));
+		assertEquals("El modelo debería cargarse dos veces", 2, loads.get());
+	}
+
+	/**
+	 * Si la carga falla no debe quedar registrada y la siguiente petición debe volver a cargar el modelo
+	 */
+	@Test
+	public void testFailedLoadIsNotRegistered() {
+		try {
+			ParserRegistry.get(ParserRegistry.getKey(MODEL, OPTIONS), MODEL, () -> { throw new IllegalStateException("modelo dañado"); });
+			fail("Debería haberse propagado el error de carga");
+		} catch (IllegalStateException e) {
+			assertFalse("La carga fallida no debería registrarse", ParserRegistry.contains(MODEL, OPTIONS));
+		}
+		get(MODEL, OPTIONS);
+		assertEquals("El modelo debería cargarse", 1, loads.get());
+	}
+
+	/**
+	 * Si varios hilos piden a la vez un analizador que no está cargado, el modelo debe cargarse una sola vez
+	 */
+	@Test
+	public void testConcurrentLoadOnce() throws Exception {
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+		List<Future<Object>> parsers = new ArrayList<Future<Object>>();
+		for (int i = 0; i < 8; i++) {
+			parsers.add(executorService.submit(() -> ParserRegistry.get(ParserRegistry.getKey(MODEL, OPTIONS), MODEL, slowLoader())));
+		}
+		for (Future<Object> parser : parsers) {
+			assertSame("Todos los hilos deberían obtener el mismo analizador", parsers.get(0).get(), parser.get());
+		}
+		executorService.shutdown();
+		assertEquals("El modelo debería cargarse una sola vez", 1, loads.get());
+	}
+
+	private Object get(String model, String[] options) {
+		return ParserRegistry.get(ParserRegistry.getKey(model, options), model, () -> {
+			loads.incrementAndGet();
+			return new Object();
+		});
+	}
+
+	private Supplier<Object> slowLoader() {
+		return () -> {
+			loads.incrementAndGet();
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return new Object();
+		};
+	}
+}
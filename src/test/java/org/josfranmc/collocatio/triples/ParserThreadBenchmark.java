@@ -0,0 +1,124 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.ling.IndexedWord;
+import edu.stanford.nlp.trees.GrammaticalRelation;
+import edu.stanford.nlp.trees.TypedDependency;
+import edu.stanford.nlp.trees.UniversalEnglishGrammaticalRelations;
+
+/**
+ * Compara el coste de obtener una tripleta a partir de un objeto TypedDependency con el método <i>getTriplet</i> de la clase ParserThread,
+ * que toma los datos directamente de los objetos de la dependencia, con el del método anterior, que obtenía la representación textual de la
+ * dependencia y la descomponía mediante una expresión regular.<p>
+ * Se ejecuta con el perfil <i>benchmark</i>:
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ParserThreadBenchmark</pre>
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see ParserThread
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParserThreadBenchmark {
+
+	private static final String[] WORDS = { "car", "blue", "the", "well-known", "Author", "town", "happy", "red", "is", "state-of-the-art" };
+
+	private static final int TOTAL_DEPENDENCIES = 1 << 10;
+
+	/**
+	 * Expresión regular utilizada por el método anterior
+	 */
+	private static final String PATTERN = "((.*):.*|(.*))\\((.*)-.*,\\s(.*)-.*";
+
+	private TypedDependency[] dependencies;
+
+	private ParserThread parserThread;
+
+	private int next;
+
+
+	@Setup(Level.Trial)
+	public void createDependencies() {
+		Random random = new Random(42);
+		GrammaticalRelation[] relations = { UniversalEnglishGrammaticalRelations.NOMINAL_SUBJECT,
+				UniversalEnglishGrammaticalRelations.ADJECTIVAL_MODIFIER, UniversalEnglishGrammaticalRelations.getNmod("in") };
+		dependencies = new TypedDependency[TOTAL_DEPENDENCIES];
+		for (int i = 0; i < TOTAL_DEPENDENCIES; i++) {
+			dependencies[i] = new TypedDependency(relations[random.nextInt(relations.length)],
+					getIndexedWord(WORDS[random.nextInt(WORDS.length)], random.nextInt(30) + 1),
+					getIndexedWord(WORDS[random.nextInt(WORDS.length)], random.nextInt(30) + 1));
+		}
+		parserThread = new ParserThread();
+	}
+
+	/**
+	 * Obtiene la tripleta con el método actual, a partir de los objetos de la dependencia
+	 */
+	@Benchmark
+	public Triple getTriplet() {
+		return parserThread.getTriplet(nextDependency());
+	}
+
+	/**
+	 * Obtiene la tripleta con el método anterior, a partir de la representación textual de la dependencia
+	 */
+	@Benchmark
+	public Triple getTripletRegex() {
+		return getTripletRegex(nextDependency().toString());
+	}
+
+	private TypedDependency nextDependency() {
+		return dependencies[next++ & (TOTAL_DEPENDENCIES - 1)];
+	}
+
+	/**
+	 * Método anterior de obtención de tripletas. Como en el original, la expresión regular se compila en cada llamada
+	 */
+	private Triple getTripletRegex(String td) {
+		Triple tripleta = null;
+		Pattern pattern = Pattern.compile(PATTERN);
+		Matcher matcher = pattern.matcher(td);
+		if (matcher.matches()) {
+			tripleta = new Triple();
+			if (matcher.group(3) != null) {
+				tripleta.setDependency(matcher.group(3));
+			} else {
+				tripleta.setDependency(matcher.group(2));
+			}
+			tripleta.setWord1(matcher.group(4).toLowerCase());
+			tripleta.setWord2(matcher.group(5).toLowerCase());
+		}
+		return tripleta;
+	}
+
+	/**
+	 * Devuelve una palabra con la posición que ocupa en la oración
+	 */
+	private IndexedWord getIndexedWord(String word, int index) {
+		CoreLabel label = new CoreLabel();
+		label.setWord(word);
+		label.setValue(word);
+		label.setIndex(index);
+		return new IndexedWord(label);
+	}
+}
@@ -1,11 +1,19 @@
 package org.josfranmc.collocatio.triples;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import edu.stanford.nlp.ling.CoreLabel;
 import edu.stanford.nlp.ling.HasWord;
 import edu.stanford.nlp.parser.lexparser.LexicalizedParser;
 import edu.stanford.nlp.trees.GrammaticalStructureFactory;
@@ -96,4 +104,66 @@ public class ParserThreadBuilderTest {
 		ptb.setBook(null);
 		ptb.build();
 	}	
+	
+	/**
+	 * Si se establece el analizador de dependencias no son necesarios LexicalizedParser ni GrammaticalStructureFactory
+	 */
+	@Test
+	public void givenDependencyParserWhenNoLexicalizedParserThenBuild() {
+		ParserThreadBuilder ptb = new ParserThreadBuilder();
+		ptb.setDependencyParser(new PcfgDependencyParser(lp, gsf));
+		ptb.setTriplesCollection(tc);
+		ptb.setSentence(sentence);
+		ptb.setBook("11111");
+		assertNotNull("No se ha creado el ParserThread", ptb.build().getDependencyParser());
+	}
+
+	/**
+	 * El coste de la tarea se calcula al construirla como la suma de los cubos del número de palabras de cada oración
+	 */
+	@Test
+	public void givenSentencesThenCostIsSumOfCubes() {
+		List<List<? extends HasWord>> sentences = new ArrayList<List<? extends HasWord>>();
+		sentences.add(Collections.nCopies(2, new CoreLabel()));
+		sentences.add(Collections.nCopies(3, new CoreLabel()));
+		ParserThread pt = new ParserThreadBuilder()
+				.setDependencyParser(s -> Collections.emptyList())
+				.setTriplesCollection(new TriplesCollection())
+				.setSentences(sentences)
+				.setBook("11111")
+				.build();
+		assertEquals("Coste de la tarea erróneo", 8 + 27, pt.getCost());
+	}
+
+	/**
+	 * Si el almacenamiento de las tripletas falla, la acción de error debe ejecutarse antes que la de finalización y la excepción debe propagarse
+	 */
+	@Test
+	public void givenFailingSaveThenFailureListenerBeforeCompletion() {
+		final List<String> events = new ArrayList<String>();
+		List<List<? extends HasWord>> sentences = new ArrayList<List<? extends HasWord>>();
+		CoreLabel word = new CoreLabel();
+		word.setWord("car");
+		sentences.add(Collections.singletonList(word));
+		TriplesCollection failingCollection = new TriplesCollection() {
+			@Override
+			public void save(Map<Triple, Long> triples, String book) {
+				throw new IllegalStateException("fallo de almacenamiento");
+			}
+		};
+		ParserThread pt = new ParserThreadBuilder()
+				.setDependencyParser(s -> Collections.emptyList())
+				.setTriplesCollection(failingCollection)
+				.setSentences(sentences)
+				.setBook("11111")
+				.setFailureListener(() -> events.add("fail"))
+				.setCompletionListener(() -> events.add("release"))
+				.build();
+		try {
+			pt.run();
+			fail("Debería haberse propagado la excepción del almacenamiento");
+		} catch (IllegalStateException e) {
+			assertEquals("Orden de las acciones erróneo", Arrays.asList("fail", "release"), events);
+		}
+	}
 }
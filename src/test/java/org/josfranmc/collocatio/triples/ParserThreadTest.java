@@ -2,23 +2,30 @@ package org.josfranmc.collocatio.triples;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.junit.AfterClass;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import edu.stanford.nlp.ling.CoreLabel;
 import edu.stanford.nlp.ling.HasWord;
+import edu.stanford.nlp.ling.IndexedWord;
 import edu.stanford.nlp.parser.lexparser.LexicalizedParser;
 import edu.stanford.nlp.process.DocumentPreprocessor;
 import edu.stanford.nlp.trees.GrammaticalStructureFactory;
 import edu.stanford.nlp.trees.TreebankLanguagePack;
+import edu.stanford.nlp.trees.TypedDependency;
+import edu.stanford.nlp.trees.UniversalEnglishGrammaticalRelations;
 
 /**
  * Clase que implementa los test para probar los métodos de la clase ParserThread
@@ -94,6 +101,70 @@ public class ParserThreadTest {
 	    assertEquals("Número total de tripleta erróneo (1)", 1, te1.getTotalEvents());
 	}
 	
+	/**
+	 * Comprueba que la tripleta se construye correctamente a partir del objeto TypedDependency:
+	 * <ul>
+	 * <li>las palabras que contienen guiones se obtienen completas</li>
+	 * <li>las palabras se devuelven en minúsculas</li>
+	 * <li>de las dependencias de la forma <i>dependencia:subtipo</i> se toma sólo la parte principal</li>
+	 * </ul>
+	 */
+	@Test
+	public void testGetTriplet() {
+		ParserThread parserThread = new ParserThread();
+		
+		TypedDependency td = new TypedDependency(UniversalEnglishGrammaticalRelations.ADJECTIVAL_MODIFIER, getIndexedWord("Author", 5), getIndexedWord("well-known", 4));
+		Triple triple = parserThread.getTriplet(td);
+		assertEquals("Dependencia errónea", "amod", triple.getDependency());
+		assertEquals("Palabra 1 errónea", "author", triple.getWord1());
+		assertEquals("Palabra 2 errónea", "well-known", triple.getWord2());
+		
+		td = new TypedDependency(UniversalEnglishGrammaticalRelations.getNmod("in"), getIndexedWord("happy", 3), getIndexedWord("town", 6));
+		triple = parserThread.getTriplet(td);
+		assertEquals("Dependencia errónea", "nmod", triple.getDependency());
+		assertEquals("Palabra 1 errónea", "happy", triple.getWord1());
+		assertEquals("Palabra 2 errónea", "town", triple.getWord2());
+	}
+	
+	/**
+	 * Comprueba que si el análisis de una oración del grupo genera una excepción, sólo se descarta esa oración:
+	 * <ul>
+	 * <li>las tripletas del resto de oraciones del grupo se guardan</li>
+	 * <li>la oración se cuenta como descartada</li>
+	 * <li>no se ejecuta la acción de error de la tarea</li>
+	 * </ul>
+	 */
+	@Test
+	public void givenFailingSentenceThenOtherSentencesSaved() {
+		List<String> events = new ArrayList<String>();
+		List<List<? extends HasWord>> sentences = new ArrayList<List<? extends HasWord>>();
+		sentences.add(getSentence("car"));
+		sentences.add(getSentence("broken"));
+		sentences.add(getSentence("car"));
+		IDependencyParser parser = s -> {
+			if ("broken".equals(s.get(0).word())) {
+				throw new IllegalStateException("fallo de análisis");
+			}
+			return Collections.singletonList(new TypedDependency(UniversalEnglishGrammaticalRelations.NOMINAL_SUBJECT, getIndexedWord("blue", 4), getIndexedWord(s.get(0).word(), 2)));
+		};
+		LongAdder failedSentences = new LongAdder();
+		TriplesCollection c = new TriplesCollection();
+		ParserThread parserThread = new ParserThreadBuilder()
+				.setDependencyParser(parser)
+				.setSentences(sentences)
+				.setTriplesCollection(c)
+				.setBook("11111")
+				.setFailedSentences(failedSentences)
+				.setFailureListener(() -> events.add("fail"))
+				.build();
+		parserThread.run();
+
+		assertEquals("Número de oraciones descartadas erróneo", 1, failedSentences.sum());
+		assertEquals("Número incorrecto de tripletas guardadas", 2, c.getTotalTriples());
+		assertEquals("Número total de tripleta erróneo", 2, c.getTriplesCollection().get(getTriple1()).getTotalEvents());
+		assertTrue("No debería ejecutarse la acción de error", events.isEmpty());
+	}
+	
 	/**
 	 * Método ejecutado una vez después de la ejecución de todos los tests
 	 */
@@ -145,6 +216,26 @@ public class ParserThreadTest {
 	    return sentences;
 	}
 	
+	/**
+	 * Devuelve una oración de una sola palabra
+	 */
+	private List<? extends HasWord> getSentence(String word) {
+		CoreLabel label = new CoreLabel();
+		label.setWord(word);
+		return Collections.singletonList(label);
+	}
+	
+	/**
+	 * Devuelve una palabra con la posición que ocupa en la oración
+	 */
+	private IndexedWord getIndexedWord(String word, int index) {
+		CoreLabel label = new CoreLabel();
+		label.setWord(word);
+		label.setValue(word);
+		label.setIndex(index);
+		return new IndexedWord(label);
+	}
+	
 	/**
 	 * La tripleta devuelta aparece una vez en el fichero de prueba
 	 */
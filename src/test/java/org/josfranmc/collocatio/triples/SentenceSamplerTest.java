@@ -0,0 +1,52 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase SentenceSampler
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class SentenceSamplerTest {
+
+	/**
+	 * Si la proporción de oraciones no es mayor que cero se debe obtener IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenSampleRateWhenZeroThenIllegalArgumentException() {
+		new SentenceSampler(0, SamplingType.UNIFORM, "book", SentenceSampler.DEFAULT_SEED);
+	}
+
+	/**
+	 * El muestreo estratificado debe seleccionar exactamente la proporción indicada de las oraciones de cada libro
+	 */
+	@Test
+	public void testStratifiedSampling() {
+		for (String book : new String[] {"book1", "book2", "book3"}) {
+			assertEquals("Número de oraciones seleccionadas de " + book + " incorrecto", 250, countAccepted(new SentenceSampler(0.25, SamplingType.STRATIFIED, book, 1), 1000), 1);
+		}
+	}
+
+	/**
+	 * El muestreo uniforme debe seleccionar aproximadamente la proporción indicada y la misma muestra en cada ejecución
+	 */
+	@Test
+	public void testUniformSampling() {
+		int accepted = countAccepted(new SentenceSampler(0.25, SamplingType.UNIFORM, "book", 1), 10000);
+		assertEquals("Número de oraciones seleccionadas incorrecto", 2500, accepted, 150);
+		assertEquals("La muestra debería ser la misma en cada ejecución", accepted, countAccepted(new SentenceSampler(0.25, SamplingType.UNIFORM, "book", 1), 10000));
+		assertEquals("Con proporción 1 deben seleccionarse todas las oraciones", 100, countAccepted(new SentenceSampler(1, SamplingType.UNIFORM, "book", 1), 100));
+	}
+
+	private int countAccepted(SentenceSampler sampler, int sentences) {
+		int accepted = 0;
+		for (int i = 0; i < sentences; i++) {
+			if (sampler.accept()) {
+				accepted++;
+			}
+		}
+		return accepted;
+	}
+}
@@ -1,11 +1,13 @@
 package org.josfranmc.collocatio.triples;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
 import java.util.HashMap;
 
 import org.junit.Test;
@@ -46,6 +48,42 @@ public class StanfordTriplesExtractorTest {
 	}
 	
 
+	/**
+	 * La configuración guardada en el punto de control incluye las palabras objetivo, sin depender de su orden ni de mayúsculas
+	 */
+	@Test
+	public void testCheckpointSettingsWithTargetWords() {
+		StanfordTriplesExtractor ste = new StanfordTriplesExtractor();
+		String withoutTargets = ste.getCheckpointSettings();
+		ste.setTargetWords(Arrays.asList("car", "Blue"));
+		String targets = ste.getCheckpointSettings();
+		ste.setTargetWords(Arrays.asList("blue", "car"));
+		assertEquals("La configuración no debería depender del orden de las palabras objetivo", targets, ste.getCheckpointSettings());
+		ste.setTargetWords(Arrays.asList("car"));
+		assertNotEquals("La configuración debería depender de las palabras objetivo", targets, ste.getCheckpointSettings());
+		assertNotEquals("La configuración debería depender de las palabras objetivo", withoutTargets, targets);
+		assertEquals("Las palabras objetivo no deberían afectar a la configuración del análisis", ste.getParserSettings(), new StanfordTriplesExtractor().getParserSettings());
+	}
+
+	/**
+	 * La configuración guardada en el punto de control incluye la proporción de oraciones analizadas y, si se analiza una muestra, el tipo
+	 * de muestreo
+	 */
+	@Test
+	public void testCheckpointSettingsWithSampling() {
+		StanfordTriplesExtractor ste = new StanfordTriplesExtractor();
+		String all = ste.getCheckpointSettings();
+		ste.setSamplingType(SamplingType.STRATIFIED);
+		assertEquals("El tipo de muestreo no debería afectar si se analizan todas las oraciones", all, ste.getCheckpointSettings());
+		ste.setSampleRate(0.5);
+		String stratified = ste.getCheckpointSettings();
+		assertNotEquals("La configuración debería depender de la proporción de oraciones", all, stratified);
+		ste.setSamplingType(SamplingType.UNIFORM);
+		assertNotEquals("La configuración debería depender del tipo de muestreo", stratified, ste.getCheckpointSettings());
+		ste.setSampleRate(0.25);
+		assertNotEquals("La configuración debería depender de la proporción de oraciones", stratified, ste.getCheckpointSettings());
+	}
+
 	/**
 	 * Comprueba que al crear el objeto StanfordTriplesExtractor se inicializa la referencia a un objeto TriplesCollection
 	 */
@@ -0,0 +1,69 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase ThreadLocalTriplesTables
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class ThreadLocalTriplesTablesTest {
+
+	/**
+	 * Comprueba que al unir las tablas de varios hilos se obtiene el mismo resultado que guardando las tripletas directamente en la colección
+	 */
+	@Test
+	public void testMergeInto() throws InterruptedException {
+		final ThreadLocalTriplesTables tables = new ThreadLocalTriplesTables();
+		final TriplesCollection expected = new TriplesCollection();
+		ExecutorService executorService = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < 40; i++) {
+			final String book = "libro" + (i % 5);
+			final Map<Triple, Long> triples = new HashMap<Triple, Long>();
+			triples.put(getTriple("nsubj", "car", "blue"), 1L);
+			triples.put(getTriple("det", "car", "the"), 2L);
+			triples.put(getTriple("amod", "car", "w" + i), 1L);
+			expected.save(triples, book);
+			executorService.execute(() -> {
+				PartialTriplesTable table = tables.getTable();
+				table.save(triples, book);
+				table.addDiscardedTriples(1);
+			});
+		}
+		executorService.shutdown();
+		assertTrue("Los hilos no han terminado", executorService.awaitTermination(1, TimeUnit.MINUTES));
+
+		TriplesCollection tc = new TriplesCollection();
+		tables.mergeInto(tc);
+		assertTrue("Número de tablas erróneo", tables.size() >= 1 && tables.size() <= 4);
+		assertEquals("Atributo discardedTriples erróneo", 40, tc.getDiscardedTriples());
+		assertEquals("Atributo totalTriples erróneo", expected.getTotalTriples() + 40, tc.getTotalTriples());
+		assertEquals("Número de tripletas distintas erróneo", expected.getTriplesCollection().size(), tc.getTriplesCollection().size());
+		for (Map.Entry<Triple, TripleEvents> entry : expected.getTriplesCollection().entrySet()) {
+			TripleEvents events = tc.getTriplesCollection().get(entry.getKey());
+			assertEquals("Valor de totalEvents erróneo para " + entry.getKey(), entry.getValue().getTotalEvents(), events.getTotalEvents());
+			assertEquals("Libros erróneos para " + entry.getKey(), entry.getValue().getBooks(), events.getBooks());
+		}
+
+		TriplesCollection empty = new TriplesCollection();
+		tables.mergeInto(empty);
+		assertEquals("Las tablas deberían quedar vacías tras la unión", 0, empty.getTotalTriples());
+	}
+
+	private Triple getTriple(String dependency, String word1, String word2) {
+		Triple t = new Triple();
+		t.setDependency(dependency);
+		t.setWord1(word1);
+		t.setWord2(word2);
+		return t;
+	}
+}
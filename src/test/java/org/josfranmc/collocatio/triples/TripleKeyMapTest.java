@@ -0,0 +1,44 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase TripleKeyMap
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class TripleKeyMapTest {
+
+	/**
+	 * Comprueba que las entradas se mantienen al crecer los segmentos y que el recorrido devuelve cada clave una sola vez
+	 */
+	@Test
+	public void testGetOrCreateAndCursor() {
+		TripleKeyMap map = new TripleKeyMap();
+		int total = 100000;
+		for (long key = 0; key < total; key++) {
+			map.getOrCreate(key * 7919).addEvents("111", key);
+		}
+		assertEquals("Número de entradas erróneo", total, map.size());
+		assertSame("Debería devolverse la entrada existente", map.get(7919L * 5), map.getOrCreate(7919L * 5));
+		assertEquals("Apariciones erróneas", 5, map.get(7919L * 5).getTotalEvents());
+		assertNull("No debería existir la entrada", map.get(1));
+
+		Set<Long> keys = new HashSet<Long>();
+		TripleKeyMap.Cursor cursor = map.cursor();
+		while (cursor.hasNext()) {
+			TripleEvents events = cursor.next();
+			assertEquals("Apariciones erróneas para la clave " + cursor.key(), cursor.key() / 7919, events.getTotalEvents());
+			assertTrue("Clave repetida " + cursor.key(), keys.add(cursor.key()));
+		}
+		assertEquals("Número de entradas recorridas erróneo", total, keys.size());
+	}
+}
@@ -0,0 +1,136 @@
+package org.josfranmc.collocatio.triples;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mide el rendimiento del método <i>save</i> de la clase TriplesCollection cuando varios hilos de análisis guardan tripletas a la vez, con 1,
+ * 4, 16 y 64 hilos. Cada hilo guarda las tripletas de un libro propio, tomándolas de un conjunto fijo de tripletas en el que unas pocas
+ * palabras son muy frecuentes, de forma que la mayoría de las llamadas actualizan tripletas ya existentes, como ocurre con un corpus real.<p>
+ * Se ejecuta con el perfil <i>benchmark</i>:
+ * <pre>mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TriplesCollectionBenchmark</pre>
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ * @see TriplesCollection
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TriplesCollectionBenchmark {
+
+	private static final String[] DEPENDENCIES = { "nsubj", "dobj", "amod", "det", "prep", "advmod", "compound", "nmod" };
+
+	private static final int TOTAL_TRIPLES = 1 << 16;
+
+	/**
+	 * Guarda las claves y los contadores fuera del heap
+	 */
+	@Param({ "false", "true" })
+	public boolean offHeap;
+
+	/**
+	 * Número de palabras distintas
+	 */
+	@Param({ "5000" })
+	public int words;
+
+	private Triple[] triples;
+
+	private TriplesCollection triplesCollection;
+
+
+	@Setup(Level.Trial)
+	public void createTriples() {
+		Random random = new Random(42);
+		triples = new Triple[TOTAL_TRIPLES];
+		for (int i = 0; i < TOTAL_TRIPLES; i++) {
+			Triple triple = new Triple();
+			triple.setDependency(DEPENDENCIES[random.nextInt(DEPENDENCIES.length)]);
+			triple.setWord1("w" + getWord(random));
+			triple.setWord2("w" + getWord(random));
+			triples[i] = triple;
+		}
+	}
+
+	/**
+	 * Cada iteración parte de una colección vacía, para que el tamaño de la colección no dependa del número de iteraciones.
+	 */
+	@Setup(Level.Iteration)
+	public void createCollection() {
+		triplesCollection = new TriplesCollection(offHeap);
+	}
+
+	/**
+	 * Estado de cada hilo: el libro que analiza y la posición de la siguiente tripleta a guardar.
+	 */
+	@State(Scope.Thread)
+	public static class ParserState {
+
+		private static final AtomicInteger books = new AtomicInteger();
+
+		String book;
+
+		int next;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			int id = books.getAndIncrement();
+			book = "libro" + id;
+			next = id * 7919;
+		}
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void save1Thread(ParserState state) {
+		save(state);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void save4Threads(ParserState state) {
+		save(state);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public void save16Threads(ParserState state) {
+		save(state);
+	}
+
+	@Benchmark
+	@Threads(64)
+	public void save64Threads(ParserState state) {
+		save(state);
+	}
+
+	private void save(ParserState state) {
+		triplesCollection.save(triples[state.next++ & (TOTAL_TRIPLES - 1)], state.book);
+	}
+
+	/**
+	 * Obtiene una palabra de forma que las primeras son mucho más frecuentes que las últimas.
+	 */
+	private int getWord(Random random) {
+		double value = random.nextDouble();
+		return (int) (value * value * value * words);
+	}
+}
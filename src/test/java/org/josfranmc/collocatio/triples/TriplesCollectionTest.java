@@ -2,9 +2,16 @@ package org.josfranmc.collocatio.triples;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Test;
 
@@ -59,6 +66,172 @@ public class TriplesCollectionTest {
 		assertEquals("Atributo totalTriples no es 3", 3, tc.getTotalTriples());	
 	}
 	
+	/**
+	 * Comprueba que se guardan correctamente las tripletas acumuladas de un grupo de oraciones
+	 */
+	@Test
+	public void testSaveGroup() {
+		TriplesCollection tc = new TriplesCollection();
+		Map<Triple, Long> triples = new HashMap<Triple, Long>();
+		triples.put(getTriple1(), 3L);
+		triples.put(getTriple2(), 1L);
+		tc.save(triples, "111");
+		tc.save(getTriple1(), "222");
+		
+		TripleEvents t = tc.getTriplesCollection().get(getTriple1());
+		assertTrue("Identificador de libro erróneo", t.getBooks().contains("111"));
+		assertTrue("Identificador de libro erróneo", t.getBooks().contains("222"));
+		assertEquals("Valor de totalEvents no es 4", 4, t.getTotalEvents());
+		assertEquals("Valor de totalEvents no es 1", 1, tc.getTriplesCollection().get(getTriple2()).getTotalEvents());
+		assertEquals("Atributo totalTriples no es 5", 5, tc.getTotalTriples());
+	}
+	
+	/**
+	 * Comprueba que las tripletas descartadas por el filtro de dependencias no se guardan pero se suman al total de tripletas, también al
+	 * unir colecciones
+	 */
+	@Test
+	public void testAddDiscardedTriples() {
+		TriplesCollection tc = new TriplesCollection();
+		tc.save(getTriple1(), "111");
+		tc.addDiscardedTriples(4);
+		assertEquals("Número de tripletas guardadas erróneo", 1, tc.getTriplesCollection().size());
+		assertEquals("Atributo discardedTriples no es 4", 4, tc.getDiscardedTriples());
+		assertEquals("Atributo totalTriples no es 5", 5, tc.getTotalTriples());
+		
+		TriplesCollection merged = new TriplesCollection();
+		merged.merge(tc);
+		assertEquals("Atributo discardedTriples no es 4 tras unir colecciones", 4, merged.getDiscardedTriples());
+		assertEquals("Atributo totalTriples no es 5 tras unir colecciones", 5, merged.getTotalTriples());
+	}
+	
+	/**
+	 * Comprueba que el resultado de guardar tripletas desde varios hilos a la vez es el mismo que guardándolas desde un único hilo
+	 */
+	@Test
+	public void testConcurrentSave() throws InterruptedException {
+		final int totalThreads = 8;
+		final int savesByThread = 20000;
+		final TriplesCollection tc = new TriplesCollection();
+		ExecutorService executorService = Executors.newFixedThreadPool(totalThreads);
+		final CountDownLatch start = new CountDownLatch(1);
+		for (int i = 0; i < totalThreads; i++) {
+			final String book = String.valueOf(i);
+			executorService.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				for (int j = 0; j < savesByThread; j++) {
+					tc.save((j % 2 == 0) ? getTriple1() : getTriple2(), book);
+				}
+			});
+		}
+		start.countDown();
+		executorService.shutdown();
+		assertTrue("Los hilos no han terminado", executorService.awaitTermination(1, TimeUnit.MINUTES));
+
+		assertEquals("Atributo totalTriples erróneo", totalThreads * savesByThread, tc.getTotalTriples());
+		assertEquals("Valor de totalEvents erróneo", totalThreads * savesByThread / 2, tc.getTriplesCollection().get(getTriple1()).getTotalEvents());
+		assertEquals("Valor de totalEvents erróneo", totalThreads * savesByThread / 2, tc.getTriplesCollection().get(getTriple2()).getTotalEvents());
+		assertEquals("Número de libros erróneo", totalThreads, tc.getTriplesCollection().get(getTriple1()).getBooks().size());
+	}
+	
+	/**
+	 * Comprueba que la vista por tipo de dependencia sólo contiene las tripletas de ese tipo
+	 */
+	@Test
+	public void testGetTriplesCollectionByDependency() {
+		TriplesCollection tc = new TriplesCollection();
+		tc.save(getTriple1(), "111");
+		tc.save(getTriple2(), "111");
+		tc.save(getTriple2(), "222");
+
+		Map<Triple, TripleEvents> triples = tc.getTriplesCollection(getTriple2().getDependency());
+		assertEquals("Número de tripletas de la dependencia erróneo", 1, triples.size());
+		assertEquals("Valor de totalEvents no es 2", 2, triples.get(getTriple2()).getTotalEvents());
+		assertTrue("La tripleta no es de la dependencia", triples.get(getTriple1()) == null);
+		assertTrue("Tripleta errónea", triples.keySet().contains(getTriple2()));
+		assertTrue("No deberían existir tripletas de una dependencia no guardada", tc.getTriplesCollection("amod").isEmpty());
+		assertEquals("Número total de tripletas distintas erróneo", 2, tc.size());
+	}
+	
+	/**
+	 * Comprueba que los datos de frecuencia de cada tipo de dependencia se actualizan al guardar las tripletas
+	 */
+	@Test
+	public void testFrequencies() {
+		TriplesCollection tc = new TriplesCollection();
+		tc.save(getTriple1(), "111");
+		tc.save(getTriple2(), "222");
+		tc.save(getTriple2(), "222");
+		assertEquals("El total de 'dep' debe ser 2", 2, tc.getTotalTriples("dep"));
+		assertEquals("El total existente de 'un' debe ser 2", Long.valueOf(2), tc.getWord1Frequencies("dep").get("un"));
+		assertEquals("El total existente de 'ejemplo' debe ser 2", Long.valueOf(2), tc.getWord2Frequencies("dep").get("ejemplo"));
+		assertNull("'la' no debe aparecer en las tripletas de 'dep'", tc.getWord1Frequencies("dep").get("la"));
+		assertEquals("El total existente de 'prueba' debe ser 1", Long.valueOf(1), tc.getWord2Frequencies("nsubj").get("prueba"));
+
+		Map<Triple, Long> triples = new HashMap<Triple, Long>();
+		triples.put(getTriple1(), 2L);
+		tc.save(triples, "333");
+		TriplesCollection other = new TriplesCollection();
+		other.save(getTriple1(), "111");
+		tc.merge(other);
+		assertEquals("El total de 'nsubj' debe ser 4", 4, tc.getTotalTriples("nsubj"));
+		assertEquals("El total existente de 'la' debe ser 4", Long.valueOf(4), tc.getWord1Frequencies("nsubj").get("la"));
+		assertEquals("Número de palabras 2 de 'nsubj' erróneo", 1, tc.getWord2Frequencies("nsubj").size());
+		assertEquals("Frecuencias erróneas", Collections.singletonMap("prueba", 4L), tc.getWord2Frequencies("nsubj"));
+		assertEquals("No deberían existir tripletas de una dependencia no guardada", 0, tc.getTotalTriples("amod"));
+	}
+
+	/**
+	 * Comprueba que con palabras objetivo sólo se devuelven las tripletas que las contienen, pero las frecuencias incluyen todas las tripletas
+	 */
+	@Test
+	public void testGetTriplesCollectionWithTargetWords() {
+		TriplesCollection tc = new TriplesCollection();
+		tc.save(getTriple1(), "111");
+		Triple other = new Triple();
+		other.setDependency("nsubj");
+		other.setWord1("otra");
+		other.setWord2("prueba");
+		tc.save(other, "111");
+
+		Map<Triple, TripleEvents> triples = tc.getTriplesCollection("nsubj", Collections.singleton("la"));
+		assertEquals("Sólo debe devolverse la tripleta con la palabra objetivo", 1, triples.size());
+		assertTrue("No se encuentra la tripleta con la palabra objetivo", triples.containsKey(getTriple1()));
+		assertNull("No debe devolverse la tripleta sin palabra objetivo", triples.get(other));
+		assertEquals("El total de tripletas debe incluir todas las tripletas", 2, tc.getTotalTriples("nsubj"));
+		assertEquals("El total existente de 'prueba' debe ser 2", Long.valueOf(2), tc.getWord2Frequencies("nsubj").get("prueba"));
+		assertTrue("No deberían devolverse tripletas sin palabras objetivo registradas",
+				tc.getTriplesCollection("nsubj", Collections.singleton("ninguna")).isEmpty());
+	}
+
+	/**
+	 * Las tripletas de los tipos de dependencia a partir del 512, cuya clave tiene el bit de signo activado, deben poder consultarse
+	 */
+	@Test
+	public void testGetWithManyDependencies() {
+		TriplesCollection tc = new TriplesCollection();
+		for (int i = 0; i < 600; i++) {
+			Triple t = new Triple();
+			t.setDependency("dep" + i);
+			t.setWord1("la");
+			t.setWord2("prueba");
+			tc.save(t, "111", i + 1);
+		}
+		Triple t = new Triple();
+		t.setDependency("dep599");
+		t.setWord1("la");
+		t.setWord2("prueba");
+		assertEquals("Valor de totalEvents erróneo", 600, tc.getTriplesCollection().get(t).getTotalEvents());
+		assertEquals("Valor de totalEvents erróneo", 600, tc.getTriplesCollection("dep599").get(t).getTotalEvents());
+		assertTrue("No se encuentra la tripleta", tc.getTriplesCollection().containsKey(t));
+		t.setWord2("otra");
+		assertNull("No debería existir la tripleta", tc.getTriplesCollection().get(t));
+	}
+
 	/**
 	 * @return un objeto Triple de prueba
 	 */
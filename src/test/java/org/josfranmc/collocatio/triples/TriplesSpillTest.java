@@ -0,0 +1,182 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Clase que implementa los test para probar el volcado a disco de las tripletas (clase TriplesSpill)
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class TriplesSpillTest {
+
+	private File directory;
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("spill").toFile();
+	}
+
+	@After
+	public void tearDown() {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	/**
+	 * Comprueba que una colección que vuelca sus tripletas a disco contiene las mismas tripletas, apariciones, libros y frecuencias que una
+	 * colección en memoria, aunque una misma tripleta se haya repartido entre varios ficheros
+	 */
+	@Test
+	public void testSpillAndMerge() {
+		TriplesCollection memory = new TriplesCollection();
+		TriplesCollection spilled = new TriplesCollection(false, directory.getPath(), 50);
+		for (int i = 0; i < 2000; i++) {
+			Triple triple = TriplesTestData.getTriple((i % 3 == 0) ? "nsubj" : "amod", "w" + (i % 40), "v" + (i % 13));
+			String book = "spill" + (i % 5);
+			memory.save(triple, book);
+			spilled.save(triple, book);
+		}
+
+		assertTrue("Deberían haberse escrito ficheros de volcado", spilled.getTotalSpillRuns() > 1);
+		assertEquals("Atributo totalTriples erróneo", memory.getTotalTriples(), spilled.getTotalTriples());
+		assertEquals("Número de tripletas distintas erróneo", memory.size(), spilled.size());
+		assertEquals("Número de tripletas 'amod' erróneo", memory.getTriplesCollection("amod").size(), spilled.getTriplesCollection("amod").size());
+		assertEquals("Frecuencias de palabra 1 erróneas", memory.getWord1Frequencies("nsubj"), spilled.getWord1Frequencies("nsubj"));
+		assertEquals("Frecuencias de palabra 2 erróneas", memory.getWord2Frequencies("amod"), spilled.getWord2Frequencies("amod"));
+		int total = 0;
+		for (Map.Entry<Triple, TripleEvents> entry : spilled.getTriplesCollection().entrySet()) {
+			TripleEvents events = memory.getTriplesCollection().get(entry.getKey());
+			assertEquals("Valor de totalEvents erróneo para " + entry.getKey(), events.getTotalEvents(), entry.getValue().getTotalEvents());
+			assertEquals("Libros erróneos para " + entry.getKey(), events.getBooks(), entry.getValue().getBooks());
+			total++;
+		}
+		assertEquals("Número de tripletas recorridas erróneo", memory.size(), total);
+
+		Triple triple = TriplesTestData.getTriple("nsubj", "w3", "v3");
+		assertEquals("Valor de totalEvents erróneo", memory.getTriplesCollection().get(triple).getTotalEvents(),
+				spilled.getTriplesCollection("nsubj").get(triple).getTotalEvents());
+		assertNull("No debería existir la tripleta", spilled.getTriplesCollection().get(TriplesTestData.getTriple("nsubj", "w3", "v99")));
+
+		spilled.deleteSpillFiles();
+		assertEquals("Deberían haberse eliminado los ficheros de volcado", 0, directory.listFiles().length);
+	}
+
+	/**
+	 * Comprueba que el volcado no pierde tripletas cuando se produce mientras otros hilos siguen guardando tripletas. Con un umbral bajo y
+	 * más hilos que núcleos, cada volcado coincide con guardados de otros hilos, tanto de tripletas que ya estaban en memoria como nuevas
+	 */
+	@Test
+	public void testSpillWhileSaving() throws InterruptedException {
+		TriplesCollection memory = new TriplesCollection();
+		TriplesCollection spilled = new TriplesCollection(true, directory.getPath(), 20);
+		TriplesTestData.saveConcurrently(8, memory, spilled);
+		assertTrue("Deberían haberse producido varios volcados", spilled.getTotalSpillRuns() > 10);
+		TriplesTestData.assertSameTriples(memory, spilled);
+		spilled.deleteSpillFiles();
+	}
+
+	/**
+	 * Comprueba que un recorrido iniciado antes de un volcado puede terminar de leer la tabla fuera del heap que el volcado sustituye, ya
+	 * que la tabla no se libera hasta que termina el recorrido, y que después la colección sigue conteniendo todas las tripletas
+	 */
+	@Test
+	public void testSpillWhileReadingOffHeap() {
+		TriplesCollection memory = new TriplesCollection();
+		TriplesCollection spilled = new TriplesCollection(true, directory.getPath(), 50);
+		for (int i = 0; i < 40; i++) {
+			Triple triple = TriplesTestData.getTriple("nsubj", "w" + i, "v" + i);
+			memory.save(triple, "spill0");
+			spilled.save(triple, "spill0");
+		}
+		Iterator<Map.Entry<Triple, TripleEvents>> iterator = spilled.getTriplesCollection("nsubj").entrySet().iterator();
+		iterator.next();
+		for (int i = 0; i < 2000; i++) {
+			Triple triple = TriplesTestData.getTriple("nsubj", "w" + (i % 90), "v" + (i % 13));
+			memory.save(triple, "spill1");
+			spilled.save(triple, "spill1");
+		}
+		assertTrue("Deberían haberse escrito ficheros de volcado", spilled.getTotalSpillRuns() > 1);
+		int total = 1;
+		for (; iterator.hasNext(); iterator.next()) {
+			total++;
+		}
+		// la tabla sustituida contiene las 40 tripletas iniciales y las nuevas guardadas hasta alcanzar el umbral
+		assertTrue("El recorrido debería leer completa la tabla anterior al volcado", total >= 40 && total <= 50);
+		TriplesTestData.assertSameTriples(memory, spilled);
+		spilled.deleteSpillFiles();
+	}
+
+	/**
+	 * Comprueba que los recorridos que terminan antes de leer todas las tripletas, como las consultas de una tripleta o un recorrido
+	 * abandonado, cierran los ficheros de volcado. Sólo se ejecuta si el sistema permite contar los ficheros abiertos del proceso
+	 */
+	@Test
+	public void testEarlyStopClosesSpillFiles() throws IOException {
+		Assume.assumeTrue(new File("/proc/self/fd").isDirectory());
+		TriplesCollection spilled = new TriplesCollection(false, directory.getPath(), 50);
+		for (int i = 0; i < 2000; i++) {
+			spilled.save(TriplesTestData.getTriple("nsubj", "w" + (i % 40), "v" + (i % 13)), "spill" + (i % 5));
+		}
+		assertTrue("Deberían haberse escrito varios ficheros de volcado", spilled.getTotalSpillRuns() > 1);
+
+		Map<Triple, TripleEvents> triples = spilled.getTriplesCollection("nsubj");
+		for (int i = 0; i < 200; i++) {
+			assertTrue("No se encuentra la tripleta", triples.get(TriplesTestData.getTriple("nsubj", "w0", "v" + (i % 13))) != null);
+		}
+		Iterator<Map.Entry<Triple, TripleEvents>> iterator = spilled.getTriplesCollection().entrySet().iterator();
+		iterator.next();
+		((CloseableIterator<?>) iterator).close();
+		assertFalse("El recorrido cerrado no debería devolver más tripletas", iterator.hasNext());
+		assertEquals("Han quedado ficheros de volcado abiertos", 0, getOpenSpillFiles());
+		spilled.deleteSpillFiles();
+	}
+
+	/**
+	 * Comprueba que no se admite un umbral de volcado menor que uno
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidThreshold() {
+		new TriplesCollection(false, directory.getPath(), 0);
+	}
+
+	/**
+	 * @return número de ficheros de la carpeta de volcado abiertos por el proceso
+	 */
+	private int getOpenSpillFiles() throws IOException {
+		int open = 0;
+		try (DirectoryStream<Path> descriptors = Files.newDirectoryStream(Paths.get("/proc/self/fd"))) {
+			for (Path descriptor : descriptors) {
+				try {
+					if (Files.readSymbolicLink(descriptor).startsWith(directory.getCanonicalPath())) {
+						open++;
+					}
+				} catch (IOException e) {
+					// descriptor cerrado mientras se recorre la carpeta
+				}
+			}
+		}
+		return open;
+	}
+}
@@ -0,0 +1,85 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Datos de prueba comunes a los test de las distintas formas de guardar las tripletas (en el heap, fuera del heap y con volcado a disco).
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+final class TriplesTestData {
+
+	/**
+	 * Número de tareas que guardan tripletas
+	 */
+	static final int TASKS = 40;
+
+	/**
+	 * Número de tripletas que guarda cada tarea
+	 */
+	static final int SAVES = 500;
+
+
+	private TriplesTestData() {
+	}
+
+	/**
+	 * @return un objeto Triple con la dependencia y las palabras indicadas
+	 */
+	static Triple getTriple(String dependency, String word1, String word2) {
+		Triple triple = new Triple();
+		triple.setDependency(dependency);
+		triple.setWord1(word1);
+		triple.setWord2(word2);
+		return triple;
+	}
+
+	/**
+	 * Guarda las mismas tripletas en varias colecciones desde varios hilos. Cada una de las TASKS tareas guarda SAVES tripletas de tipo
+	 * 'nsubj' y 'amod' de uno de tres libros, repitiéndose muchas de ellas entre tareas y entre libros.
+	 * @param threads número de hilos
+	 * @param collections colecciones en las que guardar las tripletas
+	 */
+	static void saveConcurrently(int threads, TriplesCollection... collections) throws InterruptedException {
+		ExecutorService executorService = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < TASKS; i++) {
+			final String book = "libro" + (i % 3);
+			final int n = i;
+			executorService.execute(() -> {
+				for (int j = 0; j < SAVES; j++) {
+					Triple triple = getTriple((j % 2 == 0) ? "nsubj" : "amod", "w" + (j % 50), "w" + (n % 7));
+					for (TriplesCollection collection : collections) {
+						collection.save(triple, book);
+					}
+				}
+			});
+		}
+		executorService.shutdown();
+		assertTrue("Los hilos no han terminado", executorService.awaitTermination(1, TimeUnit.MINUTES));
+	}
+
+	/**
+	 * Comprueba que dos colecciones contienen las mismas tripletas, con las mismas apariciones y libros.
+	 * @param expected colección de referencia
+	 * @param actual colección a comprobar
+	 */
+	static void assertSameTriples(TriplesCollection expected, TriplesCollection actual) {
+		assertEquals("Atributo totalTriples erróneo", expected.getTotalTriples(), actual.getTotalTriples());
+		assertEquals("Número de tripletas distintas erróneo", expected.size(), actual.size());
+		assertEquals("Total de 'amod' erróneo", expected.getTotalTriples("amod"), actual.getTotalTriples("amod"));
+		int total = 0;
+		for (Map.Entry<Triple, TripleEvents> entry : actual.getTriplesCollection().entrySet()) {
+			TripleEvents events = expected.getTriplesCollection().get(entry.getKey());
+			assertEquals("Valor de totalEvents erróneo para " + entry.getKey(), events.getTotalEvents(), entry.getValue().getTotalEvents());
+			assertEquals("Libros erróneos para " + entry.getKey(), events.getBooks(), entry.getValue().getBooks());
+			total++;
+		}
+		assertEquals("Número de tripletas recorridas erróneo", expected.size(), total);
+	}
+}
@@ -0,0 +1,54 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase WindowTriplesExtractor
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class WindowTriplesExtractorTest {
+
+	/**
+	 * Si la ruta de los ficheros a procesar no existe se debe obtener IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenTextsPathWhenNotExistsThenIllegalArgumentException() {
+		WindowTriplesExtractor wte = new WindowTriplesExtractor();
+		wte.setTextsPathToProcess("ruta/inexistente");
+		wte.extractTriples();
+	}
+
+	/**
+	 * Comprueba que cada palabra se relaciona sólo con las palabras siguientes que están dentro de la ventana
+	 */
+	@Test
+	public void testCountWindow() {
+		Map<Triple, Long> triples = new HashMap<Triple, Long>();
+		WindowTriplesExtractor.countWindow(Arrays.asList("the", "car", "is", "blue"), 2, triples);
+		assertEquals("Número de tripletas erróneo", 5, triples.size());
+		assertEquals("Número de apariciones erróneo", Long.valueOf(1), triples.get(getTriple("the", "car")));
+		assertEquals("Número de apariciones erróneo", Long.valueOf(1), triples.get(getTriple("the", "is")));
+		assertEquals("Número de apariciones erróneo", Long.valueOf(1), triples.get(getTriple("is", "blue")));
+		assertNull("Tripleta fuera de la ventana", triples.get(getTriple("the", "blue")));
+		assertNull("Tripleta en orden inverso", triples.get(getTriple("car", "the")));
+
+		WindowTriplesExtractor.countWindow(Arrays.asList("the", "car"), 2, triples);
+		assertEquals("Número de apariciones erróneo", Long.valueOf(2), triples.get(getTriple("the", "car")));
+	}
+
+	private Triple getTriple(String word1, String word2) {
+		Triple triple = new Triple();
+		triple.setDependency(WindowTriplesExtractor.WINDOW_DEPENDENCY);
+		triple.setWord1(word1);
+		triple.setWord2(word2);
+		return triple;
+	}
+}
@@ -0,0 +1,80 @@
+package org.josfranmc.collocatio.triples;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase WordCounts
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class WordCountsTest {
+
+	/**
+	 * Comprueba los contadores, el número de palabras y su recorrido, incluidas palabras de páginas alejadas
+	 */
+	@Test
+	public void testAddAndGet() {
+		WordCounts counts = new WordCounts();
+		counts.add(3, 2);
+		counts.add(3, 5);
+		counts.add(100000, 1);
+		counts.add(0, 4);
+		assertEquals("Contador erróneo", 7, counts.get(3));
+		assertEquals("Contador erróneo", 1, counts.get(100000));
+		assertEquals("Contador erróneo", 0, counts.get(4));
+		assertEquals("Contador erróneo", 0, counts.get(5000000));
+		assertEquals("Número de palabras erróneo", 3, counts.size());
+		assertArrayEquals("Palabras erróneas", new int[] { 0, 3, 100000 }, counts.words());
+	}
+
+	/**
+	 * Comprueba los contadores de muchas palabras con identificadores dispersos en un vocabulario grande, que obligan a crecer a la tabla
+	 * de identificadores locales y al directorio de páginas
+	 */
+	@Test
+	public void testSparseWords() {
+		WordCounts counts = new WordCounts();
+		int[] expected = new int[5000];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = i * 20011;
+			counts.add(expected[i], i + 1);
+		}
+		for (int i = 0; i < expected.length; i++) {
+			assertEquals("Contador erróneo para " + expected[i], i + 1, counts.get(expected[i]));
+			assertEquals("Contador erróneo para " + (expected[i] + 1), 0, counts.get(expected[i] + 1));
+		}
+		assertEquals("Número de palabras erróneo", expected.length, counts.size());
+		assertArrayEquals("Palabras erróneas", expected, counts.words());
+	}
+
+	/**
+	 * Comprueba que no se pierden apariciones cuando varios hilos suman a la vez, mientras se crean páginas y crece el directorio
+	 */
+	@Test
+	public void testConcurrentAdd() throws InterruptedException {
+		final WordCounts counts = new WordCounts();
+		ExecutorService executorService = Executors.newFixedThreadPool(8);
+		for (int i = 0; i < 32; i++) {
+			executorService.execute(() -> {
+				for (int word = 0; word < 20000; word++) {
+					counts.add(word, 1);
+				}
+			});
+		}
+		executorService.shutdown();
+		assertTrue("Los hilos no han terminado", executorService.awaitTermination(1, TimeUnit.MINUTES));
+		assertEquals("Número de palabras erróneo", 20000, counts.size());
+		assertEquals("Número de palabras erróneo", 20000, counts.words().length);
+		for (int word = 0; word < 20000; word++) {
+			assertEquals("Contador erróneo para " + word, 32, counts.get(word));
+		}
+	}
+}
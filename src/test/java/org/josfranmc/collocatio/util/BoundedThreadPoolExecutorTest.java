@@ -0,0 +1,112 @@
+package org.josfranmc.collocatio.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Clase que implementa los test para probar los métodos de la clase BoundedThreadPoolExecutor
+ * @author Jose Francisco Mena Ceca
+ * @version 1.0
+ */
+public class BoundedThreadPoolExecutorTest {
+
+	/**
+	 * Si la capacidad es menor que uno se debe obtener IllegalArgumentException
+	 */
+	@Test(expected=IllegalArgumentException.class)
+	public void givenCapacityWhenLessThanOneThenIllegalArgumentException() {
+		new BoundedThreadPoolExecutor(1, 0, new LinkedBlockingQueue<Runnable>(), new ThreadFactoryBuilder().build());
+	}
+
+	/**
+	 * Comprueba que el envío de una tarea queda bloqueado mientras la cola está llena y que se desbloquea al terminar una tarea
+	 */
+	@Test
+	public void testExecuteBlocksWhenQueueIsFull() throws InterruptedException {
+		final BoundedThreadPoolExecutor executor = new BoundedThreadPoolExecutor(1, 1, new LinkedBlockingQueue<Runnable>(), new ThreadFactoryBuilder().build());
+		final CountDownLatch release = new CountDownLatch(1);
+		final CountDownLatch submitted = new CountDownLatch(1);
+
+		// la primera tarea ocupa el único hilo y la segunda el único hueco de la cola
+		executor.execute(() -> awaitQuietly(release));
+		executor.execute(() -> { });
+
+		Thread producer = new Thread(() -> {
+			executor.execute(() -> { });
+			submitted.countDown();
+		});
+		producer.start();
+
+		assertFalse("El envío de la tarea no se ha bloqueado con la cola llena", submitted.await(200, TimeUnit.MILLISECONDS));
+		release.countDown();
+		assertTrue("El envío de la tarea no se ha desbloqueado", submitted.await(5, TimeUnit.SECONDS));
+
+		executor.shutdown();
+		assertTrue("No han terminado las tareas", executor.awaitTermination(5, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Comprueba que con una cola de prioridad las tareas pendientes se ejecutan según el orden de la cola y no según el orden de envío
+	 */
+	@Test
+	public void testExecuteWithPriorityQueue() throws InterruptedException {
+		Comparator<Runnable> byCost = Comparator.comparingInt(r -> ((CostTask) r).cost);
+		final BoundedThreadPoolExecutor executor = new BoundedThreadPoolExecutor(1, 3, new PriorityBlockingQueue<Runnable>(3, byCost.reversed()), new ThreadFactoryBuilder().build());
+		final CountDownLatch release = new CountDownLatch(1);
+		final List<Integer> executed = new CopyOnWriteArrayList<Integer>();
+
+		// la primera tarea ocupa el único hilo mientras se encolan las demás
+		executor.execute(new CostTask(0, executed, () -> awaitQuietly(release)));
+		executor.execute(new CostTask(1, executed, null));
+		executor.execute(new CostTask(27, executed, null));
+		executor.execute(new CostTask(8, executed, null));
+		release.countDown();
+
+		executor.shutdown();
+		assertTrue("No han terminado las tareas", executor.awaitTermination(5, TimeUnit.SECONDS));
+		assertEquals("Orden de ejecución incorrecto", Arrays.asList(0, 27, 8, 1), executed);
+	}
+
+	/**
+	 * Tarea de prueba con un coste asociado
+	 */
+	private static class CostTask implements Runnable {
+		private final int cost;
+		private final List<Integer> executed;
+		private final Runnable body;
+
+		CostTask(int cost, List<Integer> executed, Runnable body) {
+			this.cost = cost;
+			this.executed = executed;
+			this.body = body;
+		}
+
+		@Override
+		public void run() {
+			if (body != null) {
+				body.run();
+			}
+			executed.add(cost);
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}